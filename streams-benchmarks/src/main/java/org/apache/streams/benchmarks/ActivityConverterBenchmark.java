@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.converter.ActivityConverterUtil;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.pojo.json.Activity;
+import org.apache.streams.rss.serializer.SyndEntryActivitySerializer;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of raw documents to activities.
+ *
+ * <p></p>
+ * The tweets and activities go through {@link ActivityConverterUtil}, which classifies each document and picks the
+ * converters registered on the classpath, both as JSON text and as an already parsed ObjectNode.  With the twitter
+ * provider on the classpath every document is also tried as a tweet, as it is in a stream that reads twitter and other
+ * sources.  RSS entries are
+ * not registered with ActivityConverterUtil, so syndEntry measures {@link SyndEntryActivitySerializer} as the rss
+ * provider uses it.  Each invocation converts the next document of the fixture.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityConverterBenchmark {
+
+  @State(Scope.Thread)
+  public static class Documents {
+
+    @Param({"TWEETS", "ACTIVITIES"})
+    public Fixture fixture;
+
+    ActivityConverterUtil converter;
+
+    List<String> json;
+
+    List<ObjectNode> trees;
+
+    int next;
+
+    @Setup
+    public void setup() throws Exception {
+      converter = ActivityConverterUtil.getInstance();
+      json = fixture.lines();
+      trees = parse(json);
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class SyndEntries {
+
+    SyndEntryActivitySerializer serializer;
+
+    List<ObjectNode> entries;
+
+    int next;
+
+    @Setup
+    public void setup() throws Exception {
+      serializer = new SyndEntryActivitySerializer();
+      entries = parse(Fixture.SYND_ENTRIES.lines());
+    }
+
+  }
+
+  @Benchmark
+  public List<Activity> convertString(Documents documents) {
+    return documents.converter.convert(documents.json.get(documents.next++ % documents.json.size()));
+  }
+
+  @Benchmark
+  public List<Activity> convertObjectNode(Documents documents) {
+    return documents.converter.convert(documents.trees.get(documents.next++ % documents.trees.size()));
+  }
+
+  @Benchmark
+  public Activity syndEntry(SyndEntries syndEntries) {
+    return syndEntries.serializer.deserialize(syndEntries.entries.get(syndEntries.next++ % syndEntries.entries.size()));
+  }
+
+  static List<ObjectNode> parse(List<String> lines) throws IOException {
+    StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
+    List<ObjectNode> trees = new ArrayList<>(lines.size());
+    for (String line : lines) {
+      trees.add(mapper.getReader(ObjectNode.class).readValue(line));
+    }
+    return trees;
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Documents the benchmarks run against, one JSON document per line.
+ *
+ * <p></p>
+ * The tweets come from the twitter converter tests, the activities from the activitystreams schema examples and the
+ * verbs tests, and the RSS entries are SyndEntrySerializer output for feeds listed in the rss provider tests.
+ */
+public enum Fixture {
+
+  TWEETS("tweets.txt"),
+  ACTIVITIES("activities.txt"),
+  SYND_ENTRIES("syndentries.txt");
+
+  private final List<String> lines;
+
+  Fixture(String resource) {
+    try (InputStream is = Fixture.class.getClassLoader().getResourceAsStream(resource)) {
+      if (is == null) {
+        throw new IllegalStateException("Missing fixture resource : " + resource);
+      }
+      List<String> nonEmpty = new ArrayList<>();
+      for (String line : IOUtils.readLines(is, StandardCharsets.UTF_8)) {
+        if (!line.trim().isEmpty()) {
+          nonEmpty.add(line);
+        }
+      }
+      this.lines = Collections.unmodifiableList(nonEmpty);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unable to read fixture resource : " + resource, ex);
+    }
+  }
+
+  public List<String> lines() {
+    return lines;
+  }
+
+  /**
+   * @param index any non-negative number, wrapped around the number of lines
+   * @return a line of the fixture
+   */
+  public String line(int index) {
+    return lines.get(index % lines.size());
+  }
+
+}
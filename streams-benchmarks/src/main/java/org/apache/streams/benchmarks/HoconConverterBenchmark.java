@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.converter.HoconConverterUtil;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.pojo.json.Activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a document with {@link HoconConverterUtil}, from JSON text and from an ObjectNode, compared with the
+ * per-document parse and render path it replaced.  The hocon is in src/main/resources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoconConverterBenchmark {
+
+  private static final String HOCON = "hocon-activity.conf";
+  private static final String JSON = "{\"id\":\"123\",\"text\":\"buncha stuff\",\"user\":{\"name\":\"guy\"}}";
+
+  private ObjectMapper mapper;
+
+  private ObjectNode tree;
+
+  @Setup
+  public void setup() throws Exception {
+    mapper = StreamsJacksonMapper.getInstance();
+    tree = mapper.readValue(JSON, ObjectNode.class);
+  }
+
+  /**
+   * The previous implementation: parse the resource, parse the document, render, parse again.
+   */
+  @Benchmark
+  public Object textPath() throws Exception {
+    Config hocon = ConfigFactory.parseResources(HOCON);
+    Config base = ConfigFactory.parseString(JSON);
+    Config resolved = hocon.withFallback(base).resolve();
+    String outJson = resolved.withOnlyPath("activity").root().get("activity").render(ConfigRenderOptions.concise());
+    return mapper.readValue(outJson, Activity.class);
+  }
+
+  @Benchmark
+  public Object compiledString() {
+    return HoconConverterUtil.getInstance().convert(JSON, Activity.class, HOCON, null, "activity");
+  }
+
+  @Benchmark
+  public Object compiledTree() {
+    return HoconConverterUtil.getInstance().convert(tree, Activity.class, HOCON, null, "activity");
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.converter.LineReadWriteUtil;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing the delimited lines used by the file based readers and writers, with the default layout of id,
+ * timestamp, sequence id, metadata and document.
+ *
+ * <p></p>
+ * Writes are measured with the document still as JSON text, which is written as is, and as an ObjectNode, which has
+ * to be rendered first.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineReadWriteBenchmark {
+
+  @State(Scope.Thread)
+  public static class Lines {
+
+    @Param({"TWEETS", "ACTIVITIES"})
+    public Fixture fixture;
+
+    LineReadWriteUtil util;
+
+    List<String> lines;
+
+    int next;
+
+    @Setup
+    public void setup() {
+      util = LineReadWriteUtil.getInstance();
+      lines = new ArrayList<>();
+      for (StreamsDatum datum : datums(fixture, false)) {
+        lines.add(util.convertResultToString(datum));
+      }
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class Datums {
+
+    @Param({"TWEETS", "ACTIVITIES"})
+    public Fixture fixture;
+
+    @Param({"json", "objectnode"})
+    public String document;
+
+    LineReadWriteUtil util;
+
+    List<StreamsDatum> datums;
+
+    final OutputStream out = NullOutputStream.NULL_OUTPUT_STREAM;
+
+    int next;
+
+    @Setup
+    public void setup() throws IOException {
+      util = LineReadWriteUtil.getInstance();
+      datums = datums(fixture, "objectnode".equals(document));
+    }
+
+  }
+
+  @Benchmark
+  public StreamsDatum processLine(Lines lines) {
+    return lines.util.processLine(lines.lines.get(lines.next++ % lines.lines.size()));
+  }
+
+  @Benchmark
+  public String convertResultToString(Datums datums) {
+    return datums.util.convertResultToString(datums.datums.get(datums.next++ % datums.datums.size()));
+  }
+
+  @Benchmark
+  public int writeLine(Datums datums) throws IOException {
+    return datums.util.writeLine(datums.datums.get(datums.next++ % datums.datums.size()), datums.out);
+  }
+
+  static List<StreamsDatum> datums(Fixture fixture, boolean parse) {
+    StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
+    List<StreamsDatum> datums = new ArrayList<>();
+    long timestamp = 1386800854000L;
+    for (String line : fixture.lines()) {
+      Object document = line;
+      if (parse) {
+        try {
+          document = mapper.readTree(line);
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }
+      StreamsDatum datum = new StreamsDatum(document, "id:" + datums.size(),
+          new DateTime(timestamp + datums.size() * 1000L, DateTimeZone.UTC), BigInteger.valueOf(datums.size()));
+      datum.getMetadata().put("source", "benchmark");
+      datum.getMetadata().put("attempt", "1");
+      datums.add(datum);
+    }
+    return datums;
+  }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.benchmarks.components.CountingWriter;
+import org.apache.streams.benchmarks.components.FixtureProvider;
+import org.apache.streams.benchmarks.components.PassthroughProcessor;
+import org.apache.streams.config.ComponentConfigurator;
+import org.apache.streams.converter.ActivityConverterProcessor;
+import org.apache.streams.core.StreamBuilder;
+import org.apache.streams.core.StreamsProcessor;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.builders.LocalStreamBuilder;
+import org.apache.streams.util.ComponentUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end throughput of a {@link LocalStreamBuilder} stream.
+ *
+ * <p></p>
+ * Every invocation runs a whole stream: a provider emits {@code messages} documents of the fixture, a chain of
+ * {@code stages} processors with {@code tasks} tasks each handles them, and {@code writers} writers count them.  With
+ * more than one writer the last processor fans out to all of them.  The first processor converts the documents to
+ * activities when {@code processor} is activity, every other processor passes the datums on unchanged.  The score is
+ * the time to run one stream, so datums per second are {@code messages} divided by the score.
+ *
+ * <p></p>
+ * The defaults keep a full run short.  Other topologies are chosen on the command line, for example
+ * {@code java -jar target/benchmarks.jar LocalStreamBuilderBenchmark -p stages=1,2,4 -p tasks=8 -p queueType=ring_buffer}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LocalStreamBuilderBenchmark {
+
+  private static final String DOMAIN = "org.apache.streams.local";
+
+  private static final String PROVIDER = "provider";
+
+  @Param({"TWEETS"})
+  public Fixture fixture;
+
+  @Param({"1000"})
+  public int messages;
+
+  @Param({"activity", "passthrough"})
+  public String processor;
+
+  @Param({"1", "3"})
+  public int stages;
+
+  @Param({"1", "4"})
+  public int tasks;
+
+  @Param({"1", "2"})
+  public int writers;
+
+  @Param({"linked"})
+  public String queueType;
+
+  @Param({"clone"})
+  public String fanOutMode;
+
+  @Param({"true"})
+  public boolean fuseProcessors;
+
+  private int run;
+
+  private StreamBuilder builder;
+
+  /**
+   * Builds the stream for the next invocation.  Every run gets its own identifier so the queues and counters it
+   * registers do not collide with those of the previous run.
+   */
+  @Setup(Level.Invocation)
+  public void setup() {
+    LocalRuntimeConfiguration configuration = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+    configuration.setIdentifier("benchmark-" + (++run));
+    configuration.setQueueType(LocalRuntimeConfiguration.QueueType.fromValue(queueType));
+    configuration.setFanOutMode(LocalRuntimeConfiguration.FanOutMode.fromValue(fanOutMode));
+    configuration.setFuseProcessors(fuseProcessors);
+    // tasks wake up on the end of stream marker, so short poll timeouts and no shutdown pause let a run end as soon
+    // as the last datum is written.  The monitor threads run until they are interrupted, without a wait for them
+    // every run would take at least monitorShutdownWaitMs longer.
+    configuration.setBatchFrequencyMs(1L);
+    configuration.setShutdownPauseMs(0L);
+    configuration.setMonitorShutdownWaitMs(0L);
+    configuration.setShutdownCheckDelay(10L);
+    configuration.setShutdownCheckInterval(10L);
+
+    builder = new LocalStreamBuilder(configuration);
+    builder.newReadCurrentStream(PROVIDER, new FixtureProvider(fixture, messages));
+    String upstream = PROVIDER;
+    for (int i = 0; i < stages; ++i) {
+      String id = "processor-" + i;
+      builder.addStreamsProcessor(id, stage(i), tasks, upstream);
+      upstream = id;
+    }
+    for (int i = 0; i < writers; ++i) {
+      builder.addStreamsPersistWriter(writerId(i), new CountingWriter(writerId(i)), 1, upstream);
+    }
+  }
+
+  @Benchmark
+  public void stream() {
+    builder.start();
+  }
+
+  /**
+   * Fails the run when a writer did not receive every datum, so a broken stream can not pass for a fast one.
+   */
+  @TearDown(Level.Invocation)
+  public void tearDown() throws Exception {
+    ComponentUtils.removeAllMBeansOfDomain(DOMAIN);
+    for (int i = 0; i < writers; ++i) {
+      long written = CountingWriter.reset(writerId(i));
+      if (written != messages) {
+        throw new IllegalStateException(writerId(i) + " received " + written + " of " + messages + " datums");
+      }
+    }
+  }
+
+  private StreamsProcessor stage(int index) {
+    if (index == 0 && "activity".equals(processor)) {
+      return new ActivityConverterProcessor();
+    }
+    return new PassthroughProcessor();
+  }
+
+  private static String writerId(int index) {
+    return "writer-" + index;
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.data.util.RFC3339Utils;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date parsing and formatting with {@link RFC3339Utils}, for the date formats found in the fixtures: RFC3339 with
+ * and without fractional seconds or an offset, the format of twitter's created_at, and a format that only the
+ * general purpose parsers understand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RFC3339UtilsBenchmark {
+
+  @Param({
+      "2014-01-10T10:30:00Z",
+      "2014-01-10T10:30:00.000Z",
+      "2014-01-10T10:30:00.123456-08:00",
+      "Wed Dec 11 22:27:34 +0000 2013",
+      "2014/01/10 10:30:00"
+  })
+  public String date;
+
+  private DateTime parsed;
+
+  @Setup
+  public void setup() {
+    parsed = RFC3339Utils.parseToUTC(date);
+  }
+
+  @Benchmark
+  public DateTime parseToUTC() {
+    return RFC3339Utils.parseToUTC(date);
+  }
+
+  @Benchmark
+  public String format() {
+    return RFC3339Utils.format(parsed);
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.pojo.json.Activity;
+import org.apache.streams.twitter.pojo.Tweet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.streams.twitter.converter.TwitterDateTimeFormat.TWITTER_FORMAT;
+
+/**
+ * Binding documents with {@link StreamsJacksonMapper}: tweets with the mapper configured for twitter's date format,
+ * activities with the default mapper.
+ *
+ * <p></p>
+ * readValue and writeValue go through the ObjectMapper methods, which look up the root deserializer or serializer
+ * on every call.  reader and writer use the ObjectReader and ObjectWriter cached by the mapper for the type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamsJacksonMapperBenchmark {
+
+  @Param({"TWEETS", "ACTIVITIES"})
+  public Fixture fixture;
+
+  private StreamsJacksonMapper mapper;
+
+  private Class<?> type;
+
+  private List<String> json;
+
+  private List<Object> beans;
+
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    if (fixture == Fixture.TWEETS) {
+      mapper = StreamsJacksonMapper.getInstance(Collections.singletonList(TWITTER_FORMAT));
+      type = Tweet.class;
+      // the last line of the fixture is a delete notice, not a tweet
+      json = fixture.lines().subList(0, fixture.lines().size() - 1);
+    } else {
+      mapper = StreamsJacksonMapper.getInstance();
+      type = Activity.class;
+      json = fixture.lines();
+    }
+    beans = new ArrayList<>();
+    for (String line : json) {
+      beans.add(mapper.readValue(line, type));
+    }
+  }
+
+  @Benchmark
+  public Object readValue() throws IOException {
+    return mapper.readValue(json.get(next++ % json.size()), type);
+  }
+
+  @Benchmark
+  public Object reader() throws IOException {
+    return mapper.getReader(type).readValue(json.get(next++ % json.size()));
+  }
+
+  @Benchmark
+  public JsonNode readTree() throws IOException {
+    return mapper.readTree(json.get(next++ % json.size()));
+  }
+
+  @Benchmark
+  public String writeValue() throws IOException {
+    return mapper.writeValueAsString(beans.get(next++ % beans.size()));
+  }
+
+  @Benchmark
+  public String writer() throws IOException {
+    return mapper.getWriter(type).writeValueAsString(beans.get(next++ % beans.size()));
+  }
+
+}
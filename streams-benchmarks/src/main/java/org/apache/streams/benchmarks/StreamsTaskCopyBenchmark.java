@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.config.StreamsConfiguration;
+import org.apache.streams.converter.ActivityConverterUtil;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.tasks.BaseStreamsTask;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the copies {@link BaseStreamsTask} makes when a component has several downstream components, for each
+ * {@link LocalRuntimeConfiguration.FanOutMode} and the document types providers usually emit.
+ *
+ * <p></p>
+ * copy measures a single copy.  fanOut sends a datum to three downstream queues, which takes two copies plus the
+ * queue operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamsTaskCopyBenchmark {
+
+  private static final int BRANCHES = 3;
+
+  @Param({"clone", "shared"})
+  public String fanOutMode;
+
+  @Param({"json", "objectnode", "activity"})
+  public String document;
+
+  private CopyingTask task;
+
+  private StreamsDatum datum;
+
+  @Setup
+  public void setup() throws Exception {
+    LocalRuntimeConfiguration configuration = new LocalRuntimeConfiguration()
+        .withFanOutMode(LocalRuntimeConfiguration.FanOutMode.fromValue(fanOutMode));
+    task = new CopyingTask(configuration);
+    for (int i = 0; i < BRANCHES; ++i) {
+      task.addOutputQueue(new LinkedBlockingQueue<>());
+    }
+    String tweet = Fixture.TWEETS.line(0);
+    Object doc;
+    switch (document) {
+      case "json":
+        doc = tweet;
+        break;
+      case "objectnode":
+        doc = StreamsJacksonMapper.getInstance().readTree(tweet);
+        break;
+      case "activity":
+        doc = ActivityConverterUtil.getInstance().convert(tweet).get(0);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown document type : " + document);
+    }
+    datum = new StreamsDatum(doc, "12345", new DateTime(1386800854000L, DateTimeZone.UTC), BigInteger.valueOf(12345L));
+    datum.getMetadata().put("source", "benchmark");
+    datum.getMetadata().put("received", new DateTime(DateTimeZone.UTC));
+    datum.getMetadata().put("attempt", 1L);
+  }
+
+  @Benchmark
+  public StreamsDatum copy() {
+    return task.copy(datum);
+  }
+
+  @Benchmark
+  public int fanOut() throws InterruptedException {
+    task.fanOut(datum);
+    int sent = 0;
+    for (BlockingQueue<StreamsDatum> queue : task.getOutputQueues()) {
+      sent += queue.size();
+      queue.clear();
+    }
+    return sent;
+  }
+
+  /**
+   * Exposes the fan out path of {@link BaseStreamsTask} without running a task thread.
+   */
+  static class CopyingTask extends BaseStreamsTask {
+
+    CopyingTask(StreamsConfiguration config) {
+      super(config);
+    }
+
+    StreamsDatum copy(StreamsDatum datum) {
+      return copyForFanOut(datum);
+    }
+
+    void fanOut(StreamsDatum datum) throws InterruptedException {
+      addToOutgoingQueue(datum);
+    }
+
+    @Override
+    public void run() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void stopTask() {
+    }
+
+    @Override
+    public void setStreamConfig(StreamsConfiguration config) {
+    }
+
+    @Override
+    public boolean isRunning() {
+      return false;
+    }
+
+    @Override
+    public void setStreamsTaskCounter(StreamsTaskCounter counter) {
+    }
+
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.queues.ThroughputQueueFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the queues connecting the components of a local stream, as selected by
+ * {@link LocalRuntimeConfiguration#getQueueType()}.
+ *
+ * <p></p>
+ * handoff passes datums from one producer thread to one consumer thread through a bounded queue, the way a provider
+ * task feeds a processor task.  offerPoll measures the uncontended cost of one datum in and out.  Both use the
+ * non-blocking methods so neither side can park forever when an iteration ends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThroughputQueueBenchmark {
+
+  @State(Scope.Group)
+  public static class QueueState {
+
+    @Param({"linked", "ring_buffer"})
+    public String queueType;
+
+    @Param({"1000"})
+    public int capacity;
+
+    BlockingQueue<StreamsDatum> queue;
+
+    final StreamsDatum datum = new StreamsDatum(Fixture.ACTIVITIES.line(0), "id");
+
+    /**
+     * A fresh queue for every iteration, so datums left over by the producer do not carry over.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+      LocalRuntimeConfiguration configuration = new LocalRuntimeConfiguration()
+          .withQueueType(LocalRuntimeConfiguration.QueueType.fromValue(queueType));
+      queue = ThroughputQueueFactory.forConfiguration(configuration).createQueue(capacity, null, "benchmark", 0L);
+    }
+
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public boolean offer(QueueState state) {
+    return state.queue.offer(state.datum);
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public StreamsDatum poll(QueueState state) {
+    return state.queue.poll();
+  }
+
+  @Benchmark
+  @Group("offerPoll")
+  public StreamsDatum offerPoll(QueueState state) {
+    state.queue.offer(state.datum);
+    return state.queue.poll();
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks.components;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsPersistWriter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StreamsPersistWriter that only counts the datums it receives.
+ *
+ * <p></p>
+ * Every task runs its own copy of the writer, so the copies add their counts to {@link #COUNTS} under the writer id
+ * when they are cleaned up.
+ */
+public class CountingWriter implements StreamsPersistWriter {
+
+  public static final String STREAMS_ID = "CountingWriter";
+
+  /**
+   * Datums written by all copies of a writer, by writer id.
+   */
+  public static final ConcurrentHashMap<String, AtomicLong> COUNTS = new ConcurrentHashMap<>();
+
+  private final String writerId;
+  private long counter = 0;
+
+  public CountingWriter(String writerId) {
+    this.writerId = writerId;
+  }
+
+  @Override
+  public String getId() {
+    return STREAMS_ID;
+  }
+
+  @Override
+  public void write(StreamsDatum entry) {
+    ++this.counter;
+  }
+
+  @Override
+  public void prepare(Object configurationObject) {
+    this.counter = 0;
+  }
+
+  @Override
+  public void cleanUp() {
+    COUNTS.computeIfAbsent(this.writerId, id -> new AtomicLong()).addAndGet(this.counter);
+  }
+
+  /**
+   * @param writerId writer id
+   * @return datums written under the writer id since the last reset, and resets the count
+   */
+  public static long reset(String writerId) {
+    AtomicLong count = COUNTS.remove(writerId);
+    return count == null ? 0 : count.get();
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.benchmarks.components;
+
+import org.apache.streams.benchmarks.Fixture;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsProvider;
+import org.apache.streams.core.StreamsResultSet;
+
+import org.joda.time.DateTime;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * StreamsProvider that emits a fixed number of datums, cycling through the documents of a {@link Fixture}.
+ */
+public class FixtureProvider implements StreamsProvider {
+
+  public static final String STREAMS_ID = "FixtureProvider";
+
+  private final Fixture fixture;
+  private final int messages;
+  private volatile boolean complete = false;
+
+  public FixtureProvider(Fixture fixture, int messages) {
+    this.fixture = fixture;
+    this.messages = messages;
+  }
+
+  @Override
+  public String getId() {
+    return STREAMS_ID;
+  }
+
+  @Override
+  public void startStream() {
+  }
+
+  @Override
+  public StreamsResultSet readCurrent() {
+    Queue<StreamsDatum> datums = new ArrayDeque<>(messages);
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < messages; ++i) {
+      datums.add(new StreamsDatum(fixture.line(i), Integer.toString(i), now, i));
+    }
+    this.complete = true;
+    return new StreamsResultSet(datums);
+  }
+
+  @Override
+  public StreamsResultSet readNew(BigInteger sequence) {
+    return readCurrent();
+  }
+
+  @Override
+  public StreamsResultSet readRange(DateTime start, DateTime end) {
+    return readCurrent();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return !this.complete;
+  }
+
+  @Override
+  public void prepare(Object configurationObject) {
+  }
+
+  @Override
+  public void cleanUp() {
+  }
+
+}
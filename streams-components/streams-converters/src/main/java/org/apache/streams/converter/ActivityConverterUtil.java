@@ -23,24 +23,28 @@ import org.apache.streams.data.ActivityConverter;
 import org.apache.streams.data.DocumentClassifier;
 import org.apache.streams.data.util.ActivityUtil;
 import org.apache.streams.exceptions.ActivityConversionException;
+import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.pojo.json.Activity;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -60,6 +64,13 @@ import java.util.concurrent.ConcurrentHashMap;
  * An ActivityConverter's reponsibility is to converting a raw document associated with an
  * incoming POJO class into an activity.
  *
+ * <p></p>
+ * Dispatch is resolved once per document shape: the classifiers worth running are cached by
+ * the document's top-level field names, and the converters worth trying are cached by the
+ * set of detected classes.  Only classifiers that declare {@link DocumentClassifier#requiredFields()}
+ * are ever skipped.  The classifiers shipped with streams, BaseDocumentClassifier and
+ * TwitterDocumentClassifier, must see every document, so with them only converter dispatch changes.
+ *
  */
 public class ActivityConverterUtil {
 
@@ -75,13 +86,24 @@ public class ActivityConverterUtil {
     return new ActivityConverterUtil(configuration);
   }
 
+  /*
+    Upper bound on cached dispatch entries, the least recently used entry is evicted
+    so a stream of very heterogeneous documents cannot grow a cache without limit.
+   */
+  static final int MAX_DISPATCH_CACHE_SIZE = 1024;
+
+  private ObjectMapper mapper = StreamsJacksonMapper.getInstance();
   private List<DocumentClassifier> classifiers = new LinkedList<>();
   private List<ActivityConverter> converters = new LinkedList<>();
 
+  private boolean conditionalClassifiers = false;
+  private Map<List<String>, List<DocumentClassifier>> classifierDispatch = Collections.synchronizedMap(new DispatchCache<>());
+  private Map<Set<Class>, List<ActivityConverter>> converterDispatch = Collections.synchronizedMap(new DispatchCache<>());
+
   /*
     Use getInstance to get a globally shared thread-safe ActivityConverterUtil,
-    rather than call this constructor.  Reflection-based resolution of
-    converters across all modules can be slow and should only happen
+    rather than call this constructor.  Resolution of converters
+    across all modules (see ConverterRegistry) should only happen
     once per JVM.
    */
   protected ActivityConverterUtil() {
@@ -104,7 +126,10 @@ public class ActivityConverterUtil {
 
     List<Activity> result = new ArrayList<>();
 
-    List<Class> detectedClasses = detectClasses(document);
+    // parse once, classifiers and conversions below share the tree
+    ObjectNode parsed = parse(document);
+
+    List<Class> detectedClasses = detectClasses(document, parsed);
 
     if ( detectedClasses.size() == 0 ) {
       LOGGER.warn("Unable to classify");
@@ -115,7 +140,7 @@ public class ActivityConverterUtil {
 
     // for each of these classes:
     //   use TypeUtil to switch the document to that type
-    Map<Class, Object> typedDocs = convertToDetectedClasses(detectedClasses, document);
+    Map<Class, Object> typedDocs = convertToDetectedClasses(detectedClasses, document, parsed);
 
     if ( typedDocs.size() == 0 ) {
       LOGGER.warn("Unable to convert to any detected Class");
@@ -124,8 +149,8 @@ public class ActivityConverterUtil {
       LOGGER.debug("Document has " + typedDocs.size() + " representations: " + typedDocs.toString());
     }
 
-    // for each specified / discovered converter
-    for ( ActivityConverter converter : converters ) {
+    // for each specified / discovered converter of a detected class
+    for ( ActivityConverter converter : dispatchConverters(typedDocs.keySet()) ) {
 
       Object typedDoc = typedDocs.get(converter.requiredClass());
 
@@ -187,15 +212,16 @@ public class ActivityConverterUtil {
   }
 
   protected List<Class> detectClasses(Object document) {
+    return detectClasses(document, parse(document));
+  }
 
-    // ConcurrentHashSet is preferable, but it's only in guava 15+
-    // spark 1.5.0 uses guava 14 so for the moment this is the workaround
-    // Set<Class> detectedClasses = new ConcurrentHashSet();
-    Set<Class> detectedClasses = Collections.newSetFromMap(new ConcurrentHashMap<Class, Boolean>());
+  protected List<Class> detectClasses(Object document, ObjectNode parsed) {
 
-    for ( DocumentClassifier classifier : classifiers ) {
+    Set<Class> detectedClasses = new LinkedHashSet<>();
+
+    for ( DocumentClassifier classifier : dispatchClassifiers(document, parsed) ) {
       try {
-        List<Class> detected = classifier.detectClasses(document);
+        List<Class> detected = classifier.detectClasses(document, parsed);
         if (detected != null && detected.size() > 0) {
           detectedClasses.addAll(detected);
         }
@@ -207,7 +233,95 @@ public class ActivityConverterUtil {
     return new ArrayList<>(detectedClasses);
   }
 
-  private Map<Class, Object> convertToDetectedClasses(List<Class> datumClasses, Object document) {
+  /**
+   * Classifiers that may detect something in the document, in registration order.
+   * @param document document to convert
+   * @param parsed the document parsed by {@link #parse(Object)}, or null
+   * @return classifiers whose required fields are all present in the document
+   */
+  protected List<DocumentClassifier> dispatchClassifiers(Object document, ObjectNode parsed) {
+    ObjectNode node = parsed;
+    if ( node == null && document instanceof ObjectNode ) {
+      node = (ObjectNode) document;
+    }
+    if ( node == null || !conditionalClassifiers ) {
+      return classifiers;
+    }
+
+    List<String> fingerprint = new ArrayList<>(node.size());
+    Iterator<String> fieldNames = node.fieldNames();
+    while ( fieldNames.hasNext() ) {
+      fingerprint.add(fieldNames.next());
+    }
+
+    List<DocumentClassifier> dispatched = classifierDispatch.get(fingerprint);
+    if ( dispatched == null ) {
+      Set<String> present = new HashSet<>(fingerprint);
+      dispatched = new ArrayList<>();
+      for ( DocumentClassifier classifier : classifiers ) {
+        if ( present.containsAll(classifier.requiredFields()) ) {
+          dispatched.add(classifier);
+        }
+      }
+      classifierDispatch.put(fingerprint, dispatched);
+    }
+    return dispatched;
+  }
+
+  /**
+   * Converters whose required class is among the detected classes, in registration order.
+   * @param detectedClasses classes the document could be converted to
+   * @return converters to apply
+   */
+  protected List<ActivityConverter> dispatchConverters(Set<Class> detectedClasses) {
+    List<ActivityConverter> dispatched = converterDispatch.get(detectedClasses);
+    if ( dispatched == null ) {
+      dispatched = new ArrayList<>();
+      for ( ActivityConverter converter : converters ) {
+        if ( detectedClasses.contains(converter.requiredClass()) ) {
+          dispatched.add(converter);
+        }
+      }
+      converterDispatch.put(new HashSet<>(detectedClasses), dispatched);
+    }
+    return dispatched;
+  }
+
+  /*
+    Access ordered, so the least recently used entry is the one evicted.
+   */
+  private static class DispatchCache<K, V> extends LinkedHashMap<K, V> {
+
+    DispatchCache() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > MAX_DISPATCH_CACHE_SIZE;
+    }
+  }
+
+  /**
+   * Parses a String document once for all classifiers and conversions.
+   * @param document document to convert
+   * @return the parsed document, or null if the document is not a String holding a JSON object
+   */
+  protected ObjectNode parse(Object document) {
+    if ( document instanceof String ) {
+      try {
+        JsonNode node = mapper.readTree((String) document);
+        if ( node != null && node.isObject() ) {
+          return (ObjectNode) node;
+        }
+      } catch (IOException ex) {
+        LOGGER.trace("Document is not JSON, classifiers will see the raw document", ex);
+      }
+    }
+    return null;
+  }
+
+  private Map<Class, Object> convertToDetectedClasses(List<Class> datumClasses, Object document, ObjectNode parsed) {
 
     Map<Class, Object> convertedDocuments = new HashMap<>();
     for ( Class detectedClass : datumClasses ) {
@@ -215,6 +329,8 @@ public class ActivityConverterUtil {
       Object typedDoc;
       if (detectedClass.isInstance(document)) {
         typedDoc = document;
+      } else if (parsed != null) {
+        typedDoc = TypeConverterUtil.getInstance().convertTree(parsed, detectedClass, mapper);
       } else {
         typedDoc = TypeConverterUtil.getInstance().convert(document, detectedClass);
       }
@@ -231,30 +347,22 @@ public class ActivityConverterUtil {
    * configure ActivityConverterUtil.
    */
   public void configure() {
-    Reflections reflections = new Reflections(new ConfigurationBuilder()
-        .setUrls(ClasspathHelper.forPackage("org.apache.streams"))
-        .setScanners(new SubTypesScanner()));
     if ( classifiers.size() == 0) {
-      Set<Class<? extends DocumentClassifier>> classifierClasses = reflections.getSubTypesOf(DocumentClassifier.class);
-      for (Class classifierClass : classifierClasses) {
-        try {
-          this.classifiers.add((DocumentClassifier) classifierClass.newInstance());
-        } catch (Exception ex) {
-          LOGGER.warn("Exception instantiating " + classifierClass);
-        }
-      }
+      this.classifiers.addAll(ConverterRegistry.load(DocumentClassifier.class));
     }
     Preconditions.checkArgument(classifiers.size() > 0);
     if ( converters.size() == 0) {
-      Set<Class<? extends ActivityConverter>> converterClasses = reflections.getSubTypesOf(ActivityConverter.class);
-      for (Class converterClass : converterClasses) {
-        try {
-          this.converters.add((ActivityConverter) converterClass.newInstance());
-        } catch (Exception ex) {
-          LOGGER.warn("Exception instantiating " + converterClass);
-        }
-      }
+      this.converters.addAll(ConverterRegistry.load(ActivityConverter.class));
     }
     Preconditions.checkArgument(this.converters.size() > 0);
+
+    conditionalClassifiers = false;
+    for ( DocumentClassifier classifier : classifiers ) {
+      if ( !classifier.requiredFields().isEmpty() ) {
+        conditionalClassifiers = true;
+      }
+    }
+    classifierDispatch.clear();
+    converterDispatch.clear();
   }
 }
@@ -25,10 +25,6 @@ import org.apache.streams.exceptions.ActivityConversionException;
 import org.apache.streams.pojo.json.ActivityObject;
 
 import com.google.common.base.Preconditions;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,8 +74,8 @@ public class ActivityObjectConverterUtil {
 
   /*
     Use getInstance to get a globally shared thread-safe ActivityConverterUtil,
-    rather than call this constructor.  Reflection-based resolution of
-    converters across all modules can be slow and should only happen
+    rather than call this constructor.  Resolution of converters
+    across all modules (see ConverterRegistry) should only happen
     once per JVM.
    */
   protected ActivityObjectConverterUtil() {
@@ -211,29 +207,12 @@ public class ActivityObjectConverterUtil {
    * configure ActivityObjectConverterUtil.
    */
   public void configure() {
-    Reflections reflections = new Reflections(new ConfigurationBuilder()
-        .setUrls(ClasspathHelper.forPackage("org.apache.streams"))
-        .setScanners(new SubTypesScanner()));
     if (classifiers.size() == 0) {
-      Set<Class<? extends DocumentClassifier>> classifierClasses = reflections.getSubTypesOf(DocumentClassifier.class);
-      for (Class classifierClass : classifierClasses) {
-        try {
-          this.classifiers.add((DocumentClassifier) classifierClass.newInstance());
-        } catch (Exception ex) {
-          LOGGER.warn("Exception instantiating " + classifierClass);
-        }
-      }
+      this.classifiers.addAll(ConverterRegistry.load(DocumentClassifier.class));
     }
     Preconditions.checkArgument(classifiers.size() > 0);
     if (converters.size() == 0) {
-      Set<Class<? extends ActivityObjectConverter>> converterClasses = reflections.getSubTypesOf(ActivityObjectConverter.class);
-      for (Class converterClass : converterClasses) {
-        try {
-          this.converters.add((ActivityObjectConverter) converterClass.newInstance());
-        } catch (Exception ex) {
-          LOGGER.warn("Exception instantiating " + converterClass);
-        }
-      }
+      this.converters.addAll(ConverterRegistry.load(ActivityObjectConverter.class));
     }
     Preconditions.checkArgument(this.converters.size() > 0);
   }
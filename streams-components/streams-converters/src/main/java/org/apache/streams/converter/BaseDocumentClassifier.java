@@ -24,7 +24,6 @@ import org.apache.streams.data.util.ActivityUtil;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.pojo.json.Activity;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,13 +36,17 @@ import java.util.List;
  * Ensures generic String and ObjectNode documents can be converted to Activity
  *
  * <p></p>
+ * Declares no {@link DocumentClassifier#requiredFields()}, every document is at least
+ * classified by its own type.
+ *
+ * <p></p>
  * BaseDocumentClassifier is included by default in all
  * @see org.apache.streams.converter.ActivityConverterProcessor
  *
  */
 public class BaseDocumentClassifier implements DocumentClassifier {
 
-  private ObjectMapper mapper = StreamsJacksonMapper.getInstance();
+  private StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseDocumentClassifier.class);
 
@@ -60,13 +63,13 @@ public class BaseDocumentClassifier implements DocumentClassifier {
     if ( document instanceof String ) {
       classes.add(String.class);
       try {
-        activity = this.mapper.readValue((String)document, Activity.class);
+        activity = this.mapper.getReader(Activity.class).readValue((String)document);
         if (activity != null && ActivityUtil.isValid(activity)) {
           classes.add(Activity.class);
         }
       } catch (IOException e1) {
         try {
-          node = this.mapper.readValue((String)document, ObjectNode.class);
+          node = this.mapper.getReader(ObjectNode.class).readValue((String)document);
           classes.add(ObjectNode.class);
         } catch (IOException ignored) {
           LOGGER.trace("ignoring ", ignored);
@@ -86,4 +89,26 @@ public class BaseDocumentClassifier implements DocumentClassifier {
 
   }
 
+  @Override
+  public List<Class> detectClasses(Object document, ObjectNode parsed) {
+
+    if ( parsed == null || !(document instanceof String) ) {
+      return detectClasses(document);
+    }
+
+    List<Class> classes = new ArrayList<>();
+    classes.add(String.class);
+    try {
+      Activity activity = this.mapper.getReader(Activity.class).readValue(parsed);
+      if (activity != null && ActivityUtil.isValid(activity)) {
+        classes.add(Activity.class);
+      }
+    } catch (IOException e1) {
+      classes.add(ObjectNode.class);
+    }
+
+    return classes;
+
+  }
+
 }
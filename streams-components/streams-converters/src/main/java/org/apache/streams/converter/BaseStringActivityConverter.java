@@ -25,7 +25,6 @@ import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.pojo.json.Activity;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,7 +46,7 @@ public class BaseStringActivityConverter implements ActivityConverter<String> {
 
   public static final Class requiredClass = String.class;
 
-  private ObjectMapper mapper = StreamsJacksonMapper.getInstance();
+  private StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
 
   @Override
   public Class requiredClass() {
@@ -62,7 +61,7 @@ public class BaseStringActivityConverter implements ActivityConverter<String> {
   @Override
   public String fromActivity(Activity deserialized) throws ActivityConversionException {
     try {
-      return mapper.writeValueAsString(deserialized);
+      return mapper.getWriter(Activity.class).writeValueAsString(deserialized);
     } catch (JsonProcessingException ex) {
       throw new ActivityConversionException();
     }
@@ -77,7 +76,7 @@ public class BaseStringActivityConverter implements ActivityConverter<String> {
   public List<Activity> toActivityList(String serialized) throws ActivityConversionException {
     List<Activity> activityList = new ArrayList<>();
     try {
-      activityList.add(mapper.readValue(serialized, Activity.class));
+      activityList.add(mapper.getReader(Activity.class).readValue(serialized));
     } catch (Exception ex) {
       throw new ActivityConversionException();
     }
@@ -24,7 +24,6 @@ import org.apache.streams.exceptions.ActivityConversionException;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.pojo.json.ActivityObject;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Ensures generic ObjectNode representation of an Activity can be converted to Activity.
@@ -38,7 +37,7 @@ public class BaseStringActivityObjectConverter implements ActivityObjectConverte
 
   public static Class requiredClass = String.class;
 
-  private ObjectMapper mapper = StreamsJacksonMapper.getInstance();
+  private StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
 
   @Override
   public Class requiredClass() {
@@ -53,7 +52,7 @@ public class BaseStringActivityObjectConverter implements ActivityObjectConverte
   @Override
   public String fromActivityObject(ActivityObject deserialized) throws ActivityConversionException {
     try {
-      return mapper.writeValueAsString(deserialized);
+      return mapper.getWriter(ActivityObject.class).writeValueAsString(deserialized);
     } catch (Exception ex) {
       throw new ActivityConversionException();
     }
@@ -62,7 +61,7 @@ public class BaseStringActivityObjectConverter implements ActivityObjectConverte
   @Override
   public ActivityObject toActivityObject(String serialized) throws ActivityConversionException {
     try {
-      return mapper.readValue(serialized, ActivityObject.class);
+      return mapper.getReader(ActivityObject.class).readValue(serialized);
     } catch (Exception ex) {
       throw new ActivityConversionException();
     }
@@ -0,0 +1,116 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+package org.apache.streams.converter;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ConverterRegistry instantiates the DocumentClassifiers, ActivityConverters and
+ * ActivityObjectConverters available on the classpath.
+ *
+ * <p></p>
+ * Modules register implementations in META-INF/services/&lt;interface name&gt;, which
+ * {@link ServiceLoader} reads without scanning any jar.  Classpath scanning of
+ * org.apache.streams is only used when no implementation of a type is registered,
+ * or when the system property {@value #SCAN_PROPERTY} is true.  Implementations
+ * without a META-INF/services entry are therefore not found unless that property
+ * is set, which is logged once as a warning.
+ */
+public class ConverterRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConverterRegistry.class);
+
+  public static final String SCAN_PROPERTY = "org.apache.streams.converter.scan";
+
+  private static final AtomicBoolean SCAN_SKIPPED_WARNED = new AtomicBoolean(false);
+
+  private ConverterRegistry() {
+  }
+
+  /**
+   * Instantiate every registered implementation of a type.
+   *
+   * @param type DocumentClassifier, ActivityConverter or ActivityObjectConverter
+   * @param <T> type
+   * @return a new instance of each implementation
+   */
+  public static <T> List<T> load(Class<T> type) {
+    List<T> instances = new ArrayList<>();
+    List<Class> loaded = new ArrayList<>();
+    Iterator<T> iterator = ServiceLoader.load(type, classLoader()).iterator();
+    while ( iterator.hasNext() ) {
+      try {
+        T instance = iterator.next();
+        instances.add(instance);
+        loaded.add(instance.getClass());
+      } catch (ServiceConfigurationError ex) {
+        LOGGER.warn("Exception instantiating registered " + type.getSimpleName(), ex);
+      }
+    }
+    if ( instances.size() == 0 || Boolean.getBoolean(SCAN_PROPERTY) ) {
+      LOGGER.debug("Scanning classpath for {}", type.getSimpleName());
+      for ( Class<? extends T> implementation : Scanner.REFLECTIONS.getSubTypesOf(type) ) {
+        if ( loaded.contains(implementation)
+            || implementation.isInterface()
+            || Modifier.isAbstract(implementation.getModifiers()) ) {
+          continue;
+        }
+        try {
+          instances.add(implementation.newInstance());
+        } catch (Exception ex) {
+          LOGGER.warn("Exception instantiating " + implementation);
+        }
+      }
+    } else if ( SCAN_SKIPPED_WARNED.compareAndSet(false, true) ) {
+      LOGGER.warn("Loading only DocumentClassifiers, ActivityConverters and ActivityObjectConverters registered in "
+          + "META-INF/services.  Implementations without a registration are skipped, register them or run with -D{}=true "
+          + "to also scan the classpath", SCAN_PROPERTY);
+    }
+    return instances;
+  }
+
+  private static ClassLoader classLoader() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return classLoader != null ? classLoader : ConverterRegistry.class.getClassLoader();
+  }
+
+  /*
+    Holder so the classpath is scanned at most once per JVM, and only when needed.
+   */
+  private static class Scanner {
+    private static final Reflections REFLECTIONS = new Reflections(new ConfigurationBuilder()
+        .setUrls(ClasspathHelper.forPackage("org.apache.streams"))
+        .setScanners(new SubTypesScanner()));
+  }
+
+}
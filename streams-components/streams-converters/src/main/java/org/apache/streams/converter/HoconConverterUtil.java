@@ -21,21 +21,42 @@ package org.apache.streams.converter;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Preconditions;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigList;
 import com.typesafe.config.ConfigObject;
 import com.typesafe.config.ConfigRenderOptions;
 import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * HoconConverterUtil supports HoconConverterProcessor in converting types via application
  * of hocon (https://github.com/typesafehub/config/blob/master/HOCON.md) scripts.
+ *
+ * <p></p>
+ * Each hocon resource is parsed once and cached.  Documents are handed to the hocon as
+ * config values built straight from their Jackson tree, and results are read back into a
+ * Jackson tree, so no document is written to and re-parsed from JSON text unless a String
+ * result is requested.
  */
 public class HoconConverterUtil {
 
@@ -45,23 +66,54 @@ public class HoconConverterUtil {
 
   private static final HoconConverterUtil INSTANCE = new HoconConverterUtil();
 
+  private static final JsonNodeFactory NODES = mapper.getNodeFactory();
+
+  /*
+    Same key order as ConfigObject.render, so trees match what parsing the
+    rendered JSON used to produce.
+   */
+  private static final Comparator<String> RENDER_ORDER = new Comparator<String>() {
+    @Override
+    public int compare(String left, String right) {
+      boolean leftDigits = isAllDigits(left);
+      boolean rightDigits = isAllDigits(right);
+      if ( leftDigits && rightDigits ) {
+        return new BigInteger(left).compareTo(new BigInteger(right));
+      } else if ( leftDigits ) {
+        return -1;
+      } else if ( rightDigits ) {
+        return 1;
+      } else {
+        return left.compareTo(right);
+      }
+    }
+  };
+
+  private final Map<String, Config> compiled = new ConcurrentHashMap<>();
+
   public static HoconConverterUtil getInstance() {
     return INSTANCE;
   }
 
+  /**
+   * Parse a hocon resource, or return the result of an earlier parse of it.
+   * @param hoconResource classpath resource
+   * @return parsed and cached hocon
+   */
+  public Config compile(String hoconResource) {
+    return compiled.computeIfAbsent(hoconResource, ConfigFactory::parseResources);
+  }
+
   public Object convert(Object object, Class outClass, String hoconResource) {
-    Config hocon = ConfigFactory.parseResources(hoconResource);
-    return convert(object, outClass, hocon, null);
+    return convert(object, outClass, compile(hoconResource), null);
   }
 
   public Object convert(Object object, Class outClass, String hoconResource, String outPath) {
-    Config hocon = ConfigFactory.parseResources(hoconResource);
-    return convert(object, outClass, hocon, outPath);
+    return convert(object, outClass, compile(hoconResource), outPath);
   }
 
   public Object convert(Object object, Class outClass, String hoconResource, String inPath, String outPath) {
-    Config hocon = ConfigFactory.parseResources(hoconResource);
-    return convert(object, outClass, hocon, inPath, outPath);
+    return convert(object, outClass, compile(hoconResource), inPath, outPath);
   }
 
   public Object convert(Object object, Class outClass, Config hocon, String outPath) {
@@ -78,6 +130,65 @@ public class HoconConverterUtil {
    * @return result
    */
   public Object convert(Object object, Class outClass, Config hocon, String inPath, String outPath) {
+    JsonNode node = toTree(object);
+    if ( node == null || !node.isObject() ) {
+      // not a JSON object, let the hocon parser have a go at it as before
+      return convertText(object, outClass, hocon, inPath, outPath);
+    }
+
+    Map<String, Object> document = unwrap((ObjectNode) node);
+    Config base;
+    try {
+      if ( inPath == null ) {
+        base = ConfigValueFactory.fromMap(document).toConfig();
+      } else {
+        base = ConfigValueFactory.fromMap(Collections.<String, Object>singletonMap(inPath, document)).toConfig();
+      }
+    } catch (Exception ex) {
+      LOGGER.warn("Failed to convert:", object);
+      LOGGER.warn(ex.getMessage());
+      return null;
+    }
+
+    ConfigValue outValue = apply(hocon, base, outPath, node);
+    if ( outValue == null ) {
+      return null;
+    }
+    if ( outClass == String.class ) {
+      return outValue.render(ConfigRenderOptions.concise());
+    }
+    JsonNode outNode = toTree(outValue);
+    if ( outClass.isInstance(outNode) ) {
+      return outNode;
+    }
+    try {
+      return TypeConverterUtil.reader(mapper, outClass).readValue(outNode);
+    } catch (IOException ex) {
+      LOGGER.warn("Failed to convert:", object);
+      return null;
+    }
+  }
+
+  private ConfigValue apply(Config hocon, Config base, String outPath, Object input) {
+    try {
+      Config resolved = hocon.withFallback(base).resolve();
+      if ( outPath == null ) {
+        return resolved.root();
+      } else {
+        ConfigObject outObject = resolved.withOnlyPath(outPath).root();
+        return outObject.get(outPath);
+      }
+    } catch (Exception ex) {
+      LOGGER.warn("Failed to convert:", input);
+      LOGGER.warn(ex.getMessage());
+      return null;
+    }
+  }
+
+  /*
+    Previous implementation, kept for String documents that are hocon rather than JSON.
+   */
+  private Object convertText(Object object, Class outClass, Config hocon, String inPath, String outPath) {
     String json;
     Object outDoc = null;
     if ( object instanceof String ) {
@@ -92,47 +203,118 @@ public class HoconConverterUtil {
     }
 
     Config base;
-    if( inPath == null) {
+    try {
+      // only a JSON object can be nested under inPath, and this input is not one
+      Preconditions.checkArgument(inPath == null);
       base = ConfigFactory.parseString(json);
-    } else {
-      ObjectNode node;
+    } catch (Exception ex) {
+      LOGGER.warn("Failed to process input:", object);
+      return outDoc;
+    }
+
+    ConfigValue outValue = apply(hocon, base, outPath, json);
+    String outJson = outValue != null ? outValue.render(ConfigRenderOptions.concise()) : null;
+    if ( outClass == String.class )
+      return outJson;
+    else {
       try {
-        node = mapper.readValue(json, ObjectNode.class);
-        ObjectNode root = mapper.createObjectNode();
-        root.set(inPath, node);
-        json = mapper.writeValueAsString(root);
-        base = ConfigFactory.parseString(json);
+        outDoc = mapper.readValue( outJson, outClass );
       } catch (Exception ex) {
-        LOGGER.warn("Failed to process input:", object);
-        return outDoc;
+        LOGGER.warn("Failed to convert:", object);
       }
     }
+    return outDoc;
+  }
 
-    Config converted = hocon.withFallback(base);
-
-    String outJson = null;
+  private JsonNode toTree(Object object) {
     try {
-      if( outPath == null ) {
-        outJson = converted.resolve().root().render(ConfigRenderOptions.concise());
+      if ( object instanceof String ) {
+        return mapper.readTree((String) object);
+      } else if ( object instanceof JsonNode ) {
+        return (JsonNode) object;
       } else {
-        Config resolved = converted.resolve();
-        ConfigObject outObject = resolved.withOnlyPath(outPath).root();
-        ConfigValue outValue = outObject.get(outPath);
-        outJson = outValue.render(ConfigRenderOptions.concise());
+        return mapper.valueToTree(object);
       }
     } catch (Exception ex) {
-      LOGGER.warn("Failed to convert:", json);
-      LOGGER.warn(ex.getMessage());
+      LOGGER.trace("Input is not JSON", ex);
+      return null;
     }
-    if ( outClass == String.class )
-      return outJson;
-    else {
-      try {
-        outDoc = mapper.readValue( outJson, outClass );
-      } catch (IOException ex) {
-        LOGGER.warn("Failed to convert:", object);
+  }
+
+  private static Map<String, Object> unwrap(ObjectNode node) {
+    Map<String, Object> map = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while ( fields.hasNext() ) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      map.put(field.getKey(), unwrap(field.getValue()));
+    }
+    return map;
+  }
+
+  private static Object unwrap(JsonNode node) {
+    if ( node.isObject() ) {
+      return unwrap((ObjectNode) node);
+    } else if ( node.isArray() ) {
+      List<Object> list = new ArrayList<>(node.size());
+      for ( JsonNode element : node ) {
+        list.add(unwrap(element));
       }
+      return list;
+    } else if ( node.isNumber() ) {
+      return node.numberValue();
+    } else if ( node.isBoolean() ) {
+      return node.booleanValue();
+    } else if ( node.isNull() || node.isMissingNode() ) {
+      return null;
+    } else {
+      return node.asText();
     }
-    return outDoc;
+  }
+
+  private static JsonNode toTree(ConfigValue value) {
+    switch ( value.valueType() ) {
+      case OBJECT:
+        ConfigObject object = (ConfigObject) value;
+        List<String> keys = new ArrayList<>(object.keySet());
+        Collections.sort(keys, RENDER_ORDER);
+        ObjectNode objectNode = NODES.objectNode();
+        for ( String key : keys ) {
+          objectNode.set(key, toTree(object.get(key)));
+        }
+        return objectNode;
+      case LIST:
+        ArrayNode arrayNode = NODES.arrayNode();
+        for ( ConfigValue element : (ConfigList) value ) {
+          arrayNode.add(toTree(element));
+        }
+        return arrayNode;
+      case NUMBER:
+        Number number = (Number) value.unwrapped();
+        if ( number instanceof Integer ) {
+          return NODES.numberNode(number.intValue());
+        } else if ( number instanceof Long ) {
+          return NODES.numberNode(number.longValue());
+        } else {
+          return NODES.numberNode(number.doubleValue());
+        }
+      case BOOLEAN:
+        return NODES.booleanNode((Boolean) value.unwrapped());
+      case NULL:
+        return NODES.nullNode();
+      default:
+        return NODES.textNode((String) value.unwrapped());
+    }
+  }
+
+  private static boolean isAllDigits(String key) {
+    if ( key.isEmpty() ) {
+      return false;
+    }
+    for ( int i = 0; i < key.length(); i++ ) {
+      if ( !Character.isDigit(key.charAt(i)) ) {
+        return false;
+      }
+    }
+    return true;
   }
 }
@@ -24,15 +24,22 @@ import org.apache.streams.jackson.StreamsJacksonMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Joiner;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +47,11 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * LineReadWriteUtil converts Datums to/from character array appropriate for writing to
  * file systems.
+ *
+ * <p></p>
+ * The field layout is resolved once per configuration.  Lines are split on the literal
+ * field delimiter one character at a time, and written through a per-thread buffer
+ * that can be encoded straight to an OutputStream.
  */
 public class LineReadWriteUtil {
 
@@ -47,9 +59,27 @@ public class LineReadWriteUtil {
 
   private static Map<LineReadWriteConfiguration, LineReadWriteUtil> INSTANCE_MAP = new ConcurrentHashMap<>();
 
+  private static final int ABSENT = -1;
+  private static final int BUFFER_SIZE = 8192;
+
   private List<String> fields;
   private String fieldDelimiter = "\t";
   private String lineDelimiter = "\n";
+  private Charset charset = StandardCharsets.UTF_8;
+
+  // position of each datum field within a line, ABSENT when the layout leaves it out
+  private int idIndex = ABSENT;
+  private int seqIndex = ABSENT;
+  private int tsIndex = ABSENT;
+  private int metaIndex = ABSENT;
+  private int docIndex = ABSENT;
+
+  private final ThreadLocal<LineBuffer> buffers = new ThreadLocal<LineBuffer>() {
+    @Override
+    protected LineBuffer initialValue() {
+      return new LineBuffer(charset);
+    }
+  };
 
   private static ObjectMapper MAPPER = StreamsJacksonMapper.getInstance();
 
@@ -61,6 +91,14 @@ public class LineReadWriteUtil {
     this.fieldDelimiter = configuration.getFieldDelimiter();
     this.lineDelimiter = configuration.getLineDelimiter();
     String encoding = configuration.getEncoding();
+    if ( StringUtils.isNotBlank(encoding) ) {
+      this.charset = Charset.forName(encoding);
+    }
+    this.idIndex = fields.indexOf(FieldConstants.ID);
+    this.seqIndex = fields.indexOf(FieldConstants.SEQ);
+    this.tsIndex = fields.indexOf(FieldConstants.TS);
+    this.metaIndex = fields.indexOf(FieldConstants.META);
+    this.docIndex = fields.indexOf(FieldConstants.DOC);
   }
 
   public static LineReadWriteUtil getInstance() {
@@ -87,14 +125,26 @@ public class LineReadWriteUtil {
    * @return result
    */
   public StreamsDatum processLine(String line) {
+    return processLine((CharSequence) line);
+  }
+
+  /**
+   * processLine, for lines held in a reusable buffer such as a CharBuffer or StringBuilder.
+   * @param line
+   * @return result
+   */
+  public StreamsDatum processLine(CharSequence line) {
 
-    List<String> expectedFields = fields;
-    if ( line.endsWith(lineDelimiter)) {
-      line = trimLineDelimiter(line);
+    int length = line.length();
+    if ( endsWith(line, lineDelimiter) ) {
+      length -= lineDelimiter.length();
     }
-    String[] parsedFields = line.split(fieldDelimiter);
 
-    if (parsedFields.length == 0) {
+    // start and end offsets of each field in the layout
+    int[] offsets = new int[fields.size() * 2];
+    int parsed = tokenize(line, length, offsets);
+
+    if (parsed == 0) {
       return null;
     }
 
@@ -104,30 +154,24 @@ public class LineReadWriteUtil {
     Map<String, Object> metadata = null;
     String json = null;
 
-    if ( expectedFields.contains( FieldConstants.DOC )
-        && parsedFields.length > expectedFields.indexOf(FieldConstants.DOC)) {
-      json = parsedFields[expectedFields.indexOf(FieldConstants.DOC)];
+    if ( docIndex != ABSENT && parsed > docIndex ) {
+      json = field(line, offsets, docIndex);
     }
-
-    if ( expectedFields.contains( FieldConstants.ID )
-        && parsedFields.length > expectedFields.indexOf(FieldConstants.ID)) {
-      id = parsedFields[expectedFields.indexOf(FieldConstants.ID)];
+    if ( idIndex != ABSENT && parsed > idIndex ) {
+      id = field(line, offsets, idIndex);
     }
-    if ( expectedFields.contains( FieldConstants.SEQ )
-        && parsedFields.length > expectedFields.indexOf(FieldConstants.SEQ)) {
+    if ( seqIndex != ABSENT && parsed > seqIndex ) {
       try {
-        seq = new BigInteger(parsedFields[expectedFields.indexOf(FieldConstants.SEQ)]);
+        seq = new BigInteger(field(line, offsets, seqIndex));
       } catch ( NumberFormatException nfe ) {
         LOGGER.warn("invalid sequence number {}", nfe);
       }
     }
-    if ( expectedFields.contains( FieldConstants.TS )
-        && parsedFields.length > expectedFields.indexOf(FieldConstants.TS)) {
-      ts = parseTs(parsedFields[expectedFields.indexOf(FieldConstants.TS)]);
+    if ( tsIndex != ABSENT && parsed > tsIndex ) {
+      ts = parseTs(field(line, offsets, tsIndex));
     }
-    if ( expectedFields.contains( FieldConstants.META )
-        && parsedFields.length > expectedFields.indexOf(FieldConstants.META)) {
-      metadata = parseMap(parsedFields[expectedFields.indexOf(FieldConstants.META)]);
+    if ( metaIndex != ABSENT && parsed > metaIndex ) {
+      metadata = parseMap(field(line, offsets, metaIndex));
     }
 
     StreamsDatum datum = new StreamsDatum(json);
@@ -139,19 +183,79 @@ public class LineReadWriteUtil {
 
   }
 
+  /**
+   * Read the next line into a reusable buffer, so reading a file allocates nothing per line
+   * beyond the fields parsed from it.  Like BufferedReader.readLine, a line ends at '\n' and
+   * a preceding '\r' is dropped.
+   * @param in reader, which should be buffered
+   * @param line buffer that receives the line without its terminator, cleared first
+   * @return false once the reader is exhausted and nothing was read
+   * @throws IOException IOException
+   */
+  public boolean readLine(Reader in, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int next = in.read();
+    if ( next == -1 ) {
+      return false;
+    }
+    while ( next != -1 && next != '\n' ) {
+      line.append((char) next);
+      next = in.read();
+    }
+    if ( line.length() > 0 && line.charAt(line.length() - 1) == '\r' ) {
+      line.setLength(line.length() - 1);
+    }
+    return true;
+  }
+
   /**
    * convertResultToString
    * @param entry
    * @return result
    */
   public String convertResultToString(StreamsDatum entry) {
-    String metadataJson = null;
-    try {
-      metadataJson = MAPPER.writeValueAsString(entry.getMetadata());
-    } catch (JsonProcessingException ex) {
-      LOGGER.warn("Error converting metadata to a string", ex);
+    StringBuilder line = buffers.get().chars();
+    if ( !appendFields(entry, line) ) {
+      return null;
     }
+    return line.toString();
+  }
 
+  /**
+   * Append a datum and the line delimiter to an Appendable, such as a Writer.
+   * @param entry
+   * @param out
+   * @return number of characters appended, 0 if the datum has no document
+   * @throws IOException IOException
+   */
+  public int writeLine(StreamsDatum entry, Appendable out) throws IOException {
+    StringBuilder line = buffers.get().chars();
+    if ( !appendFields(entry, line) ) {
+      return 0;
+    }
+    line.append(lineDelimiter);
+    out.append(line);
+    return line.length();
+  }
+
+  /**
+   * Encode a datum and the line delimiter straight to an OutputStream, in the configured encoding.
+   * @param entry
+   * @param out
+   * @return number of bytes written, 0 if the datum has no document
+   * @throws IOException IOException
+   */
+  public int writeLine(StreamsDatum entry, OutputStream out) throws IOException {
+    LineBuffer buffer = buffers.get();
+    StringBuilder line = buffer.chars();
+    if ( !appendFields(entry, line) ) {
+      return 0;
+    }
+    line.append(lineDelimiter);
+    return buffer.encode(line, out);
+  }
+
+  private boolean appendFields(StreamsDatum entry, StringBuilder line) {
     String documentJson = null;
     try {
       if ( entry.getDocument() instanceof String ) {
@@ -164,40 +268,99 @@ public class LineReadWriteUtil {
     }
 
     if (StringUtils.isBlank(documentJson)) {
-      return null;
-    } else {
-      StringBuilder stringBuilder = new StringBuilder();
-      Iterator<String> fields = this.fields.iterator();
-      List<String> fielddata = new ArrayList<>();
-      Joiner joiner = Joiner.on(fieldDelimiter).useForNull("");
-      while( fields.hasNext() ) {
-        String field = fields.next();
-        if ( field.equals(FieldConstants.DOC) ) {
-          fielddata.add(documentJson);
-        } else if ( field.equals(FieldConstants.ID) ) {
-          fielddata.add(entry.getId());
-        } else if ( field.equals(FieldConstants.SEQ) ) {
-          if (entry.getSequenceid() != null) {
-            fielddata.add(entry.getSequenceid().toString());
-          } else {
-            fielddata.add("null");
-          }
-        } else if ( field.equals(FieldConstants.TS) ) {
-          if (entry.getTimestamp() != null) {
-            fielddata.add(entry.getTimestamp().toString());
-          } else {
-            fielddata.add(DateTime.now().toString());
-          }
-        } else if ( field.equals(FieldConstants.META) ) {
-          fielddata.add(metadataJson);
-        } else if ( entry.getMetadata().containsKey(field)) {
-          fielddata.add(entry.getMetadata().get(field).toString());
+      return false;
+    }
+
+    for ( int i = 0; i < fields.size(); i++ ) {
+      if ( i > 0 ) {
+        line.append(fieldDelimiter);
+      }
+      if ( i == docIndex ) {
+        line.append(documentJson);
+      } else if ( i == idIndex ) {
+        appendNullable(line, entry.getId());
+      } else if ( i == seqIndex ) {
+        line.append(entry.getSequenceid());
+      } else if ( i == tsIndex ) {
+        if (entry.getTimestamp() != null) {
+          line.append(entry.getTimestamp().toString());
         } else {
-          fielddata.add(null);
+          line.append(DateTime.now().toString());
+        }
+      } else if ( i == metaIndex ) {
+        try {
+          appendNullable(line, MAPPER.writeValueAsString(entry.getMetadata()));
+        } catch (JsonProcessingException ex) {
+          LOGGER.warn("Error converting metadata to a string", ex);
+        }
+      } else if ( entry.getMetadata().containsKey(fields.get(i)) ) {
+        appendNullable(line, entry.getMetadata().get(fields.get(i)));
+      }
+    }
+    return true;
+  }
+
+  /*
+    Splits line[0, length) on the literal field delimiter, recording offsets of the
+    fields in the layout.  Returns the number of fields String.split would have
+    returned, which drops trailing empty fields.
+   */
+  private int tokenize(CharSequence line, int length, int[] offsets) {
+    int delimiterLength = fieldDelimiter.length();
+    int count = 0;
+    int parsed = 0;
+    int start = 0;
+    int position = 0;
+    boolean split = false;
+    while ( position <= length ) {
+      boolean end = position == length;
+      if ( end || (delimiterLength > 0 && regionMatches(line, position, length, fieldDelimiter)) ) {
+        if ( count < fields.size() ) {
+          offsets[count * 2] = start;
+          offsets[count * 2 + 1] = position;
+        }
+        count++;
+        if ( position > start ) {
+          parsed = count;
+        }
+        if ( end ) {
+          break;
         }
+        split = true;
+        position += delimiterLength;
+        start = position;
+      } else {
+        position++;
       }
-      joiner.appendTo(stringBuilder, fielddata);
-      return stringBuilder.toString();
+    }
+    // a line without any delimiter is a single field, even if empty
+    return split ? parsed : 1;
+  }
+
+  private static String field(CharSequence line, int[] offsets, int index) {
+    return line.subSequence(offsets[index * 2], offsets[index * 2 + 1]).toString();
+  }
+
+  private static boolean regionMatches(CharSequence line, int position, int length, String delimiter) {
+    if ( position + delimiter.length() > length ) {
+      return false;
+    }
+    for ( int i = 0; i < delimiter.length(); i++ ) {
+      if ( line.charAt(position + i) != delimiter.charAt(i) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean endsWith(CharSequence line, String suffix) {
+    return suffix.length() > 0
+        && regionMatches(line, line.length() - suffix.length(), line.length(), suffix);
+  }
+
+  private static void appendNullable(StringBuilder line, Object value) {
+    if ( value != null ) {
+      line.append(value.toString());
     }
   }
 
@@ -245,12 +408,58 @@ public class LineReadWriteUtil {
     return metadata;
   }
 
-  private String trimLineDelimiter(String str) {
-    if (!StringUtils.isNotBlank(str)) {
-      if (str.endsWith(lineDelimiter)) {
-        return str.substring(0, str.length() - 1);
+  /*
+    Per-thread scratch space, so writing a line allocates nothing beyond the
+    serialized document.
+   */
+  private static class LineBuffer {
+
+    private StringBuilder chars = new StringBuilder(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder;
+
+    LineBuffer(Charset charset) {
+      encoder = charset.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    StringBuilder chars() {
+      if ( chars.capacity() > BUFFER_SIZE * 16 ) {
+        // don't pin a huge buffer to the thread after one oversized document
+        chars = new StringBuilder(BUFFER_SIZE);
       }
+      chars.setLength(0);
+      return chars;
+    }
+
+    int encode(CharSequence line, OutputStream out) throws IOException {
+      CharBuffer in = CharBuffer.wrap(line);
+      int written = 0;
+      encoder.reset();
+      while ( true ) {
+        CoderResult result = encoder.encode(in, bytes, true);
+        written += drain(out);
+        if ( result.isUnderflow() ) {
+          break;
+        }
+        if ( result.isError() ) {
+          result.throwException();
+        }
+      }
+      while ( encoder.flush(bytes).isOverflow() ) {
+        written += drain(out);
+      }
+      written += drain(out);
+      return written;
+    }
+
+    private int drain(OutputStream out) throws IOException {
+      bytes.flip();
+      int length = bytes.limit();
+      out.write(bytes.array(), 0, length);
+      bytes.clear();
+      return length;
     }
-    return str;
   }
 }
@@ -21,6 +21,7 @@ package org.apache.streams.converter;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +58,7 @@ public class TypeConverterUtil {
     Object outDoc = null;
     if ( object instanceof String ) {
       try {
-        node = mapper.readValue((String)object, ObjectNode.class);
+        node = reader(mapper, ObjectNode.class).readValue((String)object);
       } catch (IOException ex) {
         LOGGER.warn(ex.getMessage());
         LOGGER.warn(object.toString());
@@ -67,18 +68,53 @@ public class TypeConverterUtil {
     }
 
     if(node != null) {
-      try {
-        if ( outClass == String.class ) {
-          outDoc = mapper.writeValueAsString(node);
-        } else {
-          outDoc = mapper.convertValue(node, outClass);
-        }
-      } catch (Throwable ex) {
-        LOGGER.warn(ex.getMessage());
-        LOGGER.warn(node.toString());
+      if ( outClass == ObjectNode.class ) {
+        outDoc = node;
+      } else {
+        outDoc = convertTree(node, outClass, mapper);
       }
     }
 
     return outDoc;
   }
+
+  public Object convertTree(ObjectNode node, Class outClass) {
+    return convertTree(node, outClass, StreamsJacksonMapper.getInstance());
+  }
+
+  /**
+   * convert a document that has already been parsed, binding straight from the tree rather than
+   * parsing the document again.  The node is not modified, so one parsed document can be converted
+   * to several classes.
+   * @param node parsed document
+   * @param outClass class to convert to
+   * @param mapper mapper to bind with
+   * @return converted document, or null if it could not be converted
+   */
+  public Object convertTree(ObjectNode node, Class outClass, ObjectMapper mapper) {
+    Object outDoc = null;
+    try {
+      if ( outClass == String.class ) {
+        outDoc = mapper.writeValueAsString(node);
+      } else if ( outClass == ObjectNode.class ) {
+        outDoc = node.deepCopy();
+      } else {
+        outDoc = reader(mapper, outClass).readValue(node);
+      }
+    } catch (Throwable ex) {
+      LOGGER.warn(ex.getMessage());
+      LOGGER.warn(node.toString());
+    }
+    return outDoc;
+  }
+
+  /**
+   * use the cached reader of a StreamsJacksonMapper, other mappers build a new reader.
+   */
+  static ObjectReader reader(ObjectMapper mapper, Class type) {
+    if ( mapper instanceof StreamsJacksonMapper ) {
+      return ((StreamsJacksonMapper) mapper).getReader(type);
+    }
+    return mapper.readerFor(type);
+  }
 }
@@ -20,7 +20,10 @@ package org.apache.streams.converter.test;
 
 import org.apache.streams.converter.ActivityConverterProcessor;
 import org.apache.streams.converter.ActivityConverterProcessorConfiguration;
+import org.apache.streams.converter.ActivityConverterUtil;
+import org.apache.streams.converter.BaseDocumentClassifier;
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.data.DocumentClassifier;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.pojo.json.Activity;
 
@@ -30,7 +33,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -78,6 +84,70 @@ public class BaseActivityConverterProcessorTest {
         assertTrue(((Activity)resultDatum.getDocument()).getVerb().equals("post"));
     }
 
+    @Test
+    public void testClassifiersShareParsedDocument() {
+        final List<ObjectNode> seen = new ArrayList<>();
+        DocumentClassifier recorder = new DocumentClassifier() {
+            @Override
+            public List<Class> detectClasses(Object document) {
+                throw new IllegalStateException("document should have been parsed once by ActivityConverterUtil");
+            }
+
+            @Override
+            public List<Class> detectClasses(Object document, ObjectNode parsed) {
+                seen.add(parsed);
+                return Collections.emptyList();
+            }
+        };
+        ActivityConverterProcessorConfiguration configuration = new ActivityConverterProcessorConfiguration();
+        configuration.getClassifiers().add(new BaseDocumentClassifier());
+        configuration.getClassifiers().add(recorder);
+        List<Activity> result = ActivityConverterUtil.getInstance(configuration).convert(ACTIVITY_JSON);
+        assertNotNull(result);
+        assertEquals(1, result.size());
+        assertEquals("post", result.get(0).getVerb());
+        assertEquals(1, seen.size());
+        assertEquals("post", seen.get(0).get("verb").asText());
+    }
+
+    @Test
+    public void testClassifiersDispatchedOnRequiredFields() {
+        final List<String> invoked = new ArrayList<>();
+        ActivityConverterProcessorConfiguration configuration = new ActivityConverterProcessorConfiguration();
+        configuration.getClassifiers().add(new BaseDocumentClassifier());
+        configuration.getClassifiers().add(new RequiredFieldsClassifier("verb", invoked));
+        configuration.getClassifiers().add(new RequiredFieldsClassifier("missing", invoked));
+        ActivityConverterUtil converterUtil = ActivityConverterUtil.getInstance(configuration);
+        for (int i = 0; i < 3; i++) {
+            List<Activity> result = converterUtil.convert(ACTIVITY_JSON);
+            assertNotNull(result);
+            assertEquals(1, result.size());
+        }
+        assertEquals(Collections.nCopies(3, "verb"), invoked);
+    }
+
+    private static class RequiredFieldsClassifier implements DocumentClassifier {
+
+        private final String field;
+        private final List<String> invoked;
+
+        RequiredFieldsClassifier(String field, List<String> invoked) {
+            this.field = field;
+            this.invoked = invoked;
+        }
+
+        @Override
+        public List<Class> detectClasses(Object document) {
+            invoked.add(field);
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Set<String> requiredFields() {
+            return Collections.singleton(field);
+        }
+    }
+
     @Test
     public void testBaseActivitySerializerProcessorObject() throws IOException {
         ObjectNode OBJECT_DOCUMENT = mapper.readValue(ACTIVITY_JSON, ObjectNode.class);
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.converter.test;
+
+import org.apache.streams.converter.BaseDocumentClassifier;
+import org.apache.streams.converter.BaseObjectNodeActivityConverter;
+import org.apache.streams.converter.BaseStringActivityConverter;
+import org.apache.streams.converter.ConverterRegistry;
+import org.apache.streams.data.ActivityConverter;
+import org.apache.streams.data.DocumentClassifier;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for
+ * {@link org.apache.streams.converter.ConverterRegistry}
+ */
+public class ConverterRegistryTest {
+
+    @Test
+    public void testRegisteredClassifiers() {
+        List<Class> classes = classesOf(ConverterRegistry.load(DocumentClassifier.class));
+        assertTrue(classes.contains(BaseDocumentClassifier.class));
+        // test-only classifiers are not registered, so the classpath was not scanned
+        assertTrue(!classes.contains(CustomDocumentClassifier.class));
+    }
+
+    @Test
+    public void testRegisteredConverters() {
+        List<Class> classes = classesOf(ConverterRegistry.load(ActivityConverter.class));
+        assertTrue(classes.contains(BaseObjectNodeActivityConverter.class));
+        assertTrue(classes.contains(BaseStringActivityConverter.class));
+        assertTrue(!classes.contains(CustomActivityConverter.class));
+    }
+
+    @Test
+    public void testScanWhenUnregistered() {
+        List<Class> classes = classesOf(ConverterRegistry.load(Unregistered.class));
+        assertEquals(1, classes.size());
+        assertEquals(UnregisteredImpl.class, classes.get(0));
+    }
+
+    private List<Class> classesOf(List<?> instances) {
+        List<Class> classes = new ArrayList<>();
+        for (Object instance : instances) {
+            classes.add(instance.getClass());
+        }
+        return classes;
+    }
+
+    public interface Unregistered {
+    }
+
+    public static class UnregisteredImpl implements Unregistered {
+    }
+
+}
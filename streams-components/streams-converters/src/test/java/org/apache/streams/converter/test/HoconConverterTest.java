@@ -21,9 +21,12 @@ package org.apache.streams.converter.test;
 import org.apache.streams.converter.HoconConverterUtil;
 import org.apache.streams.pojo.json.Activity;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.ConfigFactory;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -92,4 +95,24 @@ public class HoconConverterTest {
 
     }
 
+    /**
+     * Tests tree input, text input and a freshly parsed hocon all give the same result
+     */
+    @Test
+    public void testHoconConverterTreeMatchesText() throws Exception {
+
+        final String TEST_JSON_5 = "{\"race\":\"klingon\",\"gender\":\"male\",\"age\":18,\"height\":2.5,\"tags\":[\"a\",null,true]}";
+        ObjectNode tree = new ObjectMapper().readValue(TEST_JSON_5, ObjectNode.class);
+        String fromText = (String) HoconConverterUtil.getInstance().convert(TEST_JSON_5, String.class, "test1.conf");
+        String fromTree = (String) HoconConverterUtil.getInstance().convert(tree, String.class, "test1.conf");
+        String fromConfig = (String) HoconConverterUtil.getInstance().convert(TEST_JSON_5, String.class, ConfigFactory.parseResources("test1.conf"), null);
+        assertEquals("{\"age\":18,\"gender\":\"female\",\"height\":2.5,\"race\":\"klingon\",\"tags\":[\"a\",null,true]}", fromText);
+        assertEquals(fromText, fromTree);
+        assertEquals(fromText, fromConfig);
+        ObjectNode result = (ObjectNode) HoconConverterUtil.getInstance().convert(tree, ObjectNode.class, "test1.conf");
+        assertEquals(new ObjectMapper().readTree(fromText), result);
+        assertEquals(fromText, new ObjectMapper().writeValueAsString(result));
+
+    }
+
 }
@@ -26,11 +26,18 @@ import org.apache.streams.jackson.StreamsJacksonMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -98,6 +105,69 @@ public class TestLineReadWriteUtil {
 
     }
 
+    @Test
+    public void TestLineWriteModes() throws Exception {
+
+        LineReadWriteUtil lineReadWriteUtil = LineReadWriteUtil.getInstance(new LineReadWriteConfiguration()
+                .withFields(Arrays.asList("ID", "SEQ", "TS", "META", "DOC"))
+                .withFieldDelimiter("|"));
+        StreamsDatum testDatum = randomDatum();
+        testDatum.setDocument("{\"text\":\"caf\u00e9 \u2603\"}");
+
+        String line = lineReadWriteUtil.convertResultToString(testDatum);
+        Assert.assertEquals(5, line.split("\\|").length);
+
+        StringWriter chars = new StringWriter();
+        Assert.assertEquals(line.length() + 1, lineReadWriteUtil.writeLine(testDatum, chars));
+        Assert.assertEquals(line + "\n", chars.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int written = lineReadWriteUtil.writeLine(testDatum, bytes);
+        Assert.assertArrayEquals((line + "\n").getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+        Assert.assertEquals(bytes.size(), written);
+
+        StreamsDatum readResult = lineReadWriteUtil.processLine(CharBuffer.wrap(chars.toString()));
+        Assert.assertEquals(testDatum.getId(), readResult.getId());
+        Assert.assertEquals(testDatum.getSequenceid(), readResult.getSequenceid());
+        Assert.assertEquals(testDatum.getTimestamp().getMillis(), readResult.getTimestamp().getMillis());
+        Assert.assertEquals(testDatum.getMetadata(), readResult.getMetadata());
+        Assert.assertEquals(testDatum.getDocument(), readResult.getDocument());
+
+        Assert.assertEquals(0, lineReadWriteUtil.writeLine(new StreamsDatum(""), bytes));
+    }
+
+    @Test
+    public void TestLineReadEmptyFields() throws Exception {
+
+        LineReadWriteUtil lineReadWriteUtil = LineReadWriteUtil.getInstance(new LineReadWriteConfiguration()
+                .withFields(Arrays.asList("ID", "DOC")));
+        StreamsDatum readResult = lineReadWriteUtil.processLine("\t{}");
+        Assert.assertEquals("", readResult.getId());
+        Assert.assertEquals("{}", readResult.getDocument());
+        readResult = lineReadWriteUtil.processLine("id\t");
+        Assert.assertEquals("id", readResult.getId());
+        Assert.assertNull(readResult.getDocument());
+        Assert.assertNull(lineReadWriteUtil.processLine("\t\t"));
+    }
+
+    @Test
+    public void TestLineReadBuffer() throws Exception {
+
+        LineReadWriteUtil lineReadWriteUtil = LineReadWriteUtil.getInstance(new LineReadWriteConfiguration()
+                .withFields(Arrays.asList("ID", "DOC")));
+        BufferedReader reader = new BufferedReader(new StringReader("a\t{}\r\n\nb\t{\"b\":1}"));
+        StringBuilder line = new StringBuilder();
+        Assert.assertTrue(lineReadWriteUtil.readLine(reader, line));
+        Assert.assertEquals("a\t{}", line.toString());
+        Assert.assertEquals("a", lineReadWriteUtil.processLine(line).getId());
+        Assert.assertTrue(lineReadWriteUtil.readLine(reader, line));
+        Assert.assertEquals(0, line.length());
+        Assert.assertTrue(lineReadWriteUtil.readLine(reader, line));
+        Assert.assertEquals("{\"b\":1}", lineReadWriteUtil.processLine(line).getDocument());
+        Assert.assertFalse(lineReadWriteUtil.readLine(reader, line));
+        Assert.assertEquals(0, line.length());
+    }
+
     public static StreamsDatum randomDatum() {
 
         StreamsDatum datum = new StreamsDatum(UUID.randomUUID().toString());
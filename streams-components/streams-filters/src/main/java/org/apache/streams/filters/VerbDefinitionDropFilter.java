@@ -22,7 +22,6 @@ import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsProcessor;
 import org.apache.streams.pojo.json.Activity;
 import org.apache.streams.verbs.VerbDefinition;
-import org.apache.streams.verbs.VerbDefinitionMatchUtil;
 import org.apache.streams.verbs.VerbDefinitionResolver;
 
 import com.google.common.base.Preconditions;
@@ -74,7 +73,7 @@ public class VerbDefinitionDropFilter implements StreamsProcessor {
 
     activity = (Activity) entry.getDocument();
 
-    if (!VerbDefinitionMatchUtil.match(activity, this.verbDefinitionSet)) {
+    if (!resolver.matches(activity)) {
       result.add(entry);
     }
 
@@ -22,7 +22,6 @@ import org.apache.streams.core.DatumStatus;
 import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.util.ComponentUtils;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,10 +53,10 @@ public class S3PersistReaderTask implements Runnable {
       BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(is));
       LOGGER.info("Reading: {} ", file);
 
-      String line;
+      StringBuilder line = new StringBuilder();
       try {
-        while ((line = bufferedReader.readLine()) != null) {
-          if (StringUtils.isNotEmpty(line) ) {
+        while (reader.lineReaderUtil.readLine(bufferedReader, line)) {
+          if (line.length() > 0) {
             reader.countersCurrent.incrementAttempt();
             StreamsDatum entry = reader.lineReaderUtil.processLine(line);
             ComponentUtils.offerUntilSuccess(entry, reader.persistQueue);
@@ -45,8 +45,6 @@ import org.slf4j.LoggerFactory;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -87,7 +85,7 @@ public class S3PersistWriter implements StreamsPersistWriter, DatumStatusCountab
     objectMetaData.put("line[3]", "document");
   }
 
-  private OutputStreamWriter currentWriter = null;
+  private OutputStream currentWriter = null;
 
   public AmazonS3Client getAmazonS3Client() {
     return this.amazonS3Client;
@@ -156,16 +154,19 @@ public class S3PersistWriter implements StreamsPersistWriter, DatumStatusCountab
         }
       }
 
-      String line = lineWriterUtil.convertResultToString(streamsDatum);
-
+      // encode the line straight to the file
+      int recordSize = 0;
       try {
-        this.currentWriter.write(line);
+        recordSize = lineWriterUtil.writeLine(streamsDatum, this.currentWriter);
       } catch (IOException ex) {
         ex.printStackTrace();
       }
 
+      if (recordSize == 0) {
+        return;
+      }
+
       // add the bytes we've written
-      int recordSize = line.getBytes().length;
       this.totalBytesWritten.addAndGet(recordSize);
       this.bytesWrittenThisFile.addAndGet(recordSize);
 
@@ -178,10 +179,10 @@ public class S3PersistWriter implements StreamsPersistWriter, DatumStatusCountab
 
   /**
    * Reset File when it's time to create a new file.
-   * @return OutputStreamWriter
+   * @return OutputStream
    * @throws Exception Exception
    */
-  public synchronized OutputStreamWriter resetFile() throws Exception {
+  public synchronized OutputStream resetFile() throws Exception {
     // this will keep it thread safe, so we don't create too many files
     if (this.fileLineCounter.get() == 0 && this.currentWriter != null) {
       return this.currentWriter;
@@ -215,7 +216,7 @@ public class S3PersistWriter implements StreamsPersistWriter, DatumStatusCountab
       LOGGER.info("File Created: Bucket[{}] - {}", this.s3WriterConfiguration.getBucket(), this.s3WriterConfiguration.getWriterPath() + fileName);
 
       // return the output stream
-      return new OutputStreamWriter(outputStream);
+      return outputStream;
     } catch (Exception ex) {
       LOGGER.error(ex.getMessage());
       throw ex;
@@ -234,7 +235,7 @@ public class S3PersistWriter implements StreamsPersistWriter, DatumStatusCountab
     }
   }
 
-  private synchronized void closeSafely(Writer writer)  {
+  private synchronized void closeSafely(OutputStream writer)  {
     if (writer != null) {
       try {
         writer.flush();
@@ -20,8 +20,8 @@ package org.apache.streams.cassandra;
 
 import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.core.StreamsBatchPersistWriter;
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsPersistWriter;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.util.GuidUtils;
 
@@ -62,7 +62,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class CassandraPersistWriter implements StreamsPersistWriter, Runnable, Flushable, Closeable {
+public class CassandraPersistWriter implements StreamsBatchPersistWriter, Runnable, Flushable, Closeable {
 
   public static final String STREAMS_ID = "CassandraPersistWriter";
 
@@ -111,45 +111,27 @@ public class CassandraPersistWriter implements StreamsPersistWriter, Runnable, F
   @Override
   public void write(StreamsDatum streamsDatum) {
 
-    ObjectNode node;
-
-    if (streamsDatum.getDocument() instanceof String) {
-      try {
-        node = mapper.readValue((String) streamsDatum.getDocument(), ObjectNode.class);
-
-        byte[] value = node.toString().getBytes();
-
-        String key = GuidUtils.generateGuid(node.toString());
-        if(!Objects.isNull(streamsDatum.getMetadata().get("id"))) {
-          key = streamsDatum.getMetadata().get("id").toString();
-        }
-
-        BoundStatement statement = insertStatement.bind(key, ByteBuffer.wrap(value));
-        insertBatch.add(statement);
-      } catch (IOException ex) {
-        LOGGER.warn("Failure adding object: {}", streamsDatum.getDocument().toString());
-        return;
-      }
-    } else {
-      try {
-        node = mapper.valueToTree(streamsDatum.getDocument());
-
-        byte[] value = node.toString().getBytes();
+    BoundStatement statement = prepareStatement(streamsDatum);
+    if (statement != null) {
+      addToBatch(statement);
+      flushIfNecessary();
+    }
+  }
 
-        String key = GuidUtils.generateGuid(node.toString());
-        if(!Objects.isNull(streamsDatum.getId())) {
-          key = streamsDatum.getId();
-        }
+  @Override
+  public void write(List<StreamsDatum> entries) {
 
-        BoundStatement statement = insertStatement.bind(key, ByteBuffer.wrap(value));
-        insertBatch.add(statement);
-      } catch (Exception ex) {
-        LOGGER.warn("Failure adding object: {}", streamsDatum.getDocument().toString());
-        return;
+    List<BoundStatement> statements = new ArrayList<>(entries.size());
+    for (StreamsDatum streamsDatum : entries) {
+      BoundStatement statement = prepareStatement(streamsDatum);
+      if (statement != null) {
+        statements.add(statement);
       }
     }
-
-    flushIfNecessary();
+    if (statements.size() > 0) {
+      addToBatch(statements);
+      flushIfNecessary();
+    }
   }
 
   @Override
@@ -263,9 +245,9 @@ public class CassandraPersistWriter implements StreamsPersistWriter, Runnable, F
 
   protected void flushIfNecessary() {
     long lastLatency = System.currentTimeMillis() - lastWrite.get();
-    //Flush iff the size > 0 AND the size is divisible by 100 or the time between now and the last flush is greater
+    //Flush iff the size > 0 AND the size has reached 100 or the time between now and the last flush is greater
     //than the maximum desired latency
-    if (insertBatch.size() > 0 && (insertBatch.size() % 100 == 0 || lastLatency > MAX_WRITE_LATENCY)) {
+    if (insertBatch.size() > 0 && (insertBatch.size() >= 100 || lastLatency > MAX_WRITE_LATENCY)) {
       try {
         flush();
       } catch (IOException ex) {
@@ -274,6 +256,62 @@ public class CassandraPersistWriter implements StreamsPersistWriter, Runnable, F
     }
   }
 
+  protected void addToBatch(BoundStatement statement) {
+    try {
+      lock.readLock().lock();
+      insertBatch.add(statement);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  protected void addToBatch(List<BoundStatement> statements) {
+    try {
+      lock.readLock().lock();
+      insertBatch.addAll(statements);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  protected BoundStatement prepareStatement(StreamsDatum streamsDatum) {
+    ObjectNode node;
+
+    if (streamsDatum.getDocument() instanceof String) {
+      try {
+        node = mapper.readValue((String) streamsDatum.getDocument(), ObjectNode.class);
+
+        byte[] value = node.toString().getBytes();
+
+        String key = GuidUtils.generateGuid(node.toString());
+        if(!Objects.isNull(streamsDatum.getMetadata().get("id"))) {
+          key = streamsDatum.getMetadata().get("id").toString();
+        }
+
+        return insertStatement.bind(key, ByteBuffer.wrap(value));
+      } catch (IOException ex) {
+        LOGGER.warn("Failure adding object: {}", streamsDatum.getDocument().toString());
+        return null;
+      }
+    } else {
+      try {
+        node = mapper.valueToTree(streamsDatum.getDocument());
+
+        byte[] value = node.toString().getBytes();
+
+        String key = GuidUtils.generateGuid(node.toString());
+        if(!Objects.isNull(streamsDatum.getId())) {
+          key = streamsDatum.getId();
+        }
+
+        return insertStatement.bind(key, ByteBuffer.wrap(value));
+      } catch (Exception ex) {
+        LOGGER.warn("Failure adding object: {}", streamsDatum.getDocument().toString());
+        return null;
+      }
+    }
+  }
+
   private synchronized void connectToCassandra() throws Exception {
     client = new CassandraClient(config);
   }
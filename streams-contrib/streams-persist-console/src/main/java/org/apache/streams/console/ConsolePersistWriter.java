@@ -19,7 +19,7 @@
 package org.apache.streams.console;
 
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.core.StreamsRecyclingPersistWriter;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -35,7 +35,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 /**
  * ConsolePersistWriter writes documents to stdout.
  */
-public class ConsolePersistWriter implements StreamsPersistWriter {
+public class ConsolePersistWriter implements StreamsRecyclingPersistWriter {
 
   private static final String STREAMS_ID = "ConsolePersistWriter";
 
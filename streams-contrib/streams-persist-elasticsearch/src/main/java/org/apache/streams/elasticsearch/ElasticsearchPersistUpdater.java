@@ -26,6 +26,7 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -53,6 +54,18 @@ public class ElasticsearchPersistUpdater extends ElasticsearchPersistWriter impl
 
   @Override
   public void write(StreamsDatum streamsDatum) {
+    enqueue(streamsDatum);
+  }
+
+  @Override
+  protected void enqueue(List<StreamsDatum> entries) {
+    for (StreamsDatum streamsDatum : entries) {
+      enqueue(streamsDatum);
+    }
+  }
+
+  @Override
+  protected void enqueue(StreamsDatum streamsDatum) {
 
     if (streamsDatum == null || streamsDatum.getDocument() == null) {
       return;
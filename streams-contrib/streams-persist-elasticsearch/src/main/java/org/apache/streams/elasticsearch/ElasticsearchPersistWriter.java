@@ -21,8 +21,8 @@ package org.apache.streams.elasticsearch;
 
 import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.core.StreamsBatchPersistWriter;
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsPersistWriter;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -59,7 +59,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * ElasticsearchPersistUpdater updates documents to elasticsearch.
  */
-public class ElasticsearchPersistWriter implements StreamsPersistWriter, Serializable {
+public class ElasticsearchPersistWriter implements StreamsBatchPersistWriter, Serializable {
 
   public static final String STREAMS_ID = ElasticsearchPersistWriter.class.getCanonicalName();
 
@@ -209,6 +209,66 @@ public class ElasticsearchPersistWriter implements StreamsPersistWriter, Seriali
 
     checkForBackOff();
 
+    enqueue(streamsDatum);
+  }
+
+  /**
+   * Write a batch of datums, checking for back-off once.
+   * @param entries entries
+   */
+  @Override
+  public void write(List<StreamsDatum> entries) {
+
+    checkForBackOff();
+
+    enqueue(entries);
+  }
+
+  /**
+   * Prepare a batch of datums, then add them to the current bulk request.  Documents are serialized before taking
+   * the bulk request lock, which is only held to add the requests and check whether to flush.
+   * @param entries entries
+   */
+  protected void enqueue(List<StreamsDatum> entries) {
+
+    List<IndexRequest> requests = new ArrayList<>(entries.size());
+    for (StreamsDatum streamsDatum : entries) {
+      IndexRequest request = prepare(streamsDatum);
+      if (request != null) {
+        requests.add(request);
+      }
+    }
+
+    synchronized (this) {
+      for (IndexRequest request : requests) {
+        add(request);
+      }
+    }
+  }
+
+  /**
+   * Prepare a datum and add it to the current bulk request.
+   * @param streamsDatum streamsDatum
+   */
+  protected void enqueue(StreamsDatum streamsDatum) {
+
+    IndexRequest request = prepare(streamsDatum);
+    if (request != null) {
+      add(request);
+    }
+  }
+
+  /**
+   * Prepare the index request for a datum.
+   * @param streamsDatum streamsDatum
+   * @return IndexRequest, or null if the datum has no document or could not be serialized
+   */
+  protected IndexRequest prepare(StreamsDatum streamsDatum) {
+
+    if (streamsDatum == null || streamsDatum.getDocument() == null) {
+      return null;
+    }
+
     LOGGER.debug("Write Document: {}", streamsDatum.getDocument());
 
     Map<String, Object> metadata = streamsDatum.getMetadata();
@@ -224,11 +284,12 @@ public class ElasticsearchPersistWriter implements StreamsPersistWriter, Seriali
     try {
       streamsDatum = appendMetadata(streamsDatum);
       String docAsJson = docAsJson(streamsDatum.getDocument());
-      add(index, type, id, parent, routing,
+      return indexRequest(index, type, id, parent, routing,
           streamsDatum.getTimestamp() == null ? Long.toString(DateTime.now().getMillis()) : Long.toString(streamsDatum.getTimestamp().getMillis()),
           docAsJson);
     } catch (Throwable ex) {
       LOGGER.warn("Unable to Write Datum to ElasticSearch: {}", ex.getMessage());
+      return null;
     }
   }
 
@@ -421,6 +482,20 @@ public class ElasticsearchPersistWriter implements StreamsPersistWriter, Seriali
    * @param json json
    */
   public void add(String indexName, String type, String id, String parent, String routing, String ts, String json) {
+    add(indexRequest(indexName, type, id, parent, routing, ts, json));
+  }
+
+  /**
+   * build an IndexRequest based on supplied parameters.
+   * @param indexName indexName
+   * @param type type
+   * @param id id
+   * @param routing routing
+   * @param ts ts
+   * @param json json
+   * @return IndexRequest
+   */
+  protected IndexRequest indexRequest(String indexName, String type, String id, String parent, String routing, String ts, String json) {
 
     // make sure that these are not null
     Objects.requireNonNull(indexName);
@@ -444,7 +519,7 @@ public class ElasticsearchPersistWriter implements StreamsPersistWriter, Seriali
     if (routing != null) {
       indexRequestBuilder.setRouting(routing);
     }
-    add(indexRequestBuilder.request());
+    return indexRequestBuilder.request();
   }
 
   protected void add(IndexRequest request) {
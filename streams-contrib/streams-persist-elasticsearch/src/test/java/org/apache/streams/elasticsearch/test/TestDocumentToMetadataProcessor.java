@@ -59,8 +59,8 @@ public class TestDocumentToMetadataProcessor {
     StreamsDatum testInput = new StreamsDatum(document);
 
     Assert.assertNotNull(testInput.document);
-    Assert.assertNotNull(testInput.metadata);
-    Assert.assertEquals(testInput.metadata.size(), 0);
+    Assert.assertNotNull(testInput.getMetadata());
+    Assert.assertEquals(testInput.getMetadata().size(), 0);
 
     processor.prepare(null);
 
@@ -68,8 +68,8 @@ public class TestDocumentToMetadataProcessor {
 
     processor.cleanUp();
 
-    Assert.assertNotNull(testOutput.metadata);
-    Assert.assertEquals(testInput.metadata.size(), 3);
+    Assert.assertNotNull(testOutput.getMetadata());
+    Assert.assertEquals(testInput.getMetadata().size(), 3);
 
   }
 }
@@ -23,6 +23,7 @@ import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsPersistReader;
 import org.apache.streams.core.StreamsResultSet;
+import org.apache.streams.core.util.StreamsDatumCodec;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
@@ -45,7 +46,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
- * Reads data from a buffer stored on the file-system.
+ * Reads data from a buffer stored on the file-system, in the format it was written by {@link FileBufferPersistWriter}.
  */
 public class FileBufferPersistReader implements StreamsPersistReader, Serializable {
 
@@ -95,11 +96,15 @@ public class FileBufferPersistReader implements StreamsPersistReader, Serializab
     while (!queueFile.isEmpty()) {
       try {
         byte[] bytes = queueFile.peek();
-        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-        BufferedReader buf = new BufferedReader(new InputStreamReader(bais));
-        String line = buf.readLine();
-        LOGGER.debug(line);
-        write(new StreamsDatum(line));
+        if ( config.getFormat() == FileBufferConfiguration.Format.BINARY ) {
+          write(StreamsDatumCodec.getInstance().decode(bytes));
+        } else {
+          ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+          BufferedReader buf = new BufferedReader(new InputStreamReader(bais));
+          String line = buf.readLine();
+          LOGGER.debug(line);
+          write(new StreamsDatum(line));
+        }
         queueFile.remove();
       } catch (IOException ex) {
         ex.printStackTrace();
@@ -21,7 +21,8 @@ package org.apache.streams.filebuffer;
 import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.core.StreamsRecyclingPersistWriter;
+import org.apache.streams.core.util.StreamsDatumCodec;
 import org.apache.streams.util.GuidUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,8 +41,13 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Writes data to a buffer stored on the file-system.
+ *
+ * <p></p>
+ * With the text format only String documents are stored.  With the binary format the whole datum, including id,
+ * timestamp, sequenceid and metadata, is stored with {@link StreamsDatumCodec}.  The reader does not trust the buffer,
+ * so values the codec can only write with java serialization can not be read back.
  */
-public class FileBufferPersistWriter implements StreamsPersistWriter, Serializable {
+public class FileBufferPersistWriter implements StreamsRecyclingPersistWriter, Serializable {
 
   private static final String STREAMS_ID = "FileBufferPersistWriter";
 
@@ -74,10 +80,15 @@ public class FileBufferPersistWriter implements StreamsPersistWriter, Serializab
     String key = entry.getId() != null ? entry.getId() : GuidUtils.generateGuid("filewriter");
 
     Preconditions.checkArgument(StringUtils.isNotBlank(key));
-    Preconditions.checkArgument(entry.getDocument() instanceof String);
-    Preconditions.checkArgument(StringUtils.isNotBlank((String) entry.getDocument()));
 
-    byte[] item = ((String)entry.getDocument()).getBytes();
+    byte[] item;
+    if ( config.getFormat() == FileBufferConfiguration.Format.BINARY ) {
+      item = StreamsDatumCodec.getInstance().encode(entry);
+    } else {
+      Preconditions.checkArgument(entry.getDocument() instanceof String);
+      Preconditions.checkArgument(StringUtils.isNotBlank((String) entry.getDocument()));
+      item = ((String)entry.getDocument()).getBytes();
+    }
     try {
       queueFile.add(item);
     } catch (IOException ex) {
@@ -23,11 +23,14 @@ import org.apache.streams.core.StreamsResultSet;
 import org.apache.streams.filebuffer.FileBufferConfiguration;
 import org.apache.streams.filebuffer.FileBufferPersistReader;
 import org.apache.streams.filebuffer.FileBufferPersistWriter;
+import org.apache.streams.pojo.json.Activity;
 
+import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.math.BigInteger;
 
 import static org.junit.Assert.assertEquals;
 
@@ -75,4 +78,44 @@ public class TestFileBufferPersist {
 
   }
 
+  @Test
+  public void testPersistWriterBinary() {
+
+    testConfiguration = new FileBufferConfiguration();
+    testConfiguration.setBuffer("target/TestFilePersistBinary.txt");
+    testConfiguration.setFormat(FileBufferConfiguration.Format.BINARY);
+
+    File file = new File( testConfiguration.getBuffer());
+    if( file.exists() ) {
+      file.delete();
+    }
+
+    FileBufferPersistWriter testPersistWriter = new FileBufferPersistWriter(testConfiguration);
+    testPersistWriter.prepare(testConfiguration);
+
+    Activity activity = new Activity();
+    activity.setId("id:activity");
+    activity.setVerb("post");
+    StreamsDatum datum = new StreamsDatum(activity, "test", new DateTime(), BigInteger.ONE);
+    datum.getMetadata().put("source", "test");
+
+    testPersistWriter.write(datum);
+
+    testPersistWriter.cleanUp();
+
+    FileBufferPersistReader testPersistReader = new FileBufferPersistReader(testConfiguration);
+    testPersistReader.prepare(testConfiguration);
+
+    StreamsResultSet testResult = testPersistReader.readCurrent();
+
+    testPersistReader.cleanUp();
+
+    assertEquals(1, testResult.size());
+    StreamsDatum result = testResult.iterator().next();
+    assertEquals(datum, result);
+    assertEquals("test", result.getId());
+    assertEquals(datum.getMetadata(), result.getMetadata());
+
+  }
+
 }
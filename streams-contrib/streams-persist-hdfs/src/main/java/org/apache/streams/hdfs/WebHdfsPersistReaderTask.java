@@ -22,7 +22,6 @@ import org.apache.streams.core.DatumStatus;
 import org.apache.streams.core.StreamsDatum;
 
 import com.google.common.util.concurrent.Uninterruptibles;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,11 +77,13 @@ public class WebHdfsPersistReaderTask implements Runnable {
           return;
         }
 
-        String line = "";
+        StringBuilder line = new StringBuilder();
         do {
           try {
-            line = bufferedReader.readLine();
-            if (StringUtils.isNotEmpty(line)) {
+            if (!reader.lineReaderUtil.readLine(bufferedReader, line)) {
+              line.setLength(0);
+            }
+            if (line.length() > 0) {
               reader.countersCurrent.incrementAttempt();
               StreamsDatum entry = reader.lineReaderUtil.processLine(line);
               if ( entry != null ) {
@@ -98,7 +99,7 @@ public class WebHdfsPersistReaderTask implements Runnable {
             reader.countersCurrent.incrementStatus(DatumStatus.FAIL);
           }
         }
-        while (StringUtils.isNotEmpty(line));
+        while (line.length() > 0);
         LOGGER.info("Finished Processing " + fileStatus.getPath().getName());
         try {
           bufferedReader.close();
@@ -38,10 +38,11 @@ import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
@@ -66,7 +67,7 @@ public class WebHdfsPersistWriter implements StreamsPersistWriter, Flushable, Cl
   private int totalRecordsWritten = 0;
   private final List<Path> writtenFiles = new ArrayList<>();
   private int fileLineCounter = 0;
-  private OutputStreamWriter currentWriter = null;
+  private OutputStream currentWriter = null;
 
   private static final int BYTES_IN_MB = 1024 * 1024;
   private static final int BYTES_BEFORE_FLUSH = 64 * BYTES_IN_MB;
@@ -186,12 +187,11 @@ public class WebHdfsPersistWriter implements StreamsPersistWriter, Flushable, Cl
       if (this.currentWriter == null || (this.fileLineCounter > this.linesPerFile)) {
         resetFile();
       }
-      String line = lineWriterUtil.convertResultToString(streamsDatum);
-      writeInternal(line);
-      if ( !line.endsWith(this.hdfsConfiguration.getLineDelimiter())) {
-        writeInternal(this.hdfsConfiguration.getLineDelimiter());
+      int bytesInLine = writeInternal(streamsDatum);
+      if (bytesInLine == 0) {
+        LOGGER.warn("Not writing datum without a document: {}", streamsDatum.getId());
+        return;
       }
-      int bytesInLine = line.getBytes().length;
 
       totalRecordsWritten++;
       totalByteCount += bytesInLine;
@@ -208,20 +208,20 @@ public class WebHdfsPersistWriter implements StreamsPersistWriter, Flushable, Cl
     }
   }
 
-  private void writeInternal(String line) {
+  private int writeInternal(StreamsDatum streamsDatum) {
     try {
-      this.currentWriter.write(line);
+      return lineWriterUtil.writeLine(streamsDatum, this.currentWriter);
     } catch (IOException ex) {
       LOGGER.warn("Error writing to HDFS.  Attempting to try a new file", ex);
       try {
         resetFile();
-        this.currentWriter.write(line);
+        return lineWriterUtil.writeLine(streamsDatum, this.currentWriter);
       } catch (Exception e2) {
         LOGGER.warn("Failed to write even after creating a new file.  Attempting to reconnect", e2);
         try {
           connectToWebHDFS();
           resetFile();
-          this.currentWriter.write(line);
+          return lineWriterUtil.writeLine(streamsDatum, this.currentWriter);
         } catch (Exception e3) {
           LOGGER.error("Failed to write to HDFS after reconnecting client. Terminating writer.", e3);
           throw new RuntimeException(e3);
@@ -270,9 +270,9 @@ public class WebHdfsPersistWriter implements StreamsPersistWriter, Flushable, Cl
       }
 
       if ( hdfsConfiguration.getCompression().equals(HdfsWriterConfiguration.Compression.GZIP)) {
-        this.currentWriter = new OutputStreamWriter(new GZIPOutputStream(client.create(filePath)));
+        this.currentWriter = new BufferedOutputStream(new GZIPOutputStream(client.create(filePath)));
       } else {
-        this.currentWriter = new OutputStreamWriter(client.create(filePath));
+        this.currentWriter = new BufferedOutputStream(client.create(filePath));
       }
 
       // Add another file to the list of written files.
@@ -30,6 +30,7 @@ import kafka.consumer.ConsumerConfig;
 import kafka.consumer.KafkaStream;
 import kafka.consumer.Whitelist;
 import kafka.javaapi.consumer.ConsumerConnector;
+import kafka.serializer.DefaultDecoder;
 import kafka.serializer.StringDecoder;
 import kafka.utils.VerifiableProperties;
 import org.joda.time.DateTime;
@@ -63,7 +64,7 @@ public class KafkaPersistReader implements StreamsPersistReader, Serializable {
 
   private ConsumerConnector consumerConnector;
 
-  public List<KafkaStream<String, String>> inStreams;
+  public List<KafkaStream<String, byte[]>> inStreams;
 
   private ExecutorService executor = Executors.newSingleThreadExecutor();
 
@@ -87,6 +88,10 @@ public class KafkaPersistReader implements StreamsPersistReader, Serializable {
     this.config = config;
   }
 
+  public KafkaReaderConfiguration getConfig() {
+    return config;
+  }
+
   @Override
   public String getId() {
     return STREAMS_ID;
@@ -105,7 +110,7 @@ public class KafkaPersistReader implements StreamsPersistReader, Serializable {
     Whitelist topics = new Whitelist(config.getTopic());
     VerifiableProperties vprops = new VerifiableProperties(props);
 
-    inStreams = consumerConnector.createMessageStreamsByFilter(topics, 1, new StringDecoder(vprops), new StringDecoder(vprops));
+    inStreams = consumerConnector.createMessageStreamsByFilter(topics, 1, new StringDecoder(vprops), new DefaultDecoder(vprops));
 
     for (final KafkaStream stream : inStreams) {
       executor.submit(new KafkaPersistReaderTask(this, stream));
@@ -19,12 +19,14 @@
 package org.apache.streams.kafka;
 
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.util.StreamsDatumCodec;
 
 import kafka.consumer.KafkaStream;
 import kafka.message.MessageAndMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 
 /**
@@ -36,9 +38,9 @@ public class KafkaPersistReaderTask implements Runnable {
   private static final Logger LOGGER = LoggerFactory.getLogger(KafkaPersistReaderTask.class);
 
   private KafkaPersistReader reader;
-  private KafkaStream<String,String> stream;
+  private KafkaStream<String,byte[]> stream;
 
-  public KafkaPersistReaderTask(KafkaPersistReader reader, KafkaStream<String,String> stream) {
+  public KafkaPersistReaderTask(KafkaPersistReader reader, KafkaStream<String,byte[]> stream) {
     this.reader = reader;
     this.stream = stream;
   }
@@ -46,12 +48,21 @@ public class KafkaPersistReaderTask implements Runnable {
   @Override
   public void run() {
 
-    MessageAndMetadata<String,String> item;
+    boolean binary = reader.getConfig().getFormat() == KafkaReaderConfiguration.Format.BINARY;
+    MessageAndMetadata<String,byte[]> item;
     while (true) {
 
-      for (MessageAndMetadata<String, String> aStream : stream) {
+      for (MessageAndMetadata<String, byte[]> aStream : stream) {
         item = aStream;
-        reader.persistQueue.add(new StreamsDatum(item.message()));
+        try {
+          if ( binary ) {
+            reader.persistQueue.add(StreamsDatumCodec.getInstance().decode(item.message()));
+          } else {
+            reader.persistQueue.add(new StreamsDatum(new String(item.message(), StandardCharsets.UTF_8)));
+          }
+        } catch (IllegalArgumentException ex) {
+          LOGGER.warn("Unable to decode message at offset {} : {}", item.offset(), ex.getMessage());
+        }
       }
       try {
         Thread.sleep(new Random().nextInt(100));
@@ -22,6 +22,7 @@ import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.core.util.StreamsDatumCodec;
 import org.apache.streams.util.GuidUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -33,12 +34,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Properties;
 import java.util.Queue;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * KafkaPersistWriter writes documents to kafka.
+ *
+ * <p></p>
+ * With the text format each message is the datum rendered as JSON.  With the binary format each message is the datum
+ * encoded with {@link StreamsDatumCodec}, which {@link KafkaPersistReader} decodes when configured the same way.
+ * The reader does not trust messages, so values the codec can only write with java serialization can not be read back.
  */
 public class KafkaPersistWriter implements StreamsPersistWriter, Serializable, Runnable {
 
@@ -52,7 +60,7 @@ public class KafkaPersistWriter implements StreamsPersistWriter, Serializable, R
 
   private KafkaWriterConfiguration config;
 
-  private Producer<String, String> producer;
+  private Producer<String, byte[]> producer;
 
   /**
    * KafkaPersistWriter constructor
@@ -81,7 +89,8 @@ public class KafkaPersistWriter implements StreamsPersistWriter, Serializable, R
     Properties props = new Properties();
 
     props.put("metadata.broker.list", config.getBrokerlist());
-    props.put("serializer.class", "kafka.serializer.StringEncoder");
+    props.put("serializer.class", "kafka.serializer.DefaultEncoder");
+    props.put("key.serializer.class", "kafka.serializer.StringEncoder");
     props.put("partitioner.class", "org.apache.streams.kafka.StreamsPartitioner");
     props.put("request.required.acks", "1");
 
@@ -114,15 +123,23 @@ public class KafkaPersistWriter implements StreamsPersistWriter, Serializable, R
 
     try {
 
-      String text = mapper.writeValueAsString(entry);
+      String hash;
+      byte[] message;
 
-      String hash = GuidUtils.generateGuid(text);
+      if ( config.getFormat() == KafkaWriterConfiguration.Format.BINARY ) {
+        message = StreamsDatumCodec.getInstance().encode(entry);
+        hash = GuidUtils.generateGuid(entry.getId() != null ? entry.getId() : UUID.randomUUID().toString());
+      } else {
+        String text = mapper.writeValueAsString(entry);
+        message = text.getBytes(StandardCharsets.UTF_8);
+        hash = GuidUtils.generateGuid(text);
+      }
 
-      KeyedMessage<String, String> data = new KeyedMessage<>(config.getTopic(), hash, text);
+      KeyedMessage<String, byte[]> data = new KeyedMessage<>(config.getTopic(), hash, message);
 
       producer.send(data);
 
-    } catch (JsonProcessingException ex) {
+    } catch (JsonProcessingException | IllegalArgumentException ex) {
       LOGGER.warn("save: {}", ex);
     }
   }
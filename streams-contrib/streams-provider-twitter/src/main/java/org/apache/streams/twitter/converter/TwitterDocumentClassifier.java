@@ -28,7 +28,6 @@ import org.apache.streams.twitter.pojo.Tweet;
 import org.apache.streams.twitter.pojo.User;
 import org.apache.streams.twitter.pojo.UserstreamEvent;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
@@ -41,29 +40,47 @@ import static org.apache.streams.twitter.converter.TwitterDateTimeFormat.TWITTER
 
 /**
  * Ensures twitter documents can be converted to Activity.
+ *
+ * <p></p>
+ * Declares no {@link DocumentClassifier#requiredFields()}: it looks for fields anywhere in the
+ * document, and classifies a document it does not otherwise recognize as a Tweet, so it must see
+ * every document.
  */
 public class TwitterDocumentClassifier implements DocumentClassifier {
 
+  private static final StreamsJacksonMapper MAPPER = StreamsJacksonMapper.getInstance(Collections.singletonList(TWITTER_FORMAT));
+
   @Override
   public List<Class> detectClasses(Object document) {
 
     Objects.requireNonNull(document);
 
-    ObjectMapper mapper = StreamsJacksonMapper.getInstance(Collections.singletonList(TWITTER_FORMAT));
-
     ObjectNode objectNode;
     try {
       if ( document instanceof String ) {
-        objectNode = mapper.readValue((String) document, ObjectNode.class);
+        objectNode = MAPPER.getReader(ObjectNode.class).readValue((String) document);
       } else if ( document instanceof ObjectNode ) {
         objectNode = (ObjectNode) document;
       } else {
-        objectNode = mapper.convertValue(document, ObjectNode.class);
+        objectNode = MAPPER.convertValue(document, ObjectNode.class);
       }
     } catch (IOException ex) {
       return new ArrayList<>();
     }
 
+    return classify(objectNode);
+  }
+
+  @Override
+  public List<Class> detectClasses(Object document, ObjectNode parsed) {
+    if ( parsed == null ) {
+      return detectClasses(document);
+    }
+    return classify(parsed);
+  }
+
+  private List<Class> classify(ObjectNode objectNode) {
+
     List<Class> classList = new ArrayList<>();
 
     if ( objectNode.findValue("retweeted_status") != null
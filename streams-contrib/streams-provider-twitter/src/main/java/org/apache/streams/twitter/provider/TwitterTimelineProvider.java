@@ -21,8 +21,9 @@ package org.apache.streams.twitter.provider;
 import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.core.StreamsCreditedProvider;
+import org.apache.streams.core.StreamsCredits;
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsProvider;
 import org.apache.streams.core.StreamsResultSet;
 import org.apache.streams.core.util.ExecutorUtils;
 import org.apache.streams.core.util.QueueUtils;
@@ -71,7 +72,7 @@ import java.util.stream.Stream;
 /**
  * Retrieve recent posts from a list of user ids or names.
  */
-public class TwitterTimelineProvider implements Callable<Iterator<Tweet>>, StreamsProvider, Serializable {
+public class TwitterTimelineProvider implements Callable<Iterator<Tweet>>, StreamsCreditedProvider, Serializable {
 
   private static final String STREAMS_ID = "TwitterTimelineProvider";
 
@@ -92,6 +93,8 @@ public class TwitterTimelineProvider implements Callable<Iterator<Tweet>>, Strea
 
   protected volatile Queue<StreamsDatum> providerQueue;
 
+  protected transient StreamsCredits credits;
+
   protected int idsCount;
   protected Twitter client;
 
@@ -251,6 +254,38 @@ public class TwitterTimelineProvider implements Callable<Iterator<Tweet>>, Strea
 
   }
 
+  @Override
+  public void setCredits(StreamsCredits credits) {
+    this.credits = credits;
+  }
+
+  /**
+   * Waits for downstream demand before fetching more posts.
+   * @param wanted number of posts about to be requested
+   * @return number of posts that may be requested, wanted if the runtime does not signal demand
+   */
+  protected int acquireCredits(int wanted) {
+    if(this.credits == null) {
+      return wanted;
+    }
+    try {
+      return this.credits.acquire(wanted);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      return wanted;
+    }
+  }
+
+  /**
+   * Returns credits acquired for posts that were not added to the provider queue.
+   * @param unused number of unused credits
+   */
+  protected void releaseCredits(int unused) {
+    if(this.credits != null && unused > 0) {
+      this.credits.release(unused);
+    }
+  }
+
   @Override
   public void startStream() {
 
@@ -45,6 +45,8 @@ public class TwitterTimelineProviderTask implements Callable<Iterator<Tweet>>, R
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TwitterTimelineProviderTask.class);
 
+  private static final long DEFAULT_PAGE_SIZE = 200;
+
   private static ObjectMapper MAPPER = new StreamsJacksonMapper(Stream.of(TwitterDateTimeFormat.TWITTER_FORMAT).collect(Collectors.toList()));
 
   protected TwitterTimelineProvider provider;
@@ -67,6 +69,7 @@ public class TwitterTimelineProviderTask implements Callable<Iterator<Tweet>>, R
   int item_count = 0;
   int last_count = 0;
   int page_count = 0;
+  long requested_count = 0;
 
   @Override
   public void run() {
@@ -75,31 +78,53 @@ public class TwitterTimelineProviderTask implements Callable<Iterator<Tweet>>, R
 
     responseList = new ArrayList<>();
 
+    long pageSize = request.getCount() != null ? request.getCount() : DEFAULT_PAGE_SIZE;
+    long lastMinId = Long.MAX_VALUE;
+
     do {
 
-      List<Tweet> statuses = client.userTimeline(request);
+      // only ask twitter for as many posts as the stream has room for
+      int credits = provider.acquireCredits((int) pageSize);
+      request.setCount((long) credits);
 
-      responseList.addAll(statuses);
+      List<Tweet> statuses = client.userTimeline(request);
 
+      int offered = 0;
       last_count = statuses.size();
       if( statuses.size() > 0 ) {
 
-        for (Tweet status : statuses) {
+        long minId = statuses.stream().mapToLong(Tweet::getId).min().getAsLong();
+        if (minId >= lastMinId) {
+          // a page that reaches no further back than the last one only holds posts already offered
+          LOGGER.warn("Timeline did not page past id {}, stopping", lastMinId);
+          last_count = 0;
+        } else {
+
+          responseList.addAll(statuses);
+
+          for (Tweet status : statuses) {
+
+            if (item_count < provider.getConfig().getMaxItems()) {
+              ComponentUtils.offerUntilSuccess(new StreamsDatum(status), provider.providerQueue);
+              item_count++;
+              offered++;
+            }
 
-          if (item_count < provider.getConfig().getMaxItems()) {
-            ComponentUtils.offerUntilSuccess(new StreamsDatum(status), provider.providerQueue);
-            item_count++;
           }
 
-        }
+          lastMinId = minId;
+          // pages cut short by credits only count against max_pages once they add up to a full page
+          requested_count += credits;
+          page_count = (int) (requested_count / pageSize);
+          // max_id is inclusive, so ask for the posts older than the oldest one seen
+          request.setMaxId(minId - 1);
 
-        Stream<Long> statusIds = statuses.stream().map(status -> status.getId());
-        long minId = statusIds.reduce(Math::min).get();
-        page_count++;
-        request.setMaxId(minId);
+        }
 
       }
 
+      provider.releaseCredits(credits - offered);
+
     }
     while (shouldContinuePulling(last_count, page_count, item_count));
 
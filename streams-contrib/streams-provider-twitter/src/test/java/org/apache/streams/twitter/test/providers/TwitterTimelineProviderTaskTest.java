@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.twitter.test.providers;
+
+import org.apache.streams.core.StreamsCredits;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.twitter.api.StatusesUserTimelineRequest;
+import org.apache.streams.twitter.api.Twitter;
+import org.apache.streams.twitter.config.TwitterTimelineProviderConfiguration;
+import org.apache.streams.twitter.pojo.Tweet;
+import org.apache.streams.twitter.provider.TwitterTimelineProvider;
+import org.apache.streams.twitter.provider.TwitterTimelineProviderTask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link org.apache.streams.twitter.provider.TwitterTimelineProviderTask}
+ */
+public class TwitterTimelineProviderTaskTest {
+
+  /**
+   * Test that pages cut short by credits do not stop the timeline before max_pages full pages
+   */
+  @Test
+  public void testThrottledCredits() {
+    TwitterTimelineProvider provider = provider(50);
+
+    new TwitterTimelineProviderTask(provider, timeline(), new StatusesUserTimelineRequest()).run();
+
+    Assert.assertEquals(400, provider.getProviderQueue().size());
+    for (StreamsDatum datum : provider.getProviderQueue()) {
+      Assert.assertNotNull(datum.getDocument());
+    }
+  }
+
+  /**
+   * Test that single post pages move back through the timeline instead of repeating the oldest post
+   */
+  @Test
+  public void testSingleCredit() {
+    TwitterTimelineProvider provider = provider(1);
+
+    new TwitterTimelineProviderTask(provider, timeline(), new StatusesUserTimelineRequest()).run();
+
+    Assert.assertEquals(400, provider.getProviderQueue().size());
+    Set<Long> ids = new HashSet<>();
+    for (StreamsDatum datum : provider.getProviderQueue()) {
+      ids.add(((Tweet) datum.getDocument()).getId());
+    }
+    Assert.assertEquals(400, ids.size());
+  }
+
+  /**
+   * Test that paging stops once a page does not reach further back than the last one
+   */
+  @Test
+  public void testStalledTimeline() {
+    TwitterTimelineProvider provider = provider(1);
+    Twitter twitter = mock(Twitter.class);
+    when(twitter.userTimeline(any(StatusesUserTimelineRequest.class))).thenAnswer(invocation -> {
+      List<Tweet> page = new ArrayList<>();
+      page.add(new Tweet().withId(10000L));
+      return page;
+    });
+
+    new TwitterTimelineProviderTask(provider, twitter, new StatusesUserTimelineRequest()).run();
+
+    Assert.assertEquals(1, provider.getProviderQueue().size());
+    verify(twitter, times(2)).userTimeline(any(StatusesUserTimelineRequest.class));
+  }
+
+  private static TwitterTimelineProvider provider(int limit) {
+    TwitterTimelineProviderConfiguration config = new TwitterTimelineProviderConfiguration();
+    config.setMaxItems(1000L);
+    config.setMaxPages(2L);
+    TwitterTimelineProvider provider = new TwitterTimelineProvider(config) {
+      {
+        providerQueue = new ConcurrentLinkedQueue<>();
+      }
+    };
+    provider.setCredits(new StreamsCredits() {
+      @Override
+      public int acquire(int max) {
+        return Math.min(max, limit);
+      }
+
+      @Override
+      public void release(int credits) {
+      }
+    });
+    return provider;
+  }
+
+  /**
+   * A timeline of ids counting down from 10000 that, like twitter, includes max_id in the page.
+   */
+  private static Twitter timeline() {
+    Twitter twitter = mock(Twitter.class);
+    when(twitter.userTimeline(any(StatusesUserTimelineRequest.class))).thenAnswer(invocation -> {
+      StatusesUserTimelineRequest request = (StatusesUserTimelineRequest) invocation.getArguments()[0];
+      long maxId = request.getMaxId() != null ? request.getMaxId() : 10000;
+      List<Tweet> page = new ArrayList<>();
+      for (int i = 0; i < request.getCount(); i++) {
+        page.add(new Tweet().withId(maxId - i));
+      }
+      return page;
+    });
+    return twitter;
+  }
+
+}
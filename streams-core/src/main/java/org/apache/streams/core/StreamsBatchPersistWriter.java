@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import java.util.List;
+
+/**
+ * StreamsPersistWriter that can persist many StreamsDatums in one call.  Runtimes that hand datums to writers
+ * in batches call {@link #write(List)} instead of calling {@link #write(StreamsDatum)} once per datum.
+ */
+public interface StreamsBatchPersistWriter extends StreamsPersistWriter {
+
+  /**
+   * Persist the StreamsDatums to the corresponding data store.
+   * @param entries to be stored, in the order they were received.
+   */
+  void write( List<StreamsDatum> entries );
+
+}
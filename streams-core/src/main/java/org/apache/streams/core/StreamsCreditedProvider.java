@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+/**
+ * StreamsProvider that throttles fetching at its source according to downstream demand.  Runtimes that track the
+ * room left downstream call {@link #setCredits(StreamsCredits)} before {@link #prepare(Object)}.  Providers that were
+ * never given credits fetch as fast as they can.
+ */
+public interface StreamsCreditedProvider extends StreamsProvider {
+
+  /**
+   * @param credits demand for the datums of this provider
+   */
+  void setCredits(StreamsCredits credits);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+/**
+ * Demand signalled by a runtime to a {@link StreamsCreditedProvider}.  One credit is the room for one more
+ * StreamsDatum downstream of the provider.  Providers acquire credits before fetching from their source, so fetching
+ * slows down when the rest of the stream falls behind instead of buffering without bound.
+ */
+public interface StreamsCredits {
+
+  /**
+   * Blocks until downstream has room for at least one more datum.
+   * @param max number of credits wanted
+   * @return number of credits granted, between 1 and max, or 0 if max is not positive
+   * @throws InterruptedException if interrupted while waiting for demand
+   */
+  int acquire(int max) throws InterruptedException;
+
+  /**
+   * Returns credits that were granted but will not be used, or whose datums have been handed downstream.
+   * @param credits number of credits returned
+   */
+  void release(int credits);
+
+}
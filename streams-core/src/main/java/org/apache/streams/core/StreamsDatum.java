@@ -20,21 +20,43 @@ package org.apache.streams.core;
 
 import org.apache.streams.pojo.json.Activity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.joda.time.DateTime;
 
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+/**
+ * StreamsDatum wraps a document with the id, timestamp, sequenceid and metadata streams components pass along.
+ *
+ * <p></p>
+ * The metadata map is only created the first time it is requested, and the timestamp and sequenceid can be kept as
+ * primitive longs with {@link #setTimestampMillis(long)} and {@link #setSequenceidLong(long)}, in which case the
+ * DateTime and BigInteger are only created if {@link #getTimestamp()} or {@link #getSequenceid()} is called.  Code
+ * reading the public fields directly should use the getters instead.
+ *
+ * <p></p>
+ * Datums acquired from a {@link StreamsDatumPool} go back to their pool when {@link #recycle()} is called.
+ */
 public class StreamsDatum implements Serializable {
 
+  /**
+   * Returned by {@link #getTimestampMillis()} and {@link #getSequenceidLong()} when the value is not set.
+   */
+  public static final long NO_VALUE = Long.MIN_VALUE;
+
+  static final AtomicIntegerFieldUpdater<StreamsDatum> FREE =
+      AtomicIntegerFieldUpdater.newUpdater(StreamsDatum.class, "free");
+
   public StreamsDatum(Object document) {
-    this(document, null, null, null, new HashMap<>());
+    this(document, null, null, null, null);
   }
 
   public StreamsDatum(Object document, String id) {
-    this(document, id, null, null, new HashMap<>());
+    this(document, id, null, null, null);
   }
 
   public StreamsDatum(Object document, BigInteger sequenceid) {
@@ -54,7 +76,7 @@ public class StreamsDatum implements Serializable {
   }
 
   public StreamsDatum(Object document, String id, DateTime timestamp) {
-    this(document, id, timestamp, null, new HashMap<>());
+    this(document, id, timestamp, null, null);
   }
 
   public StreamsDatum(Object document, String id, Map<String, Object> metadata) {
@@ -66,15 +88,11 @@ public class StreamsDatum implements Serializable {
   }
 
   public StreamsDatum(Object document, String id, BigInteger sequenceid) {
-    this(document, id, sequenceid, new HashMap<>());
+    this(document, id, sequenceid, null);
   }
 
   public StreamsDatum(Object document, String id, DateTime timestamp, BigInteger sequenceid) {
-    this.document = document;
-    this.id = id;
-    this.timestamp = timestamp;
-    this.sequenceid = sequenceid;
-    this.metadata = new HashMap<>();
+    this(document, id, timestamp, sequenceid, null);
   }
 
   public StreamsDatum(Object document, String id, DateTime timestamp, BigInteger sequenceid, Map<String, Object> metadata) {
@@ -85,6 +103,20 @@ public class StreamsDatum implements Serializable {
     this.metadata = metadata;
   }
 
+  /**
+   * Create a datum whose timestamp and sequenceid are kept as primitive longs.
+   * @param document document
+   * @param id id, may be null
+   * @param timestampMillis timestamp in milliseconds, or {@link #NO_VALUE}
+   * @param sequenceid sequenceid, or {@link #NO_VALUE}
+   */
+  public StreamsDatum(Object document, String id, long timestampMillis, long sequenceid) {
+    this.document = document;
+    this.id = id;
+    this.timestampMillis = timestampMillis;
+    this.sequenceidLong = sequenceid;
+  }
+
   public DateTime timestamp;
 
   public BigInteger sequenceid;
@@ -95,23 +127,110 @@ public class StreamsDatum implements Serializable {
 
   private String id;
 
+  private long timestampMillis = NO_VALUE;
+
+  private long sequenceidLong = NO_VALUE;
+
+  private long ingestedNanos = NO_VALUE;
+
+  private StreamsDatumLineage lineage;
+
+  transient StreamsDatumPool pool;
+
+  transient volatile int free;
+
   public DateTime getTimestamp() {
+    if (timestamp == null && timestampMillis != NO_VALUE) {
+      timestamp = new DateTime(timestampMillis);
+    }
     return timestamp;
   }
 
   public void setTimestamp(DateTime timestamp) {
     this.timestamp = timestamp;
+    this.timestampMillis = NO_VALUE;
+  }
+
+  /**
+   * get the timestamp without creating a DateTime.  Left out of JSON, which already has timestamp.
+   * @return milliseconds since the epoch, or {@link #NO_VALUE} if there is no timestamp
+   */
+  @JsonIgnore
+  public long getTimestampMillis() {
+    return timestamp != null ? timestamp.getMillis() : timestampMillis;
+  }
+
+  @JsonIgnore
+  public void setTimestampMillis(long timestampMillis) {
+    this.timestamp = null;
+    this.timestampMillis = timestampMillis;
   }
 
   public BigInteger getSequenceid() {
+    if (sequenceid == null && sequenceidLong != NO_VALUE) {
+      sequenceid = BigInteger.valueOf(sequenceidLong);
+    }
     return sequenceid;
   }
 
   public void setSequenceid(BigInteger sequenceid) {
     this.sequenceid = sequenceid;
+    this.sequenceidLong = NO_VALUE;
+  }
+
+  /**
+   * get the sequenceid without creating a BigInteger.  Left out of JSON, which already has sequenceid.
+   * @return sequenceid, or {@link #NO_VALUE} if there is no sequenceid
+   * @throws ArithmeticException if the sequenceid does not fit in a long
+   */
+  @JsonIgnore
+  public long getSequenceidLong() {
+    return sequenceid != null ? sequenceid.longValueExact() : sequenceidLong;
+  }
+
+  @JsonIgnore
+  public void setSequenceidLong(long sequenceid) {
+    this.sequenceid = null;
+    this.sequenceidLong = sequenceid;
+  }
+
+  /**
+   * get the {@link System#nanoTime()} at which a runtime first emitted this datum into a stream.  Used to measure
+   * end-to-end latency, so it is only comparable with other readings of the same JVM and is left out of JSON.
+   * @return nanoTime, or {@link #NO_VALUE} if the datum has not been emitted by a runtime
+   */
+  @JsonIgnore
+  public long getIngestedNanos() {
+    return ingestedNanos;
+  }
+
+  @JsonIgnore
+  public void setIngestedNanos(long ingestedNanos) {
+    this.ingestedNanos = ingestedNanos;
+  }
+
+  /**
+   * get the lineage recorded by the runtime.  Runtime bookkeeping, so it is left out of JSON.
+   * @return lineage, or null if the datum was not sampled for lineage
+   */
+  @JsonIgnore
+  public StreamsDatumLineage getLineage() {
+    return lineage;
+  }
+
+  @JsonIgnore
+  public void setLineage(StreamsDatumLineage lineage) {
+    this.lineage = lineage;
   }
 
+  /**
+   * get the metadata, creating an empty map the first time it is requested.
+   * @return metadata
+   */
   public Map<String, Object> getMetadata() {
+    if (metadata == null) {
+      metadata = new HashMap<>();
+    }
     return metadata;
   }
 
@@ -119,6 +238,14 @@ public class StreamsDatum implements Serializable {
     this.metadata = metadata;
   }
 
+  /**
+   * check for metadata without creating the map.
+   * @return true if there is at least one metadata entry
+   */
+  public boolean hasMetadata() {
+    return metadata != null && !metadata.isEmpty();
+  }
+
   public Object getDocument() {
     return document;
   }
@@ -138,13 +265,37 @@ public class StreamsDatum implements Serializable {
     this.id = id;
   }
 
+  /**
+   * Signal that no component holds this datum anymore.  A datum acquired from a {@link StreamsDatumPool} is cleared
+   * and returned to the pool, any other datum is left alone.
+   */
+  public void recycle() {
+    if (pool != null) {
+      pool.release(this);
+    }
+  }
+
+  void clear() {
+    this.document = null;
+    this.id = null;
+    this.timestamp = null;
+    this.timestampMillis = NO_VALUE;
+    this.sequenceid = null;
+    this.sequenceidLong = NO_VALUE;
+    this.ingestedNanos = NO_VALUE;
+    this.lineage = null;
+    this.metadata = null;
+  }
+
   @Override
   public boolean equals(Object configurationObject) {
     if (configurationObject instanceof StreamsDatum) {
       StreamsDatum that = (StreamsDatum) configurationObject;
       if (this.document != null && this.document.equals(that.document)) {
-        return (this.timestamp != null ? this.timestamp.equals(that.timestamp) : that.timestamp == null)
-            && (this.sequenceid != null ? this.sequenceid.equals(that.sequenceid) : that.sequenceid == null);
+        DateTime timestamp = this.getTimestamp();
+        BigInteger sequenceid = this.getSequenceid();
+        return (timestamp != null ? timestamp.equals(that.getTimestamp()) : that.getTimestamp() == null)
+            && (sequenceid != null ? sequenceid.equals(that.getSequenceid()) : that.getSequenceid() == null);
       } else {
         return that.document == null && this.document == null;
       }
@@ -156,9 +307,9 @@ public class StreamsDatum implements Serializable {
   @Override
   public String toString() {
     return "StreamsDatum{"
-        + "timestamp=" + timestamp
-        + ", sequenceid=" + sequenceid
-        + ", metadata=" + metadata
+        + "timestamp=" + getTimestamp()
+        + ", sequenceid=" + getSequenceid()
+        + ", metadata=" + getMetadata()
         + ", document=" + document
         + ", id='" + id + '\''
         + '}';
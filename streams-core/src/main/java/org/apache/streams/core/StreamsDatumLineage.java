@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The components a sampled datum passed through, with the {@link System#nanoTime()} at which each component received
+ * the datum (ingress) and handed it on (egress).  A runtime attaches a lineage to a sample of the datums it emits with
+ * {@link StreamsDatum#setLineage(StreamsDatumLineage)}, so datums outside the sample only carry a null reference and
+ * their metadata is never touched.
+ *
+ * <p></p>
+ * A lineage belongs to one datum and is updated by one component at a time.  Copies of a datum sent down different
+ * branches of a stream need their own lineage, see {@link #copy()}.  Times are only comparable within the JVM that
+ * recorded them.
+ */
+public class StreamsDatumLineage implements Serializable {
+
+  public static final String PATH_SEPARATOR = " -> ";
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private String[] components;
+
+  private long[] ingress;
+
+  private long[] egress;
+
+  private int size;
+
+  public StreamsDatumLineage() {
+    this(INITIAL_CAPACITY);
+  }
+
+  private StreamsDatumLineage(int capacity) {
+    this.components = new String[capacity];
+    this.ingress = new long[capacity];
+    this.egress = new long[capacity];
+  }
+
+  /**
+   * Record that a component received the datum.
+   * @param component id of the component
+   * @param nanos {@link System#nanoTime()} at which the datum was received
+   */
+  public void enter(String component, long nanos) {
+    if (size == components.length) {
+      components = Arrays.copyOf(components, size * 2);
+      ingress = Arrays.copyOf(ingress, size * 2);
+      egress = Arrays.copyOf(egress, size * 2);
+    }
+    components[size] = component;
+    ingress[size] = nanos;
+    egress[size] = StreamsDatum.NO_VALUE;
+    size++;
+  }
+
+  /**
+   * Record that the last component to receive the datum has handed it on.
+   * @param nanos {@link System#nanoTime()} at which the datum left the component
+   */
+  public void exit(long nanos) {
+    if (size > 0) {
+      egress[size - 1] = nanos;
+    }
+  }
+
+  /**
+   * @return number of components the datum passed through
+   */
+  public int size() {
+    return size;
+  }
+
+  public String getComponent(int hop) {
+    checkHop(hop);
+    return components[hop];
+  }
+
+  public long getIngressNanos(int hop) {
+    checkHop(hop);
+    return ingress[hop];
+  }
+
+  /**
+   * @param hop index of the component, starting with the provider
+   * @return nanoTime at which the component handed the datum on, or {@link StreamsDatum#NO_VALUE} if it has not yet
+   */
+  public long getEgressNanos(int hop) {
+    checkHop(hop);
+    return egress[hop];
+  }
+
+  /**
+   * @return ids of the components the datum passed through, joined by {@link #PATH_SEPARATOR}
+   */
+  public String getPath() {
+    StringBuilder path = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        path.append(PATH_SEPARATOR);
+      }
+      path.append(components[i]);
+    }
+    return path.toString();
+  }
+
+  /**
+   * @return independent lineage with the same hops, for a copy of the datum
+   */
+  public StreamsDatumLineage copy() {
+    StreamsDatumLineage copy = new StreamsDatumLineage(Math.max(INITIAL_CAPACITY, size + 1));
+    System.arraycopy(components, 0, copy.components, 0, size);
+    System.arraycopy(ingress, 0, copy.ingress, 0, size);
+    System.arraycopy(egress, 0, copy.egress, 0, size);
+    copy.size = size;
+    return copy;
+  }
+
+  private void checkHop(int hop) {
+    if (hop < 0 || hop >= size) {
+      throw new IndexOutOfBoundsException("hop " + hop + " of " + size);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "StreamsDatumLineage{" + getPath() + '}';
+  }
+
+}
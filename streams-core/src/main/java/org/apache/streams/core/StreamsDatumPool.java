@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of StreamsDatum instances for providers and readers that emit datums at a high rate.
+ *
+ * <p></p>
+ * A datum taken with {@link #acquire(Object, String, long, long)} returns to the pool when {@link StreamsDatum#recycle()}
+ * is called, which the runtime does once the datum has been handed to a {@link StreamsRecyclingPersistWriter}.  Pooling
+ * is only safe when no component downstream keeps a reference to the datum itself after processing or writing it.  Documents and metadata
+ * maps are never reused, only the StreamsDatum wrapper.  A datum released twice is only pooled once, and datums
+ * released while the pool is full are left to the garbage collector.
+ */
+public class StreamsDatumPool {
+
+  private final int capacity;
+
+  private final Queue<StreamsDatum> free = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final AtomicLong created = new AtomicLong();
+
+  private final AtomicLong reused = new AtomicLong();
+
+  /**
+   * StreamsDatumPool constructor.
+   * @param capacity maximum number of idle datums kept
+   */
+  public StreamsDatumPool(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive : " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  public StreamsDatum acquire(Object document) {
+    return acquire(document, null, StreamsDatum.NO_VALUE, StreamsDatum.NO_VALUE);
+  }
+
+  public StreamsDatum acquire(Object document, String id) {
+    return acquire(document, id, StreamsDatum.NO_VALUE, StreamsDatum.NO_VALUE);
+  }
+
+  /**
+   * Take an idle datum from the pool, or create one if the pool is empty.
+   * @param document document
+   * @param id id, may be null
+   * @param timestampMillis timestamp in milliseconds, or {@link StreamsDatum#NO_VALUE}
+   * @param sequenceid sequenceid, or {@link StreamsDatum#NO_VALUE}
+   * @return datum which goes back to this pool when recycled
+   */
+  public StreamsDatum acquire(Object document, String id, long timestampMillis, long sequenceid) {
+    StreamsDatum datum = this.free.poll();
+    if (datum == null) {
+      datum = new StreamsDatum(document, id, timestampMillis, sequenceid);
+      datum.pool = this;
+      this.created.incrementAndGet();
+    } else {
+      this.size.decrementAndGet();
+      datum.setDocument(document);
+      datum.setId(id);
+      datum.setTimestampMillis(timestampMillis);
+      datum.setSequenceidLong(sequenceid);
+      this.reused.incrementAndGet();
+    }
+    StreamsDatum.FREE.set(datum, 0);
+    return datum;
+  }
+
+  /**
+   * Clear a datum acquired from this pool and keep it for reuse.
+   * @param datum datum no longer referenced by any component
+   * @return true if the datum was added to the pool
+   */
+  public boolean release(StreamsDatum datum) {
+    if (datum.pool != this || !StreamsDatum.FREE.compareAndSet(datum, 0, 1)) {
+      return false;
+    }
+    datum.clear();
+    if (this.size.incrementAndGet() > this.capacity) {
+      this.size.decrementAndGet();
+      return false;
+    }
+    this.free.offer(datum);
+    return true;
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return number of idle datums in the pool
+   */
+  public int size() {
+    return this.size.get();
+  }
+
+  /**
+   * @return number of datums created because the pool was empty
+   */
+  public long getCreated() {
+    return this.created.get();
+  }
+
+  /**
+   * @return number of datums handed out again after being recycled
+   */
+  public long getReused() {
+    return this.reused.get();
+  }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.core;
+
+/**
+ * StreamsPersistWriter that keeps no reference to a StreamsDatum once write returns, so the runtime may
+ * {@link StreamsDatum#recycle()} it.  Writers that buffer datums, or hand them to another thread, must not implement
+ * this interface, their datums are left to the garbage collector.
+ */
+public interface StreamsRecyclingPersistWriter extends StreamsPersistWriter {
+
+}
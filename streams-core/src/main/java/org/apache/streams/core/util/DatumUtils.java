@@ -54,7 +54,7 @@ public class DatumUtils {
     clone.setId(datum.getId() == null ? null : datum.getId());
     clone.setTimestamp(datum.getTimestamp() == null ? null : new DateTime(datum.getTimestamp()));
     clone.setSequenceid(datum.getSequenceid() == null ? null : datum.getSequenceid());
-    clone.setMetadata(datum.getMetadata() == null ? null : new HashMap<>(datum.getMetadata()));
+    clone.setMetadata(datum.hasMetadata() ? new HashMap<>(datum.getMetadata()) : null);
     return clone;
   }
 }
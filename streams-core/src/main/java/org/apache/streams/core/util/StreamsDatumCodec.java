@@ -0,0 +1,486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core.util;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.util.SerializationUtil;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary encoding of a StreamsDatum - id, timestamp, sequenceid, metadata and document - as a single Smile object.
+ *
+ * <p></p>
+ * Strings, booleans, ints, doubles, byte arrays and string-keyed maps are written as native Smile values.  Other
+ * values are written as a short array of a one letter type tag followed by the payload, so they come back as the same
+ * type.  Beans generated from the streams-schemas definitions (Activity, ActivityObject, provider beans, ...) are
+ * recognised by their {@link JsonPropertyOrder} annotation and written through their {@link StreamsJacksonMapper}
+ * binding, which is much smaller and faster than java serialization.  Any other Serializable value falls back to
+ * {@link SerializationUtil}.
+ *
+ * <p></p>
+ * Decoding only loads bean classes that are generated beans, and only deserializes java serialized values when the
+ * codec trusts its input, see {@link #getTrustedInstance()}.  Bytes read from a broker or a shared file must go
+ * through an untrusted codec, so a crafted payload can neither initialize arbitrary classes nor run a java
+ * deserialization gadget.
+ *
+ * <p></p>
+ * Instances are thread-safe.
+ */
+public class StreamsDatumCodec {
+
+  private static final StreamsDatumCodec INSTANCE = new StreamsDatumCodec(StreamsJacksonMapper.getInstance());
+
+  private static final StreamsDatumCodec TRUSTED_INSTANCE = new StreamsDatumCodec(StreamsJacksonMapper.getInstance(), true);
+
+  private static final int VERSION = 1;
+
+  private static final String VERSION_FIELD = "v";
+  private static final String ID_FIELD = "id";
+  private static final String TIMESTAMP_FIELD = "ts";
+  private static final String ZONE_FIELD = "tz";
+  private static final String SEQUENCEID_FIELD = "seq";
+  private static final String METADATA_FIELD = "meta";
+  private static final String DOCUMENT_FIELD = "doc";
+
+  private static final String LONG_TAG = "L";
+  private static final String FLOAT_TAG = "F";
+  private static final String BIG_INTEGER_TAG = "N";
+  private static final String BIG_DECIMAL_TAG = "B";
+  private static final String DATE_TIME_TAG = "T";
+  private static final String LIST_TAG = "A";
+  private static final String JSON_TAG = "J";
+  private static final String BEAN_TAG = "P";
+  private static final String SERIALIZED_TAG = "S";
+
+  private final SmileFactory factory = new SmileFactory();
+
+  private final StreamsJacksonMapper mapper;
+
+  private final boolean trusted;
+
+  private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+  /**
+   * get the default StreamsDatumCodec, which binds beans with the default {@link StreamsJacksonMapper} and refuses
+   * java serialized values when decoding.
+   * @return StreamsDatumCodec
+   */
+  public static StreamsDatumCodec getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * get a StreamsDatumCodec that also decodes java serialized values, for bytes written by this process itself such
+   * as local spill files.
+   * @return StreamsDatumCodec
+   */
+  public static StreamsDatumCodec getTrustedInstance() {
+    return TRUSTED_INSTANCE;
+  }
+
+  public StreamsDatumCodec(StreamsJacksonMapper mapper) {
+    this(mapper, false);
+  }
+
+  /**
+   * @param mapper mapper binding generated beans
+   * @param trusted true to decode java serialized values, only for input this process wrote
+   */
+  public StreamsDatumCodec(StreamsJacksonMapper mapper, boolean trusted) {
+    this.mapper = mapper;
+    this.trusted = trusted;
+  }
+
+  /**
+   * Whether values of this class are written through their jackson binding.  True for classes generated by
+   * jsonschema2pojo, which carry a runtime {@link JsonPropertyOrder} annotation.
+   * @param clazz class
+   * @return true if the class is a generated bean
+   */
+  public static boolean isGeneratedBean(Class<?> clazz) {
+    return clazz.isAnnotationPresent(JsonPropertyOrder.class);
+  }
+
+  /**
+   * encode a StreamsDatum.
+   * @param datum StreamsDatum
+   * @return byte[]
+   * @throws IllegalArgumentException if the document or a metadata value can not be encoded
+   */
+  public byte[] encode(StreamsDatum datum) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try {
+      encode(datum, bytes);
+    } catch (IOException ioe) {
+      throw new IllegalArgumentException("Unable to encode datum " + datum.getId(), ioe);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * encode a StreamsDatum to a stream, which is left open.
+   * @param datum StreamsDatum
+   * @param out OutputStream
+   * @throws IOException IOException
+   */
+  public void encode(StreamsDatum datum, OutputStream out) throws IOException {
+    try (JsonGenerator generator = this.factory.createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.writeStartObject();
+      generator.writeNumberField(VERSION_FIELD, VERSION);
+      if ( datum.getId() != null ) {
+        generator.writeStringField(ID_FIELD, datum.getId());
+      }
+      if ( datum.timestamp != null ) {
+        generator.writeNumberField(TIMESTAMP_FIELD, datum.timestamp.getMillis());
+        generator.writeStringField(ZONE_FIELD, datum.timestamp.getZone().getID());
+      } else if ( datum.getTimestampMillis() != StreamsDatum.NO_VALUE ) {
+        generator.writeNumberField(TIMESTAMP_FIELD, datum.getTimestampMillis());
+      }
+      if ( datum.sequenceid != null ) {
+        generator.writeFieldName(SEQUENCEID_FIELD);
+        writeBigInteger(generator, datum.sequenceid);
+      } else if ( datum.getSequenceidLong() != StreamsDatum.NO_VALUE ) {
+        generator.writeNumberField(SEQUENCEID_FIELD, datum.getSequenceidLong());
+      }
+      if ( datum.hasMetadata() ) {
+        generator.writeFieldName(METADATA_FIELD);
+        writeMap(generator, datum.getMetadata());
+      }
+      if ( datum.getDocument() != null ) {
+        generator.writeFieldName(DOCUMENT_FIELD);
+        writeValue(generator, datum.getDocument());
+      }
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * decode a StreamsDatum.
+   * @param bytes byte[]
+   * @return StreamsDatum
+   * @throws IllegalArgumentException if the bytes are not an encoded datum, or carry a value this codec does not trust
+   */
+  public StreamsDatum decode(byte[] bytes) {
+    return decode(bytes, this.trusted);
+  }
+
+  private StreamsDatum decode(byte[] bytes, boolean trusted) {
+    try (JsonParser parser = this.factory.createParser(bytes)) {
+      return readDatum(parser, trusted);
+    } catch (IOException ioe) {
+      throw new IllegalArgumentException("Unable to decode datum", ioe);
+    }
+  }
+
+  /**
+   * decode a StreamsDatum from a stream, which is left open.
+   * @param in InputStream
+   * @return StreamsDatum
+   * @throws IOException IOException
+   */
+  public StreamsDatum decode(InputStream in) throws IOException {
+    try (JsonParser parser = this.factory.createParser(in)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return readDatum(parser, this.trusted);
+    }
+  }
+
+  /**
+   * copy a StreamsDatum by encoding and decoding it, so the copy shares no mutable state with the original.
+   * @param datum StreamsDatum
+   * @return StreamsDatum
+   */
+  public StreamsDatum copy(StreamsDatum datum) {
+    //the bytes never leave this process
+    return decode(encode(datum), true);
+  }
+
+  private StreamsDatum readDatum(JsonParser parser, boolean trusted) throws IOException {
+    expect(parser.nextToken(), JsonToken.START_OBJECT);
+    StreamsDatum datum = new StreamsDatum(null, null, StreamsDatum.NO_VALUE, StreamsDatum.NO_VALUE);
+    DateTimeZone zone = null;
+    while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch ( field ) {
+        case VERSION_FIELD:
+          if ( parser.getIntValue() > VERSION ) {
+            throw new IOException("Unsupported datum encoding version " + parser.getIntValue());
+          }
+          break;
+        case ID_FIELD:
+          datum.setId(parser.getText());
+          break;
+        case TIMESTAMP_FIELD:
+          datum.setTimestampMillis(parser.getLongValue());
+          break;
+        case ZONE_FIELD:
+          zone = DateTimeZone.forID(parser.getText());
+          break;
+        case SEQUENCEID_FIELD:
+          if ( parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER ) {
+            datum.setSequenceid(parser.getBigIntegerValue());
+          } else {
+            datum.setSequenceidLong(parser.getLongValue());
+          }
+          break;
+        case METADATA_FIELD:
+          datum.setMetadata(readMap(parser, trusted));
+          break;
+        case DOCUMENT_FIELD:
+          datum.setDocument(readValue(parser, token, trusted));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    if ( zone != null && datum.getTimestampMillis() != StreamsDatum.NO_VALUE ) {
+      datum.setTimestamp(new DateTime(datum.getTimestampMillis(), zone));
+    }
+    return datum;
+  }
+
+  private void writeValue(JsonGenerator generator, Object value) throws IOException {
+    if ( value == null ) {
+      generator.writeNull();
+    } else if ( value instanceof String ) {
+      generator.writeString((String) value);
+    } else if ( value instanceof Boolean ) {
+      generator.writeBoolean((Boolean) value);
+    } else if ( value instanceof Integer ) {
+      generator.writeNumber((Integer) value);
+    } else if ( value instanceof Double ) {
+      generator.writeNumber((Double) value);
+    } else if ( value instanceof byte[] ) {
+      generator.writeBinary((byte[]) value);
+    } else if ( value instanceof Map && stringKeys((Map<?, ?>) value) ) {
+      writeMap(generator, (Map<?, ?>) value);
+    } else {
+      generator.writeStartArray();
+      writeTagged(generator, value);
+      generator.writeEndArray();
+    }
+  }
+
+  private void writeTagged(JsonGenerator generator, Object value) throws IOException {
+    if ( value instanceof Long ) {
+      generator.writeString(LONG_TAG);
+      generator.writeNumber((Long) value);
+    } else if ( value instanceof Float ) {
+      generator.writeString(FLOAT_TAG);
+      generator.writeNumber((Float) value);
+    } else if ( value instanceof BigInteger ) {
+      generator.writeString(BIG_INTEGER_TAG);
+      writeBigInteger(generator, (BigInteger) value);
+    } else if ( value instanceof BigDecimal ) {
+      generator.writeString(BIG_DECIMAL_TAG);
+      generator.writeNumber((BigDecimal) value);
+    } else if ( value instanceof DateTime ) {
+      generator.writeString(DATE_TIME_TAG);
+      generator.writeNumber(((DateTime) value).getMillis());
+      generator.writeString(((DateTime) value).getZone().getID());
+    } else if ( value instanceof List ) {
+      generator.writeString(LIST_TAG);
+      for ( Object item : (List<?>) value ) {
+        writeValue(generator, item);
+      }
+    } else if ( value instanceof JsonNode ) {
+      generator.writeString(JSON_TAG);
+      this.mapper.writeTree(generator, (JsonNode) value);
+    } else if ( isGeneratedBean(value.getClass()) ) {
+      generator.writeString(BEAN_TAG);
+      generator.writeString(value.getClass().getName());
+      this.mapper.getWriter(value.getClass()).writeValue(generator, value);
+    } else if ( value instanceof Serializable ) {
+      generator.writeString(SERIALIZED_TAG);
+      generator.writeBinary(SerializationUtil.serialize(value));
+    } else {
+      throw new IllegalArgumentException("Unable to encode value of class " + value.getClass().getName());
+    }
+  }
+
+  private void writeMap(JsonGenerator generator, Map<?, ?> map) throws IOException {
+    generator.writeStartObject();
+    for ( Map.Entry<?, ?> entry : map.entrySet() ) {
+      generator.writeFieldName((String) entry.getKey());
+      writeValue(generator, entry.getValue());
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeBigInteger(JsonGenerator generator, BigInteger value) throws IOException {
+    if ( value.bitLength() < 64 ) {
+      generator.writeNumber(value.longValue());
+    } else {
+      generator.writeNumber(value);
+    }
+  }
+
+  private Object readValue(JsonParser parser, JsonToken token, boolean trusted) throws IOException {
+    switch ( token ) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NUMBER_INT:
+        return parser.getIntValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_EMBEDDED_OBJECT:
+        return parser.getBinaryValue();
+      case START_OBJECT:
+        return readMap(parser, trusted);
+      case START_ARRAY:
+        return readTagged(parser, trusted);
+      default:
+        throw new IOException("Unexpected token " + token);
+    }
+  }
+
+  private Object readTagged(JsonParser parser, boolean trusted) throws IOException {
+    expect(parser.nextToken(), JsonToken.VALUE_STRING);
+    String tag = parser.getText();
+    Object value;
+    switch ( tag ) {
+      case LONG_TAG:
+        parser.nextToken();
+        value = parser.getLongValue();
+        break;
+      case FLOAT_TAG:
+        parser.nextToken();
+        value = parser.getFloatValue();
+        break;
+      case BIG_INTEGER_TAG:
+        parser.nextToken();
+        value = parser.getBigIntegerValue();
+        break;
+      case BIG_DECIMAL_TAG:
+        parser.nextToken();
+        value = parser.getDecimalValue();
+        break;
+      case DATE_TIME_TAG:
+        parser.nextToken();
+        long millis = parser.getLongValue();
+        parser.nextToken();
+        value = new DateTime(millis, DateTimeZone.forID(parser.getText()));
+        break;
+      case LIST_TAG:
+        List<Object> list = new ArrayList<>();
+        JsonToken token;
+        while ( (token = parser.nextToken()) != JsonToken.END_ARRAY ) {
+          list.add(readValue(parser, token, trusted));
+        }
+        return list;
+      case JSON_TAG:
+        parser.nextToken();
+        value = this.mapper.readTree(parser);
+        break;
+      case BEAN_TAG:
+        parser.nextToken();
+        Class<?> clazz = loadClass(parser.getText());
+        parser.nextToken();
+        value = this.mapper.getReader(clazz).readValue(parser);
+        break;
+      case SERIALIZED_TAG:
+        if ( !trusted ) {
+          throw new IOException("Refusing java serialized value from untrusted input");
+        }
+        parser.nextToken();
+        value = SerializationUtil.deserialize(parser.getBinaryValue());
+        break;
+      default:
+        throw new IOException("Unknown value tag " + tag);
+    }
+    expect(parser.nextToken(), JsonToken.END_ARRAY);
+    return value;
+  }
+
+  private Map<String, Object> readMap(JsonParser parser, boolean trusted) throws IOException {
+    Map<String, Object> map = new HashMap<>();
+    while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String key = parser.getCurrentName();
+      map.put(key, readValue(parser, parser.nextToken(), trusted));
+    }
+    return map;
+  }
+
+  /**
+   * Loads a bean class named in the input without initializing it, and only accepts generated beans.
+   */
+  private Class<?> loadClass(String name) throws IOException {
+    Class<?> clazz = this.classes.get(name);
+    if ( clazz == null ) {
+      try {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        clazz = Class.forName(name, false, classLoader != null ? classLoader : getClass().getClassLoader());
+      } catch (ClassNotFoundException cnfe) {
+        throw new IOException("Unable to load bean class " + name, cnfe);
+      }
+      if ( !isGeneratedBean(clazz) ) {
+        throw new IOException("Refusing to bind " + name + ", it is not a generated bean");
+      }
+      this.classes.put(name, clazz);
+    }
+    return clazz;
+  }
+
+  private static boolean stringKeys(Map<?, ?> map) {
+    for ( Object key : map.keySet() ) {
+      if ( !(key instanceof String) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+    if ( actual != expected ) {
+      throw new IOException("Expected " + expected + " but found " + actual);
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link org.apache.streams.core.StreamsDatumLineage}.
+ */
+public class StreamsDatumLineageTest {
+
+  @Test
+  public void testHops() {
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    for (int i = 0; i < 6; i++) {
+      lineage.enter("component" + i, i * 10);
+      lineage.exit(i * 10 + 5);
+    }
+    lineage.enter("writer", 100);
+    assertEquals(7, lineage.size());
+    assertEquals("component2", lineage.getComponent(2));
+    assertEquals(20, lineage.getIngressNanos(2));
+    assertEquals(25, lineage.getEgressNanos(2));
+    assertEquals(StreamsDatum.NO_VALUE, lineage.getEgressNanos(6));
+    assertEquals("component0 -> component1 -> component2 -> component3 -> component4 -> component5 -> writer",
+        lineage.getPath());
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", 1);
+    lineage.exit(2);
+    StreamsDatumLineage copy = lineage.copy();
+    copy.enter("writer", 3);
+    lineage.enter("processor", 4);
+    assertEquals("provider -> writer", copy.getPath());
+    assertEquals("provider -> processor", lineage.getPath());
+    assertEquals(2, copy.getEgressNanos(0));
+  }
+
+  @Test
+  public void testCarriedByDatum() {
+    StreamsDatum datum = new StreamsDatum("document");
+    assertNull(datum.getLineage());
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", 1);
+    datum.setLineage(lineage);
+    assertEquals("provider", datum.getLineage().getPath());
+    assertFalse(datum.hasMetadata());
+    datum.clear();
+    assertNull(datum.getLineage());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testMissingHop() {
+    new StreamsDatumLineage().getIngressNanos(0);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link org.apache.streams.core.StreamsDatumPool}.
+ */
+public class StreamsDatumPoolTest {
+
+  @Test
+  public void testRecycleAndReuse() {
+    StreamsDatumPool pool = new StreamsDatumPool(2);
+    StreamsDatum datum = pool.acquire("first", "1", 1000L, 1L);
+    datum.getMetadata().put("key", "value");
+    datum.setIngestedNanos(System.nanoTime());
+    datum.recycle();
+    assertEquals(1, pool.size());
+    assertNull(datum.getDocument());
+    assertFalse(datum.hasMetadata());
+
+    StreamsDatum reused = pool.acquire("second", "2");
+    assertSame(datum, reused);
+    assertEquals("second", reused.getDocument());
+    assertEquals("2", reused.getId());
+    assertEquals(StreamsDatum.NO_VALUE, reused.getTimestampMillis());
+    assertEquals(StreamsDatum.NO_VALUE, reused.getSequenceidLong());
+    assertEquals(StreamsDatum.NO_VALUE, reused.getIngestedNanos());
+    assertFalse(reused.hasMetadata());
+    assertEquals(1, pool.getCreated());
+    assertEquals(1, pool.getReused());
+  }
+
+  @Test
+  public void testReleaseIsIdempotentAndBounded() {
+    StreamsDatumPool pool = new StreamsDatumPool(1);
+    StreamsDatum first = pool.acquire("first");
+    StreamsDatum second = pool.acquire("second");
+    assertTrue(pool.release(first));
+    assertFalse(pool.release(first));
+    assertFalse(pool.release(second));
+    assertEquals(1, pool.size());
+    assertFalse(pool.release(new StreamsDatum("unpooled")));
+    assertFalse(new StreamsDatumPool(1).release(pool.acquire("other")));
+  }
+
+  @Test
+  public void testConcurrentAcquireAndRecycle() throws Exception {
+    final StreamsDatumPool pool = new StreamsDatumPool(16);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final String name = "thread" + t;
+      results.add(executor.submit(() -> {
+        for (int i = 0; i < 10000; i++) {
+          StreamsDatum datum = pool.acquire(name, name, i, i);
+          if (!name.equals(datum.getDocument()) || datum.getSequenceidLong() != i) {
+            return false;
+          }
+          datum.recycle();
+        }
+        return true;
+      }));
+    }
+    for (Future<Boolean> result : results) {
+      assertTrue(result.get());
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(pool.size() <= 16);
+    assertEquals(40000, pool.getCreated() + pool.getReused());
+  }
+
+}
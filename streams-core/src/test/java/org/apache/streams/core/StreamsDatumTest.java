@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core;
+
+import org.apache.streams.jackson.StreamsJacksonMapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link org.apache.streams.core.StreamsDatum}.
+ */
+public class StreamsDatumTest {
+
+  @Test
+  public void testLazyMetadata() {
+    StreamsDatum datum = new StreamsDatum("document", "id");
+    assertNull(datum.metadata);
+    assertFalse(datum.hasMetadata());
+    datum.getMetadata().put("key", "value");
+    assertTrue(datum.hasMetadata());
+    assertSame(datum.metadata, datum.getMetadata());
+    datum.setMetadata(null);
+    assertEquals(0, datum.getMetadata().size());
+  }
+
+  @Test
+  public void testPrimitiveTimestampAndSequenceid() {
+    StreamsDatum datum = new StreamsDatum("document", "id", 1500000000000L, 7L);
+    assertNull(datum.timestamp);
+    assertNull(datum.sequenceid);
+    assertEquals(1500000000000L, datum.getTimestampMillis());
+    assertEquals(7L, datum.getSequenceidLong());
+    assertEquals(new DateTime(1500000000000L), datum.getTimestamp());
+    assertEquals(BigInteger.valueOf(7L), datum.getSequenceid());
+    assertEquals(new StreamsDatum("document", "id", new DateTime(1500000000000L), BigInteger.valueOf(7L)), datum);
+
+    datum.setTimestamp(new DateTime(0L));
+    datum.setSequenceid(BigInteger.TEN);
+    assertEquals(0L, datum.getTimestampMillis());
+    assertEquals(10L, datum.getSequenceidLong());
+
+    StreamsDatum empty = new StreamsDatum("document");
+    assertEquals(StreamsDatum.NO_VALUE, empty.getTimestampMillis());
+    assertEquals(StreamsDatum.NO_VALUE, empty.getSequenceidLong());
+    assertNull(empty.getTimestamp());
+    assertNull(empty.getSequenceid());
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testSequenceidTooLargeForLong() {
+    new StreamsDatum("document", new BigInteger("18446744073709551616")).getSequenceidLong();
+  }
+
+  @Test
+  public void testSerializedProperties() throws Exception {
+    Set<String> original = new HashSet<>(Arrays.asList("document", "id", "timestamp", "sequenceid", "metadata"));
+    StreamsDatum datum = new StreamsDatum("document", "id", new DateTime(0L), new BigInteger("18446744073709551616"));
+    datum.getMetadata().put("key", "value");
+    assertEquals(original, serializedProperties(datum));
+    datum = new StreamsDatum("document", "id", 1500000000000L, 7L);
+    datum.getMetadata().put("key", "value");
+    datum.setIngestedNanos(System.nanoTime());
+    datum.setLineage(new StreamsDatumLineage());
+    assertEquals(original, serializedProperties(datum));
+    //properties without a value are left out, as they always were
+    assertEquals(new HashSet<>(Arrays.asList("document")), serializedProperties(new StreamsDatum("document")));
+  }
+
+  @Test
+  public void testIngestedNanosNotSerialized() throws Exception {
+    StreamsDatum datum = new StreamsDatum("document", "id");
+    datum.setIngestedNanos(System.nanoTime());
+    assertFalse(serializedProperties(datum).contains("ingestedNanos"));
+  }
+
+  @Test
+  public void testLineageNotSerialized() throws Exception {
+    StreamsDatum datum = new StreamsDatum("document", "id");
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", System.nanoTime());
+    datum.setLineage(lineage);
+    assertFalse(serializedProperties(datum).contains("lineage"));
+  }
+
+  private static Set<String> serializedProperties(StreamsDatum datum) throws Exception {
+    JsonNode node = StreamsJacksonMapper.getInstance().valueToTree(datum);
+    Set<String> properties = new HashSet<>();
+    for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+      properties.add(names.next());
+    }
+    return properties;
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.core.util;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.pojo.json.Activity;
+import org.apache.streams.pojo.json.ActivityObject;
+import org.apache.streams.pojo.json.Provider;
+import org.apache.streams.util.SerializationUtil;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link org.apache.streams.core.util.StreamsDatumCodec}.
+ */
+public class StreamsDatumCodecTest {
+
+  private final StreamsDatumCodec codec = StreamsDatumCodec.getInstance();
+
+  @Test
+  public void testActivityRoundTrip() throws Exception {
+    Activity activity = new Activity();
+    activity.setId("id:activity");
+    activity.setVerb("post");
+    activity.setContent("some content");
+    activity.setPublished(new DateTime(1500000000000L, DateTimeZone.UTC));
+    activity.setActor(new ActivityObject().withId("id:actor").withDisplayName("actor"));
+    Provider provider = new Provider();
+    provider.setId("id:provider");
+    activity.setProvider(provider);
+
+    Map<String, Object> metadata = new HashMap<>();
+    metadata.put("string", "value");
+    metadata.put("int", 42);
+    metadata.put("long", 42L);
+    metadata.put("double", 4.2);
+    metadata.put("float", 4.2f);
+    metadata.put("bool", true);
+    metadata.put("big", new BigInteger("123456789012345678901234567890"));
+    metadata.put("decimal", new BigDecimal("1.50"));
+    metadata.put("date", new DateTime(1500000000000L, DateTimeZone.forID("America/New_York")));
+    metadata.put("list", Arrays.asList("a", 1L, null));
+    metadata.put("nested", new HashMap<>(metadata));
+    metadata.put("null", null);
+
+    StreamsDatum datum = new StreamsDatum(activity, "id:datum", new DateTime(1500000000000L, DateTimeZone.UTC),
+        new BigInteger("18446744073709551616"), metadata);
+
+    byte[] bytes = codec.encode(datum);
+    StreamsDatum decoded = codec.decode(bytes);
+
+    assertEquals(datum, decoded);
+    assertEquals("id:datum", decoded.getId());
+    assertEquals(activity, decoded.getDocument());
+    assertEquals(metadata, decoded.getMetadata());
+    assertEquals(DateTimeZone.forID("America/New_York"), ((DateTime) decoded.getMetadata().get("date")).getZone());
+    assertTrue(bytes.length < SerializationUtil.serialize(datum).length);
+  }
+
+  @Test
+  public void testDocumentTypes() throws Exception {
+    ObjectNode node = StreamsJacksonMapper.getInstance().createObjectNode();
+    node.put("field", "value");
+    node.putArray("array").add(1).add("two");
+    for ( Object document : Arrays.asList("text", node, 7L, new DateTime(0L, DateTimeZone.UTC)) ) {
+      StreamsDatum decoded = codec.copy(new StreamsDatum(document));
+      assertEquals(document, decoded.getDocument());
+      assertNull(decoded.getId());
+      assertNull(decoded.getTimestamp());
+      assertNull(decoded.getSequenceid());
+    }
+    byte[] raw = new byte[] {0, 1, 2, 3};
+    assertArrayEquals(raw, (byte[]) codec.copy(new StreamsDatum(raw)).getDocument());
+  }
+
+  @Test
+  public void testPrimitiveTimestampAndSequenceid() throws Exception {
+    StreamsDatum datum = new StreamsDatum("text", "id", 1500000000000L, 42L);
+    StreamsDatum decoded = codec.copy(datum);
+    assertNull(decoded.timestamp);
+    assertNull(decoded.sequenceid);
+    assertNull(decoded.metadata);
+    assertEquals(1500000000000L, decoded.getTimestampMillis());
+    assertEquals(42L, decoded.getSequenceidLong());
+    assertEquals(datum, decoded);
+  }
+
+  @Test
+  public void testCopyIsIndependent() throws Exception {
+    Activity activity = new Activity().withId("id").withVerb("share");
+    StreamsDatum datum = new StreamsDatum(activity, "id", new DateTime(), BigInteger.TEN);
+    datum.getMetadata().put("key", "value");
+    StreamsDatum copy = codec.copy(datum);
+    assertNotSame(activity, copy.getDocument());
+    ((Activity) copy.getDocument()).setVerb("post");
+    copy.getMetadata().put("key", "changed");
+    assertEquals("share", activity.getVerb());
+    assertEquals("value", datum.getMetadata().get("key"));
+  }
+
+  @Test
+  public void testStreamsAreLeftOpen() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.encode(new StreamsDatum("first", "1"), out);
+    codec.encode(new StreamsDatum("second", "2"), out);
+    byte[] first = codec.encode(new StreamsDatum("first", "1"));
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray(), first.length, out.size() - first.length);
+    assertEquals("second", codec.decode(in).getDocument());
+    assertEquals("first", codec.decode(first).getDocument());
+  }
+
+  @Test
+  public void testSerializedValuesNeedTrustedCodec() throws Exception {
+    StreamsDatum datum = new StreamsDatum(new StringBuilder("serialized"));
+    byte[] bytes = codec.encode(datum);
+    try {
+      codec.decode(bytes);
+      fail("untrusted codec decoded a java serialized value");
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getCause().getMessage().contains("untrusted"));
+    }
+    assertEquals("serialized", StreamsDatumCodec.getTrustedInstance().decode(bytes).getDocument().toString());
+    assertEquals("serialized", codec.copy(datum).getDocument().toString());
+  }
+
+  @Test
+  public void testRefusesClassesOtherThanGeneratedBeans() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator generator = new SmileFactory().createGenerator(out)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("doc");
+      generator.writeString("P");
+      generator.writeString(ArrayList.class.getName());
+      generator.writeStartArray();
+      generator.writeEndArray();
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    try {
+      codec.decode(out.toByteArray());
+      fail("bound a class that is not a generated bean");
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getCause().getMessage().contains("not a generated bean"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnencodableDocument() {
+    codec.encode(new StreamsDatum(new Object()));
+  }
+
+}
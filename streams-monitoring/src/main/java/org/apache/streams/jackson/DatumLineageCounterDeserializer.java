@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.jackson;
+
+import org.apache.streams.pojo.json.DatumLineageCounterBroadcast;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * DatumLineageCounterDeserializer: a JsonDeserializer for DatumLineageCounterBroadcast.
+ */
+public class DatumLineageCounterDeserializer extends JsonDeserializer<DatumLineageCounterBroadcast> {
+
+  private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(DatumLineageCounterDeserializer.class);
+
+  public DatumLineageCounterDeserializer() {
+
+  }
+
+  @Override
+  public DatumLineageCounterBroadcast deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException, JsonProcessingException {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+      DatumLineageCounterBroadcast datumLineageCounterBroadcast = new DatumLineageCounterBroadcast();
+      JsonNode attributes = jsonParser.getCodec().readTree(jsonParser);
+
+      ObjectName name = new ObjectName(attributes.get("canonicalName").asText());
+      MBeanInfo info = server.getMBeanInfo(name);
+      datumLineageCounterBroadcast.setName(name.toString());
+
+      for (MBeanAttributeInfo attribute : Arrays.asList(info.getAttributes())) {
+        try {
+          switch (attribute.getName()) {
+            case "Path":
+              datumLineageCounterBroadcast.setPath((String) server.getAttribute(name, attribute.getName()));
+              break;
+            case "Count":
+              datumLineageCounterBroadcast.setCount((long) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP50":
+              datumLineageCounterBroadcast.setLatencyP50((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP95":
+              datumLineageCounterBroadcast.setLatencyP95((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP99":
+              datumLineageCounterBroadcast.setLatencyP99((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP999":
+              datumLineageCounterBroadcast.setLatencyP999((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "Segments":
+              datumLineageCounterBroadcast.setSegments(Arrays.asList((String[]) server.getAttribute(name, attribute.getName())));
+              break;
+            case "SegmentAvg":
+              datumLineageCounterBroadcast.setSegmentAvg(toList((double[]) server.getAttribute(name, attribute.getName())));
+              break;
+            case "SegmentP50":
+              datumLineageCounterBroadcast.setSegmentP50(toList((double[]) server.getAttribute(name, attribute.getName())));
+              break;
+            case "SegmentP99":
+              datumLineageCounterBroadcast.setSegmentP99(toList((double[]) server.getAttribute(name, attribute.getName())));
+              break;
+            default:
+              break;
+          }
+        } catch (Exception ex) {
+          LOGGER.error("Exception while trying to deserialize DatumLineageCounterBroadcast object: {}", ex);
+        }
+      }
+
+      return datumLineageCounterBroadcast;
+    } catch (Exception ex) {
+      LOGGER.error("Exception while trying to deserialize DatumLineageCounterBroadcast object: {}", ex);
+      return null;
+    }
+  }
+
+  private static List<Double> toList(double[] values) {
+    List<Double> list = new ArrayList<>(values.length);
+    for (double value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+}
@@ -79,6 +79,33 @@ public class StreamsTaskCounterDeserializer extends JsonDeserializer<StreamsTask
             case "MaxTime":
               streamsTaskCounterBroadcast.setMaxTime((long) server.getAttribute(name, attribute.getName()));
               break;
+            case "TimeP50":
+              streamsTaskCounterBroadcast.setTimeP50((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "TimeP95":
+              streamsTaskCounterBroadcast.setTimeP95((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "TimeP99":
+              streamsTaskCounterBroadcast.setTimeP99((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "TimeP999":
+              streamsTaskCounterBroadcast.setTimeP999((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyCount":
+              streamsTaskCounterBroadcast.setLatencyCount((long) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP50":
+              streamsTaskCounterBroadcast.setLatencyP50((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP95":
+              streamsTaskCounterBroadcast.setLatencyP95((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP99":
+              streamsTaskCounterBroadcast.setLatencyP99((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "LatencyP999":
+              streamsTaskCounterBroadcast.setLatencyP999((double) server.getAttribute(name, attribute.getName()));
+              break;
             default:
               break;
           }
@@ -76,6 +76,18 @@ public class ThroughputQueueDeserializer extends JsonDeserializer<ThroughputQueu
             case "Throughput":
               throughputQueueBroadcast.setThroughput((double) server.getAttribute(name, attribute.getName()));
               break;
+            case "WaitP50":
+              throughputQueueBroadcast.setWaitP50((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "WaitP95":
+              throughputQueueBroadcast.setWaitP95((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "WaitP99":
+              throughputQueueBroadcast.setWaitP99((double) server.getAttribute(name, attribute.getName()));
+              break;
+            case "WaitP999":
+              throughputQueueBroadcast.setWaitP999((double) server.getAttribute(name, attribute.getName()));
+              break;
             default:
               break;
           }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.monitoring.metrics;
+
+import org.apache.streams.local.monitoring.MonitoringConfiguration;
+
+import com.google.common.base.Preconditions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link OpenMetricsWriter#scrape()} at {@link #PATH} from the HTTP server built into the JDK, so Prometheus
+ * can pull the metrics of a running stream instead of having them pushed by a
+ * {@link org.apache.streams.monitoring.tasks.BroadcastMonitorThread}.  Scrapes are answered one at a time on a single
+ * daemon thread.
+ */
+public class OpenMetricsServer implements Closeable {
+
+  private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(OpenMetricsServer.class);
+
+  public static final String PATH = "/metrics";
+
+  private final InetSocketAddress address;
+  private final OpenMetricsWriter writer;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * OpenMetricsServer constructor - listens on MonitoringConfiguration.metricsHost and metricsPort.
+   * @param configuration MonitoringConfiguration with a metricsPort
+   */
+  public OpenMetricsServer(MonitoringConfiguration configuration) {
+    this(address(configuration), new OpenMetricsWriter());
+  }
+
+  public OpenMetricsServer(InetSocketAddress address, OpenMetricsWriter writer) {
+    this.address = address;
+    this.writer = writer;
+  }
+
+  private static InetSocketAddress address(MonitoringConfiguration configuration) {
+    Preconditions.checkNotNull(configuration.getMetricsPort(), "metricsPort");
+    int port = configuration.getMetricsPort().intValue();
+    return configuration.getMetricsHost() == null ? new InetSocketAddress(port) : new InetSocketAddress(configuration.getMetricsHost(), port);
+  }
+
+  /**
+   * Bind the port and start answering scrapes.
+   * @throws IOException if the port can not be bound
+   */
+  public synchronized void start() throws IOException {
+    Preconditions.checkState(this.server == null, "already started");
+    this.server = HttpServer.create(this.address, 0);
+    this.server.createContext(PATH, this::handle);
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "streams-metrics-http");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server.setExecutor(this.executor);
+    this.server.start();
+    LOGGER.info("Serving OpenMetrics at http://{}:{}{}", this.address.getHostString(), getPort(), PATH);
+  }
+
+  /**
+   * @return port the server listens on, which is the configured port unless that was 0, or -1 if not started
+   */
+  public synchronized int getPort() {
+    return this.server == null ? -1 : this.server.getAddress().getPort();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (this.server != null) {
+      this.server.stop(0);
+      this.executor.shutdownNow();
+      this.server = null;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      String method = exchange.getRequestMethod();
+      if (!"GET".equals(method) && !"HEAD".equals(method)) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = this.writer.scrape().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", OpenMetricsWriter.CONTENT_TYPE);
+      if ("HEAD".equals(method)) {
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Failed to serve metrics : {}", ex);
+      exchange.sendResponseHeaders(500, -1);
+    } finally {
+      exchange.close();
+    }
+  }
+
+}
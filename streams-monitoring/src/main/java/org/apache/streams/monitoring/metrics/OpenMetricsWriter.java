@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.monitoring.metrics;
+
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Renders the counters the local runtime registers over JMX in the OpenMetrics text format, for Prometheus and other
+ * scrapers.  Only the beans of the types it knows are looked up, by ObjectName pattern, and all their attributes are
+ * read with a single call per bean.  Durations are converted from milliseconds to seconds.
+ */
+public class OpenMetricsWriter {
+
+  private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(OpenMetricsWriter.class);
+
+  public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  public static final String DOMAIN = "org.apache.streams.local";
+
+  private static final String QUEUE = "ThroughputQueue";
+  private static final String TASK = "StreamsTaskCounter";
+  private static final String DATUM = "DatumCounter";
+  private static final String LINEAGE = "DatumLineageCounter";
+  private static final String[] LABELS = {"name", "identifier", "startedAt"};
+  private static final String[] QUANTILES = {"0.5", "0.95", "0.99", "0.999"};
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  private static final List<Family> FAMILIES = Arrays.asList(
+      new Family("streams_queue_size", "gauge", "Datums waiting in the queue", QUEUE, false, "CurrentSize"),
+      new Family("streams_queue_added", "counter", "Datums added to the queue", QUEUE, false, "Added"),
+      new Family("streams_queue_removed", "counter", "Datums removed from the queue", QUEUE, false, "Removed"),
+      new Family("streams_queue_throughput", "gauge", "Datums removed from the queue per second", QUEUE, false, "Throughput"),
+      new Family("streams_queue_wait_seconds", "summary", "Time datums waited in the queue", QUEUE, true,
+          "WaitP50", "WaitP95", "WaitP99", "WaitP999"),
+      new Family("streams_queue_wait_max_seconds", "gauge", "Longest time a datum waited in the queue", QUEUE, true, "MaxWait"),
+      new Family("streams_task_received", "counter", "Datums received by the tasks of the component", TASK, false, "NumReceived"),
+      new Family("streams_task_emitted", "counter", "Datums emitted by the tasks of the component", TASK, false, "NumEmitted"),
+      new Family("streams_task_errors", "counter", "Unhandled errors in the tasks of the component", TASK, false, "NumUnhandledErrors"),
+      new Family("streams_task_time_seconds", "summary", "Time spent on each datum by the component", TASK, true,
+          "TimeP50", "TimeP95", "TimeP99", "TimeP999"),
+      new Family("streams_task_time_max_seconds", "gauge", "Longest time spent on a datum by the component", TASK, true, "MaxTime"),
+      new Family("streams_task_latency_seconds", "summary", "Time from a provider emitting a datum to the writer finishing with it", TASK, true,
+          "LatencyP50", "LatencyP95", "LatencyP99", "LatencyP999").withCount("LatencyCount"),
+      new Family("streams_datums_passed", "counter", "Datums handled without error", DATUM, false, "NumPassed"),
+      new Family("streams_datums_failed", "counter", "Datums that failed", DATUM, false, "NumFailed"),
+      new Family("streams_lineage_latency_seconds", "summary", "End to end latency of the sampled datums that took the path", LINEAGE, true,
+          "LatencyP50", "LatencyP95", "LatencyP99", "LatencyP999").withCount("Count")
+  );
+
+  private final MBeanServer server;
+
+  public OpenMetricsWriter() {
+    this(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  public OpenMetricsWriter(MBeanServer server) {
+    this.server = server;
+  }
+
+  /**
+   * Read the current value of every known bean.
+   * @return the metrics in OpenMetrics text format, terminated by # EOF
+   */
+  public String scrape() {
+    Map<String, List<Bean>> beans = new HashMap<>();
+    for (String type : Arrays.asList(QUEUE, TASK, DATUM, LINEAGE)) {
+      beans.put(type, readBeans(type));
+    }
+    StringBuilder out = new StringBuilder(4096);
+    for (Family family : FAMILIES) {
+      List<Bean> ofType = beans.get(family.beanType);
+      if (ofType.isEmpty()) {
+        continue;
+      }
+      out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+      out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+      for (Bean bean : ofType) {
+        family.write(out, bean);
+      }
+    }
+    out.append("# EOF\n");
+    return out.toString();
+  }
+
+  private List<Bean> readBeans(String type) {
+    List<Bean> beans = new ArrayList<>();
+    try {
+      for (ObjectName name : server.queryNames(new ObjectName(DOMAIN + ":type=" + type + ",*"), null)) {
+        try {
+          Bean bean = new Bean(name);
+          for (Object attribute : server.getAttributes(name, attributesOf(type))) {
+            bean.values.put(((Attribute) attribute).getName(), ((Attribute) attribute).getValue());
+          }
+          beans.add(bean);
+        } catch (Exception ex) {
+          //the bean was unregistered since the query
+          LOGGER.debug("Unable to read {} : {}", name, ex.getMessage());
+        }
+      }
+    } catch (Exception ex) {
+      LOGGER.warn("Unable to query beans of type {} : {}", type, ex);
+    }
+    return beans;
+  }
+
+  private static String[] attributesOf(String type) {
+    List<String> attributes = new ArrayList<>();
+    for (Family family : FAMILIES) {
+      if (family.beanType.equals(type)) {
+        attributes.addAll(Arrays.asList(family.attributes));
+        if (family.count != null) {
+          attributes.add(family.count);
+        }
+      }
+    }
+    return attributes.toArray(new String[attributes.size()]);
+  }
+
+  static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    } else if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  private static class Bean {
+
+    private final String labels;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private Bean(ObjectName name) {
+      StringBuilder labels = new StringBuilder();
+      for (String label : LABELS) {
+        String value = name.getKeyProperty(label);
+        if (value != null) {
+          labels.append(labels.length() == 0 ? "" : ",").append(label).append("=\"").append(escape(value)).append('"');
+        }
+      }
+      this.labels = labels.toString();
+    }
+
+  }
+
+  private static class Family {
+
+    private final String name;
+    private final String type;
+    private final String help;
+    private final String beanType;
+    private final boolean millis;
+    private final String[] attributes;
+    private String count;
+
+    private Family(String name, String type, String help, String beanType, boolean millis, String... attributes) {
+      this.name = name;
+      this.type = type;
+      this.help = help;
+      this.beanType = beanType;
+      this.millis = millis;
+      this.attributes = attributes;
+    }
+
+    private Family withCount(String count) {
+      this.count = count;
+      return this;
+    }
+
+    private void write(StringBuilder out, Bean bean) {
+      if ("summary".equals(this.type)) {
+        String labels = bean.labels.isEmpty() ? "" : bean.labels + ",";
+        for (int i = 0; i < this.attributes.length; i++) {
+          sample(out, this.name, labels + "quantile=\"" + QUANTILES[i] + "\"", value(bean, this.attributes[i]));
+        }
+        if (this.count != null) {
+          Object count = bean.values.get(this.count);
+          if (count instanceof Number) {
+            sample(out, this.name + "_count", bean.labels, ((Number) count).doubleValue());
+          }
+        }
+      } else {
+        sample(out, "counter".equals(this.type) ? this.name + "_total" : this.name, bean.labels, value(bean, this.attributes[0]));
+      }
+    }
+
+    private Double value(Bean bean, String attribute) {
+      Object value = bean.values.get(attribute);
+      if (!(value instanceof Number) || ((Number) value).doubleValue() < 0) {
+        //not readable, or a duration that has not been measured yet
+        return null;
+      }
+      double number = ((Number) value).doubleValue();
+      return this.millis ? number / MILLIS_PER_SECOND : number;
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Double value) {
+      if (value == null) {
+        return;
+      }
+      out.append(name).append('{').append(labels).append("} ").append(format(value)).append('\n');
+    }
+
+  }
+
+}
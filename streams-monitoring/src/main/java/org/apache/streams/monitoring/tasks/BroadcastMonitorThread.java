@@ -21,6 +21,7 @@ package org.apache.streams.monitoring.tasks;
 import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.jackson.DatumLineageCounterDeserializer;
 import org.apache.streams.jackson.DatumStatusCounterDeserializer;
 import org.apache.streams.jackson.MemoryUsageDeserializer;
 import org.apache.streams.jackson.StreamsJacksonMapper;
@@ -32,6 +33,7 @@ import org.apache.streams.monitoring.persist.impl.BroadcastMessagePersister;
 import org.apache.streams.monitoring.persist.impl.LogstashUdpMessagePersister;
 import org.apache.streams.monitoring.persist.impl.Slf4jMessagePersister;
 import org.apache.streams.pojo.json.Broadcast;
+import org.apache.streams.pojo.json.DatumLineageCounterBroadcast;
 import org.apache.streams.pojo.json.DatumStatusCounterBroadcast;
 import org.apache.streams.pojo.json.MemoryUsageBroadcast;
 import org.apache.streams.pojo.json.StreamsTaskCounterBroadcast;
@@ -103,6 +105,7 @@ public class BroadcastMonitorThread extends NotificationBroadcasterSupport imple
     simpleModule.addDeserializer(ThroughputQueueBroadcast.class, new ThroughputQueueDeserializer());
     simpleModule.addDeserializer(StreamsTaskCounterBroadcast.class, new StreamsTaskCounterDeserializer());
     simpleModule.addDeserializer(DatumStatusCounterBroadcast.class, new DatumStatusCounterDeserializer());
+    simpleModule.addDeserializer(DatumLineageCounterBroadcast.class, new DatumLineageCounterDeserializer());
 
     objectMapper.registerModule(simpleModule);
     objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -132,6 +135,8 @@ public class BroadcastMonitorThread extends NotificationBroadcasterSupport imple
               broadcast = objectMapper.readValue(item, StreamsTaskCounterBroadcast.class);
             } else if (name.getKeyPropertyList().get("type").equals("DatumStatusCounter")) {
               broadcast = objectMapper.readValue(item, DatumStatusCounterBroadcast.class);
+            } else if (name.getKeyPropertyList().get("type").equals("DatumLineageCounter")) {
+              broadcast = objectMapper.readValue(item, DatumLineageCounterBroadcast.class);
             } else if (name.getKeyPropertyList().get("type").equals("Memory")) {
               broadcast = objectMapper.readValue(item, MemoryUsageBroadcast.class);
             }
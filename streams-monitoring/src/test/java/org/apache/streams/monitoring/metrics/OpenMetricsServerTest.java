@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.monitoring.metrics;
+
+import org.apache.streams.local.monitoring.MonitoringConfiguration;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Scanner;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Tests {@link OpenMetricsWriter} and {@link OpenMetricsServer} against stand-ins for the beans of the local runtime.
+ */
+public class OpenMetricsServerTest {
+
+  private static final String QUEUE_NAME = "org.apache.streams.local:type=ThroughputQueue,name=proc1,identifier=stream,startedAt=1";
+  private static final String TASK_NAME = "org.apache.streams.local:type=StreamsTaskCounter,name=proc\\1,identifier=stream,startedAt=1";
+
+  public interface ThroughputQueueMXBean {
+    long getCurrentSize();
+    long getAdded();
+    long getMaxWait();
+    double getWaitP50();
+  }
+
+  public interface StreamsTaskCounterMXBean {
+    long getNumReceived();
+    long getMaxTime();
+    long getLatencyCount();
+    double getLatencyP99();
+  }
+
+  public static class Queue implements ThroughputQueueMXBean {
+    public long getCurrentSize() { return 7; }
+    public long getAdded() { return 42; }
+    public long getMaxWait() { return 1500; }
+    public double getWaitP50() { return 2.5; }
+  }
+
+  public static class Task implements StreamsTaskCounterMXBean {
+    public long getNumReceived() { return 3; }
+    public long getMaxTime() { return -1; }
+    public long getLatencyCount() { return 2; }
+    public double getLatencyP99() { return 250; }
+  }
+
+  private MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+  @Before
+  public void registerBeans() throws Exception {
+    server.registerMBean(new Queue(), new ObjectName(QUEUE_NAME));
+    server.registerMBean(new Task(), new ObjectName(TASK_NAME));
+  }
+
+  @After
+  public void unregisterBeans() throws Exception {
+    server.unregisterMBean(new ObjectName(QUEUE_NAME));
+    server.unregisterMBean(new ObjectName(TASK_NAME));
+  }
+
+  @Test
+  public void testScrape() {
+    String metrics = new OpenMetricsWriter(server).scrape();
+    String queueLabels = "{name=\"proc1\",identifier=\"stream\",startedAt=\"1\"";
+    String taskLabels = "{name=\"proc\\\\1\",identifier=\"stream\",startedAt=\"1\"";
+    Assert.assertTrue(metrics, metrics.contains("# TYPE streams_queue_size gauge\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_queue_size" + queueLabels + "} 7\n"));
+    Assert.assertTrue(metrics, metrics.contains("# TYPE streams_queue_added counter\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_queue_added_total" + queueLabels + "} 42\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_queue_wait_max_seconds" + queueLabels + "} 1.5\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_queue_wait_seconds" + queueLabels + ",quantile=\"0.5\"} 0.0025\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_task_received_total" + taskLabels + "} 3\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_task_latency_seconds" + taskLabels + ",quantile=\"0.99\"} 0.25\n"));
+    Assert.assertTrue(metrics, metrics.contains("streams_task_latency_seconds_count" + taskLabels + "} 2\n"));
+    //not measured yet
+    Assert.assertFalse(metrics, metrics.contains("streams_task_time_max_seconds{"));
+    //attributes the bean does not have
+    Assert.assertFalse(metrics, metrics.contains("streams_queue_removed_total{"));
+    Assert.assertFalse(metrics, metrics.contains("streams_datums_passed"));
+    Assert.assertTrue(metrics, metrics.endsWith("# EOF\n"));
+  }
+
+  @Test
+  public void testServer() throws Exception {
+    MonitoringConfiguration configuration = new MonitoringConfiguration();
+    configuration.setMetricsHost("127.0.0.1");
+    configuration.setMetricsPort(0L);
+    try (OpenMetricsServer metricsServer = new OpenMetricsServer(configuration)) {
+      metricsServer.start();
+      URL url = new URL("http://127.0.0.1:" + metricsServer.getPort() + OpenMetricsServer.PATH);
+
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      Assert.assertEquals(200, connection.getResponseCode());
+      Assert.assertEquals(OpenMetricsWriter.CONTENT_TYPE, connection.getContentType());
+      String body = new Scanner(connection.getInputStream(), "UTF-8").useDelimiter("\\A").next();
+      Assert.assertTrue(body, body.contains("streams_queue_size{name=\"proc1\""));
+
+      connection = (HttpURLConnection) url.openConnection();
+      connection.setRequestMethod("DELETE");
+      Assert.assertEquals(405, connection.getResponseCode());
+    }
+  }
+
+}
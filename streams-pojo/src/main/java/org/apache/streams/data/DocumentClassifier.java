@@ -18,8 +18,12 @@
 
 package org.apache.streams.data;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DocumentClassifier assists with ActivityConversion, by determining whether a document may be
@@ -36,4 +40,26 @@ public interface DocumentClassifier extends Serializable {
    */
   List<Class> detectClasses(Object document);
 
+  /**
+   * Same as {@link #detectClasses(Object)} for a String document the caller has already parsed, so every
+   * classifier can inspect the one parsed tree instead of parsing the document again.
+   *
+   * @param document the document
+   * @param parsed the document parsed into a tree, shared with other classifiers and must not be modified
+   * @return a serializable pojo class this document matches
+   */
+  default List<Class> detectClasses(Object document, ObjectNode parsed) {
+    return detectClasses(document);
+  }
+
+  /**
+   * Top-level fields a JSON document must have before this classifier can detect anything in it.
+   * Callers may skip the classifier for documents missing any of them.
+   *
+   * @return required field names, empty if the classifier must see every document
+   */
+  default Set<String> requiredFields() {
+    return Collections.emptySet();
+  }
+
 }
@@ -18,13 +18,21 @@
 
 package org.apache.streams.data.util;
 
+import org.joda.time.Chronology;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.DateTimeZone;
+import org.joda.time.IllegalFieldValueException;
+import org.joda.time.chrono.ISOChronology;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.DateTimeFormatterBuilder;
 import org.joda.time.format.DateTimeParser;
+import org.joda.time.format.DateTimeParserBucket;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -70,6 +78,33 @@ public class RFC3339Utils {
    */
   private static final DateTimeFormatter ALT_FORMATTER;
 
+  /**
+   * Each parser of the DEFAULT_FORMATTER on its own, so a parser known to win for a
+   * given shape of date string can be applied without trying the others.
+   */
+  private static final DateTimeParser[] DEFAULT_PARSERS;
+  private static final DateTimeFormatter[] DEFAULT_PARSER_FORMATTERS;
+
+  private static final Chronology UTC_CHRONOLOGY = ISOChronology.getInstanceUTC();
+
+  private static final int MAX_SHAPES = 512;
+
+  private static final long NOT_PARSED = Long.MIN_VALUE;
+
+  /**
+   * Per-thread map from the shape of a date string (digits masked) to the index of
+   * the DEFAULT_PARSERS entry that parsed it last time.
+   */
+  private static final ThreadLocal<Map<String, Integer>> LAST_HIT = new ThreadLocal<Map<String, Integer>>() {
+    @Override
+    protected Map<String, Integer> initialValue() {
+      return new HashMap<>();
+    }
+  };
+
+  private static final String[] DAYS = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+  private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+
   static {
     DateTimeParser[] parsers = new DateTimeParser[]{
         DateTimeFormat.forPattern("EEE MMM dd HH:mm:ss Z yyyy").withZoneUTC().getParser(),
@@ -109,6 +144,11 @@ public class RFC3339Utils {
     DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
     builder.append(null, parsers);
     DEFAULT_FORMATTER = builder.toFormatter().withZoneUTC();
+    DEFAULT_PARSERS = parsers;
+    DEFAULT_PARSER_FORMATTERS = new DateTimeFormatter[parsers.length];
+    for (int i = 0; i < parsers.length; i++) {
+      DEFAULT_PARSER_FORMATTERS[i] = new DateTimeFormatterBuilder().append(parsers[i]).toFormatter().withZoneUTC();
+    }
 
     DateTimeParser[] altParsers = new DateTimeParser[] {
         DateTimeFormat.forPattern("MM-dd-yyyy HH:mm:ss").withZoneUTC().getParser(),
@@ -161,14 +201,217 @@ public class RFC3339Utils {
    * @return {@link org.joda.time.DateTime} representation of the dateString
    */
   public static DateTime parseToUTC(String dateString) {
-    if (MILLIS.matcher(dateString).find()) {
+    if (isAllDigits(dateString)) {
       return new DateTime(Long.parseLong(dateString));
     }
+    // the two formats almost every document uses are parsed by hand
+    long millis = parseRfc3339(dateString);
+    if (millis == NOT_PARSED) {
+      millis = parseTwitter(dateString);
+    }
+    if (millis != NOT_PARSED) {
+      return new DateTime(millis, DateTimeZone.UTC);
+    }
+
+    Map<String, Integer> lastHit = LAST_HIT.get();
+    String shape = shapeOf(dateString);
+    Integer hit = lastHit.get(shape);
+    if (hit != null) {
+      try {
+        return DEFAULT_PARSER_FORMATTERS[hit].parseDateTime(dateString);
+      } catch (IllegalArgumentException ex) {
+        // same shape but an out of range value, take the long way below
+      }
+    }
+    DateTime result;
     try {
-      return DEFAULT_FORMATTER.parseDateTime(dateString);
+      result = DEFAULT_FORMATTER.parseDateTime(dateString);
     } catch (Exception ex) {
       return ALT_FORMATTER.parseDateTime(dateString);
     }
+    int winner = winningParser(dateString);
+    if (winner >= 0) {
+      if (lastHit.size() >= MAX_SHAPES) {
+        lastHit.clear();
+      }
+      lastHit.put(shape, winner);
+    }
+    return result;
+  }
+
+  /*
+    yyyy-MM-dd'T'HH:mm:ss[.S{1,9}](Z|+HH:mm|+HHmm), as the RFC3339 parsers of DEFAULT_FORMATTER read it.
+   */
+  private static long parseRfc3339(String text) {
+    int length = text.length();
+    if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+        || text.charAt(13) != ':' || text.charAt(16) != ':') {
+      return NOT_PARSED;
+    }
+    int year = digits(text, 0, 4);
+    int month = digits(text, 5, 2);
+    int day = digits(text, 8, 2);
+    int hour = digits(text, 11, 2);
+    int minute = digits(text, 14, 2);
+    int second = digits(text, 17, 2);
+    if ((year | month | day | hour | minute | second) < 0) {
+      return NOT_PARSED;
+    }
+    int position = 19;
+    int millis = 0;
+    if (text.charAt(position) == '.') {
+      int start = ++position;
+      while (position < length && isDigit(text.charAt(position))) {
+        if (position - start < 3) {
+          millis = millis * 10 + (text.charAt(position) - '0');
+        }
+        position++;
+      }
+      int fraction = position - start;
+      if (fraction == 0 || fraction > 9) {
+        return NOT_PARSED;
+      }
+      for (int i = fraction; i < 3; i++) {
+        millis *= 10;
+      }
+    }
+    int offset = parseOffset(text, position, length);
+    if (offset == Integer.MIN_VALUE) {
+      return NOT_PARSED;
+    }
+    return localMillis(year, month, day, hour, minute, second, millis, 0, offset);
+  }
+
+  /*
+    EEE MMM dd HH:mm:ss Z yyyy, the first parser of DEFAULT_FORMATTER.
+   */
+  private static long parseTwitter(String text) {
+    int length = text.length();
+    if (length < 30 || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' '
+        || text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != ' '
+        || text.charAt(length - 5) != ' ') {
+      return NOT_PARSED;
+    }
+    int dayOfWeek = lookup(DAYS, text, 0);
+    int month = lookup(MONTHS, text, 4);
+    int day = digits(text, 8, 2);
+    int hour = digits(text, 11, 2);
+    int minute = digits(text, 14, 2);
+    int second = digits(text, 17, 2);
+    int year = digits(text, length - 4, 4);
+    if ((dayOfWeek | month | day | hour | minute | second | year) < 0) {
+      return NOT_PARSED;
+    }
+    int offset = parseOffset(text, 20, length - 5);
+    if (offset == Integer.MIN_VALUE) {
+      return NOT_PARSED;
+    }
+    return localMillis(year, month, day, hour, minute, second, 0, dayOfWeek, offset);
+  }
+
+  /*
+    Z, +HH:mm or +HHmm filling text[position, end), in millis, or Integer.MIN_VALUE.
+   */
+  private static int parseOffset(String text, int position, int end) {
+    int length = end - position;
+    if (length == 1 && text.charAt(position) == 'Z') {
+      return 0;
+    }
+    if (length != 5 && length != 6) {
+      return Integer.MIN_VALUE;
+    }
+    char sign = text.charAt(position);
+    if (sign != '+' && sign != '-') {
+      return Integer.MIN_VALUE;
+    }
+    int hours = digits(text, position + 1, 2);
+    int minutes;
+    if (length == 6) {
+      minutes = text.charAt(position + 3) == ':' ? digits(text, position + 4, 2) : -1;
+    } else {
+      minutes = digits(text, position + 3, 2);
+    }
+    if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+      return Integer.MIN_VALUE;
+    }
+    int offset = hours * DateTimeConstants.MILLIS_PER_HOUR + minutes * DateTimeConstants.MILLIS_PER_MINUTE;
+    return sign == '-' ? -offset : offset;
+  }
+
+  private static long localMillis(int year, int month, int day, int hour, int minute, int second, int millis,
+                                  int dayOfWeek, int offset) {
+    long local;
+    try {
+      local = UTC_CHRONOLOGY.getDateTimeMillis(year, month, day, hour, minute, second, millis);
+    } catch (IllegalFieldValueException ex) {
+      return NOT_PARSED;
+    }
+    if (dayOfWeek > 0) {
+      // joda applies a parsed day of week last, moving the date within its week
+      local += (long) (dayOfWeek - UTC_CHRONOLOGY.dayOfWeek().get(local)) * DateTimeConstants.MILLIS_PER_DAY;
+    }
+    return local - offset;
+  }
+
+  /*
+    Index of the first DEFAULT_PARSERS entry to consume all of text, the one DEFAULT_FORMATTER picks.
+   */
+  private static int winningParser(String text) {
+    DateTimeParserBucket bucket = new DateTimeParserBucket(0, UTC_CHRONOLOGY, Locale.getDefault(), 2000, 2000);
+    for (int i = 0; i < DEFAULT_PARSERS.length; i++) {
+      bucket.reset();
+      if (DEFAULT_PARSERS[i].parseInto(bucket, text, 0) >= text.length()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+    Parsers consume the same characters from strings that differ only in digit values.
+   */
+  private static String shapeOf(String text) {
+    char[] shape = text.toCharArray();
+    for (int i = 0; i < shape.length; i++) {
+      if (isDigit(shape[i])) {
+        shape[i] = '0';
+      }
+    }
+    return new String(shape);
+  }
+
+  private static int lookup(String[] names, String text, int position) {
+    for (int i = 0; i < names.length; i++) {
+      if (text.regionMatches(true, position, names[i], 0, 3)) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static int digits(String text, int position, int count) {
+    int value = 0;
+    for (int i = position; i < position + count; i++) {
+      char digit = text.charAt(i);
+      if (!isDigit(digit)) {
+        return -1;
+      }
+      value = value * 10 + (digit - '0');
+    }
+    return value;
+  }
+
+  private static boolean isDigit(char character) {
+    return character >= '0' && character <= '9';
+  }
+
+  private static boolean isAllDigits(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (!isDigit(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
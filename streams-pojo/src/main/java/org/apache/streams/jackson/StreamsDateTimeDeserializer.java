@@ -70,11 +70,12 @@ public class StreamsDateTimeDeserializer extends StdDeserializer<DateTime> imple
   @Override
   public DateTime deserialize(JsonParser jpar, DeserializationContext context) throws IOException {
 
-    DateTime result = RFC3339Utils.parseToUTC(jpar.getValueAsString());
+    String value = jpar.getValueAsString();
+    DateTime result = RFC3339Utils.parseToUTC(value);
     Iterator<DateTimeFormatter> iterator = formatters.iterator();
     while ( result == null && iterator.hasNext()) {
       DateTimeFormatter formatter = iterator.next();
-      result = formatter.parseDateTime(jpar.getValueAsString());
+      result = formatter.parseDateTime(value);
     }
     return result;
   }
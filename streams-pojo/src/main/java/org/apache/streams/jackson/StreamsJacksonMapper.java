@@ -24,11 +24,19 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
 import com.fasterxml.jackson.module.scala.DefaultScalaModule;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -47,14 +55,26 @@ public class StreamsJacksonMapper extends ObjectMapper {
 
   private static Map<StreamsJacksonMapperConfiguration, StreamsJacksonMapper> INSTANCE_MAP = new ConcurrentHashMap<>();
 
+  private static volatile StreamsJacksonMapper DEFAULT_INSTANCE;
+
   private StreamsJacksonMapperConfiguration configuration = new StreamsJacksonMapperConfiguration();
 
+  // not serialized, so components holding a mapper can still be cloned once it has been used
+  private transient Map<Class<?>, BoundReader> readers = new ConcurrentHashMap<>();
+
+  private transient Map<Class<?>, BoundWriter> writers = new ConcurrentHashMap<>();
+
   /**
    * get default StreamsJacksonMapper.
    * @return StreamsJacksonMapper
    */
   public static StreamsJacksonMapper getInstance() {
-    return getInstance(new StreamsJacksonMapperConfiguration());
+    StreamsJacksonMapper instance = DEFAULT_INSTANCE;
+    if ( instance == null ) {
+      instance = getInstance(new StreamsJacksonMapperConfiguration());
+      DEFAULT_INSTANCE = instance;
+    }
+    return instance;
   }
 
   /**
@@ -63,14 +83,7 @@ public class StreamsJacksonMapper extends ObjectMapper {
    * @return StreamsJacksonMapper
    */
   public static StreamsJacksonMapper getInstance(StreamsJacksonMapperConfiguration configuration) {
-    if ( INSTANCE_MAP.containsKey(configuration)
-         &&
-         INSTANCE_MAP.get(configuration) != null) {
-      return INSTANCE_MAP.get(configuration);
-    } else {
-      INSTANCE_MAP.put(configuration, new StreamsJacksonMapper(configuration));
-      return INSTANCE_MAP.get(configuration);
-    }
+    return INSTANCE_MAP.computeIfAbsent(configuration, StreamsJacksonMapper::new);
   }
 
   /**
@@ -141,6 +154,47 @@ public class StreamsJacksonMapper extends ObjectMapper {
     configure();
   }
 
+  /**
+   * get an ObjectReader bound to a type, created once per type and reused.
+   *
+   * <p></p>
+   * Prefer this to readValue/convertValue/treeToValue with a Class argument on per-document paths, it skips
+   * resolving the root deserializer each call.  If this mapper is reconfigured the reader is rebuilt on next use.
+   * @param type type to read
+   * @return ObjectReader
+   */
+  public ObjectReader getReader(Class<?> type) {
+    BoundReader bound = readers.get(type);
+    if ( bound == null || bound.config != getDeserializationConfig() || bound.context != getDeserializationContext() ) {
+      bound = new BoundReader(getDeserializationConfig(), getDeserializationContext(), readerFor(type));
+      readers.put(type, bound);
+    }
+    return bound.reader;
+  }
+
+  /**
+   * get an ObjectWriter bound to a type, created once per type and reused.
+   *
+   * <p></p>
+   * If this mapper is reconfigured the writer is rebuilt on next use.
+   * @param type type to write
+   * @return ObjectWriter
+   */
+  public ObjectWriter getWriter(Class<?> type) {
+    BoundWriter bound = writers.get(type);
+    if ( bound == null || bound.config != getSerializationConfig() || bound.factory != getSerializerFactory() ) {
+      bound = new BoundWriter(getSerializationConfig(), getSerializerFactory(), writerFor(type));
+      writers.put(type, bound);
+    }
+    return bound.writer;
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.readers = new ConcurrentHashMap<>();
+    this.writers = new ConcurrentHashMap<>();
+  }
+
   public void configure() {
     disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, Boolean.FALSE);
@@ -157,4 +211,36 @@ public class StreamsJacksonMapper extends ObjectMapper {
     setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
   }
 
+  /**
+   * ObjectReader and the mapper state it was created from.
+   */
+  private static class BoundReader {
+
+    private final DeserializationConfig config;
+    private final DeserializationContext context;
+    private final ObjectReader reader;
+
+    private BoundReader(DeserializationConfig config, DeserializationContext context, ObjectReader reader) {
+      this.config = config;
+      this.context = context;
+      this.reader = reader;
+    }
+  }
+
+  /**
+   * ObjectWriter and the mapper state it was created from.
+   */
+  private static class BoundWriter {
+
+    private final SerializationConfig config;
+    private final SerializerFactory factory;
+    private final ObjectWriter writer;
+
+    private BoundWriter(SerializationConfig config, SerializerFactory factory, ObjectWriter writer) {
+      this.config = config;
+      this.factory = factory;
+      this.writer = writer;
+    }
+  }
+
 }
@@ -22,8 +22,12 @@ import org.apache.streams.data.util.RFC3339Utils;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import org.junit.Test;
 
+import java.util.Locale;
+import java.util.Random;
 import java.util.TimeZone;
 
 import static org.apache.streams.data.util.RFC3339Utils.format;
@@ -236,6 +240,57 @@ public class RFC3339UtilsTest {
     }
   }
 
+  @Test
+  public void testParseRfc3339MatchesFormatter() {
+    Random random = new Random();
+    for (int i = 0; i < 1000; i++) {
+      DateTimeZone zone = DateTimeZone.forOffsetHoursMinutes(random.nextInt(24) - 12, random.nextInt(4) * 15);
+      DateTime instant = new DateTime(random.nextLong() % 4000000000000L + 1000000000000L, zone);
+      int digits = 1 + random.nextInt(9);
+      StringBuilder pattern = new StringBuilder("yyyy-MM-dd'T'HH:mm:ss.");
+      for (int d = 0; d < digits; d++) {
+        pattern.append('S');
+      }
+      pattern.append(random.nextBoolean() ? "ZZ" : "Z");
+      String date = DateTimeFormat.forPattern(pattern.toString()).withZone(zone).print(instant);
+      assertEquals(date, parseUTC(date), RFC3339Utils.parseToUTC(date));
+      String utc = RFC3339Utils.UTC_STANDARD_FMT.print(instant);
+      assertEquals(utc, RFC3339Utils.UTC_STANDARD_FMT.parseDateTime(utc), RFC3339Utils.parseToUTC(utc));
+    }
+  }
+
+  @Test
+  public void testParseTwitterMatchesFormatter() {
+    Random random = new Random();
+    DateTimeFormatter twitter = DateTimeFormat.forPattern("EEE MMM dd HH:mm:ss Z yyyy").withZoneUTC();
+    String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    for (int i = 0; i < 1000; i++) {
+      DateTimeZone zone = DateTimeZone.forOffsetHours(random.nextInt(24) - 12);
+      DateTime instant = new DateTime(random.nextLong() % 4000000000000L + 1000000000000L, zone);
+      String date = twitter.withZone(zone).withLocale(Locale.ENGLISH).print(instant);
+      assertEquals(date, twitter.parseDateTime(date), RFC3339Utils.parseToUTC(date));
+      // joda moves the date to match a day of week that disagrees with it
+      String wrongDay = days[random.nextInt(7)] + date.substring(3);
+      assertEquals(wrongDay, twitter.parseDateTime(wrongDay), RFC3339Utils.parseToUTC(wrongDay));
+    }
+  }
+
+  @Test
+  public void testParseVariousDateFormatsRepeated() {
+    // the second pass goes through the per-thread cache of the winning format
+    String[] dates = {"2014/04/24 04:43:10", "04:43:10 2014/04/24", "4/24/2014 04:43:10", "24-4-2014",
+        "2014/4/24", "24 Apr 2014 04:43", "20140424", "2014-04-24 04:43"};
+    DateTime[] first = new DateTime[dates.length];
+    for (int i = 0; i < dates.length; i++) {
+      first[i] = RFC3339Utils.parseToUTC(dates[i]);
+    }
+    for (int i = 0; i < dates.length; i++) {
+      assertEquals(dates[i], first[i], RFC3339Utils.parseToUTC(dates[i]));
+    }
+    assertEquals(new DateTime(2015, 12, 25, 11, 58, 0, DateTimeZone.UTC), RFC3339Utils.parseToUTC("2015-12-25 11:58"));
+    assertEquals(new DateTime(2013, 2, 25, 0, 0, 0, DateTimeZone.UTC), RFC3339Utils.parseToUTC("25-2-2013"));
+  }
+
   private void testHelper(DateTime expected, String dateString) {
     DateTime parsedDate = RFC3339Utils.parseToUTC(dateString);
     assertEquals("Failed to parse : " + dateString, expected, parsedDate);
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.pojo.test;
+
+import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.pojo.StreamsJacksonMapperConfiguration;
+import org.apache.streams.pojo.json.Activity;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the cached readers and writers of {@link org.apache.streams.jackson.StreamsJacksonMapper}.
+ */
+public class StreamsJacksonMapperTest {
+
+  @Test
+  public void testDefaultInstanceIsShared() {
+    assertSame(StreamsJacksonMapper.getInstance(), StreamsJacksonMapper.getInstance());
+    assertSame(StreamsJacksonMapper.getInstance(), StreamsJacksonMapper.getInstance(new StreamsJacksonMapperConfiguration()));
+  }
+
+  @Test
+  public void testReadersAndWritersAreCached() throws Exception {
+    StreamsJacksonMapper mapper = StreamsJacksonMapper.getInstance();
+    assertSame(mapper.getReader(Activity.class), mapper.getReader(Activity.class));
+    assertSame(mapper.getWriter(Activity.class), mapper.getWriter(Activity.class));
+    assertNotSame(mapper.getReader(Activity.class), mapper.getReader(ObjectNode.class));
+
+    Activity activity = mapper.getReader(Activity.class).readValue("{\"id\":\"id\",\"verb\":\"post\"}");
+    assertEquals("post", activity.getVerb());
+    String json = mapper.getWriter(Activity.class).writeValueAsString(activity);
+    assertEquals(mapper.writeValueAsString(activity), json);
+    ObjectNode node = mapper.getReader(ObjectNode.class).readValue(json);
+    assertEquals(activity, mapper.getReader(Activity.class).readValue(node));
+  }
+
+  @Test
+  public void testCloneWithCachedReadersAndWriters() throws Exception {
+    StreamsJacksonMapper mapper = new StreamsJacksonMapper(new StreamsJacksonMapperConfiguration());
+    mapper.getReader(Activity.class);
+    mapper.getWriter(Activity.class);
+    StreamsJacksonMapper clone = SerializationUtils.clone(mapper);
+    Activity activity = clone.getReader(Activity.class).readValue("{\"id\":\"id\",\"verb\":\"post\"}");
+    assertEquals("post", activity.getVerb());
+    assertEquals(mapper.writeValueAsString(activity), clone.getWriter(Activity.class).writeValueAsString(activity));
+  }
+
+  @Test
+  public void testReaderRebuiltAfterReconfiguration() throws Exception {
+    StreamsJacksonMapper mapper = new StreamsJacksonMapper(new StreamsJacksonMapperConfiguration());
+    ObjectReader reader = mapper.getReader(Activity.class);
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+    ObjectReader rebuilt = mapper.getReader(Activity.class);
+    assertNotSame(reader, rebuilt);
+    assertSame(rebuilt, mapper.getReader(Activity.class));
+  }
+
+}
@@ -23,36 +23,50 @@ import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.DatumStatusCountable;
 import org.apache.streams.core.StreamBuilder;
+import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsPersistWriter;
 import org.apache.streams.core.StreamsProcessor;
 import org.apache.streams.core.StreamsProvider;
 import org.apache.streams.jackson.StreamsJacksonMapper;
 import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.DatumLineageCollector;
 import org.apache.streams.local.counters.StreamsTaskCounter;
 import org.apache.streams.local.executors.ShutdownStreamOnUnhandleThrowableThreadPoolExecutor;
+import org.apache.streams.local.executors.TaskThreadFactories;
 import org.apache.streams.local.monitoring.MonitoringConfiguration;
 import org.apache.streams.local.queues.ThroughputQueue;
+import org.apache.streams.local.queues.ThroughputQueueFactory;
 import org.apache.streams.local.tasks.BaseStreamsTask;
 import org.apache.streams.local.tasks.LocalStreamProcessMonitorThread;
 import org.apache.streams.local.tasks.StatusCounterMonitorThread;
 import org.apache.streams.local.tasks.StreamsProviderTask;
 import org.apache.streams.local.tasks.StreamsTask;
+import org.apache.streams.monitoring.metrics.OpenMetricsServer;
 import org.apache.streams.monitoring.tasks.BroadcastMonitorThread;
+import org.apache.streams.util.ComponentUtils;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * {@link org.apache.streams.local.builders.LocalStreamBuilder} implementation to run a data processing stream in a single
@@ -72,7 +86,7 @@ public class LocalStreamBuilder implements StreamBuilder {
 
   private Map<String, StreamComponent> providers = new HashMap<>();;
   private Map<String, StreamComponent> components = new HashMap<>();
-  private Map<StreamsTask, Future> futures = new HashMap<>();
+  private Map<StreamsTask, Future> futures = new ConcurrentHashMap<>();
   private ExecutorService executor;
   private ExecutorService monitor;
   private int totalTasks = 0;
@@ -81,9 +95,14 @@ public class LocalStreamBuilder implements StreamBuilder {
   private Map<String, List<StreamsTask>> tasks;
   private Thread shutdownHook;
   private BroadcastMonitorThread broadcastMonitor;
+  private OpenMetricsServer metricsServer;
   private String streamIdentifier = DEFAULT_STREAM_IDENTIFIER;
   private DateTime startedAt = new DateTime();
   private boolean useDeprecatedMonitors;
+  private ThroughputQueueFactory queueFactory;
+  private DatumLineageCollector lineageCollector;
+  private TaskAutoscaler autoscaler;
+  private Map<String, String> inboundQueueNames = new HashMap<>();
 
   /**
    * Creates a local stream builder with all configuration resolved by typesafe
@@ -119,6 +138,9 @@ public class LocalStreamBuilder implements StreamBuilder {
     this.useDeprecatedMonitors = false;
     if( this.monitoringConfiguration != null ) {
       this.broadcastMonitor = new BroadcastMonitorThread(this.monitoringConfiguration);
+      if( this.monitoringConfiguration.getMetricsPort() != null ) {
+        this.metricsServer = new OpenMetricsServer(this.monitoringConfiguration);
+      }
     }
   }
 
@@ -126,6 +148,15 @@ public class LocalStreamBuilder implements StreamBuilder {
     this.useDeprecatedMonitors = useDeprecatedMonitors;
   }
 
+  /**
+   * Overrides the queue implementation selected by {@link LocalRuntimeConfiguration#getQueueType()}.  Must be called
+   * before components are added to the stream.
+   * @param queueFactory factory used to create the inbound queue of each processor and writer
+   */
+  public void setQueueFactory(ThroughputQueueFactory queueFactory) {
+    this.queueFactory = queueFactory;
+  }
+
   @Override
   public StreamBuilder newPerpetualStream(String id, StreamsProvider provider) {
     validateId(id);
@@ -180,7 +211,7 @@ public class LocalStreamBuilder implements StreamBuilder {
   @Override
   public StreamBuilder addStreamsProcessor(String id, StreamsProcessor processor, int numTasks, String... inBoundIds) {
     validateId(id);
-    StreamComponent comp = new StreamComponent(id, processor, new ThroughputQueue<>(this.localRuntimeConfiguration.getMaxQueueCapacity().intValue(), id, streamIdentifier, startedAt.getMillis()), numTasks, localRuntimeConfiguration);
+    StreamComponent comp = new StreamComponent(id, processor, createInboundQueue(id), numTasks, localRuntimeConfiguration);
     this.components.put(id, comp);
     connectToOtherComponents(inBoundIds, comp);
     this.totalTasks += numTasks;
@@ -189,10 +220,64 @@ public class LocalStreamBuilder implements StreamBuilder {
     return this;
   }
 
+  /**
+   * Add a CPU bound processor that runs as a single task splitting each batch across a ForkJoinPool, instead of
+   * numTasks tasks sharing the inbound queue.
+   * @param id unique id of the processor
+   * @param processor processor to run, copied once per additional worker
+   * @param parallelism number of chunks of a batch processed at once
+   * @param ordered true to emit datums in the order they were received, false to emit each chunk as it completes
+   * @param inBoundIds ids of the components supplying data to the processor
+   * @return this
+   */
+  public StreamBuilder addParallelStreamsProcessor(String id, StreamsProcessor processor, int parallelism, boolean ordered, String... inBoundIds) {
+    validateId(id);
+    StreamComponent comp = new StreamComponent(id, processor, createInboundQueue(id), 1, localRuntimeConfiguration);
+    comp.setParallelism(parallelism, ordered);
+    this.components.put(id, comp);
+    connectToOtherComponents(inBoundIds, comp);
+    ++this.totalTasks;
+    if(this.useDeprecatedMonitors && processor instanceof DatumStatusCountable )
+      ++this.monitorTasks;
+    return this;
+  }
+
+  /**
+   * Keeps a processor out of operator fusion, so it always runs in its own tasks connected by a queue.
+   * @param id id of the processor
+   * @param fusible false to opt the processor out of fusion
+   * @return this
+   */
+  public StreamBuilder setFusible(String id, boolean fusible) {
+    StreamComponent comp = this.components.get(id);
+    if(comp == null) {
+      throw new InvalidStreamException("Cannot find component with id, "+id);
+    }
+    comp.setFusible(fusible);
+    return this;
+  }
+
+  /**
+   * Lets the number of tasks running a processor change with its load while the stream runs, see
+   * {@link LocalRuntimeConfiguration#getAutoscaleIntervalMs()}.
+   * @param id id of the processor
+   * @param minTasks fewest tasks to run the processor with
+   * @param maxTasks most tasks to run the processor with
+   * @return this
+   */
+  public StreamBuilder setTaskBounds(String id, int minTasks, int maxTasks) {
+    StreamComponent comp = this.components.get(id);
+    if(comp == null) {
+      throw new InvalidStreamException("Cannot find component with id, "+id);
+    }
+    comp.setTaskBounds(minTasks, maxTasks);
+    return this;
+  }
+
   @Override
   public StreamBuilder addStreamsPersistWriter(String id, StreamsPersistWriter writer, int numTasks, String... inBoundIds) {
     validateId(id);
-    StreamComponent comp = new StreamComponent(id, writer, new ThroughputQueue<>(this.localRuntimeConfiguration.getMaxQueueCapacity().intValue(), id, streamIdentifier, startedAt.getMillis()), numTasks, localRuntimeConfiguration);
+    StreamComponent comp = new StreamComponent(id, writer, createInboundQueue(id), numTasks, localRuntimeConfiguration);
     this.components.put(id, comp);
     connectToOtherComponents(inBoundIds, comp);
     this.totalTasks += numTasks;
@@ -207,39 +292,73 @@ public class LocalStreamBuilder implements StreamBuilder {
   @Override
   public void start() {
     prepare();
+    Long autoscaleIntervalMs = localRuntimeConfiguration.getAutoscaleIntervalMs();
+    if(autoscaleIntervalMs != null && autoscaleIntervalMs > 0) {
+      applyDefaultTaskBounds();
+    }
+    if(Boolean.TRUE.equals(localRuntimeConfiguration.getFuseProcessors())) {
+      fuseProcessorChains();
+    }
     attachShutdownHandler();
+    startMetricsServer();
     boolean isRunning = true;
-    this.executor = new ShutdownStreamOnUnhandleThrowableThreadPoolExecutor(this.totalTasks, this);
+    this.executor = new ShutdownStreamOnUnhandleThrowableThreadPoolExecutor(this.totalTasks, this,
+        TaskThreadFactories.forTaskThreads(localRuntimeConfiguration.getTaskThreads(), streamIdentifier + "-task-"));
     this.monitor = Executors.newCachedThreadPool();
     Map<String, StreamsProviderTask> provTasks = new HashMap<>();
     tasks = new HashMap<>();
     boolean forcedShutDown = false;
+    boolean tasksFinished = false;
 
     try {
       if (this.useDeprecatedMonitors) {
         monitorThread = new LocalStreamProcessMonitorThread(executor, 10);
         this.monitor.submit(monitorThread);
       }
+      Long lineageSampleInterval = localRuntimeConfiguration.getLineageSampleInterval();
+      if(lineageSampleInterval != null && lineageSampleInterval > 0) {
+        this.lineageCollector = new DatumLineageCollector((int) Math.min(lineageSampleInterval, Integer.MAX_VALUE),
+            streamIdentifier, startedAt.getMillis());
+      }
+      if(autoscaleIntervalMs != null && autoscaleIntervalMs > 0) {
+        this.autoscaler = new TaskAutoscaler(this, autoscaleIntervalMs);
+      }
       setupComponentTasks(tasks);
       setupProviderTasks(provTasks);
+      if(this.autoscaler != null && this.autoscaler.hasComponents()) {
+        this.monitor.submit(this.autoscaler);
+      }
       LOGGER.info("Started stream with {} components", tasks.size());
       while(isRunning) {
-        Uninterruptibles.sleepUninterruptibly(localRuntimeConfiguration.getShutdownCheckDelay(), TimeUnit.MILLISECONDS);
+        //tasks finish on their own once the end of stream has reached them, so wait on them rather than sleeping
+        if(awaitTasks(localRuntimeConfiguration.getShutdownCheckDelay())) {
+          tasksFinished = true;
+          break;
+        }
         isRunning = false;
         for(StreamsProviderTask task : provTasks.values()) {
           isRunning = isRunning || task.isRunning();
         }
+        for(StreamComponent prov : providers.values()) {
+          //spilled datums are still on their way downstream
+          isRunning = isRunning || prov.getFanOutSpilled() > 0;
+        }
         for(StreamComponent task: components.values()) {
           boolean tasksRunning = false;
+          boolean tasksBusy = false;
           for(StreamsTask t : task.getStreamsTasks()) {
             if(t instanceof BaseStreamsTask) {
               tasksRunning = tasksRunning || t.isRunning();
+              //tasks drain batches from their inbound queue, so an empty queue does not mean the task is idle
+              tasksBusy = tasksBusy || (t.isRunning() && !t.isWaiting());
             }
           }
-          isRunning = isRunning || (tasksRunning && task.getInBoundQueue().size() > 0);
+          isRunning = isRunning || (tasksRunning && (task.getInBoundQueue().size() > 0 || tasksBusy));
+          isRunning = isRunning || task.getFanOutSpilled() > 0;
         }
-        if(isRunning) {
-          Uninterruptibles.sleepUninterruptibly(localRuntimeConfiguration.getShutdownCheckInterval(), TimeUnit.MILLISECONDS);
+        if(isRunning && awaitTasks(localRuntimeConfiguration.getShutdownCheckInterval())) {
+          tasksFinished = true;
+          break;
         }
       }
       LOGGER.info("Components are no longer running or timed out");
@@ -247,14 +366,64 @@ public class LocalStreamBuilder implements StreamBuilder {
       LOGGER.warn("Runtime exception.  Beginning shutdown");
       forcedShutDown = true;
     } finally{
-      LOGGER.info("Stream has completed, pausing @ {}", System.currentTimeMillis());
-      Uninterruptibles.sleepUninterruptibly(localRuntimeConfiguration.getShutdownPauseMs(), TimeUnit.MILLISECONDS);
+      if(!tasksFinished) {
+        LOGGER.info("Stream has completed, pausing @ {}", System.currentTimeMillis());
+        Uninterruptibles.sleepUninterruptibly(localRuntimeConfiguration.getShutdownPauseMs(), TimeUnit.MILLISECONDS);
+      }
       LOGGER.info("Stream has completed, shutting down @ {}", System.currentTimeMillis());
       stopInternal(forcedShutDown);
     }
 
   }
 
+  /**
+   * Waits for every task of the stream to finish.
+   * @param timeoutMs maximum time to wait in milliseconds
+   * @return true if all tasks finished, false if the timeout elapsed first
+   */
+  private boolean awaitTasks(long timeoutMs) {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    for(Future future : this.futures.values()) {
+      try {
+        Uninterruptibles.getUninterruptibly(future, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException te) {
+        return false;
+      } catch (ExecutionException | CancellationException e) {
+        //task is done, failures are reported by the executor
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Fuses each processor whose only downstream component is a processor with the same number of tasks and no other
+   * upstream, so the pair runs in one task instead of handing every datum over a queue.  Only done when
+   * {@link LocalRuntimeConfiguration#getFuseProcessors()} is true.
+   */
+  private void fuseProcessorChains() {
+    boolean fused = true;
+    while(fused) {
+      fused = false;
+      for(StreamComponent comp : this.components.values()) {
+        Collection<StreamComponent> children = comp.getDownStreamComponents();
+        if(children.size() != 1) {
+          continue;
+        }
+        StreamComponent next = children.iterator().next();
+        if(comp.canFuse(next)) {
+          LOGGER.info("Fusing processor {} into {}", next.getId(), comp.getId());
+          comp.fuse(next);
+          this.components.remove(next.getId());
+          this.totalTasks -= next.getNumTasks();
+          //nothing reads the inbound queue of next anymore, so it no longer reports flow statistics
+          ComponentUtils.unregisterLocalMBean(this.inboundQueueNames.remove(next.getId()));
+          fused = true;
+          break;
+        }
+      }
+    }
+  }
+
   private void attachShutdownHandler() {
     LOGGER.debug("Attaching shutdown handler");
     Runtime.getRuntime().addShutdownHook(shutdownHook);
@@ -267,6 +436,9 @@ public class LocalStreamBuilder implements StreamBuilder {
 
   protected void forceShutdown(Map<String, List<StreamsTask>> streamsTasks) {
     LOGGER.debug("Shutdown failed.  Forcing shutdown");
+    if(this.autoscaler != null) {
+      this.autoscaler.shutdown();
+    }
     for(List<StreamsTask> tasks : streamsTasks.values()) {
       for(StreamsTask task : tasks) {
         task.stopTask();
@@ -284,6 +456,7 @@ public class LocalStreamBuilder implements StreamBuilder {
       if(!this.monitor.awaitTermination(localRuntimeConfiguration.getMonitorShutdownPauseMs(), TimeUnit.MILLISECONDS)){
         this.monitor.shutdownNow();
       }
+      closeFanOut();
     }catch (InterruptedException ie) {
       this.executor.shutdownNow();
       this.monitor.shutdownNow();
@@ -296,6 +469,9 @@ public class LocalStreamBuilder implements StreamBuilder {
     if (this.monitorThread != null) {
       this.monitorThread.shutdown();
     }
+    if (this.autoscaler != null) {
+      this.autoscaler.shutdown();
+    }
     this.executor.shutdown();
     //complete stream shut down gracfully
     for(StreamComponent prov : this.providers.values()) {
@@ -310,15 +486,27 @@ public class LocalStreamBuilder implements StreamBuilder {
       this.monitor.shutdownNow();
       this.monitor.awaitTermination(localRuntimeConfiguration.getMonitorShutdownWaitMs(), TimeUnit.MILLISECONDS);
     }
+    closeFanOut();
+  }
+
+  private void closeFanOut() {
+    for(StreamComponent prov : this.providers.values()) {
+      prov.closeFanOut();
+    }
+    for(StreamComponent comp : this.components.values()) {
+      comp.closeFanOut();
+    }
   }
 
   protected void setupProviderTasks(Map<String, StreamsProviderTask> provTasks) {
     for(StreamComponent prov : this.providers.values()) {
+      prov.setupFanOut(streamIdentifier, startedAt.getMillis());
       StreamsTask task = prov.createConnectedTask(getTimeout());
       task.setStreamConfig(this.localRuntimeConfiguration);
       StreamsTaskCounter counter = new StreamsTaskCounter(prov.getId(), streamIdentifier, startedAt.getMillis());
       task.setStreamsTaskCounter(counter);
-      this.executor.submit(task);
+      setDatumLineageCollector(task, prov);
+      this.futures.put(task, this.executor.submit(task));
       provTasks.put(prov.getId(), (StreamsProviderTask) task);
       if(this.useDeprecatedMonitors && prov.isOperationCountable() ) {
         this.monitor.submit(new StatusCounterMonitorThread((DatumStatusCountable) prov.getOperation(), 10));
@@ -327,16 +515,30 @@ public class LocalStreamBuilder implements StreamBuilder {
     }
   }
 
+  private void setDatumLineageCollector(StreamsTask task, StreamComponent component) {
+    if(this.lineageCollector != null && task instanceof BaseStreamsTask) {
+      ((BaseStreamsTask) task).setDatumLineageCollector(component.getLineageId(), this.lineageCollector);
+    }
+  }
+
+  /**
+   * @return collector of the latency breakdown of sampled datums, or null if
+   * {@link LocalRuntimeConfiguration#getLineageSampleInterval()} is not set or the stream has not started
+   */
+  public DatumLineageCollector getDatumLineageCollector() {
+    return this.lineageCollector;
+  }
+
   protected void setupComponentTasks(Map<String, List<StreamsTask>> streamsTasks) {
     for(StreamComponent comp : this.components.values()) {
       int tasks = comp.getNumTasks();
-      List<StreamsTask> compTasks = new LinkedList<>();
+      List<StreamsTask> compTasks = new CopyOnWriteArrayList<>();
       StreamsTaskCounter counter = new StreamsTaskCounter(comp.getId(), streamIdentifier, startedAt.getMillis());
+      comp.setupFanOut(streamIdentifier, startedAt.getMillis());
+      comp.setupFusedCounters(streamIdentifier, startedAt.getMillis());
       for(int i=0; i < tasks; ++i) {
         StreamsTask task = comp.createConnectedTask(getTimeout());
-        task.setStreamsTaskCounter(counter);
-        task.setStreamConfig(this.localRuntimeConfiguration);
-        this.futures.put(task, this.executor.submit(task));
+        submitComponentTask(comp, task, counter);
         compTasks.add(task);
         if(this.useDeprecatedMonitors &&  comp.isOperationCountable() ) {
           this.monitor.submit(new StatusCounterMonitorThread((DatumStatusCountable) comp.getOperation(), 10));
@@ -345,6 +547,57 @@ public class LocalStreamBuilder implements StreamBuilder {
         this.monitor.submit(broadcastMonitor);
       }
       streamsTasks.put(comp.getId(), compTasks);
+      if(this.autoscaler != null && comp.isScalable()) {
+        this.autoscaler.register(comp, counter);
+      }
+    }
+  }
+
+  private void submitComponentTask(StreamComponent comp, StreamsTask task, StreamsTaskCounter counter) {
+    task.setStreamsTaskCounter(counter);
+    task.setStreamConfig(this.localRuntimeConfiguration);
+    setDatumLineageCollector(task, comp);
+    this.futures.put(task, this.executor.submit(task));
+  }
+
+  /**
+   * Starts one more task for a component of the running stream.  The executor grows by a thread when all of its
+   * threads are busy, so the new task does not wait behind tasks that only finish when the stream does.
+   * @param comp component to run another task for
+   * @param counter counter shared by the tasks of the component
+   * @return the started task, or null if the stream is shutting down
+   */
+  synchronized StreamsTask addComponentTask(StreamComponent comp, StreamsTaskCounter counter) {
+    if(this.executor == null || this.executor.isShutdown()) {
+      return null;
+    }
+    StreamsTask task = comp.addConnectedTask(getTimeout());
+    if(task == null) {
+      return null;
+    }
+    if(this.executor instanceof ThreadPoolExecutor) {
+      ThreadPoolExecutor pool = (ThreadPoolExecutor) this.executor;
+      if(pool.getActiveCount() >= pool.getMaximumPoolSize()) {
+        pool.setMaximumPoolSize(pool.getMaximumPoolSize() + 1);
+        pool.setCorePoolSize(pool.getMaximumPoolSize());
+      }
+    }
+    submitComponentTask(comp, task, counter);
+    this.tasks.get(comp.getId()).add(task);
+    return task;
+  }
+
+  /**
+   * Gives processors without explicit task bounds room to grow up to
+   * {@link LocalRuntimeConfiguration#getAutoscaleMaxTasks()} tasks.
+   */
+  private void applyDefaultTaskBounds() {
+    Long maxTasks = this.localRuntimeConfiguration.getAutoscaleMaxTasks();
+    if(maxTasks == null) {
+      return;
+    }
+    for(StreamComponent comp : this.components.values()) {
+      comp.setDefaultMaxTasks(maxTasks.intValue());
     }
   }
 
@@ -376,12 +629,7 @@ public class LocalStreamBuilder implements StreamBuilder {
           }
         }
         for(StreamsTask task : tasks) {
-          int count = 0;
-          while(count < localRuntimeConfiguration.getTaskTimeoutMs() / 1000 && task.isRunning()) {
-            Uninterruptibles.sleepUninterruptibly(1, TimeUnit.SECONDS);
-            count++;
-          }
-
+          awaitTask(task, localRuntimeConfiguration.getTaskTimeoutMs());
           if(task.isRunning()) {
             LOGGER.warn("Task {} failed to terminate in allotted timeframe", task.toString());
           }
@@ -396,6 +644,27 @@ public class LocalStreamBuilder implements StreamBuilder {
     }
   }
 
+  /**
+   * Waits for a stopped task to finish running.  A cancelled future completes right away, so fall back to polling the
+   * task in that case.
+   * @param task task to wait for
+   * @param timeoutMs maximum time to wait in milliseconds
+   */
+  private void awaitTask(StreamsTask task, long timeoutMs) {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    Future future = this.futures.get(task);
+    if(future != null && !future.isCancelled()) {
+      try {
+        Uninterruptibles.getUninterruptibly(future, timeoutMs, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException | ExecutionException | CancellationException e) {
+        //checked through isRunning by the caller
+      }
+    }
+    while(task.isRunning() && System.currentTimeMillis() < deadline) {
+      Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+    }
+  }
+
   /**
    * NOT IMPLEMENTED.
    */
@@ -420,10 +689,27 @@ public class LocalStreamBuilder implements StreamBuilder {
       } catch( Throwable e3 ) {
         LOGGER.error("StopInternal caught Throwable: {}", e3);
         System.exit(1);
+      } finally {
+        if(this.metricsServer != null) {
+          this.metricsServer.close();
+        }
       }
     }
   }
 
+  private void startMetricsServer() {
+    if(this.metricsServer == null) {
+      return;
+    }
+    try {
+      this.metricsServer.start();
+    } catch (IOException ioe) {
+      //metrics are not worth failing the stream for
+      LOGGER.warn("Unable to start OpenMetrics endpoint, continuing without it: {}", ioe);
+      this.metricsServer = null;
+    }
+  }
+
   private void connectToOtherComponents(String[] conntectToIds, StreamComponent toBeConnected) {
     for(String id : conntectToIds) {
       StreamComponent upStream;
@@ -441,6 +727,16 @@ public class LocalStreamBuilder implements StreamBuilder {
     }
   }
 
+  private BlockingQueue<StreamsDatum> createInboundQueue(String id) {
+    ThroughputQueueFactory factory = this.queueFactory;
+    if(factory == null) {
+      factory = ThroughputQueueFactory.forConfiguration(this.localRuntimeConfiguration);
+    }
+    //the identifier may change once the stream is prepared, so remember the name the queue registered under
+    this.inboundQueueNames.put(id, String.format(ThroughputQueue.NAME_TEMPLATE, id, streamIdentifier, startedAt.getMillis()));
+    return factory.createQueue(this.localRuntimeConfiguration.getMaxQueueCapacity().intValue(), id, streamIdentifier, startedAt.getMillis());
+  }
+
   private void validateId(String id) {
     if(this.providers.containsKey(id) || this.components.containsKey(id)) {
       throw new InvalidStreamException("Duplicate id. "+id+" is already assigned to another component");
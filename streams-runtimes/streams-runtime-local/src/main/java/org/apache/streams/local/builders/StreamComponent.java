@@ -25,14 +25,22 @@ import org.apache.streams.core.StreamsOperation;
 import org.apache.streams.core.StreamsPersistWriter;
 import org.apache.streams.core.StreamsProcessor;
 import org.apache.streams.core.StreamsProvider;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.queues.EndOfStream;
+import org.apache.streams.local.queues.FanOutBranch;
+import org.apache.streams.local.tasks.BaseStreamsTask;
+import org.apache.streams.local.tasks.StreamsParallelProcessorTask;
 import org.apache.streams.local.tasks.StreamsPersistWriterTask;
 import org.apache.streams.local.tasks.StreamsProcessorTask;
 import org.apache.streams.local.tasks.StreamsProviderTask;
 import org.apache.streams.local.tasks.StreamsTask;
 import org.apache.streams.util.SerializationUtil;
 
+import com.google.common.base.Preconditions;
 import org.joda.time.DateTime;
 
+import java.io.File;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -43,6 +51,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Stores the implementations of {@link org.apache.streams.core.StreamsOperation}, the StreamsOperations it is connected
@@ -56,6 +65,8 @@ public class StreamComponent implements Serializable {
   private String id;
   private Set<StreamComponent> inBound;
   private Map<StreamComponent, BlockingQueue<StreamsDatum>> outBound;
+  private transient Map<StreamComponent, FanOutBranch> fanOutBranches;
+  private transient EndOfStream endOfStream;
   private BlockingQueue<StreamsDatum> inQueue;
   private StreamsProvider provider;
   private StreamsProcessor processor;
@@ -63,6 +74,14 @@ public class StreamComponent implements Serializable {
   private DateTime[] dateRange;
   private BigInteger sequence;
   private int numTasks = 1;
+  private int minTasks = 0;
+  private int maxTasks = 0;
+  private int parallelism = 1;
+  private boolean ordered = true;
+  private boolean fusible = true;
+  private List<StreamsProcessor> fused = new ArrayList<>();
+  private List<String> fusedIds = new ArrayList<>();
+  private transient List<StreamsTaskCounter> fusedCounters;
   private boolean perpetual;
 
   private List<StreamsTask> tasks;
@@ -145,10 +164,102 @@ public class StreamComponent implements Serializable {
     initializePrivateVariables();
   }
 
+  /**
+   * Runs the processor of this component as a single {@link StreamsParallelProcessorTask} that processes chunks of each
+   * batch in parallel.
+   * @param parallelism number of chunks processed at once
+   * @param ordered true to emit datums in the order they were received
+   */
+  public void setParallelism(int parallelism, boolean ordered) {
+    this.parallelism = parallelism;
+    this.ordered = ordered;
+  }
+
+  /**
+   * Lets a {@link TaskAutoscaler} change the number of tasks running this component while the stream runs.
+   * @param minTasks fewest tasks to run
+   * @param maxTasks most tasks to run
+   */
+  public void setTaskBounds(int minTasks, int maxTasks) {
+    Preconditions.checkArgument(minTasks > 0 && minTasks <= maxTasks, "bounds must satisfy 0 < minTasks <= maxTasks");
+    this.minTasks = minTasks;
+    this.maxTasks = maxTasks;
+  }
+
+  /**
+   * Gives a processor without bounds of its own room to grow from the number of tasks it was added with.
+   * @param maxTasks most tasks to run the processor with
+   */
+  void setDefaultMaxTasks(int maxTasks) {
+    if(this.processor != null && this.maxTasks == 0) {
+      setTaskBounds(this.numTasks, Math.max(this.numTasks, maxTasks));
+    }
+  }
+
+  /**
+   * @return fewest tasks to run this component with, the number it was added with unless bounds were set
+   */
+  public int getMinTasks() {
+    return this.minTasks > 0 ? this.minTasks : this.numTasks;
+  }
+
+  /**
+   * @return most tasks to run this component with, the number it was added with unless bounds were set
+   */
+  public int getMaxTasks() {
+    return this.maxTasks > 0 ? this.maxTasks : this.numTasks;
+  }
+
+  /**
+   * @return true if the number of tasks may change while the stream runs.  Only processors running on their own
+   * tasks, rather than a {@link StreamsParallelProcessorTask}, are scaled.
+   */
+  public boolean isScalable() {
+    return this.processor != null && this.parallelism == 1 && getMaxTasks() > getMinTasks();
+  }
+
+  /**
+   * @param fusible false to always run this component in its own tasks, connected by queues
+   */
+  public void setFusible(boolean fusible) {
+    this.fusible = fusible;
+  }
+
+  /**
+   * @param next the only downstream component
+   * @return true if next can run inside the tasks of this component, see {@link #fuse(StreamComponent)}
+   */
+  public boolean canFuse(StreamComponent next) {
+    return this.fusible && next.fusible
+        && this.processor != null && next.processor != null
+        && this.parallelism == 1 && next.parallelism == 1
+        && this.numTasks == next.numTasks
+        && getMinTasks() == next.getMinTasks() && getMaxTasks() == next.getMaxTasks()
+        && this.outBound.size() == 1 && this.outBound.containsKey(next)
+        && next.inBound.size() == 1 && next.inBound.contains(this);
+  }
+
+  /**
+   * Runs the processor of the downstream component directly on the output of this component's processor, inside the
+   * same tasks.  This component takes over the downstream components of next, which is no longer part of the stream.
+   * @param next the only downstream component, see {@link #canFuse(StreamComponent)}
+   */
+  public void fuse(StreamComponent next) {
+    this.fused.add(next.processor);
+    this.fused.addAll(next.fused);
+    this.fusedIds.add(next.id);
+    this.fusedIds.addAll(next.fusedIds);
+    this.outBound = next.outBound;
+    for(StreamComponent child : this.outBound.keySet()) {
+      child.inBound.remove(next);
+      child.inBound.add(this);
+    }
+  }
+
   private void initializePrivateVariables() {
     this.inBound = new HashSet<>();
     this.outBound = new HashMap<>();
-    this.tasks = new ArrayList<>();
+    this.tasks = new CopyOnWriteArrayList<>();
   }
 
   /**
@@ -210,16 +321,28 @@ public class StreamComponent implements Serializable {
   public StreamsTask createConnectedTask(int timeout) {
     StreamsTask task;
     if(this.processor != null) {
-      if(this.numTasks > 1) {
+      if(this.parallelism > 1) {
+        task = new StreamsParallelProcessorTask(this.processor, this.parallelism, this.ordered, streamConfig);
+        task.addInputQueue(this.inQueue);
+        for(BlockingQueue<StreamsDatum> q : getOutputQueues()) {
+          task.addOutputQueue(q);
+        }
+      } else if(this.numTasks > 1 || isScalable()) {
         task =  new StreamsProcessorTask(SerializationUtil.cloneBySerialization(this.processor), streamConfig);
+        for(int i=0; i < this.fused.size(); ++i) {
+          ((StreamsProcessorTask) task).addFusedProcessor(SerializationUtil.cloneBySerialization(this.fused.get(i)), getFusedCounter(i));
+        }
         task.addInputQueue(this.inQueue);
-        for(BlockingQueue<StreamsDatum> q : this.outBound.values()) {
+        for(BlockingQueue<StreamsDatum> q : getOutputQueues()) {
           task.addOutputQueue(q);
         }
       } else {
         task = new StreamsProcessorTask(this.processor, streamConfig);
+        for(int i=0; i < this.fused.size(); ++i) {
+          ((StreamsProcessorTask) task).addFusedProcessor(this.fused.get(i), getFusedCounter(i));
+        }
         task.addInputQueue(this.inQueue);
-        for(BlockingQueue<StreamsDatum> q : this.outBound.values()) {
+        for(BlockingQueue<StreamsDatum> q : getOutputQueues()) {
           task.addOutputQueue(q);
         }
       }
@@ -250,7 +373,7 @@ public class StreamComponent implements Serializable {
       if(timeout != 0) {
         ((StreamsProviderTask)task).setTimeout(timeout);
       }
-      for(BlockingQueue<StreamsDatum> q : this.outBound.values()) {
+      for(BlockingQueue<StreamsDatum> q : getOutputQueues()) {
         task.addOutputQueue(q);
       }
     }
@@ -258,6 +381,13 @@ public class StreamComponent implements Serializable {
       throw new InvalidStreamException("Underlying StreamComponoent was NULL.");
     }
 
+    if(task instanceof BaseStreamsTask) {
+      ((BaseStreamsTask) task).setSignalEndOfStream(true);
+      if(this.provider == null && !this.inBound.isEmpty()) {
+        ((BaseStreamsTask) task).setEndOfStream(getEndOfStream());
+      }
+    }
+
     if(task != null) {
       tasks.add(task);
     }
@@ -265,6 +395,145 @@ public class StreamComponent implements Serializable {
     return task;
   }
 
+  /**
+   * Starts one more task reading the inbound queue of this component while the stream runs.  The downstream
+   * components wait for an end of stream marker from the new task as well.
+   * @param timeout The timeout to use in milliseconds for any tasks that support configurable timeout
+   * @return the new task, ready to be submitted, or null if the end of the stream has already reached this component
+   */
+  public synchronized StreamsTask addConnectedTask(int timeout) {
+    EndOfStream endOfStream = getEndOfStream();
+    if(endOfStream.isComplete()) {
+      return null;
+    }
+    for(StreamComponent child : this.outBound.keySet()) {
+      child.getEndOfStream().addProducer();
+    }
+    endOfStream.addConsumer();
+    ++this.numTasks;
+    return createConnectedTask(timeout);
+  }
+
+  /**
+   * Stops one of the tasks of this component while the stream runs.  The task finishes the batch it is working on
+   * and sends its end of stream marker downstream, the other tasks carry on reading the inbound queue.
+   * @param task running task created by this component
+   */
+  public synchronized void retireTask(StreamsTask task) {
+    task.stopTask();
+    getEndOfStream().removeConsumer();
+    --this.numTasks;
+  }
+
+  /**
+   * Tracks the end of stream markers sent by the tasks of the upstream components.  Shared by all tasks of this
+   * component.
+   */
+  private EndOfStream getEndOfStream() {
+    if(this.endOfStream == null) {
+      int producers = 0;
+      for(StreamComponent upStream : this.inBound) {
+        producers += upStream.getNumTasks();
+      }
+      this.endOfStream = new EndOfStream(producers, this.numTasks);
+    }
+    return this.endOfStream;
+  }
+
+  /**
+   * Creates a {@link StreamsTaskCounter} for each fused processor, registered under the id of the processor, so a
+   * fused processor is reported as it would be running in its own tasks.  Must be called after processors are fused
+   * and before tasks are created.
+   * @param streamIdentifier identifier of the stream, used to register the counters
+   * @param startedAt time the stream was started, used to register the counters
+   */
+  public void setupFusedCounters(String streamIdentifier, long startedAt) {
+    if(this.fusedCounters != null) {
+      return;
+    }
+    this.fusedCounters = new ArrayList<>(this.fusedIds.size());
+    for(String fusedId : this.fusedIds) {
+      this.fusedCounters.add(new StreamsTaskCounter(fusedId, streamIdentifier, startedAt));
+    }
+  }
+
+  /**
+   * @return counters of the fused processors, in the order they run
+   */
+  public List<StreamsTaskCounter> getFusedCounters() {
+    return this.fusedCounters == null ? new ArrayList<>() : this.fusedCounters;
+  }
+
+  private StreamsTaskCounter getFusedCounter(int index) {
+    Preconditions.checkState(this.fusedCounters != null, "counters of fused processors are not set up");
+    return this.fusedCounters.get(index);
+  }
+
+  /**
+   * Wraps each outbound queue in a {@link FanOutBranch} when this component has more than one downstream component,
+   * so the {@link LocalRuntimeConfiguration#getFanOutPolicy()} applies to each branch on its own.  Must be called
+   * after all components are connected and before tasks are created.
+   * @param streamIdentifier identifier of the stream, used to register the branches
+   * @param startedAt time the stream was started, used to register the branches
+   */
+  public void setupFanOut(String streamIdentifier, long startedAt) {
+    if(this.outBound == null || this.outBound.size() < 2 || this.fanOutBranches != null) {
+      return;
+    }
+    LocalRuntimeConfiguration.FanOutPolicy policy = LocalRuntimeConfiguration.FanOutPolicy.BLOCK;
+    long spillCapacity = 0;
+    File spillDirectory = null;
+    if(this.streamConfig instanceof LocalRuntimeConfiguration) {
+      LocalRuntimeConfiguration config = (LocalRuntimeConfiguration) this.streamConfig;
+      if(config.getFanOutPolicy() != null) {
+        policy = config.getFanOutPolicy();
+      }
+      if(config.getFanOutSpillCapacity() != null) {
+        spillCapacity = config.getFanOutSpillCapacity();
+      }
+      if(config.getFanOutSpillDirectory() != null) {
+        spillDirectory = new File(config.getFanOutSpillDirectory());
+      }
+    }
+    this.fanOutBranches = new HashMap<>();
+    for(Map.Entry<StreamComponent, BlockingQueue<StreamsDatum>> entry : this.outBound.entrySet()) {
+      this.fanOutBranches.put(entry.getKey(), new FanOutBranch(entry.getValue(), policy, spillCapacity, spillDirectory,
+          this.id + "->" + entry.getKey().getId(), streamIdentifier, startedAt));
+    }
+  }
+
+  /**
+   * The number of datums spilled to disk by this component's fan out branches that are not yet downstream
+   * @return number of spilled datums
+   */
+  public long getFanOutSpilled() {
+    long spilled = 0;
+    if(this.fanOutBranches != null) {
+      for(FanOutBranch branch : this.fanOutBranches.values()) {
+        spilled += branch.getSpilled();
+      }
+    }
+    return spilled;
+  }
+
+  /**
+   * Closes this component's fan out branches, stopping any spill drainers.
+   */
+  public void closeFanOut() {
+    if(this.fanOutBranches != null) {
+      for(FanOutBranch branch : this.fanOutBranches.values()) {
+        branch.close();
+      }
+    }
+  }
+
+  private Collection<? extends BlockingQueue<StreamsDatum>> getOutputQueues() {
+    if(this.fanOutBranches != null) {
+      return this.fanOutBranches.values();
+    }
+    return this.outBound.values();
+  }
+
   public List<StreamsTask> getStreamsTasks() {
     return this.tasks;
   }
@@ -277,6 +546,18 @@ public class StreamComponent implements Serializable {
     return this.id;
   }
 
+  /**
+   * The id this component is reported under in datum lineages.  A component running fused processors is a single
+   * stage, named by the ids of all of them joined with '+'.
+   * @return
+   */
+  public String getLineageId() {
+    if(this.fusedIds.isEmpty()) {
+      return this.id;
+    }
+    return this.id + "+" + String.join("+", this.fusedIds);
+  }
+
   @Override
   public int hashCode() {
     return this.id.hashCode();
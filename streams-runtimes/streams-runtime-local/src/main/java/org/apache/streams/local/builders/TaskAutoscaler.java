@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.builders;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.queues.ThroughputQueueMXBean;
+import org.apache.streams.local.tasks.StreamsTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Grows and shrinks the number of tasks running each scalable processor of a local stream, within the bounds set by
+ * {@link StreamComponent#setTaskBounds(int, int)}.  Every interval it looks at how full the inbound queue of the
+ * processor is, how long datums waited in it and how much of the time its tasks spent processing, according to the
+ * {@link ThroughputQueueMXBean} and {@link StreamsTaskCounter} of the component.
+ *
+ * A processor gets one more task when datums back up in front of it while its tasks are busy, and one task fewer when
+ * its queue is nearly empty and the remaining tasks could keep up.  Tasks blocked on a full downstream queue are not
+ * busy, so a processor held up by a slow downstream component is not scaled up.
+ */
+public class TaskAutoscaler implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskAutoscaler.class);
+
+  /**
+   * Fraction of the inbound queue in use above which datums are backing up.
+   */
+  static final double SCALE_UP_QUEUE_FILL = 0.5;
+  /**
+   * Fraction of the time the tasks must be processing before another task helps.
+   */
+  static final double SCALE_UP_UTILIZATION = 0.75;
+  /**
+   * Fraction of the inbound queue in use below which the processor keeps up.
+   */
+  static final double SCALE_DOWN_QUEUE_FILL = 0.1;
+  /**
+   * Fraction of the time the remaining tasks may be processing after one is stopped.
+   */
+  static final double SCALE_DOWN_UTILIZATION = 0.6;
+
+  private final LocalStreamBuilder builder;
+  private final long intervalMs;
+  private final List<Scaled> components = new CopyOnWriteArrayList<>();
+  private volatile boolean keepRunning = true;
+
+  /**
+   * @param builder builder running the stream, used to submit new tasks
+   * @param intervalMs milliseconds between decisions
+   */
+  TaskAutoscaler(LocalStreamBuilder builder, long intervalMs) {
+    this.builder = builder;
+    this.intervalMs = intervalMs;
+  }
+
+  /**
+   * Scale a component once its first tasks have been submitted.
+   * @param component scalable component
+   * @param counter counter shared by the tasks of the component
+   */
+  void register(StreamComponent component, StreamsTaskCounter counter) {
+    this.components.add(new Scaled(component, counter));
+  }
+
+  /**
+   * @return true if any component has been registered
+   */
+  boolean hasComponents() {
+    return !this.components.isEmpty();
+  }
+
+  public void shutdown() {
+    this.keepRunning = false;
+  }
+
+  @Override
+  public void run() {
+    while(this.keepRunning) {
+      try {
+        Thread.sleep(this.intervalMs);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      for(Scaled scaled : this.components) {
+        if(!this.keepRunning) {
+          break;
+        }
+        try {
+          scale(scaled);
+        } catch (Exception e) {
+          LOGGER.warn("Failed to scale component {} : {}", scaled.component.getId(), e);
+        }
+      }
+    }
+  }
+
+  private void scale(Scaled scaled) {
+    scaled.active.removeIf(task -> !task.isRunning());
+    int tasks = scaled.active.size();
+    long now = System.nanoTime();
+    long busy = scaled.getBusyNanos();
+    long removed = scaled.queue == null ? 0 : scaled.queue.getRemoved();
+    double waited = scaled.queue == null ? 0 : scaled.queue.getAvgWait() * removed;
+    double utilization = tasks == 0 ? 0 : (double) (busy - scaled.busy) / (tasks * (now - scaled.sampledAt));
+    double waitMs = removed > scaled.removed ? (waited - scaled.waited) / (removed - scaled.removed) : 0;
+    BlockingQueue<StreamsDatum> queue = scaled.component.getInBoundQueue();
+    int size = queue.size();
+    double queueFill = (double) size / Math.max(1, size + queue.remainingCapacity());
+    scaled.sampledAt = now;
+    scaled.busy = busy;
+    scaled.removed = removed;
+    scaled.waited = waited;
+    if(tasks == 0) {
+      //the end of the stream has reached the component
+      return;
+    }
+    int target = decide(tasks, scaled.component.getMinTasks(), scaled.component.getMaxTasks(), queueFill, waitMs, utilization, this.intervalMs);
+    if(target > tasks) {
+      StreamsTask task = this.builder.addComponentTask(scaled.component, scaled.counter);
+      if(task != null) {
+        scaled.active.add(task);
+        LOGGER.info("Scaled {} up to {} tasks, queue fill={}, wait={}ms, utilization={}", scaled.component.getId(), tasks + 1, queueFill, waitMs, utilization);
+      }
+    } else if(target < tasks) {
+      StreamsTask task = scaled.active.remove(tasks - 1);
+      scaled.component.retireTask(task);
+      LOGGER.info("Scaled {} down to {} tasks, queue fill={}, wait={}ms, utilization={}", scaled.component.getId(), tasks - 1, queueFill, waitMs, utilization);
+    }
+  }
+
+  /**
+   * Decide how many tasks a component should run for the next interval.
+   * @param tasks tasks running now
+   * @param minTasks fewest tasks to run
+   * @param maxTasks most tasks to run
+   * @param queueFill fraction of the inbound queue in use
+   * @param waitMs average time datums removed from the inbound queue during the last interval waited in it
+   * @param utilization fraction of the last interval the running tasks spent processing
+   * @param intervalMs milliseconds between decisions
+   * @return tasks to run, at most one more or one fewer than now
+   */
+  static int decide(int tasks, int minTasks, int maxTasks, double queueFill, double waitMs, double utilization, long intervalMs) {
+    boolean backedUp = queueFill >= SCALE_UP_QUEUE_FILL || waitMs >= intervalMs / 2.0;
+    if(tasks < maxTasks && backedUp && utilization >= SCALE_UP_UTILIZATION) {
+      return tasks + 1;
+    }
+    boolean keepingUp = queueFill <= SCALE_DOWN_QUEUE_FILL && waitMs < intervalMs / 20.0;
+    if(tasks > minTasks && keepingUp && utilization * tasks / (tasks - 1) <= SCALE_DOWN_UTILIZATION) {
+      return tasks - 1;
+    }
+    return tasks;
+  }
+
+  /**
+   * A component being scaled and its measurements at the previous decision.
+   */
+  private static class Scaled {
+
+    private final StreamComponent component;
+    private final StreamsTaskCounter counter;
+    private final ThroughputQueueMXBean queue;
+    private final List<StreamsTask> active;
+    private long sampledAt;
+    private long busy;
+    private long removed;
+    private double waited;
+
+    private Scaled(StreamComponent component, StreamsTaskCounter counter) {
+      this.component = component;
+      this.counter = counter;
+      this.queue = component.getInBoundQueue() instanceof ThroughputQueueMXBean ? (ThroughputQueueMXBean) component.getInBoundQueue() : null;
+      this.active = new ArrayList<>(component.getStreamsTasks());
+      this.sampledAt = System.nanoTime();
+      this.busy = getBusyNanos();
+      this.removed = this.queue == null ? 0 : this.queue.getRemoved();
+      this.waited = this.queue == null ? 0 : this.queue.getAvgWait() * this.removed;
+    }
+
+    /**
+     * @return time the tasks of the component spent processing, including the processors fused into it
+     */
+    private long getBusyNanos() {
+      long busy = this.counter.getTimeHistogram().getTotal();
+      for(StreamsTaskCounter fused : this.component.getFusedCounters()) {
+        busy += fused.getTimeHistogram().getTotal();
+      }
+      return busy;
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.counters;
+
+import org.apache.streams.core.StreamsDatumLineage;
+import org.apache.streams.local.builders.LocalStreamBuilder;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides which datums of a stream carry a {@link StreamsDatumLineage} and collects the lineages of the ones that
+ * complete, into one {@link DatumLineageCounter} per path through the stream.
+ */
+@ThreadSafe
+public class DatumLineageCollector {
+
+  private final int sampleInterval;
+  private final String streamIdentifier;
+  private final long startedAt;
+  private final ConcurrentMap<String, DatumLineageCounter> counters;
+
+  /**
+   *
+   * @param sampleInterval one in this many datums emitted by each provider task is sampled
+   */
+  public DatumLineageCollector(int sampleInterval) {
+    this(sampleInterval, LocalStreamBuilder.DEFAULT_STREAM_IDENTIFIER, -1);
+  }
+
+  /**
+   *
+   * @param sampleInterval one in this many datums emitted by each provider task is sampled
+   */
+  public DatumLineageCollector(int sampleInterval, String streamIdentifier, long startedAt) {
+    if(sampleInterval < 1) {
+      throw new IllegalArgumentException("sampleInterval must be greater than 0");
+    }
+    this.sampleInterval = sampleInterval;
+    this.streamIdentifier = streamIdentifier;
+    this.startedAt = startedAt;
+    this.counters = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @return one in this many datums emitted by each provider task is sampled
+   */
+  public int getSampleInterval() {
+    return this.sampleInterval;
+  }
+
+  /**
+   * Add the lineage of a datum that has left the stream to the counter for its path.
+   * @param lineage completed lineage
+   */
+  public void record(StreamsDatumLineage lineage) {
+    if(lineage == null || lineage.size() == 0) {
+      return;
+    }
+    this.counters.computeIfAbsent(lineage.getPath(),
+        path -> new DatumLineageCounter(lineage, this.streamIdentifier, this.startedAt)).record(lineage);
+  }
+
+  /**
+   * @return counters of the paths seen so far
+   */
+  public Collection<DatumLineageCounter> getCounters() {
+    return Collections.unmodifiableCollection(this.counters.values());
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.counters;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
+import org.apache.streams.local.builders.LocalStreamBuilder;
+import org.apache.streams.util.ComponentUtils;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the sampled datums that took one path through a stream and breaks their latency down into the time spent in
+ * each component and in each queue between components.
+ */
+@ThreadSafe
+public class DatumLineageCounter implements DatumLineageCounterMXBean {
+
+  public static final String NAME_TEMPLATE = "org.apache.streams.local:type=DatumLineageCounter,name=%s,identifier=%s,startedAt=%s";
+  public static final String QUEUE_SEGMENT_PREFIX = "queue to ";
+
+  private final String path;
+  private final String[] segments;
+  private final LatencyHistogram latency;
+  private final LatencyHistogram[] segmentTimes;
+
+  /**
+   *
+   * @param lineage lineage of the first datum to take the path
+   */
+  public DatumLineageCounter(StreamsDatumLineage lineage) {
+    this(lineage, LocalStreamBuilder.DEFAULT_STREAM_IDENTIFIER, -1);
+  }
+
+  /**
+   *
+   * @param lineage lineage of the first datum to take the path
+   */
+  public DatumLineageCounter(StreamsDatumLineage lineage, String streamId, long startedAt) {
+    this.path = lineage.getPath();
+    int hops = lineage.size();
+    this.segments = new String[Math.max(0, 2 * hops - 1)];
+    this.segmentTimes = new LatencyHistogram[this.segments.length];
+    for(int i=0; i < hops; ++i) {
+      if(i > 0) {
+        this.segments[2 * i - 1] = QUEUE_SEGMENT_PREFIX + lineage.getComponent(i);
+      }
+      this.segments[2 * i] = lineage.getComponent(i);
+    }
+    for(int i=0; i < this.segmentTimes.length; ++i) {
+      this.segmentTimes[i] = new LatencyHistogram();
+    }
+    this.latency = new LatencyHistogram();
+    ComponentUtils.registerLocalMBean(String.format(NAME_TEMPLATE, this.path, streamId, startedAt), this);
+  }
+
+  /**
+   * Add the times of a datum that completed the path.  Segments the datum has no time for are skipped.
+   * @param lineage lineage with the same path as this counter
+   */
+  public void record(StreamsDatumLineage lineage) {
+    int hops = Math.min(lineage.size(), (this.segments.length + 1) / 2);
+    if(hops == 0) {
+      return;
+    }
+    long previousEgress = StreamsDatum.NO_VALUE;
+    for(int i=0; i < hops; ++i) {
+      long ingress = lineage.getIngressNanos(i);
+      long egress = lineage.getEgressNanos(i);
+      if(i > 0 && previousEgress != StreamsDatum.NO_VALUE) {
+        this.segmentTimes[2 * i - 1].record(ingress - previousEgress);
+      }
+      if(egress != StreamsDatum.NO_VALUE) {
+        this.segmentTimes[2 * i].record(egress - ingress);
+      }
+      previousEgress = egress;
+    }
+    if(previousEgress != StreamsDatum.NO_VALUE) {
+      this.latency.record(previousEgress - lineage.getIngressNanos(0));
+    }
+  }
+
+  /**
+   * @return end to end latency of the datums that completed the path
+   */
+  public LatencyHistogram getLatencyHistogram() {
+    return this.latency;
+  }
+
+  /**
+   * @param segment index of the segment, see {@link #getSegments()}
+   * @return time datums spent in the segment
+   */
+  public LatencyHistogram getSegmentHistogram(int segment) {
+    return this.segmentTimes[segment];
+  }
+
+  @Override
+  public String getPath() {
+    return this.path;
+  }
+
+  @Override
+  public long getCount() {
+    return this.latency.getCount();
+  }
+
+  @Override
+  public double getLatencyP50() {
+    return this.latency.getValueAtPercentileMillis(50);
+  }
+
+  @Override
+  public double getLatencyP95() {
+    return this.latency.getValueAtPercentileMillis(95);
+  }
+
+  @Override
+  public double getLatencyP99() {
+    return this.latency.getValueAtPercentileMillis(99);
+  }
+
+  @Override
+  public double getLatencyP999() {
+    return this.latency.getValueAtPercentileMillis(99.9);
+  }
+
+  @Override
+  public String[] getSegments() {
+    return this.segments.clone();
+  }
+
+  @Override
+  public double[] getSegmentAvg() {
+    double[] avg = new double[this.segmentTimes.length];
+    for(int i=0; i < avg.length; ++i) {
+      avg[i] = this.segmentTimes[i].getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    return avg;
+  }
+
+  @Override
+  public double[] getSegmentP50() {
+    return getSegmentPercentile(50);
+  }
+
+  @Override
+  public double[] getSegmentP99() {
+    return getSegmentPercentile(99);
+  }
+
+  private double[] getSegmentPercentile(double percentile) {
+    double[] values = new double[this.segmentTimes.length];
+    for(int i=0; i < values.length; ++i) {
+      values[i] = this.segmentTimes[i].getValueAtPercentileMillis(percentile);
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.counters;
+
+/**
+ * Latency breakdown of the sampled datums that took one path through a stream.
+ */
+public interface DatumLineageCounterMXBean {
+
+  /**
+   * Get the ids of the components on the path, from the provider to the writer
+   * @return path
+   */
+  public String getPath();
+
+  /**
+   * Get the number of sampled datums that completed the path
+   * @return number of datums
+   */
+  public long getCount();
+
+  /**
+   * Get the median time from the provider emitting a datum to the writer finishing with it, in milliseconds
+   * @return median end to end latency
+   */
+  public double getLatencyP50();
+
+  /**
+   * Get the 95th percentile of the end to end latency, in milliseconds
+   * @return 95th percentile end to end latency
+   */
+  public double getLatencyP95();
+
+  /**
+   * Get the 99th percentile of the end to end latency, in milliseconds
+   * @return 99th percentile end to end latency
+   */
+  public double getLatencyP99();
+
+  /**
+   * Get the 99.9th percentile of the end to end latency, in milliseconds
+   * @return 99.9th percentile end to end latency
+   */
+  public double getLatencyP999();
+
+  /**
+   * Get the names of the segments the end to end latency is broken down into.  Every component on the path is a
+   * segment named by its id, and every queue between two components is a segment named "queue to" the id of the
+   * component reading it.
+   * @return segment names, in path order
+   */
+  public String[] getSegments();
+
+  /**
+   * Get the average time datums spent in each segment, in milliseconds
+   * @return average per segment, in the order of {@link #getSegments()}
+   */
+  public double[] getSegmentAvg();
+
+  /**
+   * Get the median time datums spent in each segment, in milliseconds
+   * @return median per segment, in the order of {@link #getSegments()}
+   */
+  public double[] getSegmentP50();
+
+  /**
+   * Get the 99th percentile of the time datums spent in each segment, in milliseconds
+   * @return 99th percentile per segment, in the order of {@link #getSegments()}
+   */
+  public double[] getSegmentP99();
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.counters;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, laid out like an HdrHistogram.  Values below 32 are counted exactly
+ * and every larger power of two is split into 32 linear sub-buckets, so a percentile is reported within about 3% of
+ * the recorded value over the whole range of a long.  Recording a value is a couple of atomic additions and never
+ * blocks, so the histogram can be updated for every datum by any number of threads.
+ * <p></p>
+ * Percentiles are read without stopping writers, so a value recorded while a percentile is being computed may or may
+ * not be included.
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong(0);
+  private final AtomicLong total = new AtomicLong(0);
+  private final AtomicLong max = new AtomicLong(0);
+
+  /**
+   * Record a single duration.
+   * @param nanos duration in nanoseconds, negative values are recorded as 0
+   */
+  public void record(long nanos) {
+    record(nanos, 1);
+  }
+
+  /**
+   * Record the same duration several times, e.g. the time per datum of a batch.
+   * @param nanos duration in nanoseconds, negative values are recorded as 0
+   * @param times number of times to record the duration
+   */
+  public void record(long nanos, long times) {
+    if(times < 1) {
+      return;
+    }
+    long value = Math.max(0, nanos);
+    this.counts.addAndGet(indexOf(value), times);
+    this.count.addAndGet(times);
+    this.total.addAndGet(value * times);
+    long current = this.max.get();
+    while(value > current && !this.max.compareAndSet(current, value)) {
+      current = this.max.get();
+    }
+  }
+
+  /**
+   * @return number of recorded values
+   */
+  public long getCount() {
+    return this.count.get();
+  }
+
+  /**
+   * @return sum of the recorded values in nanoseconds
+   */
+  public long getTotal() {
+    return this.total.get();
+  }
+
+  /**
+   * @return largest recorded value in nanoseconds, exactly as recorded, or 0 if nothing has been recorded
+   */
+  public long getMax() {
+    return this.max.get();
+  }
+
+  /**
+   * @return mean of the recorded values in nanoseconds, or 0 if nothing has been recorded
+   */
+  public double getMean() {
+    long count = this.count.get();
+    return count == 0 ? 0.0 : (double) this.total.get() / count;
+  }
+
+  /**
+   * Get the value at or below which the given percentage of the recorded values fall.  The result is the largest value
+   * of the bucket holding that percentile, capped at the largest recorded value.
+   * @param percentile percentile between 0 and 100, e.g. 99.9
+   * @return value in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long recorded = 0;
+    for(int i=0; i < BUCKETS; ++i) {
+      snapshot[i] = this.counts.get(i);
+      recorded += snapshot[i];
+    }
+    if(recorded == 0) {
+      return 0;
+    }
+    double fraction = Math.min(100.0, Math.max(0.0, percentile)) / 100.0;
+    long rank = Math.max(1, (long) Math.ceil(fraction * recorded));
+    long seen = 0;
+    for(int i=0; i < BUCKETS; ++i) {
+      seen += snapshot[i];
+      if(seen >= rank) {
+        return Math.min(highestValueAt(i), this.max.get());
+      }
+    }
+    return this.max.get();
+  }
+
+  /**
+   * {@link #getValueAtPercentile(double)} in milliseconds, the unit of the other timings exposed over JMX.
+   * @param percentile percentile between 0 and 100, e.g. 99.9
+   * @return value in milliseconds, or 0 if nothing has been recorded
+   */
+  public double getValueAtPercentileMillis(double percentile) {
+    return (double) getValueAtPercentile(percentile) / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  static int indexOf(long value) {
+    if(value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  static long highestValueAt(int index) {
+    if(index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+}
@@ -20,11 +20,11 @@ package org.apache.streams.local.counters;
 import org.apache.streams.local.builders.LocalStreamBuilder;
 import org.apache.streams.util.ComponentUtils;
 
-import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -40,8 +40,8 @@ public class StreamsTaskCounter implements StreamsTaskCounterMXBean {
   private AtomicLong received;
   private AtomicLong errors;
   private AtomicLong totalTime;
-  @GuardedBy("this")
-  private volatile long maxTime;
+  private LatencyHistogram time;
+  private LatencyHistogram latency;
 
   /**
    *
@@ -60,7 +60,8 @@ public class StreamsTaskCounter implements StreamsTaskCounterMXBean {
     this.received = new AtomicLong(0);
     this.errors = new AtomicLong(0);
     this.totalTime = new AtomicLong(0);
-    this.maxTime = -1;
+    this.time = new LatencyHistogram();
+    this.latency = new LatencyHistogram();
     ComponentUtils.registerLocalMBean(String.format(NAME_TEMPLATE, id, streamId, startedAt), this);
   }
 
@@ -114,12 +115,64 @@ public class StreamsTaskCounter implements StreamsTaskCounterMXBean {
    * @param processTime
    */
   public void addTime(long processTime) {
-    synchronized (this) {
-      if(processTime > this.maxTime) {
-        this.maxTime = processTime;
-      }
+    addTimeNanos(TimeUnit.MILLISECONDS.toNanos(processTime));
+  }
+
+  /**
+   * Add the time it takes to process a batch of datums in milliseconds.  The max time is tracked
+   * as the average time per datum within the batch.
+   * @param batchTime time taken to process the whole batch
+   * @param batchSize number of datums in the batch
+   */
+  public void addTime(long batchTime, int batchSize) {
+    addTimeNanos(TimeUnit.MILLISECONDS.toNanos(batchTime), batchSize);
+  }
+
+  /**
+   * Add the time it takes to process a single datum in nanoseconds
+   * @param processNanos
+   */
+  public void addTimeNanos(long processNanos) {
+    this.time.record(processNanos);
+    this.totalTime.addAndGet(processNanos);
+  }
+
+  /**
+   * Add the time it takes to process a batch of datums in nanoseconds.  Every datum of the batch is recorded in the
+   * percentiles with the average time per datum within the batch, which hides slow datums, so only use it for
+   * components that handle the batch in one call.
+   * @param batchNanos time taken to process the whole batch
+   * @param batchSize number of datums in the batch
+   */
+  public void addTimeNanos(long batchNanos, int batchSize) {
+    if(batchSize <= 1) {
+      addTimeNanos(batchNanos);
+      return;
     }
-    this.totalTime.addAndGet(processTime);
+    this.time.record(batchNanos / batchSize, batchSize);
+    this.totalTime.addAndGet(batchNanos);
+  }
+
+  /**
+   * Add the time in nanoseconds from a provider emitting a datum until this task finished with it
+   * @param latencyNanos
+   */
+  public void addLatencyNanos(long latencyNanos) {
+    this.latency.record(latencyNanos);
+  }
+
+  /**
+   * @return histogram of the time to process a datum, in nanoseconds
+   */
+  public LatencyHistogram getTimeHistogram() {
+    return this.time;
+  }
+
+  /**
+   * @return histogram of the end-to-end latency of datums, in nanoseconds
+   */
+  public LatencyHistogram getLatencyHistogram() {
+    return this.latency;
   }
 
   @Override
@@ -152,14 +205,66 @@ public class StreamsTaskCounter implements StreamsTaskCounterMXBean {
     if(rec == 0 && emit == 0 ) {
       return 0.0;
     } else if( rec == 0) { //provider instance
-      return this.totalTime.get() / (double) emit;
+      return toMillis(this.totalTime.get()) / emit;
     } else {
-      return this.totalTime.get() / ((double) this.received.get() - this.errors.get());
+      return toMillis(this.totalTime.get()) / ((double) this.received.get() - this.errors.get());
     }
   }
 
   @Override
   public long getMaxTime() {
-    return this.maxTime;
+    if(this.time.getCount() == 0) {
+      return -1;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(this.time.getMax());
+  }
+
+  @Override
+  public double getTimeP50() {
+    return this.time.getValueAtPercentileMillis(50);
+  }
+
+  @Override
+  public double getTimeP95() {
+    return this.time.getValueAtPercentileMillis(95);
+  }
+
+  @Override
+  public double getTimeP99() {
+    return this.time.getValueAtPercentileMillis(99);
+  }
+
+  @Override
+  public double getTimeP999() {
+    return this.time.getValueAtPercentileMillis(99.9);
+  }
+
+  @Override
+  public long getLatencyCount() {
+    return this.latency.getCount();
+  }
+
+  @Override
+  public double getLatencyP50() {
+    return this.latency.getValueAtPercentileMillis(50);
+  }
+
+  @Override
+  public double getLatencyP95() {
+    return this.latency.getValueAtPercentileMillis(95);
+  }
+
+  @Override
+  public double getLatencyP99() {
+    return this.latency.getValueAtPercentileMillis(99);
+  }
+
+  @Override
+  public double getLatencyP999() {
+    return this.latency.getValueAtPercentileMillis(99.9);
+  }
+
+  private static double toMillis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
   }
 }
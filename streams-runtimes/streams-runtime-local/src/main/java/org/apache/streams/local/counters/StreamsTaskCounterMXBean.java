@@ -18,7 +18,10 @@
 package org.apache.streams.local.counters;
 
 /**
- *
+ * Counters and timings of the tasks of one stream component.  The time statistics are per datum: processors and
+ * writers are timed around each datum they handle, except {@link org.apache.streams.core.StreamsBatchProcessor}s and
+ * {@link org.apache.streams.core.StreamsBatchPersistWriter}s, which are timed per batch, with every datum of the batch
+ * recorded at the batch's average time per datum.
  */
 public interface StreamsTaskCounterMXBean {
 
@@ -60,4 +63,58 @@ public interface StreamsTaskCounterMXBean {
    */
   public long getMaxTime();
 
+  /**
+   * Returns the median time in milliseconds it takes the task to readCurrent, process, or write a datum.
+   * @return 50th percentile of the time per datum
+   */
+  public double getTimeP50();
+
+  /**
+   * Returns the 95th percentile of the time in milliseconds it takes the task to readCurrent, process, or write a datum.
+   * @return 95th percentile of the time per datum
+   */
+  public double getTimeP95();
+
+  /**
+   * Returns the 99th percentile of the time in milliseconds it takes the task to readCurrent, process, or write a datum.
+   * @return 99th percentile of the time per datum
+   */
+  public double getTimeP99();
+
+  /**
+   * Returns the 99.9th percentile of the time in milliseconds it takes the task to readCurrent, process, or write a datum.
+   * @return 99.9th percentile of the time per datum
+   */
+  public double getTimeP999();
+
+  /**
+   * Get the number of datums whose end-to-end latency was recorded.  Only persist writer tasks record latency.
+   * @return number of latency samples
+   */
+  public long getLatencyCount();
+
+  /**
+   * Returns the median time in milliseconds from a provider emitting a datum until the task wrote it.
+   * @return 50th percentile of the end-to-end latency
+   */
+  public double getLatencyP50();
+
+  /**
+   * Returns the 95th percentile of the time in milliseconds from a provider emitting a datum until the task wrote it.
+   * @return 95th percentile of the end-to-end latency
+   */
+  public double getLatencyP95();
+
+  /**
+   * Returns the 99th percentile of the time in milliseconds from a provider emitting a datum until the task wrote it.
+   * @return 99th percentile of the end-to-end latency
+   */
+  public double getLatencyP99();
+
+  /**
+   * Returns the 99.9th percentile of the time in milliseconds from a provider emitting a datum until the task wrote it.
+   * @return 99.9th percentile of the end-to-end latency
+   */
+  public double getLatencyP999();
+
 }
@@ -23,7 +23,9 @@ import org.apache.streams.local.builders.LocalStreamBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -44,7 +46,17 @@ public class ShutdownStreamOnUnhandleThrowableThreadPoolExecutor extends ThreadP
    * @param streamBuilder streambuilder to call {@link org.apache.streams.core.StreamBuilder#stop()} on upon receiving an unhandled throwable
    */
   public ShutdownStreamOnUnhandleThrowableThreadPoolExecutor(int numThreads, LocalStreamBuilder streamBuilder) {
-    super(numThreads, numThreads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    this(numThreads, streamBuilder, Executors.defaultThreadFactory());
+  }
+
+  /**
+   * Creates a fixed size thread pool where corePoolSize & maximumPoolSize equal numThreads with an unbounded queue.
+   * @param numThreads number of threads in pool
+   * @param streamBuilder streambuilder to call {@link org.apache.streams.core.StreamBuilder#stop()} on upon receiving an unhandled throwable
+   * @param threadFactory creates the threads of the pool, see {@link TaskThreadFactories}
+   */
+  public ShutdownStreamOnUnhandleThrowableThreadPoolExecutor(int numThreads, LocalStreamBuilder streamBuilder, ThreadFactory threadFactory) {
+    super(numThreads, numThreads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
     this.streamBuilder = streamBuilder;
     this.isStoped = false;
   }
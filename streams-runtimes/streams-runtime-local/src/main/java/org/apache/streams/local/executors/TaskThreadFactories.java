@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.executors;
+
+import org.apache.streams.local.LocalRuntimeConfiguration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the {@link ThreadFactory} that runs the tasks of a local stream, as selected by
+ * {@link LocalRuntimeConfiguration#getTaskThreads()}.
+ *
+ * Virtual threads are looked up reflectively so the runtime still builds and runs on Java 8.  When the JVM does not
+ * provide them the stream falls back to platform threads.  Tasks wait on the queues connecting components, on spilling
+ * {@link org.apache.streams.local.queues.FanOutBranch}es and while emitting from a parallel processor's reorder buffer
+ * through {@link java.util.concurrent.locks.Lock}s or {@link java.util.concurrent.locks.LockSupport}, so waiting tasks
+ * do not hold on to a carrier thread.  The monitors left in the runtime are only held briefly, never around a wait.
+ */
+public class TaskThreadFactories {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskThreadFactories.class);
+
+  private TaskThreadFactories() {}
+
+  /**
+   * @param taskThreads kind of thread requested, null for platform threads
+   * @param name prefix for the thread names
+   * @return factory for the task threads
+   */
+  public static ThreadFactory forTaskThreads(LocalRuntimeConfiguration.TaskThreads taskThreads, String name) {
+    if(taskThreads == LocalRuntimeConfiguration.TaskThreads.VIRTUAL) {
+      ThreadFactory factory = virtualThreadFactory(name);
+      if(factory != null) {
+        return factory;
+      }
+      LOGGER.warn("Virtual threads are not supported by this JVM, running stream tasks on platform threads");
+    }
+    return Executors.defaultThreadFactory();
+  }
+
+  /**
+   * @return true if the JVM running the stream supports virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return virtualThreadFactory("probe-") != null;
+  }
+
+  /**
+   * Equivalent to {@code Thread.ofVirtual().name(name, 0).factory()}.
+   * @return factory for virtual threads, or null if the JVM does not support them
+   */
+  private static ThreadFactory virtualThreadFactory(String name) {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 0L);
+      Method factory = builderClass.getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOGGER.debug("Virtual threads unavailable : {}", e.toString());
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsDatum;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End of stream handling for the queues connecting the components of a local stream.  Each task sends {@link #MARKER}
+ * to its outbound queues after its last datum.  The tasks of a component share one EndOfStream that counts the
+ * upstream tasks feeding their inbound queue, so the component knows it has received everything once the last marker
+ * arrives and can finish without waiting to be stopped.
+ */
+public class EndOfStream {
+
+  /**
+   * Sent by a task to each of its outbound queues after its last datum.  Compare by identity, see {@link #isMarker}.
+   */
+  public static final StreamsDatum MARKER = new Marker();
+
+  private final AtomicInteger remaining;
+  private final AtomicInteger consumers;
+
+  /**
+   * @param producers number of upstream tasks writing to the inbound queue
+   * @param consumers number of tasks reading from the inbound queue
+   */
+  public EndOfStream(int producers, int consumers) {
+    this.remaining = new AtomicInteger(producers);
+    this.consumers = new AtomicInteger(consumers);
+  }
+
+  /**
+   * @param datum datum removed from a queue
+   * @return true if the datum is the end of stream marker
+   */
+  public static boolean isMarker(StreamsDatum datum) {
+    return datum == MARKER;
+  }
+
+  /**
+   * Record a marker removed from the inbound queue.
+   * @return true if this was the marker of the last upstream task
+   */
+  public boolean markerReceived() {
+    return this.remaining.decrementAndGet() == 0;
+  }
+
+  /**
+   * Record an upstream task started after this was created.  Must be called before the task can send its marker.
+   */
+  public void addProducer() {
+    this.remaining.incrementAndGet();
+  }
+
+  /**
+   * Record a task started reading from the inbound queue after this was created.
+   */
+  public void addConsumer() {
+    this.consumers.incrementAndGet();
+  }
+
+  /**
+   * Record a task that stopped reading from the inbound queue before the end of the stream.
+   */
+  public void removeConsumer() {
+    this.consumers.decrementAndGet();
+  }
+
+  /**
+   * @return true once every upstream task has sent its marker
+   */
+  public boolean isComplete() {
+    return this.remaining.get() <= 0;
+  }
+
+  /**
+   * @return number of tasks reading from the inbound queue
+   */
+  public int getConsumers() {
+    return this.consumers.get();
+  }
+
+  /**
+   * Resolved back to the single instance when Java deserialized, so a marker survives
+   * {@link org.apache.streams.util.SerializationUtil#cloneBySerialization}.  A spilling {@link FanOutBranch} does not
+   * encode markers and writes a marker record of its own instead.
+   */
+  private static final class Marker extends StreamsDatum {
+
+    private Marker() {
+      super(null);
+    }
+
+    private Object readResolve() {
+      return MARKER;
+    }
+
+    @Override
+    public String toString() {
+      return "EndOfStream";
+    }
+  }
+
+}
@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.util.StreamsDatumCodec;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.util.ComponentUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One branch of a component that sends its output to several downstream components.  Datums are handed to the
+ * downstream queue, and when that queue is full the branch applies its {@link LocalRuntimeConfiguration.FanOutPolicy}:
+ * <ul>
+ *   <li>block - wait for the downstream queue, the behavior of an unwrapped queue</li>
+ *   <li>spill - append the datum to a file and let a background thread move it to the downstream queue, in order,
+ *   once there is room.  At most spillCapacity datums are spilled, after that the branch blocks.</li>
+ *   <li>drop - discard the datum and count it.  {@link EndOfStream#MARKER} is never dropped.</li>
+ * </ul>
+ * With spill or drop a slow downstream component no longer throttles its sibling branches.  Lag for each branch is
+ * registered as a {@link FanOutBranchMXBean}.
+ */
+public class FanOutBranch extends AbstractQueue<StreamsDatum> implements BlockingQueue<StreamsDatum>, FanOutBranchMXBean {
+
+  public static final String NAME_TEMPLATE = "org.apache.streams.local:type=FanOutBranch,name=%s,identifier=%s,startedAt=%s";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FanOutBranch.class);
+
+  private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /**
+   * Length written to the spill file in place of an encoded datum for {@link EndOfStream#MARKER}, which the codec
+   * would read back as an ordinary datum.
+   */
+  private static final int MARKER_RECORD = -1;
+
+  private final BlockingQueue<StreamsDatum> delegate;
+  private final LocalRuntimeConfiguration.FanOutPolicy policy;
+  private final long spillCapacity;
+  private final File spillDirectory;
+  private final String id;
+  private final AtomicLong dropped = new AtomicLong(0);
+  private final AtomicLong delivered = new AtomicLong(0);
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition drained = this.lock.newCondition();
+  private File file;
+  private RandomAccessFile spillFile;
+  private long readPosition;
+  private long writePosition;
+  private volatile long spilled;
+  private Thread drainer;
+  private boolean closed;
+
+  /**
+   * Creates an unregistered branch
+   * @param delegate inbound queue of the downstream component
+   * @param policy policy applied when the downstream queue is full
+   * @param spillCapacity maximum number of datums to keep on disk when the policy is spill
+   * @param spillDirectory directory for the spill file, if null the default temporary-file directory is used
+   */
+  public FanOutBranch(BlockingQueue<StreamsDatum> delegate, LocalRuntimeConfiguration.FanOutPolicy policy,
+                      long spillCapacity, File spillDirectory) {
+    this(delegate, policy, spillCapacity, spillDirectory, null, null, -1);
+  }
+
+  /**
+   * Creates a branch registered under {@link #NAME_TEMPLATE}
+   * @param delegate inbound queue of the downstream component
+   * @param policy policy applied when the downstream queue is full
+   * @param spillCapacity maximum number of datums to keep on disk when the policy is spill
+   * @param spillDirectory directory for the spill file, if null the default temporary-file directory is used
+   * @param id unique id for this branch to be registered with. if id == NULL then not registered
+   * @param streamIdentifier identifier of the stream the branch belongs to
+   * @param startedAt time the stream was started
+   */
+  public FanOutBranch(BlockingQueue<StreamsDatum> delegate, LocalRuntimeConfiguration.FanOutPolicy policy,
+                      long spillCapacity, File spillDirectory, String id, String streamIdentifier, long startedAt) {
+    this.delegate = delegate;
+    this.policy = policy == null ? LocalRuntimeConfiguration.FanOutPolicy.BLOCK : policy;
+    this.spillCapacity = spillCapacity;
+    this.spillDirectory = spillDirectory;
+    this.id = id;
+    if(id != null) {
+      ComponentUtils.registerLocalMBean(String.format(NAME_TEMPLATE, id, streamIdentifier, startedAt), this);
+    }
+  }
+
+  @Override
+  public boolean offer(StreamsDatum datum) {
+    switch (this.policy) {
+      case SPILL:
+        this.lock.lock();
+        try {
+          return deliverOrSpill(datum);
+        } finally {
+          this.lock.unlock();
+        }
+      case DROP:
+        if(!this.delegate.offer(datum)) {
+          if(EndOfStream.isMarker(datum)) {
+            return false;
+          }
+          this.dropped.incrementAndGet();
+          return true;
+        }
+        break;
+      default:
+        if(!this.delegate.offer(datum)) {
+          return false;
+        }
+    }
+    this.delivered.incrementAndGet();
+    return true;
+  }
+
+  @Override
+  public boolean offer(StreamsDatum datum, long timeout, TimeUnit unit) throws InterruptedException {
+    switch (this.policy) {
+      case SPILL:
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+          while(!deliverOrSpill(datum)) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) {
+              return false;
+            }
+            this.drained.awaitNanos(Math.min(remaining, RETRY_NANOS));
+          }
+          return true;
+        } finally {
+          this.lock.unlock();
+        }
+      case DROP:
+        if(!EndOfStream.isMarker(datum)) {
+          return offer(datum);
+        }
+        //fall through, markers are never dropped so they wait for room as with block
+      default:
+        if(!this.delegate.offer(datum, timeout, unit)) {
+          return false;
+        }
+        this.delivered.incrementAndGet();
+        return true;
+    }
+  }
+
+  @Override
+  public void put(StreamsDatum datum) throws InterruptedException {
+    if(this.policy == LocalRuntimeConfiguration.FanOutPolicy.BLOCK) {
+      this.delegate.put(datum);
+      this.delivered.incrementAndGet();
+    } else {
+      while(!offer(datum, 1, TimeUnit.SECONDS)) {
+        LOGGER.trace("Waiting for spilled datums to drain on branch {}", this.id);
+      }
+    }
+  }
+
+  /**
+   * Stop moving spilled datums downstream and delete the spill file.  Datums still on disk are counted as dropped.
+   */
+  public void close() {
+    Thread toJoin;
+    this.lock.lock();
+    try {
+      this.closed = true;
+      toJoin = this.drainer;
+    } finally {
+      this.lock.unlock();
+    }
+    if(toJoin != null) {
+      toJoin.interrupt();
+      try {
+        toJoin.join();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    this.lock.lock();
+    try {
+      if(this.spilled > 0) {
+        LOGGER.warn("Closing fan out branch {} with {} spilled datums", this.id, this.spilled);
+        this.dropped.addAndGet(this.spilled);
+        this.spilled = 0;
+      }
+      closeSpillFile();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Must hold the lock.  Order is kept by only offering to the downstream queue when nothing is spilled.
+   * @return true if the datum was delivered or spilled
+   */
+  private boolean deliverOrSpill(StreamsDatum datum) {
+    if(this.spilled == 0 && this.delegate.offer(datum)) {
+      this.delivered.incrementAndGet();
+      return true;
+    }
+    return !this.closed && this.spilled < this.spillCapacity && spill(datum);
+  }
+
+  private boolean spill(StreamsDatum datum) {
+    byte[] bytes = null;
+    if(!EndOfStream.isMarker(datum)) {
+      try {
+        bytes = StreamsDatumCodec.getInstance().encode(datum);
+      } catch (RuntimeException re) {
+        LOGGER.warn("Unable to spill datum on branch {}, waiting for the downstream queue : {}", this.id, re.getMessage());
+        return false;
+      }
+    }
+    try {
+      if(this.spillFile == null) {
+        this.file = File.createTempFile("streams-fanout-", ".spill", this.spillDirectory);
+        this.file.deleteOnExit();
+        this.spillFile = new RandomAccessFile(this.file, "rw");
+      }
+      this.spillFile.seek(this.writePosition);
+      if(bytes == null) {
+        this.spillFile.writeInt(MARKER_RECORD);
+      } else {
+        this.spillFile.writeInt(bytes.length);
+        this.spillFile.write(bytes);
+      }
+      this.writePosition = this.spillFile.getFilePointer();
+    } catch (IOException ioe) {
+      LOGGER.error("Unable to spill datum on branch {} : {}", this.id, ioe);
+      return false;
+    }
+    ++this.spilled;
+    if(this.drainer == null) {
+      this.drainer = new Thread(this::drain, "FanOutBranch-" + this.id);
+      this.drainer.setDaemon(true);
+      this.drainer.start();
+    }
+    return true;
+  }
+
+  /**
+   * Runs on the drainer thread, moving spilled datums to the downstream queue in order until none are left.
+   */
+  private void drain() {
+    try {
+      while(true) {
+        StreamsDatum next;
+        long nextPosition;
+        this.lock.lock();
+        try {
+          if(this.spilled == 0 || this.closed) {
+            if(this.spilled == 0 && this.spillFile != null) {
+              this.spillFile.setLength(0);
+              this.readPosition = 0;
+              this.writePosition = 0;
+            }
+            //cleared under the same lock as the check, so a spill from now on starts a new drainer
+            this.drainer = null;
+            return;
+          }
+          this.spillFile.seek(this.readPosition);
+          int length = this.spillFile.readInt();
+          if(length == MARKER_RECORD) {
+            next = EndOfStream.MARKER;
+          } else {
+            byte[] bytes = new byte[length];
+            this.spillFile.readFully(bytes);
+            next = StreamsDatumCodec.getTrustedInstance().decode(bytes);
+          }
+          nextPosition = this.spillFile.getFilePointer();
+        } finally {
+          this.lock.unlock();
+        }
+        this.delegate.put(next);
+        this.lock.lock();
+        try {
+          this.readPosition = nextPosition;
+          --this.spilled;
+          this.delivered.incrementAndGet();
+          this.drained.signalAll();
+        } finally {
+          this.lock.unlock();
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error("Unable to read spilled datums on branch {} : {}", this.id, e);
+      this.lock.lock();
+      try {
+        this.dropped.addAndGet(this.spilled);
+        this.spilled = 0;
+        closeSpillFile();
+        this.drainer = null;
+      } finally {
+        this.lock.unlock();
+      }
+    } finally {
+      this.lock.lock();
+      try {
+        if(this.drainer == Thread.currentThread()) {
+          this.drainer = null;
+        }
+        this.drained.signalAll();
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+
+  private void closeSpillFile() {
+    if(this.spillFile != null) {
+      try {
+        this.spillFile.close();
+      } catch (IOException ioe) {
+        LOGGER.warn("Unable to close spill file {} : {}", this.file, ioe.getMessage());
+      }
+      if(!this.file.delete()) {
+        LOGGER.warn("Unable to delete spill file {}", this.file);
+      }
+      this.spillFile = null;
+      this.readPosition = 0;
+      this.writePosition = 0;
+    }
+  }
+
+  @Override
+  public String getPolicy() {
+    return this.policy.toString();
+  }
+
+  @Override
+  public long getQueued() {
+    return this.delegate.size();
+  }
+
+  @Override
+  public long getSpilled() {
+    return this.spilled;
+  }
+
+  @Override
+  public long getLag() {
+    return getQueued() + getSpilled();
+  }
+
+  @Override
+  public long getDropped() {
+    return this.dropped.get();
+  }
+
+  @Override
+  public long getDelivered() {
+    return this.delivered.get();
+  }
+
+  @Override
+  public StreamsDatum take() throws InterruptedException {
+    return this.delegate.take();
+  }
+
+  @Override
+  public StreamsDatum poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return this.delegate.poll(timeout, unit);
+  }
+
+  @Override
+  public StreamsDatum poll() {
+    return this.delegate.poll();
+  }
+
+  @Override
+  public StreamsDatum peek() {
+    return this.delegate.peek();
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return this.delegate.remainingCapacity();
+  }
+
+  @Override
+  public int drainTo(Collection<? super StreamsDatum> c) {
+    return this.delegate.drainTo(c);
+  }
+
+  @Override
+  public int drainTo(Collection<? super StreamsDatum> c, int maxElements) {
+    return this.delegate.drainTo(c, maxElements);
+  }
+
+  @Override
+  public Iterator<StreamsDatum> iterator() {
+    return this.delegate.iterator();
+  }
+
+  @Override
+  public int size() {
+    return this.delegate.size();
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+/**
+ * MXBean reporting how far one branch of a fan-out is behind the component feeding it.
+ */
+public interface FanOutBranchMXBean {
+
+  /**
+   * Get the policy applied when the downstream queue is full
+   * @return block, spill or drop
+   */
+  public String getPolicy();
+
+  /**
+   * Get the number of datums waiting in the downstream queue
+   * @return number of datums in the downstream queue
+   */
+  public long getQueued();
+
+  /**
+   * Get the number of datums spilled to disk that have not yet been moved to the downstream queue
+   * @return number of datums waiting on disk
+   */
+  public long getSpilled();
+
+  /**
+   * Get the number of datums the branch is behind, queued plus spilled
+   * @return number of datums not yet taken by the downstream component
+   */
+  public long getLag();
+
+  /**
+   * Get the number of datums that have been dropped because the downstream queue was full
+   * @return number of dropped datums
+   */
+  public long getDropped();
+
+  /**
+   * Get the number of datums that have been handed to the downstream queue
+   * @return number of delivered datums
+   */
+  public long getDelivered();
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsCredits;
+import org.apache.streams.core.StreamsDatum;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link StreamsCredits} backed by the outbound queues of a provider task.  The credits available are the smallest
+ * remaining capacity of the queues, less the credits already granted for datums that have not reached the queues
+ * yet.  Unbounded queues never hold a provider back.
+ */
+public class QueueCredits implements StreamsCredits {
+
+  private static final long WAIT_MS = 10;
+
+  private final Collection<BlockingQueue<StreamsDatum>> queues;
+  private final AtomicInteger outstanding = new AtomicInteger(0);
+
+  /**
+   * @param queues outbound queues of the provider
+   */
+  public QueueCredits(Collection<BlockingQueue<StreamsDatum>> queues) {
+    this.queues = queues;
+  }
+
+  @Override
+  public int acquire(int max) throws InterruptedException {
+    if(max <= 0) {
+      return 0;
+    }
+    while(true) {
+      int capacity = capacity();
+      int current = this.outstanding.get();
+      int available = capacity == Integer.MAX_VALUE ? capacity : capacity - current;
+      if(available > 0) {
+        int granted = Math.min(max, available);
+        if(this.outstanding.compareAndSet(current, (int) Math.min(Integer.MAX_VALUE, (long) current + granted))) {
+          return granted;
+        }
+      } else {
+        TimeUnit.MILLISECONDS.sleep(WAIT_MS);
+      }
+    }
+  }
+
+  @Override
+  public void release(int credits) {
+    this.outstanding.updateAndGet(current -> Math.max(0, current - credits));
+  }
+
+  /**
+   * @return credits granted for datums that have not reached the outbound queues yet
+   */
+  public int getOutstanding() {
+    return this.outstanding.get();
+  }
+
+  private int capacity() {
+    int capacity = Integer.MAX_VALUE;
+    for(BlockingQueue<StreamsDatum> queue : this.queues) {
+      capacity = Math.min(capacity, queue.remainingCapacity());
+    }
+    return capacity;
+  }
+
+}
@@ -0,0 +1,453 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.local.builders.LocalStreamBuilder;
+import org.apache.streams.local.counters.LatencyHistogram;
+import org.apache.streams.util.ComponentUtils;
+
+import org.apache.commons.lang.NotImplementedException;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, array backed, lock-free {@link java.util.concurrent.BlockingQueue} that exposes the same flow statistics
+ * as {@link org.apache.streams.local.queues.ThroughputQueue}.  Any number of producers and consumers may use the queue
+ * concurrently; slots are claimed with a compare-and-set on a sequence number per slot, so no element wrapper or
+ * linked node is allocated per element and no lock is taken on the data path.
+ * <p></p>
+ * Enqueue times are kept in a parallel array indexed by slot.  Elements added and removed are derived from the
+ * producer and consumer positions of the ring, so recording the metrics costs one clock read per put and take.  The
+ * wait of every element is recorded in a lock-free {@link org.apache.streams.local.counters.LatencyHistogram}.
+ * <p></p>
+ * Blocking operations spin briefly, then yield, then park for short intervals until space or data is available.
+ * <p></p>
+ * !!! Warning !!!
+ * Only the necessary methods for the local streams runtime are implemented.  All other methods throw a
+ * {@link org.apache.commons.lang.NotImplementedException}.
+ */
+public class RingBufferThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBean {
+
+  /**
+   * Capacity used when the queue is constructed with a max size less than 1.  A ring buffer is always bounded.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * Slot sequence numbers cannot distinguish a full slot from a free one in a ring of a single slot.
+   */
+  private static final int MIN_CAPACITY = 2;
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 200;
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long READ_CLOCK = Long.MIN_VALUE;
+
+  private final int capacity;
+  private final Object[] elements;
+  private final long[] queuedTimes;
+  private final AtomicLongArray sequences;
+  private final AtomicLong enqueuePosition;
+  private final AtomicLong dequeuePosition;
+  private final AtomicLong startTime;
+  private final LatencyHistogram queueTime;
+
+  /**
+   * Creates a {@code RingBufferThroughputQueue} of the default capacity that is not registered.
+   */
+  public RingBufferThroughputQueue() {
+    this(-1, null, LocalStreamBuilder.DEFAULT_STREAM_IDENTIFIER, -1);
+  }
+
+  /**
+   * Creates a bounded {@code RingBufferThroughputQueue} that is not registered.
+   *
+   * @param maxSize maximum capacity of queue, if maxSize < 1 then {@link #DEFAULT_CAPACITY}.  The minimum capacity is 2.
+   */
+  public RingBufferThroughputQueue(int maxSize) {
+    this(maxSize, null, LocalStreamBuilder.DEFAULT_STREAM_IDENTIFIER, -1);
+  }
+
+  /**
+   * Creates a bounded, registered {@code RingBufferThroughputQueue}
+   *
+   * @param maxSize maximum capacity of queue, if maxSize < 1 then {@link #DEFAULT_CAPACITY}.  The minimum capacity is 2.
+   * @param id      unique id for this queue to be registered with. if id == NULL then not registered
+   * @param streamIdentifier identifier of the stream the queue belongs to
+   * @param startedAt time the stream was started
+   */
+  public RingBufferThroughputQueue(int maxSize, String id, String streamIdentifier, long startedAt) {
+    this.capacity = maxSize < 1 ? DEFAULT_CAPACITY : Math.max(MIN_CAPACITY, maxSize);
+    this.elements = new Object[this.capacity];
+    this.queuedTimes = new long[this.capacity];
+    this.sequences = new AtomicLongArray(this.capacity);
+    for (int i = 0; i < this.capacity; ++i) {
+      this.sequences.set(i, i);
+    }
+    this.enqueuePosition = new AtomicLong(0);
+    this.dequeuePosition = new AtomicLong(0);
+    this.startTime = new AtomicLong(-1);
+    this.queueTime = new LatencyHistogram();
+    if (id != null) {
+      ComponentUtils.registerLocalMBean(String.format(ThroughputQueue.NAME_TEMPLATE, id, streamIdentifier, startedAt), this);
+    }
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (offer(e)) {
+      return true;
+    }
+    throw new IllegalStateException("Queue full");
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long position = this.enqueuePosition.get();
+    int index;
+    while (true) {
+      index = index(position);
+      long difference = this.sequences.get(index) - position;
+      if (difference == 0) {
+        if (this.enqueuePosition.compareAndSet(position, position + 1)) {
+          break;
+        }
+        position = this.enqueuePosition.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = this.enqueuePosition.get();
+      }
+    }
+    this.elements[index] = e;
+    this.queuedTimes[index] = System.nanoTime();
+    this.sequences.lazySet(index, position + 1);
+    if (position == 0) {
+      this.startTime.compareAndSet(-1, System.currentTimeMillis());
+    }
+    return true;
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    int tries = 0;
+    while (!offer(e)) {
+      tries = backOff(tries);
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int tries = 0;
+    while (!offer(e)) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      tries = backOff(tries);
+    }
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    return poll(READ_CLOCK);
+  }
+
+  /**
+   * Removes the element at the head of the queue without waiting.
+   * @param now current {@link System#nanoTime()}, or READ_CLOCK to read the clock if an element is removed
+   * @return the head of the queue, or null if the queue is empty
+   */
+  private E poll(long now) {
+    long position = this.dequeuePosition.get();
+    int index;
+    while (true) {
+      index = index(position);
+      long difference = this.sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (this.dequeuePosition.compareAndSet(position, position + 1)) {
+          break;
+        }
+        position = this.dequeuePosition.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = this.dequeuePosition.get();
+      }
+    }
+    @SuppressWarnings("unchecked")
+    E element = (E) this.elements[index];
+    long queuedTime = this.queuedTimes[index];
+    this.elements[index] = null;
+    this.sequences.lazySet(index, position + this.capacity);
+    this.queueTime.record((now == READ_CLOCK ? System.nanoTime() : now) - queuedTime);
+    return element;
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    int tries = 0;
+    E element;
+    while ((element = poll()) == null) {
+      tries = backOff(tries);
+    }
+    return element;
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int tries = 0;
+    E element;
+    while ((element = poll()) == null) {
+      if (System.nanoTime() - deadline >= 0) {
+        return null;
+      }
+      tries = backOff(tries);
+    }
+    return element;
+  }
+
+  @Override
+  public E remove() {
+    return poll();
+  }
+
+  @Override
+  public E peek() {
+    long position = this.dequeuePosition.get();
+    int index = index(position);
+    if (this.sequences.get(index) == position + 1) {
+      @SuppressWarnings("unchecked")
+      E element = (E) this.elements[index];
+      return element;
+    }
+    return null;
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return this.capacity - size();
+  }
+
+  @Override
+  public int size() {
+    long size = this.enqueuePosition.get() - this.dequeuePosition.get();
+    if (size < 0) {
+      return 0;
+    }
+    return (int) Math.min(size, this.capacity);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Removes up to maxElements that are available without waiting.  The clock is read once for the whole batch.
+   * @param c collection to transfer elements into
+   * @param maxElements the maximum number of elements to transfer
+   * @return the number of elements transferred
+   */
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    long now = System.nanoTime();
+    int count = 0;
+    E element;
+    while (count < maxElements && (element = poll(now)) != null) {
+      c.add(element);
+      ++count;
+    }
+    return count;
+  }
+
+  @Override
+  public E element() {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public Object[] toArray() {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public void clear() {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public long getCurrentSize() {
+    return size();
+  }
+
+  /**
+   * If elements have been removed from the queue or no elements have been added, it returns the average wait time
+   * in milliseconds. If elements have been added, but none have been removed, it returns the time waited by the first
+   * element in the queue.
+   *
+   * @return the average wait time in milliseconds
+   */
+  @Override
+  public double getAvgWait() {
+    long removed = getRemoved();
+    if (removed == 0) {
+      return TimeUnit.NANOSECONDS.toMillis(Math.max(0, headWait()));
+    }
+    return this.queueTime.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public long getMaxWait() {
+    return TimeUnit.NANOSECONDS.toMillis(Math.max(headWait(), this.queueTime.getMax()));
+  }
+
+  @Override
+  public double getWaitP50() {
+    return this.queueTime.getValueAtPercentileMillis(50);
+  }
+
+  @Override
+  public double getWaitP95() {
+    return this.queueTime.getValueAtPercentileMillis(95);
+  }
+
+  @Override
+  public double getWaitP99() {
+    return this.queueTime.getValueAtPercentileMillis(99);
+  }
+
+  @Override
+  public double getWaitP999() {
+    return this.queueTime.getValueAtPercentileMillis(99.9);
+  }
+
+  @Override
+  public long getRemoved() {
+    return this.dequeuePosition.get();
+  }
+
+  @Override
+  public long getAdded() {
+    return this.enqueuePosition.get();
+  }
+
+  @Override
+  public double getThroughput() {
+    long started = this.startTime.get();
+    if (started > 0) {
+      return getRemoved() / ((System.currentTimeMillis() - started) / 1000.0);
+    }
+    return 0.0;
+  }
+
+  private int index(long position) {
+    return (int) (position % this.capacity);
+  }
+
+  /**
+   * Time in nanoseconds the element at the head of the queue has been waiting, or -1 if there is no element at the head
+   */
+  private long headWait() {
+    long position = this.dequeuePosition.get();
+    int index = index(position);
+    if (this.sequences.get(index) == position + 1) {
+      return System.nanoTime() - this.queuedTimes[index];
+    }
+    return -1;
+  }
+
+  /**
+   * Spin, then yield, then park while waiting for the other side of the queue to make progress
+   * @param tries number of attempts made so far
+   * @return the updated number of attempts
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  private static int backOff(int tries) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    if (tries < SPIN_TRIES) {
+      return tries + 1;
+    } else if (tries < YIELD_TRIES) {
+      Thread.yield();
+      return tries + 1;
+    }
+    LockSupport.parkNanos(PARK_NANOS);
+    return tries;
+  }
+}
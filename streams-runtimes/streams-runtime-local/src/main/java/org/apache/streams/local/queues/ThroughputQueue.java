@@ -18,20 +18,21 @@
 package org.apache.streams.local.queues;
 
 import org.apache.streams.local.builders.LocalStreamBuilder;
+import org.apache.streams.local.counters.LatencyHistogram;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServer;
@@ -58,10 +59,8 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
   private AtomicLong elementsAdded;
   private AtomicLong elementsRemoved;
   private AtomicLong startTime;
-  private AtomicLong totalQueueTime;
-  private long maxQueuedTime;
+  private LatencyHistogram queueTime;
   private volatile boolean active;
-  private ReadWriteLock maxQueueTimeLock;
 
   /**
    * Creates an unbounded, unregistered {@code ThroughputQueue}
@@ -143,9 +142,7 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
     this.elementsRemoved = new AtomicLong(0);
     this.startTime = new AtomicLong(-1);
     this.active = false;
-    this.maxQueuedTime = 0;
-    this.maxQueueTimeLock = new ReentrantReadWriteLock();
-    this.totalQueueTime = new AtomicLong(0);
+    this.queueTime = new LatencyHistogram();
     if (id != null) {
       try {
         ObjectName name = new ObjectName(String.format(NAME_TEMPLATE, id, streamIdentifier, startedAt));
@@ -233,12 +230,30 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
 
   @Override
   public int drainTo(Collection<? super E> c) {
-    throw new NotImplementedException();
+    return drainTo(c, Integer.MAX_VALUE);
   }
 
+  /**
+   * Removes up to maxElements from the queue with a single acquisition of the underlying queue's lock.
+   * @param c collection to transfer elements into
+   * @param maxElements the maximum number of elements to transfer
+   * @return the number of elements transferred
+   */
   @Override
   public int drainTo(Collection<? super E> c, int maxElements) {
-    throw new NotImplementedException();
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    if (maxElements <= 0) {
+      return 0;
+    }
+    List<ThroughputElement<E>> drained = new ArrayList<>(Math.min(maxElements, Math.max(1, this.underlyingQueue.size())));
+    int count = this.underlyingQueue.drainTo(drained, maxElements);
+    for (ThroughputElement<E> e : drained) {
+      internalRemoveElement(e);
+      c.add(e.getElement());
+    }
+    return count;
   }
 
   @Override
@@ -340,31 +355,45 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
   @Override
   public double getAvgWait() {
     if (this.elementsRemoved.get() == 0) {
-      if (this.getCurrentSize() > 0) {
-        return this.underlyingQueue.peek().getWaited();
+      ThroughputElement<E> e = this.underlyingQueue.peek();
+      if (e != null) {
+        return TimeUnit.NANOSECONDS.toMillis(e.getWaited());
       } else {
         return 0.0;
       }
     } else {
-      return (double) this.totalQueueTime.get() / (double) this.elementsRemoved.get();
+      return this.queueTime.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
     }
   }
 
   @Override
   public long getMaxWait() {
     ThroughputElement<E> e = this.underlyingQueue.peek();
-    long max = -1;
-    try {
-      this.maxQueueTimeLock.readLock().lock();
-      if (e != null && e.getWaited() > this.maxQueuedTime) {
-        max = e.getWaited();
-      } else {
-        max = this.maxQueuedTime;
-      }
-    } finally {
-      this.maxQueueTimeLock.readLock().unlock();
+    long max = this.queueTime.getMax();
+    if (e != null) {
+      max = Math.max(max, e.getWaited());
     }
-    return max;
+    return TimeUnit.NANOSECONDS.toMillis(max);
+  }
+
+  @Override
+  public double getWaitP50() {
+    return this.queueTime.getValueAtPercentileMillis(50);
+  }
+
+  @Override
+  public double getWaitP95() {
+    return this.queueTime.getValueAtPercentileMillis(95);
+  }
+
+  @Override
+  public double getWaitP99() {
+    return this.queueTime.getValueAtPercentileMillis(99);
+  }
+
+  @Override
+  public double getWaitP999() {
+    return this.queueTime.getValueAtPercentileMillis(99.9);
   }
 
   @Override
@@ -405,25 +434,7 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
   private void internalRemoveElement(ThroughputElement<E> e) {
     if(e != null) {
       this.elementsRemoved.incrementAndGet();
-      Long queueTime = e.getWaited();
-      this.totalQueueTime.addAndGet(queueTime);
-      boolean unlocked = false;
-      try {
-        this.maxQueueTimeLock.readLock().lock();
-        if (this.maxQueuedTime < queueTime) {
-          this.maxQueueTimeLock.readLock().unlock();
-          unlocked = true;
-          try {
-            this.maxQueueTimeLock.writeLock().lock();
-            this.maxQueuedTime = queueTime;
-          } finally {
-            this.maxQueueTimeLock.writeLock().unlock();
-          }
-        }
-      } finally {
-        if (!unlocked)
-          this.maxQueueTimeLock.readLock().unlock();
-      }
+      this.queueTime.record(e.getWaited());
     }
   }
 
@@ -440,17 +451,17 @@ public class ThroughputQueue<E> implements BlockingQueue<E>, ThroughputQueueMXBe
 
     protected ThroughputElement(E element) {
       this.element = element;
-      this.queuedTime = System.currentTimeMillis();
+      this.queuedTime = System.nanoTime();
     }
 
     /**
      * Get the time this element has been waiting on the queue.
      * current time - time element was queued
      *
-     * @return time this element has been waiting on the queue in milliseconds
+     * @return time this element has been waiting on the queue in nanoseconds
      */
     public long getWaited() {
-      return System.currentTimeMillis() - this.queuedTime;
+      return System.nanoTime() - this.queuedTime;
     }
 
     /**
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Creates the queues that connect components of a {@link org.apache.streams.local.builders.LocalStreamBuilder} stream.
+ * Implementations should return queues that also implement {@link ThroughputQueueMXBean} and register themselves
+ * under {@link ThroughputQueue#NAME_TEMPLATE} so their flow statistics are visible to monitoring.
+ */
+public interface ThroughputQueueFactory {
+
+  /**
+   * Create the inbound queue for a stream component.
+   * @param maxSize maximum capacity of queue, if maxSize < 1 the implementation chooses
+   * @param id unique id for this queue to be registered with. if id == NULL then not registered
+   * @param streamIdentifier identifier of the stream the queue belongs to
+   * @param startedAt time the stream was started
+   * @return queue connecting the component to its upstream components
+   */
+  BlockingQueue<StreamsDatum> createQueue(int maxSize, String id, String streamIdentifier, long startedAt);
+
+  /**
+   * Resolve the queue implementation selected by {@link LocalRuntimeConfiguration#getQueueType()}.  Defaults to
+   * {@link ThroughputQueue} when no queue type is configured.
+   * @param configuration local runtime configuration
+   * @return factory for the configured queue type
+   */
+  static ThroughputQueueFactory forConfiguration(LocalRuntimeConfiguration configuration) {
+    if (configuration != null && configuration.getQueueType() == LocalRuntimeConfiguration.QueueType.RING_BUFFER) {
+      return RingBufferThroughputQueue::new;
+    }
+    return ThroughputQueue::new;
+  }
+
+}
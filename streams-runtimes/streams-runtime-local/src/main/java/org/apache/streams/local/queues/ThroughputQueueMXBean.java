@@ -60,5 +60,29 @@ public interface ThroughputQueueMXBean {
    */
   public double getThroughput();
 
+  /**
+   * Get the median time in milliseconds an item spent in the queue before being removed
+   * @return 50th percentile of the wait time of removed items
+   */
+  public double getWaitP50();
+
+  /**
+   * Get the 95th percentile of the time in milliseconds an item spent in the queue before being removed
+   * @return 95th percentile of the wait time of removed items
+   */
+  public double getWaitP95();
+
+  /**
+   * Get the 99th percentile of the time in milliseconds an item spent in the queue before being removed
+   * @return 99th percentile of the wait time of removed items
+   */
+  public double getWaitP99();
+
+  /**
+   * Get the 99.9th percentile of the time in milliseconds an item spent in the queue before being removed
+   * @return 99.9th percentile of the wait time of removed items
+   */
+  public double getWaitP999();
+
 
 }
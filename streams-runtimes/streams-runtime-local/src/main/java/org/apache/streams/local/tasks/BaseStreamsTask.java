@@ -21,22 +21,37 @@ package org.apache.streams.local.tasks;
 import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
+import org.apache.streams.core.util.StreamsDatumCodec;
 import org.apache.streams.jackson.StreamsJacksonMapper;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.DatumLineageCollector;
+import org.apache.streams.local.queues.EndOfStream;
 import org.apache.streams.pojo.json.Activity;
 import org.apache.streams.util.SerializationUtil;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -47,10 +62,22 @@ public abstract class BaseStreamsTask implements StreamsTask {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseStreamsTask.class);
 
+  /**
+   * Classes whose instances can never change, so copies of a datum may share them.
+   */
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigInteger.class, BigDecimal.class, DateTime.class));
+
   private List<BlockingQueue<StreamsDatum>> inQueues = new ArrayList<>();
   private List<BlockingQueue<StreamsDatum>> outQueues = new LinkedList<>();
   private int inIndex = 0;
-  private ObjectMapper mapper;
+  private StreamsJacksonMapper mapper;
+  private LocalRuntimeConfiguration.FanOutMode fanOutMode = LocalRuntimeConfiguration.FanOutMode.CLONE;
+  private EndOfStream endOfStream;
+  private boolean signalEndOfStream = false;
+  private String lineageComponent;
+  private DatumLineageCollector lineageCollector;
   protected StreamsConfiguration streamConfig;
 
   public BaseStreamsTask(StreamsConfiguration config) {
@@ -61,6 +88,10 @@ public abstract class BaseStreamsTask implements StreamsTask {
     } else {
       this.streamConfig = StreamsConfigurator.detectConfiguration();
     }
+    if( this.streamConfig instanceof LocalRuntimeConfiguration
+        && ((LocalRuntimeConfiguration) this.streamConfig).getFanOutMode() != null ) {
+      this.fanOutMode = ((LocalRuntimeConfiguration) this.streamConfig).getFanOutMode();
+    }
     setStartedAt();
   }
 
@@ -102,22 +133,240 @@ public abstract class BaseStreamsTask implements StreamsTask {
   }
 
   /**
-   * Adds a StreamDatum to the outgoing queues.  If there are multiple queues, it uses serialization to create
-   * clones of the datum and adds a new clone to each queue.
+   * Adds a StreamDatum to the outgoing queues.  If there are multiple queues, the first queue receives the datum
+   * itself and every other queue receives a copy made according to {@link LocalRuntimeConfiguration#getFanOutMode()}.
+   * All copies are made before any queue is offered a datum, so downstream components never see a datum that is
+   * still being copied.
    * @param datum
    */
   protected void addToOutgoingQueue(StreamsDatum datum) throws InterruptedException{
+    if(this.lineageCollector != null && datum.getLineage() != null) {
+      datum.getLineage().exit(System.nanoTime());
+    }
     if(this.outQueues.size() == 1) {
       outQueues.get(0).put(datum);
     }
     else {
       List<BlockingQueue<StreamsDatum>> toOutput = new LinkedList<>(this.outQueues);
+      List<StreamsDatum> toSend = new LinkedList<>();
+      for(int i=0; i < toOutput.size(); ++i) {
+        toSend.add(i == 0 ? datum : copyForFanOut(datum));
+      }
       while(!toOutput.isEmpty()) {
-        for (BlockingQueue<StreamsDatum> queue : toOutput) {
-          StreamsDatum newDatum = cloneStreamsDatum(datum);
-          if (newDatum != null) {
-            if (queue.offer(newDatum, 500, TimeUnit.MILLISECONDS)) {
-              toOutput.remove(queue);
+        Iterator<BlockingQueue<StreamsDatum>> queues = toOutput.iterator();
+        Iterator<StreamsDatum> datums = toSend.iterator();
+        while(queues.hasNext()) {
+          BlockingQueue<StreamsDatum> queue = queues.next();
+          StreamsDatum newDatum = datums.next();
+          if(newDatum == null || queue.offer(newDatum, 500, TimeUnit.MILLISECONDS)) {
+            queues.remove();
+            datums.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Copy a datum for an additional downstream queue.
+   * @param datum datum being fanned out
+   * @return copy of the datum, or null if it could not be copied
+   */
+  protected StreamsDatum copyForFanOut(StreamsDatum datum) {
+    if(this.fanOutMode == LocalRuntimeConfiguration.FanOutMode.SHARED) {
+      return shareStreamsDatum(datum);
+    }
+    return cloneStreamsDatum(datum);
+  }
+
+  /**
+   * Create a new StreamsDatum around the same document.  The copy has its own metadata map, so downstream components
+   * may add or remove metadata, but the document is shared and must be treated as read-only.
+   * @param datum
+   * @return
+   */
+  protected StreamsDatum shareStreamsDatum(StreamsDatum datum) {
+    Map<String, Object> metadata = datum.hasMetadata() ? new HashMap<>(datum.getMetadata()) : null;
+    StreamsDatum copy = new StreamsDatum(datum.document, datum.getId(), datum.getTimestamp(), datum.getSequenceid(), metadata);
+    copy.setIngestedNanos(datum.getIngestedNanos());
+    copy.setLineage(copyLineage(datum));
+    return copy;
+  }
+
+  /**
+   * Carry the time a datum entered the stream over to the datums a processor produced from it, unless the processor
+   * set one itself, so end-to-end latency is measured from the provider to the writer.
+   * @param input datum given to the processor
+   * @param outputs datums returned by the processor
+   */
+  protected static void inheritIngestedNanos(StreamsDatum input, List<StreamsDatum> outputs) {
+    for(StreamsDatum output : outputs) {
+      inheritIngestedNanos(input.getIngestedNanos(), output);
+    }
+  }
+
+  /**
+   * Carry the lineage of a sampled datum over to the new datums a processor produced from it, so they are timed
+   * through the rest of the stream.  Every new datum gets its own copy.
+   * @param input datum given to the processor
+   * @param outputs datums returned by the processor
+   */
+  protected static void inheritLineage(StreamsDatum input, List<StreamsDatum> outputs) {
+    for(StreamsDatum output : outputs) {
+      inheritLineage(input, output);
+    }
+  }
+
+  /**
+   * Carry ingestion times and lineage over to the datums a batch processor produced from a batch.  A batch processor
+   * does not say which input an output came from.  When it returns as many datums as it was given, output i is taken
+   * to come from input i, which holds for processors that transform each datum in place or one for one.  Otherwise
+   * every output gets the oldest ingestion time in the batch, so latency is never under-reported, and each sampled
+   * input that was not passed through gives a copy of its lineage to at most one new output, the first one without a
+   * lineage from its position in the batch on.  The remaining outputs are not sampled, so the share of sampled datums
+   * does not grow with the batch size.
+   * @param inputs batch given to the processor
+   * @param outputs datums returned by the processor
+   */
+  protected static void inheritFromBatch(List<StreamsDatum> inputs, List<StreamsDatum> outputs) {
+    if(inputs.size() == outputs.size()) {
+      for(int i=0; i < inputs.size(); ++i) {
+        inheritIngestedNanos(inputs.get(i).getIngestedNanos(), outputs.get(i));
+        inheritLineage(inputs.get(i), outputs.get(i));
+      }
+      return;
+    }
+    long oldest = StreamsDatum.NO_VALUE;
+    boolean sampled = false;
+    for(StreamsDatum input : inputs) {
+      long ingested = input.getIngestedNanos();
+      //nanoTime values are only ordered by their difference
+      if(ingested != StreamsDatum.NO_VALUE && (oldest == StreamsDatum.NO_VALUE || ingested - oldest < 0)) {
+        oldest = ingested;
+      }
+      sampled |= input.getLineage() != null;
+    }
+    for(StreamsDatum output : outputs) {
+      inheritIngestedNanos(oldest, output);
+    }
+    if(sampled && !outputs.isEmpty()) {
+      inheritSampledLineages(inputs, outputs);
+    }
+  }
+
+  private static void inheritSampledLineages(List<StreamsDatum> inputs, List<StreamsDatum> outputs) {
+    //outputs that already carry a lineage are sampled inputs passed through, or datums sampled elsewhere
+    Set<StreamsDatum> carried = Collections.newSetFromMap(new IdentityHashMap<>());
+    for(StreamsDatum output : outputs) {
+      if(output != null && output.getLineage() != null) {
+        carried.add(output);
+      }
+    }
+    int next = 0;
+    for(int i=0; i < inputs.size(); ++i) {
+      StreamsDatum input = inputs.get(i);
+      if(input.getLineage() == null || carried.contains(input)) {
+        continue;
+      }
+      next = Math.max(next, (int) ((long) i * outputs.size() / inputs.size()));
+      while(next < outputs.size() && (outputs.get(next) == null || outputs.get(next).getLineage() != null)) {
+        ++next;
+      }
+      if(next == outputs.size()) {
+        return;
+      }
+      inheritLineage(input, outputs.get(next++));
+    }
+  }
+
+  private static void inheritIngestedNanos(long ingested, StreamsDatum output) {
+    if(ingested != StreamsDatum.NO_VALUE && output != null && output.getIngestedNanos() == StreamsDatum.NO_VALUE) {
+      output.setIngestedNanos(ingested);
+    }
+  }
+
+  private static void inheritLineage(StreamsDatum input, StreamsDatum output) {
+    StreamsDatumLineage lineage = input.getLineage();
+    if(lineage != null && output != null && output != input && output.getLineage() == null) {
+      output.setLineage(lineage.copy());
+    }
+  }
+
+  /**
+   * Record the time every component spends on sampled datums.
+   * @param componentId id the task's component is reported under
+   * @param collector collector of the stream, or null to disable lineage
+   */
+  public void setDatumLineageCollector(String componentId, DatumLineageCollector collector) {
+    this.lineageComponent = componentId;
+    this.lineageCollector = collector;
+  }
+
+  /**
+   * @return collector of the stream, or null if lineage is disabled
+   */
+  protected DatumLineageCollector getDatumLineageCollector() {
+    return this.lineageCollector;
+  }
+
+  /**
+   * @return id the task's component is reported under in lineages
+   */
+  protected String getLineageComponent() {
+    return this.lineageComponent;
+  }
+
+  /**
+   * Record that this task's component received the sampled datums of a batch taken from the inbound queue.  The clock
+   * is only read if the batch holds a sampled datum.
+   * @param batch datums removed from the inbound queue
+   */
+  protected void markIngress(List<StreamsDatum> batch) {
+    if(this.lineageCollector == null) {
+      return;
+    }
+    long now = StreamsDatum.NO_VALUE;
+    for(StreamsDatum datum : batch) {
+      StreamsDatumLineage lineage = datum.getLineage();
+      if(lineage != null) {
+        if(now == StreamsDatum.NO_VALUE) {
+          now = System.nanoTime();
+        }
+        lineage.enter(this.lineageComponent, now);
+      }
+    }
+  }
+
+  /**
+   * Share the upstream tracking of the component this task belongs to.  Once every upstream task has sent
+   * {@link EndOfStream#MARKER} and the inbound queue is empty the task finishes on its own.
+   * @param endOfStream upstream tracking shared by all tasks of the component
+   */
+  public void setEndOfStream(EndOfStream endOfStream) {
+    this.endOfStream = endOfStream;
+  }
+
+  /**
+   * @param signalEndOfStream true to send {@link EndOfStream#MARKER} to the outbound queues when the task finishes
+   */
+  public void setSignalEndOfStream(boolean signalEndOfStream) {
+    this.signalEndOfStream = signalEndOfStream;
+  }
+
+  /**
+   * Removes end of stream markers from datums taken from the inbound queue and counts them against the upstream tasks.
+   * When the last marker arrives the other tasks of the component are woken with a marker of their own.
+   * @param batch datums removed from the inbound queue
+   */
+  protected void removeEndOfStreamMarkers(List<StreamsDatum> batch) {
+    Iterator<StreamsDatum> datums = batch.iterator();
+    while(datums.hasNext()) {
+      if(EndOfStream.isMarker(datums.next())) {
+        datums.remove();
+        if(this.endOfStream != null && this.endOfStream.markerReceived()) {
+          for(int i=1; i < this.endOfStream.getConsumers(); ++i) {
+            for(BlockingQueue<StreamsDatum> queue : getInputQueues()) {
+              queue.offer(EndOfStream.MARKER);
             }
           }
         }
@@ -125,6 +374,39 @@ public abstract class BaseStreamsTask implements StreamsTask {
     }
   }
 
+  /**
+   * @return true once every upstream task has sent its end of stream marker and the inbound queues are empty
+   */
+  protected boolean isEndOfStream() {
+    if(this.endOfStream == null || !this.endOfStream.isComplete()) {
+      return false;
+    }
+    for(Queue queue : getInputQueues()) {
+      if(!queue.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sends {@link EndOfStream#MARKER} to every outbound queue, if enabled.  Called once the task has emitted its last
+   * datum.
+   */
+  protected void signalEndOfStream() {
+    if(!this.signalEndOfStream) {
+      return;
+    }
+    try {
+      for(BlockingQueue<StreamsDatum> queue : this.outQueues) {
+        queue.put(EndOfStream.MARKER);
+      }
+    } catch (InterruptedException ie) {
+      LOGGER.debug("Interrupted while signalling end of stream");
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Override
   public boolean isWaiting() {
     if(this.inQueues == null || this.inQueues.size() == 0) {
@@ -147,33 +429,22 @@ public abstract class BaseStreamsTask implements StreamsTask {
    * This was seen as unacceptable for local mode.  So until we come up with a solution to enforce serialization and be
    * compatiable across multiple frame works, this hack is in place.
    *
-   * If datum.document is Serializable, we use serialization to clone a new copy.  If it is not Serializable we attempt
-   * different methods using an com.fasterxml.jackson.databind.ObjectMapper to copy/clone the StreamsDatum. If the object
-   * is not clonable by these methods, an error is reported to the logging and a NULL object is returned.
+   * Immutable documents (Strings, boxed primitives, DateTime) are shared.  ObjectNodes are deep copied, Activities and
+   * other beans generated from the schemas are copied through a com.fasterxml.jackson.databind.util.TokenBuffer without
+   * rendering JSON text, and any other Serializable document is cloned by serialization.  Metadata values are copied the same way.  If the document is
+   * not clonable by these methods, an error is reported to the logging and a NULL object is returned.
    *
    * @param datum
    * @return
    */
   protected StreamsDatum cloneStreamsDatum(StreamsDatum datum) {
     try {
-
-      if(datum.document instanceof ObjectNode) {
-        return copyMetaData(datum, new StreamsDatum(((ObjectNode) datum.document).deepCopy(), datum.timestamp, datum.sequenceid));
-      }
-      else if(datum.document instanceof Activity) {
-
-        return copyMetaData(datum, new StreamsDatum(this.mapper.readValue(this.mapper.writeValueAsString(datum.document), Activity.class),
-            datum.timestamp,
-            datum.sequenceid));
-      }
-//            else if(this.mapper.canSerialize(datum.document.getClass())){
-//                return new StreamsDatum(this.mapper.readValue(this.mapper.writeValueAsString(datum.document), datum.document.getClass()),
-//                                        datum.timestamp,
-//                                        datum.sequenceid);
-//            }
-
-      else if(datum.document instanceof Serializable) {
-        return SerializationUtil.cloneBySerialization(datum);
+      Object document = copyValue(datum.document);
+      if(document != null || datum.document == null) {
+        StreamsDatum copy = new StreamsDatum(document, datum.getId(), datum.getTimestamp(), datum.getSequenceid());
+        copy.setIngestedNanos(datum.getIngestedNanos());
+        copy.setLineage(copyLineage(datum));
+        return copyMetaData(datum, copy);
       }
     } catch (Exception e) {
       LOGGER.error("Exception while trying to clone/copy StreamsDatum : {}", e);
@@ -182,6 +453,46 @@ public abstract class BaseStreamsTask implements StreamsTask {
     return null;
   }
 
+  /**
+   * The maximum number of datums a task removes from its inbound queue each time it wakes up.  Components that process
+   * whole batches take up to {@link StreamsConfiguration#getBatchSize()}, other components up to
+   * {@link LocalRuntimeConfiguration#getDrainSize()}.  Defaults to 1 when the size is not configured.
+   * @param config stream configuration
+   * @param batches true if the component processes whole batches
+   * @return number of datums to drain per wake-up
+   */
+  protected static int resolveDrainSize(StreamsConfiguration config, boolean batches) {
+    Long size = null;
+    if(batches) {
+      size = config == null ? null : config.getBatchSize();
+    } else if(config instanceof LocalRuntimeConfiguration) {
+      size = ((LocalRuntimeConfiguration) config).getDrainSize();
+    }
+    if(size == null || size < 1) {
+      return 1;
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Limits a drain to this task's share of a bounded inbound queue, so one task does not empty a queue that the other
+   * tasks of its component are waiting on.
+   * @param drainSize number of datums to drain per wake-up
+   * @param queue inbound queue
+   * @return number of datums to drain this wake-up
+   */
+  protected int shareOfQueue(int drainSize, BlockingQueue<StreamsDatum> queue) {
+    int consumers = this.endOfStream == null ? 1 : this.endOfStream.getConsumers();
+    if(drainSize <= 1 || consumers <= 1) {
+      return drainSize;
+    }
+    long capacity = (long) queue.size() + queue.remainingCapacity();
+    if(capacity >= Integer.MAX_VALUE) {
+      return drainSize;
+    }
+    return (int) Math.max(1, Math.min(drainSize, capacity / consumers));
+  }
+
   private int getNextInputQueueIndex() {
     ++this.inIndex;
     if(this.inIndex >= this.inQueues.size()) {
@@ -190,19 +501,48 @@ public abstract class BaseStreamsTask implements StreamsTask {
     return this.inIndex;
   }
 
-  private StreamsDatum copyMetaData(StreamsDatum copyFrom, StreamsDatum copyTo) {
+  private static StreamsDatumLineage copyLineage(StreamsDatum datum) {
+    return datum.getLineage() == null ? null : datum.getLineage().copy();
+  }
+
+  private StreamsDatum copyMetaData(StreamsDatum copyFrom, StreamsDatum copyTo) throws IOException {
+    if(!copyFrom.hasMetadata()) {
+      return copyTo;
+    }
     Map<String, Object> fromMeta = copyFrom.getMetadata();
     Map<String, Object> toMeta = copyTo.getMetadata();
-    for(String key : fromMeta.keySet()) {
-      Object value = fromMeta.get(key);
-      if(value instanceof Serializable)
-        toMeta.put(key, SerializationUtil.cloneBySerialization(value));
-      else //hope for the best - should be serializable
-        toMeta.put(key, value);
+    for(Map.Entry<String, Object> entry : fromMeta.entrySet()) {
+      Object value = copyValue(entry.getValue());
+      if(value == null) //hope for the best - should be serializable
+        value = entry.getValue();
+      toMeta.put(entry.getKey(), value);
     }
     return copyTo;
   }
 
+  /**
+   * Copy a document or metadata value.
+   * @param value value to copy
+   * @return an independent copy, the value itself if it is immutable, or null if it can not be copied
+   */
+  private Object copyValue(Object value) throws IOException {
+    if(value == null || IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum) {
+      return value;
+    }
+    else if(value instanceof JsonNode) {
+      return ((JsonNode) value).deepCopy();
+    }
+    else if(StreamsDatumCodec.isGeneratedBean(value.getClass())) {
+      TokenBuffer buffer = new TokenBuffer(this.mapper, false);
+      this.mapper.writeValue(buffer, value);
+      return this.mapper.getReader(value.getClass()).readValue(buffer.asParser());
+    }
+    else if(value instanceof Serializable) {
+      return SerializationUtil.cloneBySerialization(value);
+    }
+    return null;
+  }
+
   public long getStartedAt() {
     return streamConfig.getStartedAt();
   }
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.tasks;
+
+import org.apache.streams.config.StreamsConfiguration;
+import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsProcessor;
+import org.apache.streams.util.SerializationUtil;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link StreamsProcessorTask} that splits each batch taken from the inbound queue into small chunks and processes
+ * the chunks in parallel on a {@link ForkJoinPool}.  Each chunk borrows one of the copies of the processor, so a copy
+ * is never used by two threads at once.  Meant for CPU bound processors: a single task drains the inbound queue, so
+ * workers never contend on it.
+ *
+ * The task does not wait for a batch to complete before taking the next one.  Chunks are numbered as they are
+ * submitted, and workers that are done with one chunk pick up the next, whichever batch it belongs to, so a slow
+ * chunk holds back only its own datums.  When ordered, completed chunks wait in a reorder buffer until every earlier
+ * chunk has been emitted, so datums leave the task in the order they arrived.  When unordered, each chunk is emitted
+ * as soon as it completes.  At most four chunks per copy of the processor are queued, buffered or being processed
+ * at once, beyond that the task waits before taking more datums from the inbound queue.
+ */
+public class StreamsParallelProcessorTask extends StreamsProcessorTask {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(StreamsParallelProcessorTask.class);
+
+  //number of chunks a batch is split into, and number of chunks that may be pending, per copy of the processor
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  private final List<StreamsProcessor> processors;
+  private final BlockingQueue<StreamsProcessor> idle;
+  private final boolean ordered;
+  private final int maxPending;
+  private final Semaphore pending;
+  private final Map<Long, List<StreamsDatum>> reorder = new HashMap<>();
+  private final ReentrantLock emitLock = new ReentrantLock();
+  private long nextSequence = 0;
+  private long nextToEmit = 0;
+  private ForkJoinPool pool;
+  private long shutdownWaitMs;
+
+  /**
+   * @param processor processor to run, copied once per additional worker
+   * @param parallelism number of chunks processed at once
+   * @param ordered true to emit datums in the order they were received
+   */
+  public StreamsParallelProcessorTask(StreamsProcessor processor, int parallelism, boolean ordered) {
+    this(processor, parallelism, ordered, StreamsConfigurator.detectConfiguration());
+  }
+
+  /**
+   * @param processor processor to run, copied once per additional worker
+   * @param parallelism number of chunks processed at once
+   * @param ordered true to emit datums in the order they were received
+   * @param streamConfig configuration of the stream
+   */
+  public StreamsParallelProcessorTask(StreamsProcessor processor, int parallelism, boolean ordered, StreamsConfiguration streamConfig) {
+    super(processor, streamConfig);
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be greater than 0");
+    this.ordered = ordered;
+    this.processors = new ArrayList<>(parallelism);
+    this.processors.add(processor);
+    for(int i=1; i < parallelism; ++i) {
+      this.processors.add(SerializationUtil.cloneBySerialization(processor));
+    }
+    this.idle = new LinkedBlockingQueue<>(this.processors);
+    this.maxPending = parallelism * CHUNKS_PER_WORKER;
+    this.pending = new Semaphore(this.maxPending);
+  }
+
+  /**
+   * @return number of chunks processed at once
+   */
+  public int getParallelism() {
+    return this.processors.size();
+  }
+
+  /**
+   * @return true if datums are emitted in the order they were received
+   */
+  public boolean isOrdered() {
+    return this.ordered;
+  }
+
+  @Override
+  protected boolean processesBatches() {
+    return true;
+  }
+
+  @Override
+  protected void prepareProcessor(StreamsConfiguration config) {
+    for(StreamsProcessor processor : this.processors) {
+      processor.prepare(config);
+    }
+    this.pool = new ForkJoinPool(this.processors.size());
+    this.shutdownWaitMs = config.getBatchFrequencyMs();
+  }
+
+  @Override
+  protected void cleanUpProcessor() {
+    if(this.pool != null) {
+      this.pool.shutdownNow();
+      try {
+        this.pool.awaitTermination(this.shutdownWaitMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    for(StreamsProcessor processor : this.processors) {
+      processor.cleanUp();
+    }
+  }
+
+  @Override
+  protected void processBatch(List<StreamsDatum> batch) {
+    getStreamsTaskCounter().incrementReceivedCount(batch.size());
+    int chunkSize = (batch.size() + this.maxPending - 1) / this.maxPending;
+    for(int from=0; from < batch.size(); from += chunkSize) {
+      try {
+        this.pending.acquire();
+      } catch (InterruptedException ie) {
+        LOGGER.warn("Received InterruptedException, shutting down and re-applying interrupt status.");
+        LOGGER.error("Dropping {} datums of the batch at processor : {}", batch.size() - from, this.processors.get(0).getClass().getName());
+        stopTask();
+        Thread.currentThread().interrupt();
+        return;
+      }
+      //the batch is reused by the task once this returns
+      submit(this.nextSequence++, new ArrayList<>(batch.subList(from, Math.min(batch.size(), from + chunkSize))));
+    }
+  }
+
+  /**
+   * Waits until every chunk submitted has been emitted.
+   */
+  @Override
+  protected void finishProcessing() {
+    try {
+      this.pending.acquire(this.maxPending);
+      this.pending.release(this.maxPending);
+    } catch (InterruptedException ie) {
+      LOGGER.error("Received InterruptedException with {} chunks pending at processor : {}",
+          this.maxPending - this.pending.availablePermits(), this.processors.get(0).getClass().getName());
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void submit(final long sequence, final List<StreamsDatum> chunk) {
+    this.pool.execute(() -> {
+      List<StreamsDatum> outputs = new ArrayList<>(chunk.size());
+      try {
+        StreamsProcessor processor = this.idle.take();
+        try {
+          process(processor, chunk, outputs);
+        } finally {
+          this.idle.add(processor);
+        }
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      } finally {
+        complete(sequence, outputs);
+      }
+    });
+  }
+
+  /**
+   * Emits a completed chunk, and when ordered every buffered chunk that directly follows it.  Runs on the worker that
+   * completed the chunk; the lock keeps chunks from being emitted concurrently.
+   */
+  private void complete(long sequence, List<StreamsDatum> outputs) {
+    this.emitLock.lock();
+    try {
+      if(!this.ordered) {
+        try {
+          emit(outputs);
+        } finally {
+          this.pending.release();
+        }
+        return;
+      }
+      this.reorder.put(sequence, outputs);
+      List<StreamsDatum> next;
+      while((next = this.reorder.remove(this.nextToEmit)) != null) {
+        ++this.nextToEmit;
+        try {
+          emit(next);
+        } finally {
+          this.pending.release();
+        }
+      }
+    } finally {
+      this.emitLock.unlock();
+    }
+  }
+
+}
@@ -22,8 +22,11 @@ import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.core.DatumStatus;
 import org.apache.streams.core.DatumStatusCountable;
 import org.apache.streams.core.DatumStatusCounter;
+import org.apache.streams.core.StreamsBatchPersistWriter;
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
 import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.core.StreamsRecyclingPersistWriter;
 import org.apache.streams.core.util.DatumUtils;
 import org.apache.streams.local.counters.StreamsTaskCounter;
 
@@ -31,6 +34,7 @@ import com.google.common.util.concurrent.Uninterruptibles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -46,6 +50,7 @@ public class StreamsPersistWriterTask extends BaseStreamsTask implements DatumSt
   private final static Logger LOGGER = LoggerFactory.getLogger(StreamsPersistWriterTask.class);
 
   private StreamsPersistWriter writer;
+  private boolean recycle;
   private AtomicBoolean keepRunning;
   private StreamsConfiguration streamConfig;
   private BlockingQueue<StreamsDatum> inQueue;
@@ -78,6 +83,7 @@ public class StreamsPersistWriterTask extends BaseStreamsTask implements DatumSt
     super(streamConfig);
     this.streamConfig = super.streamConfig;
     this.writer = writer;
+    this.recycle = writer instanceof StreamsRecyclingPersistWriter;
     this.keepRunning = new AtomicBoolean(true);
     this.isRunning = new AtomicBoolean(true);
     this.blocked = new AtomicBoolean(false);
@@ -105,16 +111,26 @@ public class StreamsPersistWriterTask extends BaseStreamsTask implements DatumSt
 
   @Override
   public void run() {
+    boolean endOfStream = false;
     try {
       this.writer.prepare(this.streamConfig);
       if(this.counter == null) {
         this.counter = new StreamsTaskCounter(this.writer.getClass().getName()+ UUID.randomUUID().toString(), getStreamIdentifier(), getStartedAt());
       }
+      int drainSize = resolveDrainSize(this.streamConfig, this.writer instanceof StreamsBatchPersistWriter);
+      List<StreamsDatum> batch = new ArrayList<>();
       while(this.keepRunning.get()) {
-        StreamsDatum datum = null;
+        batch.clear();
         try {
           this.blocked.set(true);
-          datum = this.inQueue.poll(5, TimeUnit.SECONDS);
+          StreamsDatum datum = this.inQueue.poll(5, TimeUnit.SECONDS);
+          if(datum != null) {
+            batch.add(datum);
+            int batchSize = shareOfQueue(drainSize, this.inQueue);
+            if(batchSize > 1) {
+              this.inQueue.drainTo(batch, batchSize - 1);
+            }
+          }
         } catch (InterruptedException ie) {
           LOGGER.debug("Received InterruptedException. Shutting down and re-applying interrupt status.");
           this.keepRunning.set(false);
@@ -125,34 +141,111 @@ public class StreamsPersistWriterTask extends BaseStreamsTask implements DatumSt
         } finally {
           this.blocked.set(false);
         }
-        if(datum != null) {
-          this.counter.incrementReceivedCount();
-          try {
-            long startTime = System.currentTimeMillis();
-            this.writer.write(datum);
-            this.counter.addTime(System.currentTimeMillis() - startTime);
-            statusCounter.incrementStatus(DatumStatus.SUCCESS);
-          } catch (Exception e) {
-            LOGGER.error("Error writing to persist writer {}", this.writer.getClass().getSimpleName(), e);
-            this.keepRunning.set(false); // why do we shutdown on a failed write ?
-            statusCounter.incrementStatus(DatumStatus.FAIL);
-            DatumUtils.addErrorToMetadata(datum, e, this.writer.getClass());
-            this.counter.incrementErrorCount();
-          }
+        removeEndOfStreamMarkers(batch);
+        markIngress(batch);
+        if(!batch.isEmpty()) {
+          writeBatch(batch);
         } else { //datums should never be null
           LOGGER.trace("Received null StreamsDatum @ writer : {}", this.writer.getClass().getName());
         }
+        if(isEndOfStream()) {
+          LOGGER.debug("Received end of stream from all upstream tasks at writer : {}", this.writer.getClass().getName());
+          endOfStream = true;
+          break;
+        }
+      }
+      if(!endOfStream) {
+        Uninterruptibles.sleepUninterruptibly(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
       }
-      Uninterruptibles.sleepUninterruptibly(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
     } catch(Throwable e) {
       LOGGER.error("Caught Throwable in Persist Writer {} : {}", this.writer.getClass().getSimpleName(), e);
     } finally {
-      Uninterruptibles.sleepUninterruptibly(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
+      //nothing more can arrive once every upstream task has signalled the end of the stream
+      if(!endOfStream) {
+        Uninterruptibles.sleepUninterruptibly(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
+      }
       this.writer.cleanUp();
       this.isRunning.set(false);
     }
   }
 
+  /**
+   * Write each datum of a batch removed from the inbound queue.  Counters and timing are updated once per batch.
+   * A failed write stops the task; the failed datum and the rest of the batch, which is not written, are counted as
+   * failed.  Datums written by a
+   * {@link StreamsRecyclingPersistWriter} are recycled, which returns datums taken from a
+   * {@link org.apache.streams.core.StreamsDatumPool} to their pool.  Other writers may still hold the datums.  The end-to-end
+   * latency of each written datum, and the lineage of sampled datums, are recorded before it is recycled.
+   * @param batch datums removed from the inbound queue
+   */
+  private void writeBatch(List<StreamsDatum> batch) {
+    this.counter.incrementReceivedCount(batch.size());
+    int written = 0;
+    if(this.writer instanceof StreamsBatchPersistWriter) {
+      try {
+        long startTime = System.nanoTime();
+        ((StreamsBatchPersistWriter) this.writer).write(batch);
+        written = batch.size();
+        long now = System.nanoTime();
+        this.counter.addTimeNanos(now - startTime, written);
+        for(StreamsDatum datum : batch) {
+          addLatency(datum, now);
+          if(this.recycle) {
+            datum.recycle();
+          }
+        }
+      } catch (Exception e) {
+        LOGGER.error("Error writing batch to persist writer {}", this.writer.getClass().getSimpleName(), e);
+        this.keepRunning.set(false);
+        statusCounter.incrementStatus(DatumStatus.FAIL, batch.size());
+        for(StreamsDatum datum : batch) {
+          DatumUtils.addErrorToMetadata(datum, e, this.writer.getClass());
+        }
+        this.counter.incrementErrorCount(batch.size());
+      }
+    } else for(StreamsDatum datum : batch) {
+      try {
+        long startTime = System.nanoTime();
+        this.writer.write(datum);
+        long now = System.nanoTime();
+        this.counter.addTimeNanos(now - startTime);
+        addLatency(datum, now);
+        if(this.recycle) {
+          datum.recycle();
+        }
+        ++written;
+      } catch (Exception e) {
+        LOGGER.error("Error writing to persist writer {}", this.writer.getClass().getSimpleName(), e);
+        this.keepRunning.set(false); // why do we shutdown on a failed write ?
+        //the datums after the failed one are never written, so they fail along with it
+        List<StreamsDatum> failed = batch.subList(written, batch.size());
+        statusCounter.incrementStatus(DatumStatus.FAIL, failed.size());
+        for(StreamsDatum unwritten : failed) {
+          DatumUtils.addErrorToMetadata(unwritten, e, this.writer.getClass());
+        }
+        this.counter.incrementErrorCount(failed.size());
+        if(failed.size() > 1) {
+          LOGGER.error("Not writing the remaining {} datums of the batch to persist writer {}", failed.size() - 1, this.writer.getClass().getSimpleName());
+        }
+        break;
+      }
+    }
+    if(written > 0) {
+      statusCounter.incrementStatus(DatumStatus.SUCCESS, written);
+    }
+  }
+
+  private void addLatency(StreamsDatum datum, long now) {
+    if(datum.getIngestedNanos() != StreamsDatum.NO_VALUE) {
+      this.counter.addLatencyNanos(now - datum.getIngestedNanos());
+    }
+    StreamsDatumLineage lineage = datum.getLineage();
+    if(lineage != null && getDatumLineageCollector() != null) {
+      lineage.exit(now);
+      getDatumLineageCollector().record(lineage);
+    }
+  }
+
   @Override
   public void stopTask() {
     this.keepRunning.set(false);
@@ -23,14 +23,17 @@ import org.apache.streams.config.StreamsConfigurator;
 import org.apache.streams.core.DatumStatus;
 import org.apache.streams.core.DatumStatusCountable;
 import org.apache.streams.core.DatumStatusCounter;
+import org.apache.streams.core.StreamsBatchProcessor;
 import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsProcessor;
 import org.apache.streams.core.util.DatumUtils;
 import org.apache.streams.local.counters.StreamsTaskCounter;
 
+import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -53,6 +56,8 @@ public class StreamsProcessorTask extends BaseStreamsTask implements DatumStatus
   private AtomicBoolean isRunning;
   private AtomicBoolean blocked;
   private StreamsTaskCounter counter;
+  private List<StreamsProcessor> fused = new ArrayList<>();
+  private List<StreamsTaskCounter> fusedCounters = new ArrayList<>();
 
   private DatumStatusCounter statusCounter = new DatumStatusCounter();
 
@@ -82,6 +87,18 @@ public class StreamsProcessorTask extends BaseStreamsTask implements DatumStatus
     this.blocked = new AtomicBoolean(true);
   }
 
+  /**
+   * Run another processor directly on the output of this task's processor, in place of a separate task connected by
+   * a queue.  Fused processors run in the order they were added.
+   * @param next processor that consumes the output of the previous one
+   * @param counter counter of the datums, time and errors of next
+   */
+  public void addFusedProcessor(StreamsProcessor next, StreamsTaskCounter counter) {
+    Preconditions.checkNotNull(counter, "a fused processor needs its own counter");
+    this.fused.add(next);
+    this.fusedCounters.add(counter);
+  }
+
   @Override
   public boolean isWaiting() {
     return this.inQueue.isEmpty() && this.blocked.get();
@@ -110,15 +127,24 @@ public class StreamsProcessorTask extends BaseStreamsTask implements DatumStatus
   @Override
   public void run() {
     try {
-      this.processor.prepare(this.streamConfig);
+      prepareProcessor(this.streamConfig);
       if(this.counter == null) {
         this.counter = new StreamsTaskCounter(this.processor.getClass().getName()+ UUID.randomUUID().toString(), getStreamIdentifier(), getStartedAt());
       }
+      int drainSize = resolveDrainSize(this.streamConfig, processesBatches());
+      List<StreamsDatum> batch = new ArrayList<>();
       while(this.keepRunning.get()) {
-        StreamsDatum datum = null;
+        batch.clear();
         try {
           this.blocked.set(true);
-          datum = this.inQueue.poll(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
+          StreamsDatum datum = this.inQueue.poll(streamConfig.getBatchFrequencyMs(), TimeUnit.MILLISECONDS);
+          if(datum != null) {
+            batch.add(datum);
+            int batchSize = shareOfQueue(drainSize, this.inQueue);
+            if(batchSize > 1) {
+              this.inQueue.drainTo(batch, batchSize - 1);
+            }
+          }
         } catch (InterruptedException ie) {
           LOGGER.debug("Received InteruptedException, shutting down and re-applying interrupt status.");
           this.keepRunning.set(false);
@@ -129,42 +155,175 @@ public class StreamsProcessorTask extends BaseStreamsTask implements DatumStatus
         } finally {
           this.blocked.set(false);
         }
-        if(datum != null) {
-          this.counter.incrementReceivedCount();
-          try {
-            long startTime = System.currentTimeMillis();
-            List<StreamsDatum> output = this.processor.process(datum);
-            this.counter.addTime(System.currentTimeMillis() - startTime);
-            if(output != null) {
-              for(StreamsDatum outDatum : output) {
-                super.addToOutgoingQueue(outDatum);
-                this.counter.incrementEmittedCount();
-                statusCounter.incrementStatus(DatumStatus.SUCCESS);
-              }
-            }
-          } catch (InterruptedException ie) {
-            LOGGER.warn("Received InterruptedException, shutting down and re-applying interrupt status.");
-            this.keepRunning.set(false);
-            Thread.currentThread().interrupt();
-          } catch (Throwable t) {
-            this.counter.incrementErrorCount();
-            LOGGER.warn("Caught Throwable in processor, {} : {}", this.processor.getClass().getName(), t);
-            statusCounter.incrementStatus(DatumStatus.FAIL);
-            //Add the error to the metadata, but keep processing
-            DatumUtils.addErrorToMetadata(datum, t, this.processor.getClass());
-          }
+        removeEndOfStreamMarkers(batch);
+        markIngress(batch);
+        if(!batch.isEmpty()) {
+          processBatch(batch);
         } else {
           LOGGER.trace("Removed NULL datum from queue at processor : {}", this.processor.getClass().getName());
         }
+        if(isEndOfStream()) {
+          LOGGER.debug("Received end of stream from all upstream tasks at processor : {}", this.processor.getClass().getName());
+          break;
+        }
       }
     } catch(Throwable e) {
       LOGGER.error("Caught Throwable in Processor {}", this.processor.getClass().getSimpleName(), e);
     } finally {
+      finishProcessing();
+      signalEndOfStream();
       this.isRunning.set(false);
-      this.processor.cleanUp();
+      cleanUpProcessor();
+    }
+  }
+
+  /**
+   * @return true if the task hands whole batches to its processor, and so drains up to the stream's batch size from
+   * the inbound queue rather than the runtime's drain size
+   */
+  protected boolean processesBatches() {
+    return this.processor instanceof StreamsBatchProcessor;
+  }
+
+  /**
+   * Prepares the processor before the first datum is taken from the inbound queue.
+   * @param config configuration of the stream
+   */
+  protected void prepareProcessor(StreamsConfiguration config) {
+    this.processor.prepare(config);
+    for(StreamsProcessor next : this.fused) {
+      next.prepare(config);
     }
   }
 
+  /**
+   * Called once no more batches will be processed, before the end of the stream is signalled downstream.  Batches are
+   * processed as they are received, so there is nothing left to emit.
+   */
+  protected void finishProcessing() {
+  }
+
+  /**
+   * Cleans up the processor once the task has stopped.
+   */
+  protected void cleanUpProcessor() {
+    this.processor.cleanUp();
+    for(StreamsProcessor next : this.fused) {
+      next.cleanUp();
+    }
+  }
+
+  /**
+   * Process each datum of a batch removed from the inbound queue, then hand the results to the outbound queues.
+   * Counters and timing are updated once per batch.  Each fused processor is counted by its own counter, as if it ran
+   * in its own task: it receives what the processor before it emitted.
+   * @param batch datums removed from the inbound queue
+   */
+  protected void processBatch(List<StreamsDatum> batch) {
+    StreamsTaskCounter stageCounter = this.counter;
+    List<StreamsDatum> outputs = processStage(this.processor, stageCounter, batch);
+    for(int i=0; i < this.fused.size(); ++i) {
+      stageCounter.incrementEmittedCount(outputs.size());
+      stageCounter = this.fusedCounters.get(i);
+      outputs = processStage(this.fused.get(i), stageCounter, outputs);
+    }
+    emit(outputs);
+  }
+
+  private List<StreamsDatum> processStage(StreamsProcessor processor, StreamsTaskCounter stageCounter, List<StreamsDatum> batch) {
+    stageCounter.incrementReceivedCount(batch.size());
+    List<StreamsDatum> outputs = new ArrayList<>(batch.size());
+    process(processor, stageCounter, batch, outputs);
+    return outputs;
+  }
+
+  /**
+   * Runs a processor over datums removed from the inbound queue.  Failures are counted and recorded in the metadata
+   * of the failed datum.  Each datum is timed on its own, except that a {@link StreamsBatchProcessor} is timed per
+   * call and every datum of the batch is recorded with the average.  Safe to call from several threads as long as each
+   * uses its own processor.
+   * @param processor processor to run
+   * @param batch datums to process
+   * @param outputs receives the datums produced
+   * @return number of datums processed without error
+   */
+  protected int process(StreamsProcessor processor, List<StreamsDatum> batch, List<StreamsDatum> outputs) {
+    return process(processor, this.counter, batch, outputs);
+  }
+
+  private int process(StreamsProcessor processor, StreamsTaskCounter stageCounter, List<StreamsDatum> batch, List<StreamsDatum> outputs) {
+    int processed = 0;
+    if(processor instanceof StreamsBatchProcessor) {
+      try {
+        long startTime = System.nanoTime();
+        List<StreamsDatum> output = ((StreamsBatchProcessor) processor).process(batch);
+        stageCounter.addTimeNanos(System.nanoTime() - startTime, batch.size());
+        if(output != null) {
+          inheritFromBatch(batch, output);
+          outputs.addAll(output);
+        }
+        processed = batch.size();
+      } catch (Throwable t) {
+        stageCounter.incrementErrorCount(batch.size());
+        LOGGER.warn("Caught Throwable in batch processor, {} : {}", processor.getClass().getName(), t);
+        statusCounter.incrementStatus(DatumStatus.FAIL, batch.size());
+        for(StreamsDatum datum : batch) {
+          DatumUtils.addErrorToMetadata(datum, t, processor.getClass());
+        }
+      }
+    } else for(StreamsDatum datum : batch) {
+      try {
+        long startTime = System.nanoTime();
+        List<StreamsDatum> output = processor.process(datum);
+        stageCounter.addTimeNanos(System.nanoTime() - startTime);
+        if(output != null) {
+          inheritIngestedNanos(datum, output);
+          inheritLineage(datum, output);
+          outputs.addAll(output);
+        }
+        ++processed;
+      } catch (Throwable t) {
+        stageCounter.incrementErrorCount();
+        LOGGER.warn("Caught Throwable in processor, {} : {}", processor.getClass().getName(), t);
+        statusCounter.incrementStatus(DatumStatus.FAIL);
+        //Add the error to the metadata, but keep processing
+        DatumUtils.addErrorToMetadata(datum, t, processor.getClass());
+      }
+    }
+    return processed;
+  }
+
+  /**
+   * Hands processed datums to the outbound queues, in order.
+   * @param outputs datums produced by the processor
+   */
+  protected void emit(List<StreamsDatum> outputs) {
+    int emitted = 0;
+    try {
+      for(StreamsDatum outDatum : outputs) {
+        super.addToOutgoingQueue(outDatum);
+        ++emitted;
+      }
+    } catch (InterruptedException ie) {
+      LOGGER.warn("Received InterruptedException, shutting down and re-applying interrupt status.");
+      this.keepRunning.set(false);
+      Thread.currentThread().interrupt();
+    } finally {
+      if(emitted > 0) {
+        //the last fused processor, if any, emits to the outbound queues
+        (this.fused.isEmpty() ? this.counter : this.fusedCounters.get(this.fused.size() - 1)).incrementEmittedCount(emitted);
+        statusCounter.incrementStatus(DatumStatus.SUCCESS, emitted);
+      }
+    }
+  }
+
+  /**
+   * @return the counter of this task
+   */
+  protected StreamsTaskCounter getStreamsTaskCounter() {
+    return this.counter;
+  }
+
   @Override
   public List<BlockingQueue<StreamsDatum>> getInputQueues() {
     List<BlockingQueue<StreamsDatum>> queues = new LinkedList<BlockingQueue<StreamsDatum>>();
@@ -22,11 +22,15 @@ import org.apache.streams.config.StreamsConfiguration;
 import org.apache.streams.core.DatumStatus;
 import org.apache.streams.core.DatumStatusCountable;
 import org.apache.streams.core.DatumStatusCounter;
+import org.apache.streams.core.StreamsCreditedProvider;
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
 import org.apache.streams.core.StreamsProvider;
 import org.apache.streams.core.StreamsResultSet;
 import org.apache.streams.core.util.DatumUtils;
+import org.apache.streams.local.counters.DatumLineageCollector;
 import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.queues.QueueCredits;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 import org.joda.time.DateTime;
@@ -75,6 +79,8 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
   private int zeros = 0;
   private DatumStatusCounter statusCounter = new DatumStatusCounter();
   private StreamsTaskCounter counter;
+  private QueueCredits credits;
+  private int unsampled = 0;
 
   /**
    * Constructor for a StreamsProvider to execute {@link org.apache.streams.core.StreamsProvider:readCurrent()}
@@ -156,6 +162,10 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
   @Override
   public void run() {
     try {
+      if(this.provider instanceof StreamsCreditedProvider) {
+        this.credits = new QueueCredits(getOutputQueues());
+        ((StreamsCreditedProvider) this.provider).setCredits(this.credits);
+      }
       this.provider.prepare(this.config); //TODO allow for configuration objects
       StreamsResultSet resultSet = null;
       //Negative values mean we want to run forever
@@ -169,9 +179,9 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
           this.started.set(true);
           while(this.isRunning()) {
             try {
-              long startTime = System.currentTimeMillis();
+              long startTime = System.nanoTime();
               resultSet = provider.readCurrent();
-              this.counter.addTime(System.currentTimeMillis() - startTime);
+              this.counter.addTimeNanos(System.nanoTime() - startTime);
               if( resultSet.size() == 0 )
                 zeros++;
               else {
@@ -215,6 +225,7 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
       Uninterruptibles.sleepUninterruptibly(sleepTime, TimeUnit.MILLISECONDS);
       LOGGER.debug("Complete Provider Task execution for {}", this.provider.getClass().getSimpleName());
       this.provider.cleanUp();
+      signalEndOfStream();
       //Setting started to 'true' here will allow the isRunning() method to return false in the event of an exception
       //before started would normally be set to true n the run method.
       this.started.set(true);
@@ -241,6 +252,10 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
       }
       if(datum != null) {
         try {
+          if(datum.getIngestedNanos() == StreamsDatum.NO_VALUE) {
+            datum.setIngestedNanos(System.nanoTime());
+          }
+          sampleLineage(datum);
           super.addToOutgoingQueue(datum);
           this.counter.incrementEmittedCount();
           statusCounter.incrementStatus(DatumStatus.SUCCESS);
@@ -248,12 +263,32 @@ public class StreamsProviderTask extends BaseStreamsTask implements DatumStatusC
           this.counter.incrementErrorCount();
           statusCounter.incrementStatus(DatumStatus.FAIL);
           DatumUtils.addErrorToMetadata(datum, e, this.provider.getClass());
+        } finally {
+          if(this.credits != null) {
+            //the datum is no longer waiting for room downstream
+            this.credits.release(1);
+          }
         }
       }
     }
     this.flushing.set(false);
   }
 
+  /**
+   * Start a lineage on one in every {@link DatumLineageCollector#getSampleInterval()} datums, if lineage is enabled.
+   * @param datum datum about to be emitted
+   */
+  private void sampleLineage(StreamsDatum datum) {
+    DatumLineageCollector collector = getDatumLineageCollector();
+    if(collector == null || ++this.unsampled < collector.getSampleInterval()) {
+      return;
+    }
+    this.unsampled = 0;
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter(getLineageComponent(), datum.getIngestedNanos());
+    datum.setLineage(lineage);
+  }
+
   @Override
   public void setStreamsTaskCounter(StreamsTaskCounter counter) {
     this.counter = counter;
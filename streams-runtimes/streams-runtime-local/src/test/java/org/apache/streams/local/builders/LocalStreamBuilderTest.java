@@ -24,9 +24,11 @@ import org.apache.streams.core.StreamsDatum;
 import org.apache.streams.core.StreamsPersistWriter;
 import org.apache.streams.core.StreamsProcessor;
 import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.DatumLineageCounter;
 import org.apache.streams.local.counters.StreamsTaskCounter;
 import org.apache.streams.local.queues.ThroughputQueue;
 import org.apache.streams.local.test.processors.PassthroughDatumCounterProcessor;
+import org.apache.streams.local.test.processors.RandomDelayProcessor;
 import org.apache.streams.local.test.processors.SlowProcessor;
 import org.apache.streams.local.test.providers.EmptyResultSetProvider;
 import org.apache.streams.local.test.providers.NumericMessageProvider;
@@ -162,6 +164,28 @@ public class LocalStreamBuilderTest extends RandomizedTest {
     linearStreamNonParallel(numDatums, numProcessors);
   }
 
+  /**
+   * Tests that all datums reach the writer when components are connected with ring buffer queues
+   */
+  @Test
+  public void testRingBufferLinearStream() {
+    int numDatums = randomIntBetween(1, 10000);
+    try {
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      StreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withQueueType(LocalRuntimeConfiguration.QueueType.RING_BUFFER));
+      builder.newPerpetualStream("numeric_provider", new NumericMessageProvider(numDatums));
+      builder.addStreamsProcessor("proc", new PassthroughDatumCounterProcessor("proc"), 2, "numeric_provider");
+      builder.addStreamsPersistWriter("writer", new DatumCounterWriter("writer"), 1, "proc");
+      builder.start();
+      Assert.assertEquals(numDatums, PassthroughDatumCounterProcessor.COUNTS.get("proc").get());
+      for(int i=0; i < numDatums; ++i) {
+        Assert.assertTrue("Expected writer to have received : "+i, DatumCounterWriter.RECEIVED.get("writer").contains(i));
+      }
+    } finally {
+      removeRegisteredMBeans("proc", "writer", "numeric_provider");
+    }
+  }
+
   /**
    * Tests that all datums pass through each processor and that all datums reach the writer
    * @param numDatums
@@ -285,6 +309,145 @@ public class LocalStreamBuilderTest extends RandomizedTest {
     }
   }
 
+  @Test
+  public void testSpillingBranch() {
+    try {
+      int numDatums = randomIntBetween(1, 10000);
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      StreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withFanOutPolicy(LocalRuntimeConfiguration.FanOutPolicy.SPILL));
+      builder.newPerpetualStream("prov1", new NumericMessageProvider(numDatums))
+          .addStreamsProcessor("proc1", new PassthroughDatumCounterProcessor("proc1"), 1, "prov1")
+          .addStreamsPersistWriter("w1", new DatumCounterWriter("writer"), 1, "prov1");
+      builder.start();
+      Assert.assertEquals(numDatums, PassthroughDatumCounterProcessor.COUNTS.get("proc1").get());
+      Assert.assertEquals(numDatums, DatumCounterWriter.COUNTS.get("writer").get());
+    } finally {
+      removeRegisteredMBeans("prov1", "proc1", "w1");
+    }
+  }
+
+  /**
+   * Test that a linear chain of processors is fused into the tasks of its first processor, except for a processor
+   * that opted out, that every datum still passes through each processor, and that each fused processor keeps a
+   * counter of its own.
+   */
+  @Test
+  public void testFusedLinearStream() throws Exception {
+    try {
+      int numDatums = randomIntBetween(1, 10000);
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      LocalStreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withFuseProcessors(true));
+      builder.newPerpetualStream("prov1", new NumericMessageProvider(numDatums))
+          .addStreamsProcessor("proc1", new PassthroughDatumCounterProcessor("proc1"), 1, "prov1")
+          .addStreamsProcessor("proc2", new PassthroughDatumCounterProcessor("proc2"), 1, "proc1")
+          .addStreamsProcessor("proc3", new PassthroughDatumCounterProcessor("proc3"), 1, "proc2")
+          .addStreamsPersistWriter("w1", new DatumCounterWriter("writer"), 1, "proc3");
+      builder.setFusible("proc3", false);
+      builder.start();
+      for(String id : new String[] {"proc1", "proc2", "proc3"}) {
+        Assert.assertEquals(numDatums, PassthroughDatumCounterProcessor.COUNTS.get(id).get());
+      }
+      Assert.assertEquals(numDatums, DatumCounterWriter.COUNTS.get("writer").get());
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      for(String id : new String[] {"proc1", "proc2", "proc3"}) {
+        Set<ObjectName> names = mbs.queryNames(new ObjectName("org.apache.streams.local:type=StreamsTaskCounter,name=" + id + ",*"), null);
+        Assert.assertEquals(1, names.size());
+        Assert.assertEquals((long) numDatums, mbs.getAttribute(names.iterator().next(), "NumReceived"));
+        Assert.assertEquals((long) numDatums, mbs.getAttribute(names.iterator().next(), "NumEmitted"));
+      }
+      Assert.assertEquals(1, mbs.queryNames(new ObjectName("org.apache.streams.local:type=ThroughputQueue,name=proc1,*"), null).size());
+      Assert.assertEquals(0, mbs.queryNames(new ObjectName("org.apache.streams.local:type=ThroughputQueue,name=proc2,*"), null).size());
+      Assert.assertEquals(1, mbs.queryNames(new ObjectName("org.apache.streams.local:type=ThroughputQueue,name=proc3,*"), null).size());
+    } finally {
+      removeRegisteredMBeans("prov1", "proc1", "proc2", "proc3", "w1");
+    }
+  }
+
+  /**
+   * Test that processors are not fused unless fusion is turned on.
+   */
+  @Test
+  public void testProcessorsNotFusedByDefault() throws Exception {
+    try {
+      int numDatums = 1000;
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      LocalStreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withLineageSampleInterval(10l));
+      builder.newPerpetualStream("prov1", new NumericMessageProvider(numDatums))
+          .addStreamsProcessor("proc1", new PassthroughDatumCounterProcessor("proc1"), 1, "prov1")
+          .addStreamsProcessor("proc2", new PassthroughDatumCounterProcessor("proc2"), 1, "proc1")
+          .addStreamsPersistWriter("w1", new DatumCounterWriter("writer"), 1, "proc2");
+      builder.start();
+      Assert.assertEquals(numDatums, DatumCounterWriter.COUNTS.get("writer").get());
+      Assert.assertEquals(1, builder.getDatumLineageCollector().getCounters().size());
+      Assert.assertEquals("prov1 -> proc1 -> proc2 -> w1", builder.getDatumLineageCollector().getCounters().iterator().next().getPath());
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      Assert.assertEquals(1, mbs.queryNames(new ObjectName("org.apache.streams.local:type=ThroughputQueue,name=proc2,*"), null).size());
+    } finally {
+      removeRegisteredMBeans("prov1", "proc1", "proc2", "w1");
+    }
+  }
+
+  /**
+   * Test that sampled datums are timed through every component, with fused processors reported as one stage, and that
+   * the lineage is broken down per path when a datum is fanned out.
+   */
+  @Test
+  public void testDatumLineage() {
+    try {
+      int numDatums = 1000;
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      LocalStreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withLineageSampleInterval(10l).withFuseProcessors(true));
+      builder.newPerpetualStream("prov1", new NumericMessageProvider(numDatums))
+          .addStreamsProcessor("proc1", new PassthroughDatumCounterProcessor("proc1"), 1, "prov1")
+          .addStreamsProcessor("proc2", new PassthroughDatumCounterProcessor("proc2"), 1, "proc1")
+          .addStreamsPersistWriter("w1", new DatumCounterWriter("writer"), 1, "proc2", "prov1");
+      builder.start();
+      Assert.assertEquals(numDatums * 2, DatumCounterWriter.COUNTS.get("writer").get());
+      Map<String, DatumLineageCounter> counters = new HashMap<>();
+      for(DatumLineageCounter counter : builder.getDatumLineageCollector().getCounters()) {
+        counters.put(counter.getPath(), counter);
+      }
+      Assert.assertEquals(2, counters.size());
+      DatumLineageCounter fused = counters.get("prov1 -> proc1+proc2 -> w1");
+      Assert.assertNotNull(fused);
+      Assert.assertEquals(numDatums / 10, fused.getCount());
+      Assert.assertArrayEquals(new String[] {"prov1", "queue to proc1+proc2", "proc1+proc2", "queue to w1", "w1"}, fused.getSegments());
+      for(int i=0; i < fused.getSegments().length; ++i) {
+        Assert.assertEquals(numDatums / 10, fused.getSegmentHistogram(i).getCount());
+      }
+      DatumLineageCounter direct = counters.get("prov1 -> w1");
+      Assert.assertNotNull(direct);
+      Assert.assertEquals(numDatums / 10, direct.getCount());
+      Assert.assertTrue(direct.getLatencyHistogram().getMax() >= direct.getSegmentHistogram(2).getMax());
+    } finally {
+      removeRegisteredMBeans("prov1", "proc1", "proc2", "w1");
+    }
+  }
+
+  @Test
+  public void testAutoscaledProcessor() {
+    try {
+      int numDatums = 5000;
+      RandomDelayProcessor.THREADS.clear();
+      LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+      LocalStreamBuilder builder = new LocalStreamBuilder(conf.withMaxQueueCapacity(10l).withAutoscaleIntervalMs(100l));
+      builder.newPerpetualStream("prov1", new NumericMessageProvider(numDatums))
+          .addStreamsProcessor("proc1", new RandomDelayProcessor(), 1, "prov1")
+          .addStreamsPersistWriter("w1", new DatumCounterWriter("writer"), 1, "proc1");
+      builder.setTaskBounds("proc1", 1, 4);
+      builder.start();
+      Assert.assertEquals(numDatums, DatumCounterWriter.COUNTS.get("writer").get());
+      Assert.assertTrue(RandomDelayProcessor.THREADS.size() > 1);
+    } finally {
+      removeRegisteredMBeans("prov1", "proc1", "w1");
+    }
+  }
+
+  @Test(expected = InvalidStreamException.class)
+  public void testTaskBoundsOfUnknownComponent() {
+    new LocalStreamBuilder().setTaskBounds("proc1", 1, 4);
+  }
+
   @Test
   public void testSlowProcessorBranch() {
     try {
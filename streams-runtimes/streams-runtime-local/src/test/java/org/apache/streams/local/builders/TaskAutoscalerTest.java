@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.streams.local.builders;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link org.apache.streams.local.builders.TaskAutoscaler}.
+ */
+public class TaskAutoscalerTest {
+
+  private static final long INTERVAL_MS = 1000;
+
+  @Test
+  public void testScaleUpWhenBackedUpAndBusy() {
+    assertEquals(3, TaskAutoscaler.decide(2, 1, 4, 0.9, 0, 0.95, INTERVAL_MS));
+    assertEquals(3, TaskAutoscaler.decide(2, 1, 4, 0.2, 600, 0.95, INTERVAL_MS));
+  }
+
+  @Test
+  public void testNoScaleUpPastMax() {
+    assertEquals(4, TaskAutoscaler.decide(4, 1, 4, 1.0, 900, 1.0, INTERVAL_MS));
+  }
+
+  @Test
+  public void testNoScaleUpWhenBlockedDownstream() {
+    assertEquals(2, TaskAutoscaler.decide(2, 1, 4, 1.0, 900, 0.2, INTERVAL_MS));
+  }
+
+  @Test
+  public void testScaleDownWhenIdle() {
+    assertEquals(2, TaskAutoscaler.decide(3, 1, 4, 0.0, 1, 0.1, INTERVAL_MS));
+  }
+
+  @Test
+  public void testNoScaleDownBelowMin() {
+    assertEquals(2, TaskAutoscaler.decide(2, 2, 4, 0.0, 0, 0.0, INTERVAL_MS));
+  }
+
+  @Test
+  public void testNoScaleDownWhenRemainingTasksWouldBeBusy() {
+    assertEquals(2, TaskAutoscaler.decide(2, 1, 4, 0.0, 0, 0.5, INTERVAL_MS));
+  }
+
+}
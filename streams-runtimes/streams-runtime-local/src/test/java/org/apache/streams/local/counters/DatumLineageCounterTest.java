@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.counters;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
+import org.apache.streams.util.ComponentUtils;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.counters.DatumLineageCounter} and
+ * {@link org.apache.streams.local.counters.DatumLineageCollector}
+ */
+public class DatumLineageCounterTest extends RandomizedTest {
+
+  private static final String STREAM_ID = "test_stream";
+  private static final long STREAM_START_TIME = 1;
+
+  /**
+   * Remove registered mbeans from previous tests
+   */
+  @After
+  public void unregisterMXBeans() {
+    try {
+      ComponentUtils.removeAllMBeansOfDomain("org.apache.streams.local");
+    } catch (Exception e) {
+      //No-op
+    }
+  }
+
+  private static StreamsDatumLineage lineage(long... times) {
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    String[] components = {"provider", "processor", "writer"};
+    for(int i=0; i < times.length; i += 2) {
+      lineage.enter(components[i / 2], times[i]);
+      if(times[i + 1] != StreamsDatum.NO_VALUE) {
+        lineage.exit(times[i + 1]);
+      }
+    }
+    return lineage;
+  }
+
+  /**
+   * Test component and queue segments are named in path order and timed from the lineage
+   */
+  @Test
+  public void testSegments() {
+    long ms = TimeUnit.MILLISECONDS.toNanos(1);
+    DatumLineageCounter counter = new DatumLineageCounter(lineage(0, ms, 3 * ms, 4 * ms, 10 * ms, 12 * ms), STREAM_ID, STREAM_START_TIME);
+    counter.record(lineage(0, ms, 3 * ms, 4 * ms, 10 * ms, 12 * ms));
+    Assert.assertEquals("provider -> processor -> writer", counter.getPath());
+    Assert.assertArrayEquals(new String[] {"provider", "queue to processor", "processor", "queue to writer", "writer"}, counter.getSegments());
+    Assert.assertArrayEquals(new double[] {1, 2, 1, 6, 2}, counter.getSegmentAvg(), 0.1);
+    Assert.assertEquals(1, counter.getCount());
+    Assert.assertEquals(12.0, counter.getLatencyP99(), 12.0 / 32);
+  }
+
+  /**
+   * Test a lineage missing an egress time only counts the segments it has times for
+   */
+  @Test
+  public void testIncompleteLineage() {
+    DatumLineageCounter counter = new DatumLineageCounter(lineage(0, 1, 3, 4, 10, 12), STREAM_ID, STREAM_START_TIME);
+    counter.record(lineage(0, StreamsDatum.NO_VALUE, 3, 4, 10, StreamsDatum.NO_VALUE));
+    Assert.assertEquals(0, counter.getCount());
+    Assert.assertEquals(0, counter.getSegmentHistogram(0).getCount());
+    Assert.assertEquals(0, counter.getSegmentHistogram(1).getCount());
+    Assert.assertEquals(1, counter.getSegmentHistogram(2).getCount());
+    Assert.assertEquals(1, counter.getSegmentHistogram(3).getCount());
+    Assert.assertEquals(0, counter.getSegmentHistogram(4).getCount());
+  }
+
+  /**
+   * Test the collector keeps one registered counter per path
+   */
+  @Test
+  public void testCollectorGroupsByPath() throws Exception {
+    DatumLineageCollector collector = new DatumLineageCollector(randomIntBetween(1, 100), STREAM_ID, STREAM_START_TIME);
+    int full = randomIntBetween(1, 50);
+    for(int i=0; i < full; ++i) {
+      collector.record(lineage(0, 1, 3, 4, 10, 12));
+    }
+    collector.record(lineage(0, 1, 3, 4));
+    collector.record(null);
+    Assert.assertEquals(2, collector.getCounters().size());
+    ObjectName name = new ObjectName(String.format(DatumLineageCounter.NAME_TEMPLATE, "provider -> processor -> writer", STREAM_ID, STREAM_START_TIME));
+    Assert.assertEquals((long) full, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"));
+  }
+
+  /**
+   * Test the sample interval must be positive
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSampleInterval() {
+    new DatumLineageCollector(0);
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.local.counters;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.counters.LatencyHistogram}
+ */
+public class LatencyHistogramTest extends RandomizedTest {
+
+  /**
+   * Test an empty histogram reports zeros
+   */
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMax());
+    Assert.assertEquals(0.0, histogram.getMean(), 0);
+    Assert.assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  /**
+   * Test bucket boundaries are contiguous and every value maps to a bucket whose range contains it
+   */
+  @Test
+  public void testBuckets() {
+    for(long value = 0; value < 100000; ++value) {
+      int index = LatencyHistogram.indexOf(value);
+      Assert.assertTrue(value <= LatencyHistogram.highestValueAt(index));
+      Assert.assertTrue(index == 0 || value > LatencyHistogram.highestValueAt(index - 1));
+    }
+    int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+    Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueAt(last));
+  }
+
+  /**
+   * Test percentiles of random values are within the precision of the histogram
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    int count = randomIntBetween(1000, 100000);
+    long[] values = new long[count];
+    for(int i=0; i < count; ++i) {
+      values[i] = randomLongBetween(0, TimeUnit.SECONDS.toNanos(10));
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    Assert.assertEquals(count, histogram.getCount());
+    Assert.assertEquals(values[count - 1], histogram.getMax());
+    for(double percentile : new double[] {50, 95, 99, 99.9, 100}) {
+      long expected = values[(int) Math.ceil(percentile / 100 * count) - 1];
+      long actual = histogram.getValueAtPercentile(percentile);
+      Assert.assertTrue(actual >= expected);
+      Assert.assertTrue(actual <= expected + expected / 16 + 1);
+    }
+  }
+
+  /**
+   * Test recording a value several times counts every occurrence
+   */
+  @Test
+  public void testRecordTimes() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10, 99);
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+    Assert.assertEquals(100, histogram.getCount());
+    Assert.assertEquals(990 + TimeUnit.MILLISECONDS.toNanos(5), histogram.getTotal());
+    Assert.assertEquals(10, histogram.getValueAtPercentile(99));
+    Assert.assertEquals(5.0, histogram.getValueAtPercentileMillis(100), 5.0 / 32);
+    histogram.record(-1);
+    Assert.assertEquals(0, histogram.getValueAtPercentile(0));
+  }
+
+  /**
+   * Test concurrent writers lose no values
+   */
+  @Test
+  public void testConcurrentRecording() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final int threads = 4;
+    final int perThread = 100000;
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] writers = new Thread[threads];
+    for(int i=0; i < threads; ++i) {
+      final long value = i + 1;
+      writers[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for(int j=0; j < perThread; ++j) {
+          histogram.record(value);
+        }
+      });
+      writers[i].start();
+    }
+    start.countDown();
+    // join rather than awaitTermination, a pool thread can still be exiting when the pool reports terminated
+    for(Thread writer : writers) {
+      writer.join(TimeUnit.SECONDS.toMillis(30));
+      Assert.assertFalse(writer.isAlive());
+    }
+    Assert.assertEquals(threads * perThread, histogram.getCount());
+    Assert.assertEquals(threads, histogram.getMax());
+    Assert.assertEquals(2, histogram.getValueAtPercentile(50));
+  }
+
+}
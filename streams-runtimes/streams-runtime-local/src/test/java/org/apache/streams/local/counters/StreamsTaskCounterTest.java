@@ -24,6 +24,7 @@ import org.junit.After;
 import org.junit.Test;
 
 import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
 import javax.management.InstanceNotFoundException;
 import javax.management.ObjectName;
 
@@ -161,4 +162,45 @@ public class StreamsTaskCounterTest extends RandomizedTest {
     Assert.assertEquals((double)failures / (double)(received), counter.getErrorRate(), 0);
   }
 
+  /**
+   * Test batch timing adds the whole batch to the total and tracks the per datum max
+   * @throws Exception
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testBatchTime() throws Exception {
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, STREAM_ID, STREAM_START_TIME);
+    int batchSize = randomIntBetween(1, 1000);
+    long batchTime = randomIntBetween(0, 100000);
+    counter.incrementReceivedCount(batchSize);
+    counter.addTime(batchTime, batchSize);
+    Assert.assertEquals(batchTime / batchSize, counter.getMaxTime());
+    Assert.assertEquals((double) batchTime / batchSize, counter.getAvgTime(), 0.000001);
+  }
+
+  /**
+   * Test percentiles of the time per datum are tracked in nanoseconds and reported in milliseconds
+   * @throws Exception
+   */
+  @Test
+  public void testTimePercentiles() throws Exception {
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, STREAM_ID, STREAM_START_TIME);
+    Assert.assertEquals(-1, counter.getMaxTime());
+    Assert.assertEquals(0.0, counter.getTimeP99(), 0);
+    for(int i=1; i <= 1000; ++i) {
+      counter.incrementReceivedCount();
+      counter.addTimeNanos(TimeUnit.MICROSECONDS.toNanos(i));
+    }
+    Assert.assertEquals(0.5, counter.getTimeP50(), 0.5 / 16);
+    Assert.assertEquals(0.95, counter.getTimeP95(), 0.95 / 16);
+    Assert.assertEquals(0.99, counter.getTimeP99(), 0.99 / 16);
+    Assert.assertEquals(0.999, counter.getTimeP999(), 0.999 / 16);
+    Assert.assertEquals(0.5005, counter.getAvgTime(), 0.000001);
+    Assert.assertEquals(1, counter.getMaxTime());
+    Assert.assertEquals(0, counter.getLatencyCount());
+    counter.addLatencyNanos(TimeUnit.MILLISECONDS.toNanos(20));
+    Assert.assertEquals(1, counter.getLatencyCount());
+    Assert.assertEquals(20.0, counter.getLatencyP999(), 20.0 / 16);
+  }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.executors;
+
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.builders.LocalStreamBuilder;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.executors.TaskThreadFactories}
+ */
+public class TaskThreadFactoriesTest {
+
+  /**
+   * Test that both kinds of task threads run tasks, virtual threads falling back to platform threads when the JVM
+   * does not support them.
+   */
+  @Test
+  public void testTaskThreads() throws Exception {
+    for(LocalRuntimeConfiguration.TaskThreads taskThreads : LocalRuntimeConfiguration.TaskThreads.values()) {
+      int numTasks = 100;
+      final CountDownLatch latch = new CountDownLatch(numTasks);
+      ExecutorService executor = new ShutdownStreamOnUnhandleThrowableThreadPoolExecutor(numTasks, mock(LocalStreamBuilder.class),
+          TaskThreadFactories.forTaskThreads(taskThreads, "test-"));
+      for(int i=0; i < numTasks; ++i) {
+        executor.execute(latch::countDown);
+      }
+      assertTrue("Tasks did not run on " + taskThreads + " threads", latch.await(10, TimeUnit.SECONDS));
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  /**
+   * Test that virtual threads are created when the JVM supports them.
+   */
+  @Test
+  public void testVirtualThreads() throws Exception {
+    Assume.assumeTrue(TaskThreadFactories.isVirtualThreadSupported());
+    Thread thread = TaskThreadFactories.forTaskThreads(LocalRuntimeConfiguration.TaskThreads.VIRTUAL, "test-").newThread(() -> {});
+    assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    assertEquals("test-0", thread.getName());
+  }
+
+  /**
+   * Test that virtual threads fall back to the default platform threads when the JVM does not support them.
+   */
+  @Test
+  public void testVirtualThreadFallback() {
+    Assume.assumeFalse(TaskThreadFactories.isVirtualThreadSupported());
+    Thread thread = TaskThreadFactories.forTaskThreads(LocalRuntimeConfiguration.TaskThreads.VIRTUAL, "test-").newThread(() -> {});
+    assertTrue(thread.getName().startsWith("pool-"));
+    assertFalse(thread.isDaemon());
+  }
+
+  /**
+   * Test that a missing setting selects platform threads.
+   */
+  @Test
+  public void testDefault() {
+    assertNotNull(TaskThreadFactories.forTaskThreads(null, "test-"));
+  }
+
+}
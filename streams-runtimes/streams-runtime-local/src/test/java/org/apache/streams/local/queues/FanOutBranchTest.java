@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.util.ComponentUtils;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.queues.FanOutBranch}
+ */
+public class FanOutBranchTest extends RandomizedTest {
+
+  private static final String MBEAN_ID = "test_branch";
+  private static final String STREAM_ID = "test_stream";
+  private static final long STREAM_START_TIME = System.currentTimeMillis();
+
+  @After
+  public void removeLocalMBeans() {
+    try {
+      ComponentUtils.removeAllMBeansOfDomain("org.apache.streams.local");
+    } catch (Exception e) {
+      //No op.  proceed to next test
+    }
+  }
+
+  /**
+   * Test that a full downstream queue makes a blocking branch refuse the datum
+   */
+  @Test
+  public void testBlock() throws Exception {
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(1);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.BLOCK, 0, null);
+    Assert.assertTrue(branch.offer(new StreamsDatum(0), 10, TimeUnit.MILLISECONDS));
+    Assert.assertFalse(branch.offer(new StreamsDatum(1), 10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(1, branch.getDelivered());
+    Assert.assertEquals(1, branch.getLag());
+  }
+
+  /**
+   * Test that a full downstream queue makes a dropping branch discard and count the datum
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testDrop() throws Exception {
+    int capacity = randomIntBetween(1, 100);
+    int count = randomIntBetween(capacity, 1000);
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(capacity);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.DROP, 0, null);
+    for(int i=0; i < count; ++i) {
+      branch.put(new StreamsDatum(i));
+    }
+    Assert.assertEquals(capacity, downstream.size());
+    Assert.assertEquals(capacity, branch.getDelivered());
+    Assert.assertEquals(count - capacity, branch.getDropped());
+    Assert.assertEquals(0, downstream.take().getDocument());
+  }
+
+  /**
+   * Test that a spilling branch accepts datums while the downstream queue is full and delivers all of them in order
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testSpill() throws Exception {
+    int capacity = randomIntBetween(1, 10);
+    int count = randomIntBetween(capacity + 1, 1000);
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(capacity);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.SPILL, count, null);
+    for(int i=0; i < count; ++i) {
+      Assert.assertTrue(branch.offer(new StreamsDatum(i), 10, TimeUnit.MILLISECONDS));
+    }
+    Assert.assertTrue(branch.getSpilled() > 0);
+    Assert.assertEquals(count, branch.getLag());
+    for(int i=0; i < count; ++i) {
+      StreamsDatum datum = downstream.poll(10, TimeUnit.SECONDS);
+      Assert.assertNotNull(datum);
+      Assert.assertEquals(i, datum.getDocument());
+    }
+    branch.close();
+    Assert.assertEquals(0, branch.getSpilled());
+    Assert.assertEquals(count, branch.getDelivered());
+    Assert.assertEquals(0, branch.getDropped());
+  }
+
+  /**
+   * Test that an end of stream marker spilled behind datums reaches the downstream queue as the marker
+   */
+  @Test
+  public void testSpillEndOfStream() throws Exception {
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(1);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.SPILL, 10, null);
+    for(int i=0; i < 3; ++i) {
+      Assert.assertTrue(branch.offer(new StreamsDatum(i)));
+    }
+    branch.put(EndOfStream.MARKER);
+    Assert.assertTrue(branch.getSpilled() > 0);
+    for(int i=0; i < 3; ++i) {
+      Assert.assertEquals(i, downstream.poll(10, TimeUnit.SECONDS).getDocument());
+    }
+    Assert.assertSame(EndOfStream.MARKER, downstream.poll(10, TimeUnit.SECONDS));
+    branch.close();
+    Assert.assertEquals(4, branch.getDelivered());
+    Assert.assertEquals(0, branch.getDropped());
+  }
+
+  /**
+   * Test that a datum spilled after the drainer has finished and exited starts a new drainer
+   */
+  @Test
+  public void testSpillAfterDrainerExits() throws Exception {
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(1);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.SPILL, 10, null, MBEAN_ID, STREAM_ID, STREAM_START_TIME);
+    Assert.assertTrue(branch.offer(new StreamsDatum(0)));
+    Assert.assertTrue(branch.offer(new StreamsDatum(1)));
+    Assert.assertEquals(1, branch.getSpilled());
+    for(int i=0; i < 2; ++i) {
+      Assert.assertEquals(i, downstream.poll(10, TimeUnit.SECONDS).getDocument());
+    }
+    awaitDrainerExit(branch, "FanOutBranch-" + MBEAN_ID);
+    Assert.assertTrue(branch.offer(new StreamsDatum(2)));
+    Assert.assertTrue(branch.offer(new StreamsDatum(3)));
+    Assert.assertEquals(1, branch.getSpilled());
+    for(int i=2; i < 4; ++i) {
+      StreamsDatum datum = downstream.poll(10, TimeUnit.SECONDS);
+      Assert.assertNotNull("datum " + i + " was not delivered", datum);
+      Assert.assertEquals(i, datum.getDocument());
+    }
+    branch.close();
+    Assert.assertEquals(4, branch.getDelivered());
+    Assert.assertEquals(0, branch.getDropped());
+  }
+
+  /**
+   * Test that a spilling branch blocks once its spill capacity is reached
+   */
+  @Test
+  public void testSpillCapacity() throws Exception {
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>(1);
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.SPILL, 2, null);
+    Assert.assertTrue(branch.offer(new StreamsDatum(0)));
+    Assert.assertTrue(branch.offer(new StreamsDatum(1)));
+    Assert.assertTrue(branch.offer(new StreamsDatum(2)));
+    Assert.assertFalse(branch.offer(new StreamsDatum(3), 10, TimeUnit.MILLISECONDS));
+    branch.close();
+    Assert.assertEquals(2, branch.getDropped());
+  }
+
+  /**
+   * Test that the branch registers its lag with JMX
+   */
+  @Test
+  public void testMBeanRegistration() throws Exception {
+    BlockingQueue<StreamsDatum> downstream = new LinkedBlockingQueue<>();
+    FanOutBranch branch = new FanOutBranch(downstream, LocalRuntimeConfiguration.FanOutPolicy.BLOCK, 0, null, MBEAN_ID, STREAM_ID, STREAM_START_TIME);
+    branch.put(new StreamsDatum(0));
+    ObjectName name = new ObjectName(String.format(FanOutBranch.NAME_TEMPLATE, MBEAN_ID, STREAM_ID, STREAM_START_TIME));
+    Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Lag"));
+    Assert.assertEquals("block", ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Policy"));
+  }
+
+  /**
+   * Waits until nothing is spilled and the drainer thread with the given name has ended
+   */
+  private static void awaitDrainerExit(FanOutBranch branch, String drainerName) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while(branch.getSpilled() > 0 || Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(thread -> thread.getName().equals(drainerName) && thread.isAlive())) {
+      Assert.assertTrue("drainer " + drainerName + " did not exit", System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.core.StreamsDatum;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.queues.QueueCredits}
+ */
+public class QueueCreditsTest {
+
+  /**
+   * Test that credits are limited by the fullest queue and the credits already outstanding.
+   */
+  @Test
+  public void testAcquire() throws Exception {
+    BlockingQueue<StreamsDatum> small = new ArrayBlockingQueue<>(10);
+    BlockingQueue<StreamsDatum> large = new ArrayBlockingQueue<>(100);
+    QueueCredits credits = new QueueCredits(Arrays.asList(small, large));
+    small.put(new StreamsDatum(0));
+    Assert.assertEquals(5, credits.acquire(5));
+    Assert.assertEquals(4, credits.acquire(100));
+    Assert.assertEquals(9, credits.getOutstanding());
+    credits.release(9);
+    Assert.assertEquals(0, credits.getOutstanding());
+    Assert.assertEquals(0, credits.acquire(0));
+  }
+
+  /**
+   * Test that acquire blocks while downstream is full and resumes once a datum is taken.
+   */
+  @Test
+  public void testBlocksUntilDemand() throws Exception {
+    BlockingQueue<StreamsDatum> queue = new ArrayBlockingQueue<>(1);
+    queue.put(new StreamsDatum(0));
+    QueueCredits credits = new QueueCredits(Collections.singletonList(queue));
+    AtomicInteger granted = new AtomicInteger(-1);
+    Thread provider = new Thread(() -> {
+      try {
+        granted.set(credits.acquire(10));
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    provider.start();
+    provider.join(200);
+    Assert.assertTrue(provider.isAlive());
+    queue.take();
+    provider.join(5000);
+    Assert.assertFalse(provider.isAlive());
+    Assert.assertEquals(1, granted.get());
+  }
+
+  /**
+   * Test that unbounded queues never hold a provider back.
+   */
+  @Test
+  public void testUnbounded() throws Exception {
+    QueueCredits credits = new QueueCredits(Collections.singletonList(new LinkedBlockingQueue<>()));
+    Assert.assertEquals(Integer.MAX_VALUE, credits.acquire(Integer.MAX_VALUE));
+    Assert.assertEquals(100, credits.acquire(100));
+  }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.queues;
+
+import org.apache.streams.util.ComponentUtils;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.queues.RingBufferThroughputQueue}
+ */
+public class RingBufferThroughputQueueTest extends RandomizedTest {
+
+  private static final String MBEAN_ID = "test_ring_buffer";
+  private static final String STREAM_ID = "test_stream";
+  private static long STREAM_START_TIME = (new DateTime()).getMillis();
+
+  @After
+  public void removeLocalMBeans() {
+    try {
+      ComponentUtils.removeAllMBeansOfDomain("org.apache.streams.local");
+    } catch (Exception e) {
+      //No op.  proceed to next test
+    }
+  }
+
+  /**
+   * Test that take and put queue and dequeue data in order and all
+   * measurements form the queue are returning data.
+   * @throws Exception
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testTakeAndPut() throws Exception {
+    int putCount = randomIntBetween(1, 1000);
+    RingBufferThroughputQueue<Integer> queue = new RingBufferThroughputQueue<>(putCount);
+    for(int i=0; i < putCount; ++i) {
+      queue.put(i);
+      Assert.assertEquals(i+1, queue.size());
+      Assert.assertEquals(queue.size(), queue.getCurrentSize());
+    }
+    safeSleep(100); //ensure measurable wait time
+    int takeCount = randomIntBetween(1, putCount);
+    for(int i=0; i < takeCount; ++i) {
+      Integer element = queue.take();
+      Assert.assertNotNull(element);
+      Assert.assertEquals(i, element.intValue());
+      Assert.assertEquals(putCount - (1+i), queue.size());
+      Assert.assertEquals(queue.size(), queue.getCurrentSize());
+    }
+    Assert.assertEquals(putCount-takeCount, queue.size());
+    Assert.assertTrue(0.0 < queue.getMaxWait());
+    Assert.assertTrue(0.0 < queue.getAvgWait());
+    Assert.assertTrue(0.0 < queue.getThroughput());
+    Assert.assertEquals(putCount, queue.getAdded());
+    Assert.assertEquals(takeCount, queue.getRemoved());
+  }
+
+  /**
+   * Test that drainTo removes elements in order up to the requested maximum
+   * and all measurements from the queue are returning data
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testDrainTo() {
+    RingBufferThroughputQueue<Integer> queue = new RingBufferThroughputQueue<>(1000);
+    int putCount = randomIntBetween(1, 1000);
+    for(int i=0; i < putCount; ++i) {
+      queue.offer(i);
+    }
+    safeSleep(100); //ensure measurable wait time
+    int drainCount = randomIntBetween(1, putCount);
+    List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(drainCount, queue.drainTo(drained, drainCount));
+    for(int i=0; i < drainCount; ++i) {
+      Assert.assertEquals(i, drained.get(i).intValue());
+    }
+    Assert.assertEquals(putCount-drainCount, queue.size());
+    Assert.assertEquals(queue.size(), queue.getCurrentSize());
+    Assert.assertTrue(0.0 < queue.getMaxWait());
+    Assert.assertTrue(0.0 < queue.getAvgWait());
+    Assert.assertTrue(100.0 <= queue.getWaitP50());
+    Assert.assertTrue(queue.getWaitP99() >= queue.getWaitP50());
+    Assert.assertEquals(putCount, queue.getAdded());
+    Assert.assertEquals(drainCount, queue.getRemoved());
+    Assert.assertEquals(putCount-drainCount, queue.drainTo(drained));
+    Assert.assertEquals(putCount, drained.size());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * Test that the queue refuses elements once capacity is reached and accepts them again after a removal.
+   */
+  @Test
+  public void testBounded() throws Exception {
+    int capacity = randomIntBetween(2, 100);
+    RingBufferThroughputQueue<Integer> queue = new RingBufferThroughputQueue<>(capacity);
+    for(int i=0; i < capacity; ++i) {
+      Assert.assertTrue(queue.offer(i));
+    }
+    Assert.assertEquals(0, queue.remainingCapacity());
+    Assert.assertFalse(queue.offer(capacity));
+    Assert.assertFalse(queue.offer(capacity, 10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(0, queue.poll().intValue());
+    Assert.assertTrue(queue.offer(capacity));
+    Assert.assertEquals(capacity, queue.size());
+    Assert.assertNull(new RingBufferThroughputQueue<Integer>(capacity).poll(10, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Test that a queue asked for a single slot does not overwrite an element that has not been removed.
+   */
+  @Test
+  public void testSingleSlot() throws Exception {
+    RingBufferThroughputQueue<Integer> queue = new RingBufferThroughputQueue<>(1);
+    Assert.assertTrue(queue.offer(1));
+    Assert.assertTrue(queue.offer(2));
+    Assert.assertFalse(queue.offer(3));
+    Assert.assertEquals(1, queue.poll().intValue());
+    Assert.assertEquals(2, queue.poll().intValue());
+    Assert.assertNull(queue.poll());
+  }
+
+  /**
+   * Test that no elements are lost or duplicated with many concurrent producers and consumers.
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testMultipleProducersAndConsumers() throws Exception {
+    final RingBufferThroughputQueue<Long> queue = new RingBufferThroughputQueue<>(randomIntBetween(1, 64));
+    final int producers = randomIntBetween(1, 4);
+    final int consumers = randomIntBetween(1, 4);
+    final int perProducer = randomIntBetween(1, 10000);
+    final long total = (long) producers * perProducer;
+    final AtomicLong taken = new AtomicLong(0);
+    final AtomicLong sum = new AtomicLong(0);
+    List<Thread> threads = new ArrayList<>();
+    for(int p=0; p < producers; ++p) {
+      threads.add(new Thread(() -> {
+        try {
+          for(long i=1; i <= perProducer; ++i) {
+            queue.put(i);
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+    for(int c=0; c < consumers; ++c) {
+      threads.add(new Thread(() -> {
+        try {
+          while(taken.get() < total) {
+            Long element = queue.poll(10, TimeUnit.MILLISECONDS);
+            if(element != null) {
+              sum.addAndGet(element);
+              taken.incrementAndGet();
+            }
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+    for(Thread thread : threads) {
+      thread.start();
+    }
+    for(Thread thread : threads) {
+      thread.join(30000);
+      Assert.assertFalse(thread.isAlive());
+    }
+    Assert.assertEquals(total, taken.get());
+    Assert.assertEquals(producers * ((long) perProducer * (perProducer + 1) / 2), sum.get());
+    Assert.assertEquals(total, queue.getAdded());
+    Assert.assertEquals(total, queue.getRemoved());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * Test that the queue registers under the same name as {@link ThroughputQueue} so monitoring picks it up.
+   */
+  @Test
+  public void testMBeanRegistration() throws Exception {
+    RingBufferThroughputQueue<Integer> queue = new RingBufferThroughputQueue<>(10, MBEAN_ID, STREAM_ID, STREAM_START_TIME);
+    ObjectName name = new ObjectName(String.format(ThroughputQueue.NAME_TEMPLATE, MBEAN_ID, STREAM_ID, STREAM_START_TIME));
+    Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    queue.put(1);
+    Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CurrentSize"));
+  }
+
+  private void safeSleep(long sleep) {
+    try {
+      Thread.sleep(sleep);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -26,6 +26,8 @@ import org.junit.After;
 import org.junit.Test;
 
 import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
 import javax.management.MBeanServer;
 import javax.management.ObjectInstance;
 import javax.management.ObjectName;
@@ -149,6 +151,35 @@ public class ThroughputQueueSingleThreadTest extends RandomizedTest {
   }
 
 
+  /**
+   * Test that drainTo removes elements in order up to the requested maximum
+   * and all measurements from the queue are returning data
+   */
+  @Test
+  @Repeat(iterations = 3)
+  public void testDrainTo() {
+    ThroughputQueue<Integer> queue = new ThroughputQueue<>();
+    int putCount = randomIntBetween(1, 1000);
+    for(int i=0; i < putCount; ++i) {
+      queue.offer(i);
+    }
+    safeSleep(100); //ensure measurable wait time
+    int drainCount = randomIntBetween(1, putCount);
+    List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(drainCount, queue.drainTo(drained, drainCount));
+    for(int i=0; i < drainCount; ++i) {
+      Assert.assertEquals(i, drained.get(i).intValue());
+    }
+    Assert.assertEquals(putCount-drainCount, queue.size());
+    Assert.assertEquals(queue.size(), queue.getCurrentSize());
+    Assert.assertTrue(0.0 < queue.getMaxWait());
+    Assert.assertTrue(0.0 < queue.getAvgWait());
+    Assert.assertEquals(putCount, queue.getAdded());
+    Assert.assertEquals(drainCount, queue.getRemoved());
+    Assert.assertEquals(putCount-drainCount, queue.drainTo(drained));
+    Assert.assertEquals(putCount, drained.size());
+    Assert.assertTrue(queue.isEmpty());
+  }
 
   /**
    * Test that max wait and avg wait return expected values
@@ -171,6 +202,9 @@ public class ThroughputQueueSingleThreadTest extends RandomizedTest {
     Assert.assertTrue(queue.getMaxWait() >= wait && queue.getMaxWait() <= (wait * 2));//can't calculate exactly, making sure its close.
     Assert.assertTrue(queue.getAvgWait() <= 5000 );
     Assert.assertTrue(queue.getAvgWait() >= 500);
+    Assert.assertTrue(queue.getWaitP50() >= wait && queue.getWaitP50() <= (wait * 2));
+    Assert.assertTrue(queue.getWaitP999() >= queue.getWaitP50());
+    Assert.assertTrue(queue.getWaitP999() <= queue.getMaxWait() + 1);
   }
 
   /**
@@ -18,17 +18,32 @@
 
 package org.apache.streams.local.tasks;
 
+import org.apache.streams.config.ComponentConfigurator;
 import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsDatumLineage;
+import org.apache.streams.core.StreamsDatumPool;
+import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.local.LocalRuntimeConfiguration;
 import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.queues.EndOfStream;
+import org.apache.streams.local.test.processors.BatchPassthroughDatumCounterProcessor;
 import org.apache.streams.local.test.processors.PassthroughDatumCounterProcessor;
 import org.apache.streams.local.test.providers.NumericMessageProvider;
+import org.apache.streams.local.test.writer.BatchDatumCounterWriter;
 import org.apache.streams.local.test.writer.DatumCounterWriter;
+import org.apache.streams.local.test.writer.DoNothingWriter;
+import org.apache.streams.pojo.json.Activity;
 import org.apache.streams.util.ComponentUtils;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -36,8 +51,12 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -93,6 +112,9 @@ public class BasicTasksTest {
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
+    for(StreamsDatum datum : outQueue) {
+      assertNotEquals(StreamsDatum.NO_VALUE, datum.getIngestedNanos());
+    }
   }
 
   @Test
@@ -182,6 +204,409 @@ public class BasicTasksTest {
     assertEquals(0.0, counter.getErrorRate(), 0.0);
   }
 
+  @Test
+  public void testWriterTaskRecordsLatency() throws Exception {
+    int numMessages = 100;
+    DatumCounterWriter writer = new DatumCounterWriter("");
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    BlockingQueue<StreamsDatum> inQueue = createInputQueue(numMessages);
+    long ingested = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10);
+    for(StreamsDatum datum : inQueue) {
+      datum.setIngestedNanos(ingested);
+    }
+    inQueue.add(new StreamsDatum("not ingested"));
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(writer.getDatumsCounted() != numMessages + 1) {
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 50) {
+        fail("Writer task failed to write "+numMessages+" datums in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdownNow();
+    assertEquals(numMessages, counter.getLatencyCount());
+    assertTrue(counter.getLatencyP50() >= 10.0);
+    assertTrue(counter.getLatencyP999() >= counter.getLatencyP50());
+    assertTrue(counter.getTimeP999() >= counter.getTimeP50());
+  }
+
+  @Test
+  public void testWriterTaskRecyclesPooledDatums() throws Exception {
+    int numMessages = 100;
+    StreamsDatumPool pool = new StreamsDatumPool(numMessages);
+    DatumCounterWriter writer = new DatumCounterWriter("");
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer, shortBatchFrequencyConfiguration());
+    task.setStreamsTaskCounter(new StreamsTaskCounter(MBEAN_ID, null, -1));
+    BlockingQueue<StreamsDatum> inQueue = new LinkedBlockingQueue<>();
+    for(int i=0; i < numMessages; ++i) {
+      inQueue.add(pool.acquire(i));
+    }
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(pool.size() != numMessages) {
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 50) {
+        fail("Writer task failed to recycle "+numMessages+" datums in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdown();
+    assertTrue("Writer task did not terminate.", service.awaitTermination(15, TimeUnit.SECONDS));
+    assertEquals(numMessages, writer.getDatumsCounted());
+    assertEquals(numMessages, pool.getCreated());
+    assertEquals("reused", pool.acquire("reused").getDocument());
+    assertEquals(1, pool.getReused());
+  }
+
+  @Test
+  public void testWriterTaskKeepsDatumsOfWritersThatMayHoldThem() throws Exception {
+    int numMessages = 100;
+    StreamsDatumPool pool = new StreamsDatumPool(numMessages);
+    final List<StreamsDatum> kept = Collections.synchronizedList(new ArrayList<StreamsDatum>());
+    StreamsPersistWriter writer = new DoNothingWriter() {
+      @Override
+      public void write(StreamsDatum entry) {
+        kept.add(entry);
+      }
+    };
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer, shortBatchFrequencyConfiguration());
+    task.setStreamsTaskCounter(new StreamsTaskCounter(MBEAN_ID, null, -1));
+    BlockingQueue<StreamsDatum> inQueue = new LinkedBlockingQueue<>();
+    for(int i=0; i < numMessages; ++i) {
+      inQueue.add(pool.acquire(i));
+    }
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(kept.size() != numMessages) {
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 50) {
+        fail("Writer task failed to write "+numMessages+" datums in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdown();
+    assertTrue("Writer task did not terminate.", service.awaitTermination(15, TimeUnit.SECONDS));
+    assertEquals(0, pool.size());
+    for(int i=0; i < numMessages; ++i) {
+      assertEquals(i, kept.get(i).getDocument());
+    }
+  }
+
+  @Test
+  public void testWriterTaskTimesEachDatumOfBatch() throws Exception {
+    int numMessages = 10;
+    StreamsPersistWriter writer = new DoNothingWriter() {
+      @Override
+      public void write(StreamsDatum entry) {
+        if(Integer.valueOf(0).equals(entry.getDocument())) {
+          Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        }
+      }
+    };
+    LocalRuntimeConfiguration configuration = shortBatchFrequencyConfiguration();
+    configuration.setDrainSize((long) numMessages);
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer, configuration);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    task.addInputQueue(createInputQueue(numMessages));
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(task.getDatumStatusCounter().getSuccess() != numMessages) {
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 50) {
+        fail("Writer task failed to write "+numMessages+" datums in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdown();
+    assertTrue("Writer task did not terminate.", service.awaitTermination(15, TimeUnit.SECONDS));
+    //the slow datum is not averaged away by the fast ones drained with it
+    assertTrue(counter.getMaxTime() >= 150);
+    assertTrue(counter.getTimeP50() < 100);
+  }
+
+  @Test
+  public void testWriterTaskCountsUnwrittenRemainderOfBatchAsFailed() throws Exception {
+    int numMessages = 10;
+    final RuntimeException failure = new RuntimeException("failed write");
+    StreamsPersistWriter writer = new DoNothingWriter() {
+      @Override
+      public void write(StreamsDatum entry) {
+        if(Integer.valueOf(3).equals(entry.getDocument())) {
+          throw failure;
+        }
+      }
+    };
+    LocalRuntimeConfiguration configuration = shortBatchFrequencyConfiguration();
+    configuration.setDrainSize((long) numMessages);
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer, configuration);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    BlockingQueue<StreamsDatum> inQueue = new LinkedBlockingQueue<>();
+    List<StreamsDatum> datums = new ArrayList<>();
+    for(int i=0; i < numMessages; ++i) {
+      datums.add(new StreamsDatum(i));
+    }
+    inQueue.addAll(datums);
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    service.shutdown();
+    assertTrue("Writer task did not stop after a failed write.", service.awaitTermination(15, TimeUnit.SECONDS));
+    assertEquals(numMessages, counter.getNumReceived());
+    assertEquals(3, task.getDatumStatusCounter().getSuccess());
+    assertEquals(numMessages - 3, task.getDatumStatusCounter().getFail());
+    assertEquals(numMessages - 3, counter.getNumUnhandledErrors());
+    for(int i=0; i < numMessages; ++i) {
+      StreamsDatum datum = datums.get(i);
+      if(i < 3) {
+        assertFalse(datum.getMetadata().containsKey("errors"));
+      } else {
+        assertSame(failure, ((Map) datum.getMetadata().get("errors")).get(writer.getClass().getCanonicalName()));
+      }
+    }
+  }
+
+  @Test
+  public void testDrainSize() {
+    LocalRuntimeConfiguration configuration = shortBatchFrequencyConfiguration();
+    configuration.setBatchSize(1000L);
+    assertEquals(1, BaseStreamsTask.resolveDrainSize(configuration, false));
+    assertEquals(1000, BaseStreamsTask.resolveDrainSize(configuration, true));
+    configuration.setDrainSize(50L);
+    assertEquals(50, BaseStreamsTask.resolveDrainSize(configuration, false));
+  }
+
+  @Test
+  public void testDrainSharesQueueWithOtherTasks() {
+    StreamsProcessorTask task = new StreamsProcessorTask(new BatchPassthroughDatumCounterProcessor(""), shortBatchFrequencyConfiguration());
+    BlockingQueue<StreamsDatum> bounded = new LinkedBlockingQueue<>(1000);
+    assertEquals(1000, task.shareOfQueue(1000, bounded));
+    EndOfStream endOfStream = new EndOfStream(1, 4);
+    task.setEndOfStream(endOfStream);
+    assertEquals(250, task.shareOfQueue(1000, bounded));
+    assertEquals(100, task.shareOfQueue(100, bounded));
+    assertEquals(1000, task.shareOfQueue(1000, new LinkedBlockingQueue<>()));
+    endOfStream.removeConsumer();
+    endOfStream.removeConsumer();
+    assertEquals(500, task.shareOfQueue(1000, bounded));
+  }
+
+  @Test
+  public void testBatchOutputsInheritFromCorrespondingInputs() {
+    List<StreamsDatum> inputs = new ArrayList<>();
+    List<StreamsDatum> outputs = new ArrayList<>();
+    for(int i=0; i < 3; ++i) {
+      StreamsDatum input = new StreamsDatum(i);
+      input.setIngestedNanos(100L - i);
+      inputs.add(input);
+      outputs.add(new StreamsDatum(i));
+    }
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", 0L);
+    inputs.get(1).setLineage(lineage);
+    BaseStreamsTask.inheritFromBatch(inputs, outputs);
+    for(int i=0; i < 3; ++i) {
+      assertEquals(100L - i, outputs.get(i).getIngestedNanos());
+    }
+    assertNull(outputs.get(0).getLineage());
+    assertEquals("provider", outputs.get(1).getLineage().getPath());
+    assertNotSame(lineage, outputs.get(1).getLineage());
+    assertNull(outputs.get(2).getLineage());
+  }
+
+  @Test
+  public void testBatchOutputsInheritOldestIngestion() {
+    List<StreamsDatum> inputs = new ArrayList<>();
+    for(int i=0; i < 3; ++i) {
+      StreamsDatum input = new StreamsDatum(i);
+      input.setIngestedNanos(100L - i);
+      inputs.add(input);
+    }
+    inputs.add(new StreamsDatum("not ingested"));
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", 0L);
+    inputs.get(2).setLineage(lineage);
+    StreamsDatum set = new StreamsDatum("set");
+    set.setIngestedNanos(7L);
+    List<StreamsDatum> outputs = Arrays.asList(new StreamsDatum("merged"), set);
+    BaseStreamsTask.inheritFromBatch(inputs, outputs);
+    assertEquals(98L, outputs.get(0).getIngestedNanos());
+    assertEquals(7L, set.getIngestedNanos());
+    assertNull(outputs.get(0).getLineage());
+    assertEquals("provider", set.getLineage().getPath());
+    assertNotSame(lineage, set.getLineage());
+  }
+
+  @Test
+  public void testFilteredBatchKeepsSampleRate() {
+    int batchSize = 1000;
+    List<StreamsDatum> inputs = new ArrayList<>();
+    List<StreamsDatum> outputs = new ArrayList<>();
+    for(int i=0; i < batchSize; ++i) {
+      inputs.add(new StreamsDatum(i));
+      if(i != 10) {
+        outputs.add(new StreamsDatum(i));
+      }
+    }
+    for(int sampled : new int[] {20, 500}) {
+      StreamsDatumLineage lineage = new StreamsDatumLineage();
+      lineage.enter("provider", 0L);
+      inputs.get(sampled).setLineage(lineage);
+    }
+    BaseStreamsTask.inheritFromBatch(inputs, outputs);
+    int carried = 0;
+    for(StreamsDatum output : outputs) {
+      if(output.getLineage() != null) {
+        ++carried;
+      }
+    }
+    assertEquals(2, carried);
+  }
+
+  @Test
+  public void testFilteredBatchKeepsPassedThroughLineage() {
+    List<StreamsDatum> inputs = new ArrayList<>();
+    for(int i=0; i < 4; ++i) {
+      inputs.add(new StreamsDatum(i));
+    }
+    StreamsDatumLineage lineage = new StreamsDatumLineage();
+    lineage.enter("provider", 0L);
+    inputs.get(3).setLineage(lineage);
+    List<StreamsDatum> outputs = Arrays.asList(new StreamsDatum("new"), inputs.get(3));
+    BaseStreamsTask.inheritFromBatch(inputs, outputs);
+    assertNull(outputs.get(0).getLineage());
+    assertSame(lineage, inputs.get(3).getLineage());
+  }
+
+  @Test
+  public void testBatchProcessorTask() {
+    int numMessages = 100;
+    BatchPassthroughDatumCounterProcessor processor = new BatchPassthroughDatumCounterProcessor("");
+    StreamsProcessorTask task = new StreamsProcessorTask(processor);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    BlockingQueue<StreamsDatum> outQueue = new LinkedBlockingQueue<>();
+    BlockingQueue<StreamsDatum> inQueue = createInputQueue(numMessages);
+    task.addOutputQueue(outQueue);
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(outQueue.size() != numMessages) {
+      Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 10) {
+        fail("Processor task failed to output "+numMessages+" in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdown();
+    try {
+      if(!service.awaitTermination(15, TimeUnit.SECONDS)){
+        service.shutdownNow();
+        fail("Service did not terminate.");
+      }
+    } catch (InterruptedException e) {
+      fail("Test Interrupted.");
+    }
+    assertEquals(numMessages, processor.getMessageCount());
+    assertTrue("Processor should have received the queue in batches", processor.getBatchCount() < numMessages);
+    assertEquals(numMessages, counter.getNumReceived());
+    assertEquals(numMessages, counter.getNumEmitted());
+    assertEquals(0, counter.getNumUnhandledErrors());
+  }
+
+  @Test
+  public void testBatchWriterTask() {
+    int numMessages = 100;
+    BatchDatumCounterWriter writer = new BatchDatumCounterWriter("");
+    StreamsPersistWriterTask task = new StreamsPersistWriterTask(writer);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    BlockingQueue<StreamsDatum> inQueue = createInputQueue(numMessages);
+    task.addInputQueue(inQueue);
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    int attempts = 0;
+    while(writer.getDatumsCounted() != numMessages) {
+      Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+      ++attempts;
+      if(attempts == 10) {
+        fail("Writer task failed to write "+numMessages+" in a timely fashion.");
+      }
+    }
+    task.stopTask();
+    service.shutdown();
+    try {
+      if(!service.awaitTermination(30, TimeUnit.SECONDS)){
+        service.shutdownNow();
+        fail("Service did not terminate.");
+      }
+    } catch (InterruptedException e) {
+      fail("Test Interrupted.");
+    }
+    assertTrue("Writer should have received the queue in batches", writer.getBatchCount() < numMessages);
+    assertEquals(numMessages, counter.getNumReceived());
+    assertEquals(0, counter.getNumUnhandledErrors());
+  }
+
+  /**
+   * Test that processor tasks sharing an inbound queue finish on their own once the end of stream marker arrives,
+   * and forward a marker of their own downstream.
+   */
+  @Test
+  public void testEndOfStream() {
+    int numMessages = 100;
+    BlockingQueue<StreamsDatum> inQueue = createInputQueue(numMessages);
+    inQueue.add(EndOfStream.MARKER);
+    BlockingQueue<StreamsDatum> outQueue = new LinkedBlockingQueue<>();
+    EndOfStream endOfStream = new EndOfStream(1, 2);
+    ExecutorService service = Executors.newFixedThreadPool(2);
+    for(int i=0; i < 2; ++i) {
+      StreamsProcessorTask task = new StreamsProcessorTask(new PassthroughDatumCounterProcessor(""));
+      task.setStreamsTaskCounter(new StreamsTaskCounter(MBEAN_ID + i, null, -1));
+      task.addInputQueue(inQueue);
+      task.addOutputQueue(outQueue);
+      task.setEndOfStream(endOfStream);
+      task.setSignalEndOfStream(true);
+      service.submit(task);
+    }
+    service.shutdown();
+    try {
+      //no call to stopTask, the tasks have to finish on their own
+      if(!service.awaitTermination(15, TimeUnit.SECONDS)){
+        service.shutdownNow();
+        fail("Tasks did not finish after the end of stream.");
+      }
+    } catch (InterruptedException e) {
+      fail("Test Interrupted.");
+    }
+    assertTrue(inQueue.isEmpty());
+    int markers = 0;
+    for(StreamsDatum datum : outQueue) {
+      if(EndOfStream.isMarker(datum)) {
+        ++markers;
+      }
+    }
+    assertEquals(2, markers);
+    assertEquals(numMessages + 2, outQueue.size());
+  }
+
   @Test
   public void testMergeTask() {
     int numMessages = 100;
@@ -298,6 +723,58 @@ public class BasicTasksTest {
     assertNotEquals(datum1, datum2);
   }
 
+  @Test
+  public void testBranchingClonesActivity() throws Exception {
+    Activity activity = new Activity();
+    activity.setId("id");
+    activity.setVerb("post");
+    StreamsDatum datum = new StreamsDatum(activity, "id");
+    datum.getMetadata().put("key", "value");
+    StreamsProcessorTask task = new StreamsProcessorTask(new PassthroughDatumCounterProcessor(""));
+    BlockingQueue<StreamsDatum> outQueue1 = new LinkedBlockingQueue<>();
+    BlockingQueue<StreamsDatum> outQueue2 = new LinkedBlockingQueue<>();
+    task.addOutputQueue(outQueue1);
+    task.addOutputQueue(outQueue2);
+    task.addToOutgoingQueue(datum);
+    StreamsDatum datum1 = outQueue1.poll();
+    StreamsDatum datum2 = outQueue2.poll();
+    assertSame(datum, datum1);
+    assertNotSame(datum1.getDocument(), datum2.getDocument());
+    assertEquals(datum1.getDocument(), datum2.getDocument());
+    assertEquals("id", datum2.getId());
+    assertEquals("value", datum2.getMetadata().get("key"));
+    ((Activity) datum2.getDocument()).setVerb("share");
+    assertEquals("post", activity.getVerb());
+  }
+
+  @Test
+  public void testBranchingShared() throws Exception {
+    LocalRuntimeConfiguration conf = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+    conf.setFanOutMode(LocalRuntimeConfiguration.FanOutMode.SHARED);
+    Activity activity = new Activity();
+    StreamsDatum datum = new StreamsDatum(activity, "id");
+    datum.getMetadata().put("key", "value");
+    StreamsProcessorTask task = new StreamsProcessorTask(new PassthroughDatumCounterProcessor(""), conf);
+    BlockingQueue<StreamsDatum> outQueue1 = new LinkedBlockingQueue<>();
+    BlockingQueue<StreamsDatum> outQueue2 = new LinkedBlockingQueue<>();
+    task.addOutputQueue(outQueue1);
+    task.addOutputQueue(outQueue2);
+    task.addToOutgoingQueue(datum);
+    StreamsDatum datum1 = outQueue1.poll();
+    StreamsDatum datum2 = outQueue2.poll();
+    assertNotSame(datum1, datum2);
+    assertSame(datum1.getDocument(), datum2.getDocument());
+    assertEquals("id", datum2.getId());
+    datum2.getMetadata().put("key", "changed");
+    assertEquals("value", datum1.getMetadata().get("key"));
+  }
+
+  private LocalRuntimeConfiguration shortBatchFrequencyConfiguration() {
+    LocalRuntimeConfiguration configuration = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+    configuration.setBatchFrequencyMs(10L);
+    return configuration;
+  }
+
   private BlockingQueue<StreamsDatum> createInputQueue(int numDatums) {
     BlockingQueue<StreamsDatum> queue = new LinkedBlockingQueue<>();
     for(int i=0; i < numDatums; ++i) {
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.tasks;
+
+import org.apache.streams.config.ComponentConfigurator;
+import org.apache.streams.config.StreamsConfiguration;
+import org.apache.streams.config.StreamsConfigurator;
+import org.apache.streams.core.StreamsDatum;
+import org.apache.streams.core.StreamsProcessor;
+import org.apache.streams.local.LocalRuntimeConfiguration;
+import org.apache.streams.local.counters.StreamsTaskCounter;
+import org.apache.streams.local.queues.EndOfStream;
+import org.apache.streams.local.test.processors.DoNothingProcessor;
+import org.apache.streams.local.test.processors.RandomDelayProcessor;
+import org.apache.streams.util.ComponentUtils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.apache.streams.local.tasks.StreamsParallelProcessorTask}
+ */
+public class StreamsParallelProcessorTaskTest {
+
+  private static final String MBEAN_ID = "test_id";
+  private static final Random RAND = new Random();
+
+  @After
+  public void removeLocalMBeans() {
+    try {
+      ComponentUtils.removeAllMBeansOfDomain("org.apache.streams.local");
+    } catch (Exception e) {
+      //No op.  proceed to next test
+    }
+  }
+
+  /**
+   * Test that an ordered task emits every datum in the order received while processing on several threads.
+   */
+  @Test
+  public void testOrdered() {
+    int numMessages = 100 + RAND.nextInt(900);
+    List<StreamsDatum> output = runTask(numMessages, 2 + RAND.nextInt(7), true);
+    assertEquals(numMessages, output.size());
+    for(int i=0; i < numMessages; ++i) {
+      assertEquals(i, output.get(i).getDocument());
+    }
+  }
+
+  /**
+   * Test that an unordered task emits every datum exactly once.
+   */
+  @Test
+  public void testUnordered() {
+    int numMessages = 100 + RAND.nextInt(900);
+    List<StreamsDatum> output = runTask(numMessages, 2 + RAND.nextInt(7), false);
+    assertEquals(numMessages, output.size());
+    Set<Object> seen = new HashSet<>();
+    for(StreamsDatum datum : output) {
+      assertTrue(seen.add(datum.getDocument()));
+    }
+  }
+
+  /**
+   * Test that a slow chunk does not keep an ordered task from processing the batches that follow it.
+   */
+  @Test
+  public void testOrderedSlowChunk() {
+    List<StreamsDatum> output = runSlowChunkTask(true);
+    for(int i=0; i < output.size(); ++i) {
+      assertEquals(i, output.get(i).getDocument());
+    }
+  }
+
+  /**
+   * Test that an unordered task emits the batches that follow a slow chunk before it.
+   */
+  @Test
+  public void testUnorderedSlowChunk() {
+    List<StreamsDatum> output = runSlowChunkTask(false);
+    assertNotEquals(0, output.get(0).getDocument());
+  }
+
+  private List<StreamsDatum> runSlowChunkTask(boolean ordered) {
+    WaitForLaterBatchProcessor.LATER_BATCH_PROCESSED = new CountDownLatch(1);
+    WaitForLaterBatchProcessor.WAITED = false;
+    LocalRuntimeConfiguration configuration = new ComponentConfigurator<>(LocalRuntimeConfiguration.class).detectConfiguration();
+    configuration.setBatchSize(10L);
+    configuration.setBatchFrequencyMs(10L);
+    List<StreamsDatum> output = runTask(new WaitForLaterBatchProcessor(), 100, 2, ordered, configuration);
+    assertTrue("a later batch was not processed while datum 0 was held", WaitForLaterBatchProcessor.WAITED);
+    assertEquals(100, output.size());
+    return output;
+  }
+
+  private List<StreamsDatum> runTask(int numMessages, int parallelism, boolean ordered) {
+    RandomDelayProcessor.THREADS.clear();
+    List<StreamsDatum> output = runTask(new RandomDelayProcessor(), numMessages, parallelism, ordered, StreamsConfigurator.detectConfiguration());
+    assertTrue(RandomDelayProcessor.THREADS.size() > 1);
+    return output;
+  }
+
+  private List<StreamsDatum> runTask(StreamsProcessor processor, int numMessages, int parallelism, boolean ordered, StreamsConfiguration configuration) {
+    BlockingQueue<StreamsDatum> inQueue = new LinkedBlockingQueue<>();
+    for(int i=0; i < numMessages; ++i) {
+      inQueue.add(new StreamsDatum(i));
+    }
+    inQueue.add(EndOfStream.MARKER);
+    BlockingQueue<StreamsDatum> outQueue = new LinkedBlockingQueue<>();
+    StreamsParallelProcessorTask task = new StreamsParallelProcessorTask(processor, parallelism, ordered, configuration);
+    StreamsTaskCounter counter = new StreamsTaskCounter(MBEAN_ID, null, -1);
+    task.setStreamsTaskCounter(counter);
+    task.addInputQueue(inQueue);
+    task.addOutputQueue(outQueue);
+    task.setEndOfStream(new EndOfStream(1, 1));
+    ExecutorService service = Executors.newFixedThreadPool(1);
+    service.submit(task);
+    service.shutdown();
+    try {
+      if(!service.awaitTermination(30, TimeUnit.SECONDS)) {
+        service.shutdownNow();
+        fail("Task did not finish after the end of stream.");
+      }
+    } catch (InterruptedException e) {
+      fail("Test Interrupted.");
+    }
+    assertEquals(numMessages, counter.getNumReceived());
+    assertEquals(numMessages, counter.getNumEmitted());
+    assertEquals(0, counter.getNumUnhandledErrors());
+    return new ArrayList<>(outQueue);
+  }
+
+  /**
+   * Holds datum 0 until a datum of the second batch has been processed.
+   */
+  public static class WaitForLaterBatchProcessor extends DoNothingProcessor {
+
+    static volatile CountDownLatch LATER_BATCH_PROCESSED;
+    static volatile boolean WAITED;
+
+    @Override
+    public List<StreamsDatum> process(StreamsDatum entry) {
+      if(Integer.valueOf(0).equals(entry.getDocument())) {
+        try {
+          WAITED = LATER_BATCH_PROCESSED.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else if(Integer.valueOf(15).equals(entry.getDocument())) {
+        LATER_BATCH_PROCESSED.countDown();
+      }
+      return super.process(entry);
+    }
+  }
+
+}
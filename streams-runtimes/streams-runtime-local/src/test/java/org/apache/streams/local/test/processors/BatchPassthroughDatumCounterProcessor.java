@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.streams.local.test.processors;
+
+import org.apache.streams.core.StreamsBatchProcessor;
+import org.apache.streams.core.StreamsDatum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PassthroughDatumCounterProcessor} that also counts the batches it receives.
+ */
+public class BatchPassthroughDatumCounterProcessor extends PassthroughDatumCounterProcessor implements StreamsBatchProcessor {
+
+  private int batchCount = 0;
+
+  public BatchPassthroughDatumCounterProcessor(String procId) {
+    super(procId);
+  }
+
+  @Override
+  public List<StreamsDatum> process(List<StreamsDatum> entries) {
+    ++this.batchCount;
+    List<StreamsDatum> result = new ArrayList<>(entries.size());
+    for(StreamsDatum entry : entries) {
+      result.addAll(process(entry));
+    }
+    return result;
+  }
+
+  public int getBatchCount() {
+    return this.batchCount;
+  }
+}
@@ -19,7 +19,7 @@
 package org.apache.streams.local.test.writer;
 
 import org.apache.streams.core.StreamsDatum;
-import org.apache.streams.core.StreamsPersistWriter;
+import org.apache.streams.core.StreamsRecyclingPersistWriter;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -33,7 +33,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  *
  */
-public class DatumCounterWriter implements StreamsPersistWriter{
+public class DatumCounterWriter implements StreamsRecyclingPersistWriter {
 
   @Override
   public String getId() {
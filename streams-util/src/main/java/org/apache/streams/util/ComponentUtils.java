@@ -27,6 +27,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
@@ -126,4 +127,22 @@ public class ComponentUtils {
     }
   }
 
+  /**
+   * Unregisters an object from the local MBeanServer, if one is registered under the name.  Throws runtime exception on
+   * errors.
+   * @param name name the bean was registered with
+   */
+  public static void unregisterLocalMBean(String name) {
+    try {
+      ObjectName objectName = new ObjectName(name);
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      if (mbs.isRegistered(objectName)) {
+        mbs.unregisterMBean(objectName);
+      }
+    } catch (MalformedObjectNameException | InstanceNotFoundException | MBeanRegistrationException ex) {
+      LOGGER.error("Failed to unregister MXBean : {}", ex);
+      throw new RuntimeException(ex);
+    }
+  }
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.streams.verbs;
+
+import org.apache.streams.pojo.json.Activity;
+import org.apache.streams.pojo.json.ActivityObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index over a Set of VerbDefinitions, keyed by verb, then by the objectTypes of an
+ * activity's actor, object, target and provider.
+ *
+ * <p></p>
+ * An activity's match depends only on its verb and those four objectTypes, so each
+ * distinct combination is resolved once against the ObjectCombinations of its verb,
+ * wildcards included, and the immutable result is shared by every later activity
+ * with the same combination.
+ */
+public class VerbDefinitionIndex {
+
+  static final int MAX_CACHED_SIGNATURES = 4096;
+
+  /*
+    Stand-ins for an activity object that is missing, or present without an objectType.
+    They can't collide with an objectType because they are compared by identity.
+   */
+  private static final String ABSENT = new String("absent");
+  private static final String UNTYPED = new String("untyped");
+
+  private final Map<String, List<VerbDefinition>> definitionsByVerb = new HashMap<>();
+
+  private final Map<Signature, Match> matches = new ConcurrentHashMap<>();
+
+  /**
+   * Build an index over a Set of VerbDefinitions, which must not change afterwards.
+   * @param verbDefinitionSet Set of VerbDefinition
+   */
+  public VerbDefinitionIndex(Set<VerbDefinition> verbDefinitionSet) {
+    for ( VerbDefinition verbDefinition : verbDefinitionSet ) {
+      if ( verbDefinition.getValue() != null ) {
+        List<VerbDefinition> definitions = definitionsByVerb.get(verbDefinition.getValue());
+        if ( definitions == null ) {
+          definitions = new ArrayList<>();
+          definitionsByVerb.put(verbDefinition.getValue(), definitions);
+        }
+        definitions.add(verbDefinition);
+      }
+    }
+  }
+
+  /**
+   * whether this Activity matches any indexed VerbDefinition.
+   * @param activity Activity
+   * @return true or false
+   */
+  public boolean matches(Activity activity) {
+    return lookup(activity).verbDefinitions.size() > 0;
+  }
+
+  /**
+   * the indexed VerbDefinitions this Activity matches, each holding only its matching ObjectCombinations.
+   * @param activity Activity
+   * @return immutable Set of VerbDefinition, shared between calls and not to be modified
+   */
+  public Set<VerbDefinition> matchingVerbDefinitions(Activity activity) {
+    return lookup(activity).verbDefinitions;
+  }
+
+  /**
+   * the ObjectCombinations this Activity matches, most specific first.
+   * @param activity Activity
+   * @return immutable List of ObjectCombination, shared between calls and not to be modified
+   */
+  public List<ObjectCombination> matchingObjectCombinations(Activity activity) {
+    return lookup(activity).objectCombinations;
+  }
+
+  private Match lookup(Activity activity) {
+    List<VerbDefinition> definitions = definitionsByVerb.get(activity.getVerb());
+    if ( definitions == null ) {
+      return Match.NONE;
+    }
+    Signature signature = new Signature(activity);
+    Match match = matches.get(signature);
+    if ( match == null ) {
+      match = resolve(activity, definitions);
+      if ( matches.size() >= MAX_CACHED_SIGNATURES ) {
+        matches.clear();
+      }
+      matches.put(signature, match);
+    }
+    return match;
+  }
+
+  private static Match resolve(Activity activity, List<VerbDefinition> definitions) {
+    Set<VerbDefinition> verbDefinitions = new LinkedHashSet<>();
+    List<ObjectCombination> objectCombinations = new ArrayList<>();
+    for ( VerbDefinition verbDefinition : definitions ) {
+      List<ObjectCombination> matching = new ArrayList<>();
+      for ( ObjectCombination criteria : verbDefinition.getObjects() ) {
+        if ( VerbDefinitionResolver.filter(activity, criteria) ) {
+          matching.add(criteria);
+        }
+      }
+      if ( matching.size() == verbDefinition.getObjects().size() && matching.size() > 0 ) {
+        verbDefinitions.add(verbDefinition);
+      } else if ( matching.size() > 0 ) {
+        verbDefinitions.add(new VerbDefinition()
+            .withObjectType(verbDefinition.getObjectType())
+            .withId(verbDefinition.getId())
+            .withValue(verbDefinition.getValue())
+            .withDisplayName(verbDefinition.getDisplayName())
+            .withSynonyms(verbDefinition.getSynonyms())
+            .withHypernyms(verbDefinition.getHypernyms())
+            .withObjects(Collections.unmodifiableList(matching)));
+      }
+      objectCombinations.addAll(matching);
+    }
+    objectCombinations.sort(new ObjectCombinationSpecificOrdering(activity));
+    return new Match(Collections.unmodifiableSet(verbDefinitions), Collections.unmodifiableList(objectCombinations));
+  }
+
+  private static class Match {
+
+    static final Match NONE = new Match(Collections.<VerbDefinition>emptySet(), Collections.<ObjectCombination>emptyList());
+
+    final Set<VerbDefinition> verbDefinitions;
+    final List<ObjectCombination> objectCombinations;
+
+    Match(Set<VerbDefinition> verbDefinitions, List<ObjectCombination> objectCombinations) {
+      this.verbDefinitions = verbDefinitions;
+      this.objectCombinations = objectCombinations;
+    }
+  }
+
+  /*
+    Everything about an activity that VerbDefinitionResolver.filter and
+    ObjectCombinationSpecificOrdering look at.
+   */
+  private static class Signature {
+
+    private final String[] types;
+    private final int hash;
+
+    Signature(Activity activity) {
+      types = new String[] {
+          activity.getVerb(),
+          typeOf(activity.getActor()),
+          typeOf(activity.getObject()),
+          typeOf(activity.getTarget()),
+          typeOf(activity.getProvider())
+      };
+      int result = 1;
+      for ( String type : types ) {
+        result = 31 * result + (type == ABSENT ? 1 : type == UNTYPED ? 2 : type.hashCode());
+      }
+      hash = result;
+    }
+
+    private static String typeOf(ActivityObject activityObject) {
+      if ( activityObject == null ) {
+        return ABSENT;
+      } else if ( activityObject.getObjectType() == null ) {
+        return UNTYPED;
+      } else {
+        return activityObject.getObjectType();
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if ( !(other instanceof Signature) ) {
+        return false;
+      }
+      String[] otherTypes = ((Signature) other).types;
+      for ( int i = 0; i < types.length; i++ ) {
+        String type = types[i];
+        String otherType = otherTypes[i];
+        boolean marker = type == ABSENT || type == UNTYPED;
+        boolean otherMarker = otherType == ABSENT || otherType == UNTYPED;
+        if ( marker || otherMarker ? type != otherType : !type.equals(otherType) ) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
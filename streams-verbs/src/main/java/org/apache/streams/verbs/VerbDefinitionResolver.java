@@ -20,16 +20,12 @@ package org.apache.streams.verbs;
 
 import org.apache.streams.pojo.json.Activity;
 import org.apache.streams.pojo.json.ActivityObject;
-import org.apache.streams.util.SerializationUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class VerbDefinitionResolver {
 
@@ -37,6 +33,8 @@ public class VerbDefinitionResolver {
 
   protected Set<VerbDefinition> verbDefinitionSet;
 
+  private volatile VerbDefinitionIndex index;
+
   public VerbDefinitionResolver() {
     // get with reflection
   }
@@ -49,55 +47,40 @@ public class VerbDefinitionResolver {
   /**
    * return all matching VerbDefinitions for an Activity.
    * @param activity Activity
-   * @return List of VerbDefinition
+   * @return immutable Set of VerbDefinition, each holding only its matching ObjectCombinations
    */
   public Set<VerbDefinition> matchingVerbDefinitions(Activity activity) {
-
-    // ConcurrentHashSet is preferable, but it's only in guava 15+
-    // spark 1.5.0 uses guava 14 so for the moment this is the workaround
-    // Set<VerbDefinition> matches = Sets.newConcurrentHashSet();
-    Set<VerbDefinition> matches = Collections.newSetFromMap(new ConcurrentHashMap<VerbDefinition, Boolean>());
-
-    for (VerbDefinition verbDefinition : verbDefinitionSet) {
-      VerbDefinition verbDefinitionCopy = SerializationUtil.cloneBySerialization(verbDefinition);
-      if ( activity.getVerb().equals(verbDefinition.getValue())) {
-        for ( ObjectCombination criteria : verbDefinitionCopy.getObjects()) {
-          if (!filter(activity, criteria)) {
-            verbDefinitionCopy.getObjects().remove(criteria);
-          }
-        }
-        if ( verbDefinitionCopy.getObjects().size() > 0) {
-          matches.add(verbDefinitionCopy);
-        }
-      }
-    }
-
-    return matches;
-
+    return index().matchingVerbDefinitions(activity);
   }
 
   /**
    * return all matching ObjectCombinations for an Activity.
    * @param activity Activity
-   * @return List of ObjectCombination
+   * @return immutable List of ObjectCombination, most specific first
    */
   public List<ObjectCombination> matchingObjectCombinations(Activity activity) {
+    return index().matchingObjectCombinations(activity);
+  }
 
-    List<ObjectCombination> results = new ArrayList<>();
+  /**
+   * whether this Activity matches any VerbDefinition.
+   * @param activity Activity
+   * @return true or false
+   */
+  public boolean matches(Activity activity) {
+    return index().matches(activity);
+  }
 
-    for ( VerbDefinition verbDefinition : verbDefinitionSet ) {
-      if ( activity.getVerb().equals(verbDefinition.getValue())) {
-        for ( ObjectCombination criteria : verbDefinition.getObjects()) {
-          if (filter(activity, criteria)) {
-            results.add(criteria);
-          }
-        }
-      }
+  /*
+    Built on first use, as verbDefinitionSet may be filled in after construction.
+   */
+  protected VerbDefinitionIndex index() {
+    VerbDefinitionIndex current = index;
+    if ( current == null ) {
+      current = new VerbDefinitionIndex(verbDefinitionSet);
+      index = current;
     }
-
-    results.sort(new ObjectCombinationSpecificOrdering(activity));
-
-    return results;
+    return current;
   }
 
   /**
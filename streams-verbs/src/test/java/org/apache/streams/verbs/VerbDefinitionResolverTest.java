@@ -109,4 +109,40 @@ public class VerbDefinitionResolverTest {
     assert result6.size() == 4;
     assert actor.getObjects().get(0).equals(result6.get(0));
   }
-}
\ No newline at end of file
+
+  /**
+   * Test that matches are narrowed to matching ObjectCombinations and shared between activities.
+   */
+  @Test
+  public void testMatchingVerbDefinitionsPartialAndShared() throws Exception {
+    VerbDefinition definition = new VerbDefinition()
+        .withId("partial")
+        .withValue("post")
+        .withObjects(Stream.of(
+            new ObjectCombination().withProvider("application").withProviderRequired(true),
+            new ObjectCombination()
+        ).collect(Collectors.toList()));
+    VerbDefinitionResolver resolver = new VerbDefinitionResolver(Stream.of(definition).collect(Collectors.toSet()));
+    Activity activity1 = mapper.readValue("{\"id\":\"1\",\"verb\":\"post\"}\n", Activity.class);
+    Set<VerbDefinition> result1 = resolver.matchingVerbDefinitions(activity1);
+    assert result1.size() == 1;
+    assert result1.iterator().next().getObjects().size() == 1;
+    assert result1.iterator().next().getObjects().get(0).equals(definition.getObjects().get(1));
+    assert definition.getObjects().size() == 2;
+    Activity activity2 = mapper.readValue("{\"id\":\"2\",\"verb\":\"post\"}\n", Activity.class);
+    assert resolver.matchingVerbDefinitions(activity2) == result1;
+    try {
+      result1.clear();
+      assert false;
+    } catch (UnsupportedOperationException expected) {
+      // results are shared, so they can't be modified
+    }
+    Activity activity3 = mapper.readValue("{\"id\":\"3\",\"verb\":\"post\",\"provider\":{\"id\":\"providerId\",\"objectType\":\"application\"}}\n", Activity.class);
+    Set<VerbDefinition> result3 = resolver.matchingVerbDefinitions(activity3);
+    assert result3.size() == 1;
+    assert result3.contains(definition);
+    assert resolver.matches(activity3);
+    Activity activity4 = mapper.readValue("{\"id\":\"4\",\"verb\":\"follow\"}\n", Activity.class);
+    assert !resolver.matches(activity4);
+  }
+}